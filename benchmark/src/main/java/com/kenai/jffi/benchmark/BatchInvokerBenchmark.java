@@ -0,0 +1,63 @@
+package com.kenai.jffi.benchmark;
+
+import com.kenai.jffi.CallContext;
+import com.kenai.jffi.Invoker;
+import com.kenai.jffi.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares calling a two parameter function in a Java loop against {@link Invoker#invokeBatch}.
+ * Scores are per native call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchInvokerBenchmark {
+    private static final int COUNT = 1024;
+
+    private final Invoker invoker = Invoker.getInstance();
+    private final long[] args = new long[COUNT * 2];
+    private final long[] results = new long[COUNT];
+    private CallContext context;
+    private long function;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkLibrary.getCallContext(Type.SINT64, Type.SINT64, 2, false, false);
+        function = BenchmarkLibrary.findFunction("s64", "s64", 2);
+        for (int i = 0; i < args.length; i++) {
+            args[i] = i;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long[] loop() {
+        for (int i = 0; i < COUNT; i++) {
+            results[i] = invoker.invokeL2(context, function, args[i * 2], args[i * 2 + 1]);
+        }
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long[] batch() {
+        invoker.invokeBatch(context, function, args, COUNT, results);
+        return results;
+    }
+}
@@ -0,0 +1,74 @@
+package com.kenai.jffi.benchmark;
+
+import com.kenai.jffi.CallContext;
+import com.kenai.jffi.CallingConvention;
+import com.kenai.jffi.Library;
+import com.kenai.jffi.Platform;
+import com.kenai.jffi.Type;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Locates the <code>bench_*</code> functions in the native test library.
+ *
+ * The library is loaded from the path in the <code>jffi.benchmark.libtest</code> system property,
+ * or from <code>build/libtest.so</code> (or the platform equivalent) relative to the working directory.
+ */
+final class BenchmarkLibrary {
+    static final String LIBTEST_PROPERTY = "jffi.benchmark.libtest";
+
+    private BenchmarkLibrary() {}
+
+    private static final class SingletonHolder {
+        static final Library LIBTEST = load();
+
+        private static Library load() {
+            String path = System.getProperty(LIBTEST_PROPERTY,
+                    new File("build", Platform.getPlatform().mapLibraryName("test")).getAbsolutePath());
+            Library library = Library.getCachedInstance(path, Library.LAZY | Library.LOCAL);
+            if (library == null) {
+                throw new UnsatisfiedLinkError(String.format("could not load '%s': %s", path, Library.getLastError()));
+            }
+
+            return library;
+        }
+    }
+
+    static long findSymbol(String name) {
+        long address = SingletonHolder.LIBTEST.getSymbolAddress(name);
+        if (address == 0L) {
+            throw new UnsatisfiedLinkError("could not locate symbol '" + name + "'");
+        }
+
+        return address;
+    }
+
+    /**
+     * Gets the name of the benchmark function taking <code>arity</code> parameters of <code>parameterType</code>
+     * and returning <code>returnType</code>, e.g. <code>bench_s32s32_v</code>.
+     */
+    static String functionName(String returnType, String parameterType, int arity) {
+        StringBuilder sb = new StringBuilder("bench_");
+        if (arity == 0) {
+            sb.append('v');
+        }
+        for (int i = 0; i < arity; i++) {
+            sb.append(parameterType);
+        }
+
+        return sb.append('_').append(returnType).toString();
+    }
+
+    static long findFunction(String returnType, String parameterType, int arity) {
+        return findSymbol(functionName(returnType, parameterType, arity));
+    }
+
+    static CallContext getCallContext(Type returnType, Type parameterType, int arity,
+                                      boolean saveErrno, boolean faultProtect) {
+        Type[] parameterTypes = new Type[arity];
+        Arrays.fill(parameterTypes, parameterType);
+
+        return CallContext.getCallContext(returnType, parameterTypes, CallingConvention.DEFAULT, saveErrno, faultProtect);
+    }
+}
@@ -0,0 +1,123 @@
+package com.kenai.jffi.benchmark;
+
+import com.kenai.jffi.CallContext;
+import com.kenai.jffi.DirectInvocationBuffer;
+import com.kenai.jffi.HeapInvocationBuffer;
+import com.kenai.jffi.Invoker;
+import com.kenai.jffi.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generic {@link HeapInvocationBuffer} paths: <code>invokeInt</code>, <code>invokeLong</code>,
+ * <code>invokeFloat</code> and <code>invokeDouble</code>.
+ *
+ * Each call encodes a fresh buffer, since that is what callers of these paths do today.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HeapInvocationBufferBenchmark {
+    @Param({ "0", "1", "2", "3", "4", "5", "6" })
+    public int arity;
+
+    @Param({ "true", "false" })
+    public boolean saveErrno;
+
+    @Param({ "false", "true" })
+    public boolean faultProtect;
+
+    private final Invoker invoker = Invoker.getInstance();
+    private CallContext intContext, longContext, floatContext, doubleContext;
+    private long intFunction, longFunction, floatFunction, doubleFunction;
+
+    @Setup
+    public void setup() {
+        intContext = BenchmarkLibrary.getCallContext(Type.SINT32, Type.SINT32, arity, saveErrno, faultProtect);
+        intFunction = BenchmarkLibrary.findFunction("s32", "s32", arity);
+        longContext = BenchmarkLibrary.getCallContext(Type.SINT64, Type.SINT64, arity, saveErrno, faultProtect);
+        longFunction = BenchmarkLibrary.findFunction("s64", "s64", arity);
+        floatContext = BenchmarkLibrary.getCallContext(Type.FLOAT, Type.FLOAT, arity, saveErrno, faultProtect);
+        floatFunction = BenchmarkLibrary.findFunction("f32", "f32", arity);
+        doubleContext = BenchmarkLibrary.getCallContext(Type.DOUBLE, Type.DOUBLE, arity, saveErrno, faultProtect);
+        doubleFunction = BenchmarkLibrary.findFunction("f64", "f64", arity);
+    }
+
+    @Benchmark
+    public int invokeInt() {
+        HeapInvocationBuffer buffer = new HeapInvocationBuffer(intContext);
+        for (int i = 0; i < arity; i++) {
+            buffer.putInt(i);
+        }
+
+        return invoker.invokeInt(intContext, intFunction, buffer);
+    }
+
+    @Benchmark
+    public int invokeIntPooled() {
+        HeapInvocationBuffer buffer = HeapInvocationBuffer.acquire(intContext);
+        try {
+            for (int i = 0; i < arity; i++) {
+                buffer.putInt(i);
+            }
+
+            return invoker.invokeInt(intContext, intFunction, buffer);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Benchmark
+    public int invokeIntDirect() {
+        DirectInvocationBuffer buffer = DirectInvocationBuffer.forCurrentThread(intContext);
+        for (int i = 0; i < arity; i++) {
+            buffer.putInt(i);
+        }
+
+        return invoker.invokeInt(intContext, intFunction, buffer);
+    }
+
+    @Benchmark
+    public long invokeLong() {
+        HeapInvocationBuffer buffer = new HeapInvocationBuffer(longContext);
+        for (int i = 0; i < arity; i++) {
+            buffer.putLong(i);
+        }
+
+        return invoker.invokeLong(longContext, longFunction, buffer);
+    }
+
+    @Benchmark
+    public float invokeFloat() {
+        HeapInvocationBuffer buffer = new HeapInvocationBuffer(floatContext);
+        for (int i = 0; i < arity; i++) {
+            buffer.putFloat(i);
+        }
+
+        return invoker.invokeFloat(floatContext, floatFunction, buffer);
+    }
+
+    @Benchmark
+    public double invokeDouble() {
+        HeapInvocationBuffer buffer = new HeapInvocationBuffer(doubleContext);
+        for (int i = 0; i < arity; i++) {
+            buffer.putDouble(i);
+        }
+
+        return invoker.invokeDouble(doubleContext, doubleFunction, buffer);
+    }
+}
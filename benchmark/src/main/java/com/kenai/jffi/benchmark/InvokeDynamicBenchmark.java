@@ -0,0 +1,89 @@
+package com.kenai.jffi.benchmark;
+
+import com.kenai.jffi.CallContext;
+import com.kenai.jffi.InvokeDynamicSupport;
+import com.kenai.jffi.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the method handles returned by {@link InvokeDynamicSupport#getFastNumericInvoker}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InvokeDynamicBenchmark {
+    @Param({ "0", "1", "2", "3", "4", "5", "6" })
+    public int arity;
+
+    @Param({ "true", "false" })
+    public boolean saveErrno;
+
+    @Param({ "false", "true" })
+    public boolean faultProtect;
+
+    private MethodHandle intHandle, longHandle;
+    private int i = 1;
+    private long l = 1L;
+
+    @Setup
+    public void setup() {
+        intHandle = getMethodHandle(Type.SINT32, "s32");
+        longHandle = getMethodHandle(Type.SINT64, "s64");
+    }
+
+    private MethodHandle getMethodHandle(Type type, String typeName) {
+        CallContext context = BenchmarkLibrary.getCallContext(type, type, arity, saveErrno, faultProtect);
+        InvokeDynamicSupport.Invoker invoker = InvokeDynamicSupport.getFastNumericInvoker(context,
+                BenchmarkLibrary.findFunction(typeName, typeName, arity));
+        if (invoker == null) {
+            throw new UnsupportedOperationException("no fast numeric invoker for " + context.getReturnType()
+                    + " with " + arity + " parameters");
+        }
+
+        return (MethodHandle) invoker.getMethodHandle();
+    }
+
+    @Benchmark
+    public int invokeInt() throws Throwable {
+        switch (arity) {
+            case 0: return (int) intHandle.invokeExact();
+            case 1: return (int) intHandle.invokeExact(i);
+            case 2: return (int) intHandle.invokeExact(i, i);
+            case 3: return (int) intHandle.invokeExact(i, i, i);
+            case 4: return (int) intHandle.invokeExact(i, i, i, i);
+            case 5: return (int) intHandle.invokeExact(i, i, i, i, i);
+            case 6: return (int) intHandle.invokeExact(i, i, i, i, i, i);
+            default: throw new IllegalStateException("unsupported arity " + arity);
+        }
+    }
+
+    @Benchmark
+    public long invokeLong() throws Throwable {
+        switch (arity) {
+            case 0: return (long) longHandle.invokeExact();
+            case 1: return (long) longHandle.invokeExact(l);
+            case 2: return (long) longHandle.invokeExact(l, l);
+            case 3: return (long) longHandle.invokeExact(l, l, l);
+            case 4: return (long) longHandle.invokeExact(l, l, l, l);
+            case 5: return (long) longHandle.invokeExact(l, l, l, l, l);
+            case 6: return (long) longHandle.invokeExact(l, l, l, l, l, l);
+            default: throw new IllegalStateException("unsupported arity " + arity);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.kenai.jffi.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs the benchmarks with the GC profiler enabled, so each result reports the
+ * allocation rate (<code>gc.alloc.rate.norm</code>, bytes per call) alongside ns/call.
+ *
+ * Any standard JMH command line options may be given, e.g. a benchmark name regex.
+ */
+public final class Main {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cmdLine = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(cmdLine);
+        options.addProfiler(GCProfiler.class);
+
+        // Forked benchmark JVMs do not inherit system properties, so pass the libtest location along
+        String libtest = System.getProperty(BenchmarkLibrary.LIBTEST_PROPERTY);
+        if (libtest != null) {
+            List<String> jvmArgs = new ArrayList<String>(cmdLine.getJvmArgsAppend().orElse(Collections.<String>emptyList()));
+            jvmArgs.add("-D" + BenchmarkLibrary.LIBTEST_PROPERTY + "=" + libtest);
+            options.jvmArgsAppend(jvmArgs.toArray(new String[jvmArgs.size()]));
+        }
+
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,123 @@
+package com.kenai.jffi.benchmark;
+
+import com.kenai.jffi.CallContext;
+import com.kenai.jffi.Invoker;
+import com.kenai.jffi.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link Invoker} <code>invokeI*</code>, <code>invokeL*</code> and <code>invokeN*</code> families,
+ * with and without errno saving and fault protection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NumericInvokerBenchmark {
+    @Param({ "0", "1", "2", "3", "4", "5", "6" })
+    public int arity;
+
+    @Param({ "true", "false" })
+    public boolean saveErrno;
+
+    @Param({ "false", "true" })
+    public boolean faultProtect;
+
+    private final Invoker invoker = Invoker.getInstance();
+    private CallContext intContext, longContext;
+    private long intFunction, longFunction;
+    private int i = 1;
+    private long l = 1L;
+
+    @Setup
+    public void setup() {
+        intContext = BenchmarkLibrary.getCallContext(Type.SINT32, Type.SINT32, arity, saveErrno, faultProtect);
+        intFunction = BenchmarkLibrary.findFunction("s32", "s32", arity);
+        longContext = BenchmarkLibrary.getCallContext(Type.SINT64, Type.SINT64, arity, saveErrno, faultProtect);
+        longFunction = BenchmarkLibrary.findFunction("s64", "s64", arity);
+    }
+
+    @Benchmark
+    public int invokeI() {
+        switch (arity) {
+            case 0: return invoker.invokeI0(intContext, intFunction);
+            case 1: return invoker.invokeI1(intContext, intFunction, i);
+            case 2: return invoker.invokeI2(intContext, intFunction, i, i);
+            case 3: return invoker.invokeI3(intContext, intFunction, i, i, i);
+            case 4: return invoker.invokeI4(intContext, intFunction, i, i, i, i);
+            case 5: return invoker.invokeI5(intContext, intFunction, i, i, i, i, i);
+            case 6: return invoker.invokeI6(intContext, intFunction, i, i, i, i, i, i);
+            default: throw new IllegalStateException("unsupported arity " + arity);
+        }
+    }
+
+    @Benchmark
+    public int invokeINoErrno() {
+        switch (arity) {
+            case 0: return invoker.invokeI0NoErrno(intContext, intFunction);
+            case 1: return invoker.invokeI1NoErrno(intContext, intFunction, i);
+            case 2: return invoker.invokeI2NoErrno(intContext, intFunction, i, i);
+            case 3: return invoker.invokeI3NoErrno(intContext, intFunction, i, i, i);
+            case 4: return invoker.invokeI4NoErrno(intContext, intFunction, i, i, i, i);
+            case 5: return invoker.invokeI5NoErrno(intContext, intFunction, i, i, i, i, i);
+            case 6: return invoker.invokeI6NoErrno(intContext, intFunction, i, i, i, i, i, i);
+            default: throw new IllegalStateException("unsupported arity " + arity);
+        }
+    }
+
+    @Benchmark
+    public long invokeL() {
+        switch (arity) {
+            case 0: return invoker.invokeL0(longContext, longFunction);
+            case 1: return invoker.invokeL1(longContext, longFunction, l);
+            case 2: return invoker.invokeL2(longContext, longFunction, l, l);
+            case 3: return invoker.invokeL3(longContext, longFunction, l, l, l);
+            case 4: return invoker.invokeL4(longContext, longFunction, l, l, l, l);
+            case 5: return invoker.invokeL5(longContext, longFunction, l, l, l, l, l);
+            case 6: return invoker.invokeL6(longContext, longFunction, l, l, l, l, l, l);
+            default: throw new IllegalStateException("unsupported arity " + arity);
+        }
+    }
+
+    @Benchmark
+    public long invokeLNoErrno() {
+        switch (arity) {
+            case 0: return invoker.invokeL0NoErrno(longContext, longFunction);
+            case 1: return invoker.invokeL1NoErrno(longContext, longFunction, l);
+            case 2: return invoker.invokeL2NoErrno(longContext, longFunction, l, l);
+            case 3: return invoker.invokeL3NoErrno(longContext, longFunction, l, l, l);
+            case 4: return invoker.invokeL4NoErrno(longContext, longFunction, l, l, l, l);
+            case 5: return invoker.invokeL5NoErrno(longContext, longFunction, l, l, l, l, l);
+            case 6: return invoker.invokeL6NoErrno(longContext, longFunction, l, l, l, l, l, l);
+            default: throw new IllegalStateException("unsupported arity " + arity);
+        }
+    }
+
+    @Benchmark
+    public long invokeN() {
+        switch (arity) {
+            case 0: return invoker.invokeN0(longContext, longFunction);
+            case 1: return invoker.invokeN1(longContext, longFunction, l);
+            case 2: return invoker.invokeN2(longContext, longFunction, l, l);
+            case 3: return invoker.invokeN3(longContext, longFunction, l, l, l);
+            case 4: return invoker.invokeN4(longContext, longFunction, l, l, l, l);
+            case 5: return invoker.invokeN5(longContext, longFunction, l, l, l, l, l);
+            case 6: return invoker.invokeN6(longContext, longFunction, l, l, l, l, l, l);
+            default: throw new IllegalStateException("unsupported arity " + arity);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.kenai.jffi.benchmark;
+
+import com.kenai.jffi.CallContext;
+import com.kenai.jffi.Function;
+import com.kenai.jffi.HeapInvocationBuffer;
+import com.kenai.jffi.Invoker;
+import com.kenai.jffi.ObjectParameterInfo;
+import com.kenai.jffi.ObjectParameterInvoker;
+import com.kenai.jffi.ObjectParameterStrategy;
+import com.kenai.jffi.ObjectParameterType;
+import com.kenai.jffi.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures passing java heap arrays as pointer parameters, via the {@link ObjectParameterInvoker},
+ * the strategy based {@link Invoker} <code>invokeNxOy</code> methods and a {@link HeapInvocationBuffer}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ObjectParameterBenchmark {
+    @Param({ "1", "2", "3" })
+    public int objectCount;
+
+    @Param({ "16", "4096" })
+    public int length;
+
+    @Param({ "IN", "INOUT", "PINNED" })
+    public String direction;
+
+    @Param({ "true", "false" })
+    public boolean saveErrno;
+
+    private final Invoker invoker = Invoker.getInstance();
+    private final ObjectParameterInvoker objectParameterInvoker = ObjectParameterInvoker.getInstance();
+    private final ObjectParameterStrategy<byte[]> strategy = new ByteArrayStrategy();
+    private CallContext context;
+    private Function function;
+    private byte[] a1, a2, a3;
+    private int ioflags;
+    private ObjectParameterInfo info1, info2, info3;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkLibrary.getCallContext(Type.VOID, Type.POINTER, objectCount, saveErrno, false);
+        function = new Function(BenchmarkLibrary.findFunction("v", "P", objectCount), context);
+        a1 = new byte[length];
+        a2 = new byte[length];
+        a3 = new byte[length];
+
+        if ("IN".equals(direction)) {
+            ioflags = ObjectParameterInfo.IN;
+        } else if ("INOUT".equals(direction)) {
+            ioflags = ObjectParameterInfo.IN | ObjectParameterInfo.OUT;
+        } else {
+            ioflags = ObjectParameterInfo.IN | ObjectParameterInfo.OUT | ObjectParameterInfo.PINNED;
+        }
+
+        info1 = ObjectParameterInfo.create(0, ObjectParameterInfo.ARRAY, ObjectParameterInfo.BYTE, ioflags);
+        info2 = ObjectParameterInfo.create(1, ObjectParameterInfo.ARRAY, ObjectParameterInfo.BYTE, ioflags);
+        info3 = ObjectParameterInfo.create(2, ObjectParameterInfo.ARRAY, ObjectParameterInfo.BYTE, ioflags);
+    }
+
+    @Benchmark
+    public long objectParameterInvoker() {
+        switch (objectCount) {
+            case 1:
+                return objectParameterInvoker.invokeN1O1rN(function, 0L, a1, 0, length, info1);
+            case 2:
+                return objectParameterInvoker.invokeN2O2rN(function, 0L, 0L,
+                        a1, 0, length, info1, a2, 0, length, info2);
+            case 3:
+                return objectParameterInvoker.invokeN3O3rN(function, 0L, 0L, 0L,
+                        a1, 0, length, info1, a2, 0, length, info2, a3, 0, length, info3);
+            default:
+                throw new IllegalStateException("unsupported object count " + objectCount);
+        }
+    }
+
+    @Benchmark
+    public long invokerWithStrategy() {
+        long address = function.getFunctionAddress();
+        switch (objectCount) {
+            case 1:
+                return invoker.invokeN1O1(context, address, 0L, a1, strategy, info1);
+            case 2:
+                return invoker.invokeN2O2(context, address, 0L, 0L, a1, strategy, info1, a2, strategy, info2);
+            case 3:
+                return invoker.invokeN3O3(context, address, 0L, 0L, 0L,
+                        a1, strategy, info1, a2, strategy, info2, a3, strategy, info3);
+            default:
+                throw new IllegalStateException("unsupported object count " + objectCount);
+        }
+    }
+
+    @Benchmark
+    public long heapInvocationBuffer() {
+        HeapInvocationBuffer buffer = new HeapInvocationBuffer(context);
+        buffer.putArray(a1, 0, length, ioflags);
+        if (objectCount > 1) {
+            buffer.putArray(a2, 0, length, ioflags);
+        }
+        if (objectCount > 2) {
+            buffer.putArray(a3, 0, length, ioflags);
+        }
+
+        return invoker.invokeLong(context, function.getFunctionAddress(), buffer);
+    }
+
+    private static final class ByteArrayStrategy extends ObjectParameterStrategy<byte[]> {
+        ByteArrayStrategy() {
+            super(HEAP, ObjectParameterType.create(ObjectParameterType.ARRAY, ObjectParameterType.BYTE));
+        }
+
+        @Override
+        public long address(byte[] parameter) {
+            return 0L;
+        }
+
+        @Override
+        public Object object(byte[] parameter) {
+            return parameter;
+        }
+
+        @Override
+        public int offset(byte[] parameter) {
+            return 0;
+        }
+
+        @Override
+        public int length(byte[] parameter) {
+            return parameter.length;
+        }
+    }
+}
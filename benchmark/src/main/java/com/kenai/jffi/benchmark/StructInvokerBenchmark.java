@@ -0,0 +1,71 @@
+package com.kenai.jffi.benchmark;
+
+import com.kenai.jffi.CallContext;
+import com.kenai.jffi.CallingConvention;
+import com.kenai.jffi.HeapInvocationBuffer;
+import com.kenai.jffi.Invoker;
+import com.kenai.jffi.Struct;
+import com.kenai.jffi.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures functions returning a struct by value, via {@link Invoker#invokeStruct}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StructInvokerBenchmark {
+    @Param({ "true", "false" })
+    public boolean saveErrno;
+
+    @Param({ "false", "true" })
+    public boolean faultProtect;
+
+    private final Invoker invoker = Invoker.getInstance();
+    private CallContext context;
+    private long function;
+    private byte[] returnBuffer;
+
+    @Setup
+    public void setup() {
+        Type pair = Struct.newStruct(Type.SINT64, Type.SINT64);
+        context = CallContext.getCallContext(pair, new Type[] { Type.SINT64, Type.SINT64 },
+                CallingConvention.DEFAULT, saveErrno, faultProtect);
+        function = BenchmarkLibrary.findSymbol("bench_s64s64_pair");
+        returnBuffer = new byte[pair.size()];
+    }
+
+    @Benchmark
+    public byte[] invokeStruct() {
+        HeapInvocationBuffer buffer = new HeapInvocationBuffer(context);
+        buffer.putLong(1L);
+        buffer.putLong(2L);
+
+        return invoker.invokeStruct(context, function, buffer);
+    }
+
+    @Benchmark
+    public byte[] invokeStructWithReturnBuffer() {
+        HeapInvocationBuffer buffer = new HeapInvocationBuffer(context);
+        buffer.putLong(1L);
+        buffer.putLong(2L);
+        invoker.invokeStruct(context, function, buffer, returnBuffer, 0);
+
+        return returnBuffer;
+    }
+}
@@ -34,11 +34,18 @@
 #include <stdlib.h>
 #include <stdint.h>
 #include <stdbool.h>
+#include <time.h>
+#ifdef _WIN32
+#  include <windows.h>
+#endif
+#include <ffi.h>
 #include <jni.h>
 
 #include "jffi.h"
 #include "Exception.h"
+#include "CallContext.h"
 #include "com_kenai_jffi_ObjectBuffer.h"
+#include "com_kenai_jffi_Foreign.h"
 
 #include "Array.h"
 
@@ -47,12 +54,76 @@
 #define ARGTYPE_SHIFT com_kenai_jffi_ObjectBuffer_TYPE_SHIFT
 #define ARGFLAGS_MASK com_kenai_jffi_ObjectBuffer_FLAGS_MASK
 
+#define SCRATCH_ALIGN (16)
+#define SCRATCH_MIN_SIZE (16 * 1024)
+
+/* The largest arena a thread keeps between calls.  Bigger arrays are malloc'd as before. */
+static size_t scratchHighWaterMark = 256 * 1024;
+
 static void 
 releaseHeapArray(JNIEnv* env, Array* array) 
 {
     free(array->elems);
 }
 
+#ifndef _WIN32
+/*
+ * Arrays are released in the reverse order they were allocated, so releasing an array rewinds the
+ * arena to where the array started.  Calls made from a callback allocate on top of the calls
+ * below them, so they nest the same way.
+ */
+static void
+releaseScratchArray(JNIEnv* env, Array* array)
+{
+    ScratchArena* scratch = &thread_data_get()->scratch;
+
+    scratch->used = (char *) array->elems - scratch->base;
+    if (scratch->used == 0 && scratch->size > scratchHighWaterMark) {
+        free(scratch->base);
+        scratch->base = NULL;
+        scratch->size = 0;
+    }
+}
+#endif
+
+static void*
+allocArrayMemory(Array* array, size_t size)
+{
+#ifndef _WIN32
+    size_t aligned = (size + SCRATCH_ALIGN - 1) & ~((size_t) SCRATCH_ALIGN - 1);
+
+    if (likely(aligned <= scratchHighWaterMark)) {
+        ScratchArena* scratch = &thread_data_get()->scratch;
+
+        // The arena can only be replaced when empty, since live arrays point into it
+        if (unlikely(scratch->size - scratch->used < aligned) && scratch->used == 0) {
+            size_t newSize = scratch->size > SCRATCH_MIN_SIZE ? scratch->size : SCRATCH_MIN_SIZE;
+            char* base;
+
+            while (newSize < aligned) {
+                newSize *= 2;
+            }
+            newSize = newSize < scratchHighWaterMark ? newSize : scratchHighWaterMark;
+            if ((base = malloc(newSize)) != NULL) {
+                free(scratch->base);
+                scratch->base = base;
+                scratch->size = newSize;
+            }
+        }
+
+        if (likely(scratch->size - scratch->used >= aligned)) {
+            void* elems = scratch->base + scratch->used;
+            scratch->used += aligned;
+            array->release = releaseScratchArray;
+            return elems;
+        }
+    }
+#endif
+
+    array->release = releaseHeapArray;
+    return malloc(size);
+}
+
 #define COPY_DATA(JTYPE, NTYPE, flags, obj, offset, length, array) do { \
     if (IS_IN_ARRAY(flags)) { \
         (*env)->Get##JTYPE##ArrayRegion(env, obj, offset, length, (NTYPE *) array->elems); \
@@ -79,7 +150,7 @@ releaseHeapArray(JNIEnv* env, Array* array)
 
 #define GET_ARRAY_HEAP(JTYPE, NTYPE, flags, obj, offset, length, array) do { \
     int allocSize = sizeof(NTYPE) * (length + 1); \
-    (array)->elems = malloc(allocSize); \
+    (array)->elems = allocArrayMemory(array, allocSize); \
     if (unlikely((array)->elems == NULL)) { \
         throwException(env, OutOfMemory, "failed to allocate native array of %d bytes", allocSize); \
         return NULL; \
@@ -88,8 +159,8 @@ releaseHeapArray(JNIEnv* env, Array* array)
     SET_COPYOUT(JTYPE, array, flags); \
 } while(0)
 
-void*
-jffi_getArrayHeap(JNIEnv* env, jobject buf, jsize offset, jsize length, int type,
+static void*
+getArrayHeap(JNIEnv* env, jobject buf, jsize offset, jsize length, int type,
         Array* array) 
 {
     array->array = buf;
@@ -98,7 +169,8 @@ jffi_getArrayHeap(JNIEnv* env, jobject buf, jsize offset, jsize length, int type
     array->type = type;
     array->copyin = NULL;
     array->copyout = NULL;
-    array->release = releaseHeapArray;
+    array->elems = NULL;
+    array->release = NULL;
     
     /*
      * Byte arrays are used for struct backing in both jaffl and jruby ffi, so
@@ -149,6 +221,20 @@ jffi_getArrayHeap(JNIEnv* env, jobject buf, jsize offset, jsize length, int type
     return array->elems;
 }
 
+void*
+jffi_getArrayHeap(JNIEnv* env, jobject buf, jsize offset, jsize length, int type,
+        Array* array)
+{
+    void* elems = getArrayHeap(env, buf, offset, length, type, array);
+
+    // The caller does not release an array that failed, so give back the memory if the copy failed
+    if (unlikely(elems == NULL) && array->elems != NULL) {
+        (*array->release)(env, array);
+    }
+
+    return elems;
+}
+
 void*
 jffi_getArrayBuffer(JNIEnv* env, jobject buf, jint offset, jint length, int type, struct Array* array, void* buffer)
 {
@@ -264,7 +350,7 @@ jffi_getArrayCritical(JNIEnv* env, jobject buf, jsize offset, jsize length, int
     }
     array->release = jffi_releaseCriticalArray;
 
-    return (char *) array->elems + offset;
+    return (char *) array->elems + jffi_arraySize(offset, type);
 }
 
 void
@@ -285,3 +371,89 @@ jffi_releaseArrays(JNIEnv *env, Array* arrays, int arrayCount)
         }
     }
 }
+
+/*
+ * Adaptive arrays up to this size are copied to the stack, which is cheaper than a JNI critical
+ * section for small arrays.
+ */
+#define ADAPTIVE_MAX_STACK_BYTES (4096)
+
+/*
+ * Pinning an array holds off the garbage collector until the call returns, so it is only worth it
+ * for short calls.  Arrays that are copied in and out save two copies by pinning, so they are
+ * pinned for longer calls than arrays that are only copied one way.
+ */
+#define ADAPTIVE_MAX_PIN_NANOS (50000L)
+#define ADAPTIVE_MAX_INOUT_PIN_NANOS (200000L)
+/* Longest call time that is recorded, so the moving average fits in a 32 bit long */
+#define ADAPTIVE_MAX_CALL_NANOS (1000000000L)
+
+int
+jffi_arrayStrategy(CallContext* ctx, int type, jsize length)
+{
+    long maxPinNanos;
+
+    if (unlikely((type & ARRAY_PINNED) != 0)) {
+        return ARRAY_STRATEGY_CRITICAL;
+
+    } else if (likely((type & ARRAY_ADAPTIVE) == 0)) {
+        return length < MAX_STACK_ARRAY ? ARRAY_STRATEGY_STACK : ARRAY_STRATEGY_HEAP;
+    }
+
+    if (jffi_arraySize(length, type) <= ADAPTIVE_MAX_STACK_BYTES) {
+        __sync_fetch_and_add(&ctx->arrayStats.stackCopies, 1);
+        return ARRAY_STRATEGY_STACK;
+    }
+
+    // Pinned memory cannot be NUL terminated or cleared, since it is the java array itself
+    maxPinNanos = IS_IN_ARRAY(type) && IS_OUT_ARRAY(type) ? ADAPTIVE_MAX_INOUT_PIN_NANOS : ADAPTIVE_MAX_PIN_NANOS;
+    if ((type & (ARRAY_NULTERMINATE | ARRAY_CLEAR)) == 0 && ctx->arrayStats.callNanos < maxPinNanos) {
+        __sync_fetch_and_add(&ctx->arrayStats.pinned, 1);
+        return ARRAY_STRATEGY_CRITICAL;
+    }
+
+    __sync_fetch_and_add(&ctx->arrayStats.heapCopies, 1);
+    return ARRAY_STRATEGY_HEAP;
+}
+
+jlong
+jffi_nanoTime(void)
+{
+#ifdef _WIN32
+    static LARGE_INTEGER frequency;
+    LARGE_INTEGER now;
+
+    if (frequency.QuadPart == 0) {
+        QueryPerformanceFrequency(&frequency);
+    }
+    QueryPerformanceCounter(&now);
+
+    return (jlong) (now.QuadPart * 1000000000.0 / frequency.QuadPart);
+#else
+    struct timespec ts;
+    clock_gettime(CLOCK_MONOTONIC, &ts);
+
+    return (jlong) ts.tv_sec * 1000000000L + ts.tv_nsec;
+#endif
+}
+
+void
+jffi_recordArrayCallTime(CallContext* ctx, jlong nanos)
+{
+    long sample = (long) (nanos < ADAPTIVE_MAX_CALL_NANOS ? nanos : ADAPTIVE_MAX_CALL_NANOS);
+    long average = ctx->arrayStats.callNanos;
+
+    // A racy update only loses a sample, which does not matter for a moving average
+    ctx->arrayStats.callNanos = average + (sample - average) / 8;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    setScratchHighWaterMark
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL
+Java_com_kenai_jffi_Foreign_setScratchHighWaterMark(JNIEnv* env, jobject self, jlong size)
+{
+    scratchHighWaterMark = size > 0 ? (size_t) size : 0;
+}
@@ -55,6 +55,23 @@ extern void* jffi_getArrayCritical(JNIEnv* env, jobject buf, jint offset, jint l
 extern int jffi_arraySize(int length, int type);
 extern void jffi_releaseArrays(JNIEnv* env, Array* arrays, int arrayCount);
 
+struct CallContext;
+
+/*
+ * How an array parameter is passed: copied to the stack, copied to malloc'd memory, or pinned
+ * with GetPrimitiveArrayCritical.
+ */
+#define ARRAY_STRATEGY_STACK (0)
+#define ARRAY_STRATEGY_HEAP (1)
+#define ARRAY_STRATEGY_CRITICAL (2)
+
+/* Arrays shorter than this are copied to the stack, unless pinned or adaptive */
+#define MAX_STACK_ARRAY (1024)
+
+extern int jffi_arrayStrategy(struct CallContext* ctx, int type, jsize length);
+extern jlong jffi_nanoTime(void);
+extern void jffi_recordArrayCallTime(struct CallContext* ctx, jlong nanos);
+
 #include "com_kenai_jffi_ObjectBuffer.h"
 
 #define OBJ_INDEX_MASK com_kenai_jffi_ObjectBuffer_INDEX_MASK
@@ -64,6 +81,7 @@ extern void jffi_releaseArrays(JNIEnv* env, Array* arrays, int arrayCount);
 #define ARRAY_OUT com_kenai_jffi_ObjectBuffer_OUT
 #define ARRAY_PINNED com_kenai_jffi_ObjectBuffer_PINNED
 #define ARRAY_CLEAR com_kenai_jffi_ObjectBuffer_CLEAR
+#define ARRAY_ADAPTIVE com_kenai_jffi_ObjectBuffer_ADAPTIVE
 
 #define IS_PINNED_ARRAY(flags) \
         (((flags) & (com_kenai_jffi_ObjectBuffer_ARRAY | com_kenai_jffi_ObjectBuffer_PINNED)) == (com_kenai_jffi_ObjectBuffer_ARRAY | com_kenai_jffi_ObjectBuffer_PINNED))
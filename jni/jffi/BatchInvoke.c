@@ -0,0 +1,93 @@
+#include <sys/types.h>
+#include <stdlib.h>
+#include <string.h>
+#include <errno.h>
+#if defined (__sun) || defined(_AIX)
+#  include <alloca.h>
+#endif
+#ifdef _WIN32
+#  include <malloc.h>
+#endif
+#include <ffi.h>
+#include <jni.h>
+#include "endian.h"
+#include "jffi.h"
+#include "Exception.h"
+#include "CallContext.h"
+#include "LastError.h"
+#include "FaultProtect.h"
+#include "com_kenai_jffi_Foreign.h"
+#include "FastNumeric.h"
+
+/*
+ * The batch invokers call the same function many times from one JNI transition.  Every call
+ * takes its parameters from a row of 64 bit slots, packed the same way as for invokeN (float and
+ * double values as their raw bits, struct values as the address of the struct), and stores its
+ * result as one 64 bit value.
+ */
+
+#define BATCH_CHUNK_SLOTS (4096)
+
+static void
+batchInvoke(CallContext* ctx, void* function, char* argBlock, jint stride, jint count, jlong* results)
+{
+    void** ffiValues = alloca((ctx->cif.nargs > 0 ? ctx->cif.nargs : 1) * sizeof(void *));
+    jint i;
+
+    for (i = 0; i < count; i++) {
+        jlong result = invokeNumericArgs(ctx, function, (jlong *) (argBlock + ((size_t) i * stride)), ffiValues);
+        if (results != NULL) {
+            results[i] = result;
+        }
+    }
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeBatch
+ * Signature: (JJJIIJ)V
+ */
+JNIEXPORT void JNICALL
+Java_com_kenai_jffi_Foreign_invokeBatch(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong argBlock, jint stride, jint count, jlong resultAddress)
+{
+    CallContext* ctx = (CallContext *) j2p(ctxAddress);
+
+    FAULTPROT_CTX(env, ctx, batchInvoke(ctx, j2p(function), j2p(argBlock), stride, count, j2p(resultAddress)), return);
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeBatchArray
+ * Signature: (JJ[JI[J)V
+ */
+JNIEXPORT void JNICALL
+Java_com_kenai_jffi_Foreign_invokeBatchArray(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlongArray args, jint count, jlongArray results)
+{
+    CallContext* ctx = (CallContext *) j2p(ctxAddress);
+    int nargs = ctx->cif.nargs > 0 ? (int) ctx->cif.nargs : 1;
+    int chunk = BATCH_CHUNK_SLOTS / nargs > 0 ? BATCH_CHUNK_SLOTS / nargs : 1;
+    jlong* argBuffer = alloca((size_t) chunk * nargs * sizeof(jlong));
+    jlong* resultBuffer = results != NULL ? alloca((size_t) chunk * sizeof(jlong)) : NULL;
+    jint done;
+
+    /* Copy the arrays through the stack a chunk at a time, so the GC is never held off */
+    for (done = 0; done < count; done += chunk) {
+        jint n = count - done < chunk ? count - done : chunk;
+
+        if (ctx->cif.nargs > 0) {
+            (*env)->GetLongArrayRegion(env, args, done * ctx->cif.nargs, n * ctx->cif.nargs, argBuffer);
+            if (unlikely((*env)->ExceptionCheck(env))) {
+                return;
+            }
+        }
+
+        FAULTPROT_CTX(env, ctx, batchInvoke(ctx, j2p(function), (char *) argBuffer,
+                (jint) (ctx->cif.nargs * sizeof(jlong)), n, resultBuffer), return);
+
+        if (resultBuffer != NULL) {
+            (*env)->SetLongArrayRegion(env, results, done, n, resultBuffer);
+        }
+    }
+}
@@ -46,6 +46,7 @@
 #include "jffi.h"
 #include "Exception.h"
 #include "CallContext.h"
+#include "FastNumeric.h"
 #include "com_kenai_jffi_Foreign.h"
 
 #ifndef MAX
@@ -56,6 +57,46 @@ static inline int FFI_ALIGN(int v, int a) {
     return ((((size_t) v) - 1) | (a - 1)) +1;
 }
 
+#if defined(STRUCT_BYPASS_FFI)
+/*
+ * Returns the number of general purpose registers the SysV x86_64 ABI uses to pass a value
+ * of this type, or -1 if it is not passed purely in general purpose registers.
+ */
+static int
+gpRegisterCount(ffi_type* type)
+{
+    ffi_type** elem;
+
+    switch (type->type) {
+        case FFI_TYPE_INT:
+        case FFI_TYPE_SINT8:
+        case FFI_TYPE_UINT8:
+        case FFI_TYPE_SINT16:
+        case FFI_TYPE_UINT16:
+        case FFI_TYPE_SINT32:
+        case FFI_TYPE_UINT32:
+        case FFI_TYPE_SINT64:
+        case FFI_TYPE_UINT64:
+        case FFI_TYPE_POINTER:
+            return 1;
+
+        case FFI_TYPE_STRUCT:
+            if (type->size == 0 || type->size > STRUCT_MAX_SIZE || type->elements == NULL) {
+                return -1;
+            }
+            for (elem = type->elements; *elem != NULL; elem++) {
+                if (gpRegisterCount(*elem) < 0) {
+                    return -1;
+                }
+            }
+            return (int) ((type->size + 7) / 8);
+
+        default:
+            return -1;
+    }
+}
+#endif
+
 /*
  * Class:     com_kenai_jffi_Foreign
  * Method:    newCallContext
@@ -67,8 +108,11 @@ Java_com_kenai_jffi_Foreign_newCallContext(JNIEnv* env, jobject self,
 {
     CallContext* ctx = NULL;
     jlong* paramTypes;
-    int paramCount, i, rawOffset = 0;
+    int paramCount, i, rawOffset = 0, longDoubleSize = 0;
     bool isFastInt = false, isFastLong = false;
+    bool isFastFloat = false, isFastDouble = false, isFastMixed = false;
+    int gpParamCount = 0, fpParamCount = 0;
+    bool hasStructParam = false;
     ffi_type* ffiParamTypes;
     int ffiStatus;
     int abi;
@@ -135,6 +179,44 @@ Java_com_kenai_jffi_Foreign_newCallContext(JNIEnv* env, jobject self,
     }
 #endif
 
+#if defined(FP_BYPASS_FFI)
+    switch (((ffi_type *) j2p(returnType))->type) {
+        case FFI_TYPE_FLOAT:
+            isFastFloat = true;
+            break;
+
+        case FFI_TYPE_DOUBLE:
+            isFastDouble = true;
+            break;
+
+        case FFI_TYPE_VOID:
+            isFastFloat = isFastDouble = true;
+            break;
+    }
+#endif
+
+#if defined(MIXED_BYPASS_FFI)
+    switch (((ffi_type *) j2p(returnType))->type) {
+        case FFI_TYPE_FLOAT:
+        case FFI_TYPE_DOUBLE:
+            ctx->flags |= CALL_CTX_FP_RETURN;
+            /* fall through */
+        case FFI_TYPE_VOID:
+        case FFI_TYPE_INT:
+        case FFI_TYPE_SINT8:
+        case FFI_TYPE_UINT8:
+        case FFI_TYPE_SINT16:
+        case FFI_TYPE_UINT16:
+        case FFI_TYPE_SINT32:
+        case FFI_TYPE_UINT32:
+        case FFI_TYPE_SINT64:
+        case FFI_TYPE_UINT64:
+        case FFI_TYPE_POINTER:
+            isFastMixed = paramCount <= (int) (sizeof(ctx->fpParamMask) * 8);
+            break;
+    }
+#endif
+
     for (i = 0; i < paramCount; ++i) {
         ffi_type* type = (ffi_type *) j2p(paramTypes[i]);
         if (type == NULL) {
@@ -144,6 +226,10 @@ Java_com_kenai_jffi_Foreign_newCallContext(JNIEnv* env, jobject self,
         ctx->ffiParamTypes[i] = type;
         ctx->rawParamOffsets[i] = rawOffset;
         rawOffset += FFI_ALIGN(type->size, FFI_SIZEOF_ARG);
+        if (type->type == FFI_TYPE_LONGDOUBLE && type->size > 8) {
+            // Too big for a parameter slot, so it goes in the area after the slots
+            longDoubleSize += (int) type->size;
+        }
 #if defined(__i386__) || defined(__x86_64__) 
         switch (type->type) {
             case FFI_TYPE_INT:
@@ -176,8 +262,67 @@ Java_com_kenai_jffi_Foreign_newCallContext(JNIEnv* env, jobject self,
                 break;
         }
 #endif
+        isFastFloat &= type->type == FFI_TYPE_FLOAT;
+        isFastDouble &= type->type == FFI_TYPE_DOUBLE;
+
+        switch (type->type) {
+            case FFI_TYPE_FLOAT:
+            case FFI_TYPE_DOUBLE:
+                if (i < (int) (sizeof(ctx->fpParamMask) * 8)) {
+                    ctx->fpParamMask |= 1U << i;
+                }
+                fpParamCount++;
+                break;
+
+            case FFI_TYPE_INT:
+            case FFI_TYPE_SINT8:
+            case FFI_TYPE_UINT8:
+            case FFI_TYPE_SINT16:
+            case FFI_TYPE_UINT16:
+            case FFI_TYPE_SINT32:
+            case FFI_TYPE_UINT32:
+            case FFI_TYPE_SINT64:
+            case FFI_TYPE_UINT64:
+            case FFI_TYPE_POINTER:
+                gpParamCount++;
+                break;
+
+            case FFI_TYPE_STRUCT:
+                hasStructParam = true;
+                isFastMixed = false;
+                break;
+
+            default:
+                isFastMixed = false;
+                break;
+        }
     }
 
+#if defined(STRUCT_BYPASS_FFI)
+    // Small integer-class structs travel in rdi..r9 and come back in rax:rdx, so a call with
+    // struct values can bypass libffi as long as every parameter word fits in a register
+    if (((ffi_type *) j2p(returnType))->type == FFI_TYPE_STRUCT || hasStructParam) {
+        int words = 0;
+        bool isFastStruct = fixedParamCount == paramCount
+                && (((ffi_type *) j2p(returnType))->type == FFI_TYPE_VOID || gpRegisterCount((ffi_type *) j2p(returnType)) > 0);
+
+        for (i = 0; i < paramCount && isFastStruct; ++i) {
+            int n = gpRegisterCount(ctx->ffiParamTypes[i]);
+            isFastStruct = n > 0 && (words += n) <= 6;
+        }
+        ctx->flags |= isFastStruct ? CALL_CTX_FAST_STRUCT : 0;
+    }
+#endif
+
+#if defined(MIXED_BYPASS_FFI)
+    // Only worth it when there is a floating point value involved, and it all fits in registers
+    isFastMixed &= (fpParamCount > 0 || (ctx->flags & CALL_CTX_FP_RETURN) != 0)
+            && gpParamCount <= MIXED_MAX_GP && fpParamCount <= MIXED_MAX_FP
+            && fixedParamCount == paramCount;
+#else
+    isFastMixed = false;
+#endif
+
     // On win32, we might need to set the abi to stdcall - but win64 only supports cdecl/default
 #if defined(_WIN32) && !defined(_WIN64)
     abi = (flags & com_kenai_jffi_Foreign_F_STDCALL) != 0 ? FFI_STDCALL : FFI_DEFAULT_ABI;
@@ -189,6 +334,9 @@ Java_com_kenai_jffi_Foreign_newCallContext(JNIEnv* env, jobject self,
     if (abi != FFI_DEFAULT_ABI) {
         isFastInt = false;
         isFastLong = false;
+        isFastFloat = false;
+        isFastDouble = false;
+        isFastMixed = false;
     }
 
     if (fixedParamCount == paramCount) {
@@ -215,11 +363,28 @@ Java_com_kenai_jffi_Foreign_newCallContext(JNIEnv* env, jobject self,
             throwException(env, Runtime, "Unknown FFI error");
     }
     ctx->rawParameterSize = rawOffset;
+    ctx->longDoubleOffset = longDoubleSize > 0 ? FFI_ALIGN(paramCount * 8, 16) : paramCount * 8;
+    ctx->argBufferSize = ctx->longDoubleOffset + longDoubleSize;
     ctx->flags |= (flags & com_kenai_jffi_Foreign_F_NOERRNO) == 0 ? CALL_CTX_SAVE_ERRNO : 0;
     ctx->flags |= isFastInt ? CALL_CTX_FAST_INT : 0;
     ctx->flags |= isFastLong ? CALL_CTX_FAST_LONG : 0;
+    ctx->flags |= isFastFloat ? CALL_CTX_FAST_FLOAT : 0;
+    ctx->flags |= isFastDouble ? CALL_CTX_FAST_DOUBLE : 0;
+    ctx->flags |= isFastMixed ? CALL_CTX_FAST_MIXED : 0;
     ctx->flags |= (flags & com_kenai_jffi_Foreign_F_PROTECT) != 0 ? CALL_CTX_FAULT_PROT : 0;
 
+#if defined(USE_RAW)
+    // Struct and long double values are passed by reference from java, so only use the raw
+    // layout when every parameter is a scalar.  This must match CallContext#isRawParameterPacking
+    if (fixedParamCount == paramCount) {
+        bool isRaw = true;
+        for (i = 0; i < paramCount && isRaw; ++i) {
+            isRaw = ctx->ffiParamTypes[i]->type != FFI_TYPE_STRUCT && ctx->ffiParamTypes[i]->type != FFI_TYPE_LONGDOUBLE;
+        }
+        ctx->flags |= isRaw ? CALL_CTX_RAW_PARAMS : 0;
+    }
+#endif
+
     return p2j(ctx);
 cleanup:
     if (ctx != NULL) {
@@ -266,6 +431,24 @@ Java_com_kenai_jffi_Foreign_getCallContextRawParameterSize(JNIEnv* env, jobject
     return ctx->rawParameterSize;
 }
 
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    getCallContextArrayStatistics
+ * Signature: (J[J)V
+ */
+JNIEXPORT void JNICALL
+Java_com_kenai_jffi_Foreign_getCallContextArrayStatistics(JNIEnv* env, jobject self, jlong handle, jlongArray statsArray)
+{
+    CallContext* ctx = (CallContext *) j2p(handle);
+    jlong stats[4];
+
+    stats[0] = ctx->arrayStats.stackCopies;
+    stats[1] = ctx->arrayStats.heapCopies;
+    stats[2] = ctx->arrayStats.pinned;
+    stats[3] = ctx->arrayStats.callNanos;
+    (*env)->SetLongArrayRegion(env, statsArray, 0, 4, stats);
+}
+
 JNIEXPORT void JNICALL 
 Java_com_kenai_jffi_Foreign_setCallContextErrorFunction(JNIEnv* env, jobject self, jlong handle, jlong fn)
 {
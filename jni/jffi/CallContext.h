@@ -35,16 +35,32 @@
 
 #include <stdbool.h>
 
+/** How adaptive array parameters were passed to the functions of a context, see jffi_threadAttachCount */
+typedef struct ArrayStats {
+    volatile long stackCopies;
+    volatile long heapCopies;
+    volatile long pinned;
+    /** Moving average of the time taken by calls that had a large adaptive array, in nanoseconds */
+    volatile long callNanos;
+} ArrayStats;
+
 typedef struct CallContext {
     /** IMPORTANT: keep ffi_cif as the first field */
     ffi_cif cif;
     int rawParameterSize;
+    /** Size of a heap or direct parameter buffer, including the long double area */
+    int argBufferSize;
+    /** Offset of the first long double value stored after the parameter slots */
+    int longDoubleOffset;
     ffi_type** ffiParamTypes;
     int* rawParamOffsets;
     bool saveErrno;
     int flags;
     long resultMask;
     int (*error_fn)(void);
+    /** Bit N is set if parameter N is a float or double, for CALL_CTX_FAST_MIXED */
+    unsigned int fpParamMask;
+    ArrayStats arrayStats;
 } CallContext;
 
 extern void jffi_save_errno_ctx(CallContext* ctx);
@@ -53,6 +69,21 @@ extern void jffi_save_errno_ctx(CallContext* ctx);
 #define CALL_CTX_FAST_INT   (0x2)
 #define CALL_CTX_FAST_LONG  (0x4)
 #define CALL_CTX_FAULT_PROT (0x8)
+#define CALL_CTX_FAST_FLOAT  (0x10)
+#define CALL_CTX_FAST_DOUBLE (0x20)
+#define CALL_CTX_FAST_MIXED  (0x40)
+#define CALL_CTX_FP_RETURN   (0x80)
+#define CALL_CTX_FAST_STRUCT (0x100)
+#define CALL_CTX_RAW_PARAMS  (0x200)
+
+/*
+ * Only i386 libffi can call straight from a raw parameter buffer, since it already has the stack
+ * layout the function expects.  Other libffi ports convert the buffer back into a pointer array,
+ * which is no better than the fixed size parameter slots.
+ */
+#if defined(__i386__) && FFI_NATIVE_RAW_API
+#  define USE_RAW 1
+#endif
 
 #define SAVE_ERRNO(ctx) do { \
     if (unlikely((ctx->flags & CALL_CTX_SAVE_ERRNO) != 0)) { \
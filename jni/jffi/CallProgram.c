@@ -0,0 +1,235 @@
+#include <sys/param.h>
+#include <sys/types.h>
+#include <stdlib.h>
+#include <stdbool.h>
+#include <string.h>
+#include <errno.h>
+#if defined (__sun) || defined(_AIX)
+#  include <alloca.h>
+#endif
+#ifdef _WIN32
+#  include <malloc.h>
+#endif
+#include <ffi.h>
+#include <jni.h>
+#include "endian.h"
+#include "jffi.h"
+#include "Exception.h"
+#include "CallContext.h"
+#include "LastError.h"
+#include "FaultProtect.h"
+#include "com_kenai_jffi_Foreign.h"
+#include "com_kenai_jffi_CallProgram.h"
+#include "FastNumeric.h"
+
+#ifndef MAX
+#  define MAX(a,b) ((a) > (b) ? (a) : (b))
+#endif
+
+/*
+ * A call program is a fixed sequence of calls, where each parameter is a constant, one of the
+ * program inputs, or the result of an earlier call.  It is compiled from the long[] encoding
+ * built by com.kenai.jffi.CallProgram:
+ *
+ *   stepCount, inputCount,
+ *   { ctx, function, exitCondition, exitValue, argCount, { argKind, argValue } * argCount } * stepCount
+ */
+
+typedef struct ProgramArg {
+    int kind;
+    jlong value;
+} ProgramArg;
+
+typedef struct ProgramStep {
+    CallContext* ctx;
+    void* function;
+    int exitCondition;
+    jlong exitValue;
+    ProgramArg* args;
+} ProgramStep;
+
+typedef struct Program {
+    int stepCount;
+    int inputCount;
+    int maxArgs;
+    ProgramStep* steps;
+    ProgramArg* args;
+} Program;
+
+static void
+freeProgram(Program* program)
+{
+    if (program != NULL) {
+        free(program->steps);
+        free(program->args);
+        free(program);
+    }
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    newCallProgram
+ * Signature: ([J)J
+ */
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_newCallProgram(JNIEnv* env, jobject self, jlongArray codeArray)
+{
+    jsize length = (*env)->GetArrayLength(env, codeArray);
+    jlong* code = NULL;
+    Program* program = NULL;
+    int i, j, pos, argCount = 0;
+
+    code = malloc(MAX(1, length) * sizeof(jlong));
+    if (code == NULL) {
+        throwException(env, OutOfMemory, "failed to allocate call program code");
+        return 0L;
+    }
+    (*env)->GetLongArrayRegion(env, codeArray, 0, length, code);
+    if (length < 2 || code[0] < 0) {
+        throwException(env, IllegalArgument, "invalid call program");
+        goto error;
+    }
+
+    // Count the parameters of every step, so they can live in one allocation
+    for (i = 0, pos = 2; i < code[0]; i++) {
+        if (pos + 5 > length || code[pos + 4] < 0 || pos + 5 + code[pos + 4] * 2 > length) {
+            throwException(env, IllegalArgument, "truncated call program at step %d", i);
+            goto error;
+        }
+        argCount += (int) code[pos + 4];
+        pos += 5 + (int) code[pos + 4] * 2;
+    }
+
+    program = calloc(1, sizeof(*program));
+    if (program == NULL
+            || (program->steps = calloc(MAX(1, code[0]), sizeof(ProgramStep))) == NULL
+            || (program->args = calloc(MAX(1, argCount), sizeof(ProgramArg))) == NULL) {
+        throwException(env, OutOfMemory, "failed to allocate call program");
+        goto error;
+    }
+
+    program->stepCount = (int) code[0];
+    program->inputCount = (int) code[1];
+    for (i = 0, pos = 2, argCount = 0; i < program->stepCount; i++) {
+        ProgramStep* step = &program->steps[i];
+        int nargs = (int) code[pos + 4];
+
+        step->ctx = (CallContext *) j2p(code[pos]);
+        step->function = j2p(code[pos + 1]);
+        step->exitCondition = (int) code[pos + 2];
+        step->exitValue = code[pos + 3];
+        step->args = &program->args[argCount];
+        if (nargs != (int) step->ctx->cif.nargs) {
+            throwException(env, IllegalArgument, "step %d takes %d parameters, not %d", i, step->ctx->cif.nargs, nargs);
+            goto error;
+        }
+
+        for (j = 0, pos += 5; j < nargs; j++, pos += 2) {
+            step->args[j].kind = (int) code[pos];
+            step->args[j].value = code[pos + 1];
+        }
+
+        argCount += nargs;
+        program->maxArgs = MAX(program->maxArgs, nargs);
+    }
+
+    free(code);
+    return p2j(program);
+
+error:
+    free(code);
+    freeProgram(program);
+    return 0L;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    freeCallProgram
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL
+Java_com_kenai_jffi_Foreign_freeCallProgram(JNIEnv* env, jobject self, jlong address)
+{
+    freeProgram((Program *) j2p(address));
+}
+
+static inline bool
+shouldExit(ProgramStep* step, jlong result)
+{
+    switch (step->exitCondition) {
+        case com_kenai_jffi_CallProgram_EXIT_EQUAL:
+            return result == step->exitValue;
+        case com_kenai_jffi_CallProgram_EXIT_NOT_EQUAL:
+            return result != step->exitValue;
+        case com_kenai_jffi_CallProgram_EXIT_LESS_THAN:
+            return result < step->exitValue;
+        default:
+            return false;
+    }
+}
+
+static inline jlong
+runStep(ProgramStep* step, const jlong* inputs, const jlong* results, jlong* args, void** ffiValues)
+{
+    int i;
+
+    for (i = 0; i < (int) step->ctx->cif.nargs; i++) {
+        switch (step->args[i].kind) {
+            case com_kenai_jffi_CallProgram_ARG_INPUT:
+                args[i] = inputs[step->args[i].value];
+                break;
+            case com_kenai_jffi_CallProgram_ARG_RESULT:
+                args[i] = results[step->args[i].value];
+                break;
+            default:
+                args[i] = step->args[i].value;
+                break;
+        }
+    }
+
+    return invokeNumericArgs(step->ctx, step->function, args, ffiValues);
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeCallProgram
+ * Signature: (J[J[J)I
+ */
+JNIEXPORT jint JNICALL
+Java_com_kenai_jffi_Foreign_invokeCallProgram(JNIEnv* env, jobject self, jlong address, jlongArray inputArray,
+        jlongArray resultArray)
+{
+    Program* program = (Program *) j2p(address);
+    jlong* inputs = alloca(MAX(1, program->inputCount) * sizeof(jlong));
+    jlong* results = alloca(MAX(1, program->stepCount) * sizeof(jlong));
+    jlong* args = alloca(MAX(1, program->maxArgs) * sizeof(jlong));
+    void** ffiValues = alloca(MAX(1, program->maxArgs) * sizeof(void *));
+    bool faulted = false;
+    int i;
+
+    if (program->inputCount > 0) {
+        (*env)->GetLongArrayRegion(env, inputArray, 0, program->inputCount, inputs);
+        if (unlikely((*env)->ExceptionCheck(env))) {
+            return 0;
+        }
+    }
+
+    for (i = 0; i < program->stepCount; ) {
+        ProgramStep* step = &program->steps[i];
+
+        FAULTPROT_CTX(env, step->ctx, results[i] = runStep(step, inputs, results, args, ffiValues), faulted = true);
+        if (unlikely(faulted)) {
+            break;
+        }
+
+        if (shouldExit(step, results[i++])) {
+            break;
+        }
+    }
+
+    if (i > 0 && resultArray != NULL) {
+        (*env)->SetLongArrayRegion(env, resultArray, 0, i, results);
+    }
+
+    return i;
+}
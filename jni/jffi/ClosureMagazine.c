@@ -50,6 +50,7 @@
 #include "CallContext.h"
 #include "MemoryUtil.h"
 #include "FaultProtect.h"
+#include "Array.h"
 #include "com_kenai_jffi_Foreign.h"
 
 #if (defined(__arm64__) && defined(__APPLE__))
@@ -60,6 +61,25 @@
 
 #define THREAD_ATTACH_THRESHOLD (1000)
 
+/*
+ * How long a thread attached for an upcall stays attached, see ClosureManager.setThreadAttachPolicy()
+ */
+typedef struct ThreadAttachPolicy {
+    int policy;
+    jlong value;
+} ThreadAttachPolicy;
+
+static const ThreadAttachPolicy defaultAttachPolicy = { com_kenai_jffi_Foreign_ATTACH_THRESHOLD, THREAD_ATTACH_THRESHOLD };
+
+/*
+ * The policy and its value are swapped together through this pointer, so an upcall never sees the
+ * value of one policy with another policy.
+ */
+static const ThreadAttachPolicy* volatile threadAttachPolicy = &defaultAttachPolicy;
+
+volatile long jffi_threadAttachCount;
+volatile long jffi_threadDetachCount;
+
 struct Closure;
 
 typedef struct ClosureMagazine {
@@ -71,22 +91,26 @@ typedef struct ClosureMagazine {
     int nclosures;
     int nextclosure;
     int callWithPrimitiveParameters;
+    int flatParameters;
+    jclass dispatchClass;
 } Magazine;
 
 typedef struct Closure {
     void* code; /* the code address must be the first member of this struct; used by java */
     jobject javaObject;
+    jlong cookie;
     Magazine* magazine;
     void* pcl;
 } Closure;
 
 static bool closure_prep(ffi_cif* cif, void* code, Closure* closure, char* errbuf, size_t errbufsize);
+static jclass dispatch_class(JNIEnv* env, jobject closureMethod);
 
 #if !USE_FFI_ALLOC
 
 JNIEXPORT jlong JNICALL
 Java_com_kenai_jffi_Foreign_newClosureMagazine(JNIEnv *env, jobject self, jlong ctxAddress, jobject closureMethod,
-    jboolean callWithPrimitiveParameters)
+    jint flags)
 {
     CallContext* ctx = (CallContext *) j2p(ctxAddress);
     Closure* list = NULL;
@@ -133,12 +157,19 @@ Java_com_kenai_jffi_Foreign_newClosureMagazine(JNIEnv *env, jobject self, jlong
         goto error;
     }
 
+    if ((flags & com_kenai_jffi_Foreign_CLOSURE_STATIC_DISPATCH) != 0
+            && (magazine->dispatchClass = dispatch_class(env, closureMethod)) == NULL) {
+        snprintf(errmsg, sizeof(errmsg), "could not obtain reference to closure dispatch class");
+        goto error;
+    }
+
     /* Track the allocated page + Closure memory area */
     magazine->closures = list;
     magazine->nextclosure = 0;
     magazine->nclosures = nclosures;
     magazine->code = code;
-    magazine->callWithPrimitiveParameters = callWithPrimitiveParameters;
+    magazine->callWithPrimitiveParameters = (flags & com_kenai_jffi_Foreign_CLOSURE_PRIMITIVE_PARAMETERS) != 0;
+    magazine->flatParameters = (flags & com_kenai_jffi_Foreign_CLOSURE_FLAT_PARAMETERS) != 0;
     (*env)->GetJavaVM(env, &magazine->jvm);
 
     return p2j(magazine);
@@ -157,7 +188,7 @@ error:
 
 JNIEXPORT jlong JNICALL
 Java_com_kenai_jffi_Foreign_newClosureMagazine(JNIEnv *env, jobject self, jlong ctxAddress, jobject closureMethod,
-    jboolean callWithPrimitiveParameters)
+    jint flags)
 {
     CallContext* ctx = (CallContext *) j2p(ctxAddress);
     Closure* closure = NULL;
@@ -189,12 +220,19 @@ Java_com_kenai_jffi_Foreign_newClosureMagazine(JNIEnv *env, jobject self, jlong
         goto error;
     }
 
+    if ((flags & com_kenai_jffi_Foreign_CLOSURE_STATIC_DISPATCH) != 0
+            && (magazine->dispatchClass = dispatch_class(env, closureMethod)) == NULL) {
+        snprintf(errmsg, sizeof(errmsg), "could not obtain reference to closure dispatch class");
+        goto error;
+    }
+
     /* Track the allocated page + Closure memory area */
     magazine->closures = closure;
     magazine->nextclosure = 0;
     magazine->nclosures = 1;
     magazine->code = pcl;
-    magazine->callWithPrimitiveParameters = callWithPrimitiveParameters;
+    magazine->callWithPrimitiveParameters = (flags & com_kenai_jffi_Foreign_CLOSURE_PRIMITIVE_PARAMETERS) != 0;
+    magazine->flatParameters = (flags & com_kenai_jffi_Foreign_CLOSURE_FLAT_PARAMETERS) != 0;
     (*env)->GetJavaVM(env, &magazine->jvm);
 
     return p2j(magazine);
@@ -233,6 +271,9 @@ Java_com_kenai_jffi_Foreign_freeClosureMagazine(JNIEnv *env, jobject self, jlong
 #else
     ffi_closure_free(magazine->code);
 #endif
+    if (magazine->dispatchClass != NULL) {
+        (*env)->DeleteGlobalRef(env, magazine->dispatchClass);
+    }
     free(magazine);
 }
 
@@ -260,20 +301,168 @@ Java_com_kenai_jffi_Foreign_closureMagazineGet(JNIEnv *env, jobject self, jlong
     return 0L;
 }
 
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    closureMagazineGetStatic
+ * Signature: (JJ)J
+ */
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_closureMagazineGetStatic(JNIEnv *env, jobject self, jlong magAddress, jlong cookie)
+{
+    Magazine* magazine = (Magazine *) j2p(magAddress);
+    if (magazine->nextclosure < magazine->nclosures) {
+        Closure* closure = &magazine->closures[magazine->nextclosure++];
+        closure->cookie = cookie;
+
+        return p2j(closure);
+    }
+
+    return 0L;
+}
+
+static jclass
+dispatch_class(JNIEnv* env, jobject closureMethod)
+{
+    jclass methodClass = (*env)->GetObjectClass(env, closureMethod);
+    jmethodID getDeclaringClass = (*env)->GetMethodID(env, methodClass, "getDeclaringClass", "()Ljava/lang/Class;");
+    jobject klass;
+
+    if (getDeclaringClass == NULL || (klass = (*env)->CallObjectMethod(env, closureMethod, getDeclaringClass)) == NULL) {
+        return NULL;
+    }
+
+    return (jclass) (*env)->NewGlobalRef(env, klass);
+}
+
+
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    setThreadAttachPolicy
+ * Signature: (IJ)V
+ */
+JNIEXPORT void JNICALL
+Java_com_kenai_jffi_Foreign_setThreadAttachPolicy(JNIEnv *env, jobject self, jint policy, jlong value)
+{
+    ThreadAttachPolicy* attach = malloc(sizeof(*attach));
+
+    if (attach == NULL) {
+        throwException(env, OutOfMemory, "failed to allocate thread attach policy");
+        return;
+    }
+
+    attach->policy = policy;
+    attach->value = value;
+    // make the fields visible before the pointer to them
+    __sync_synchronize();
+    // the old policy is never freed, since an upcall on another thread may still be using it
+    threadAttachPolicy = attach;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    getThreadAttachStatistics
+ * Signature: ([J)V
+ */
+JNIEXPORT void JNICALL
+Java_com_kenai_jffi_Foreign_getThreadAttachStatistics(JNIEnv *env, jobject self, jlongArray statsArray)
+{
+    jlong stats[2];
+
+    stats[0] = jffi_threadAttachCount;
+    stats[1] = jffi_threadDetachCount;
+    (*env)->SetLongArrayRegion(env, statsArray, 0, 2, stats);
+}
+
+/*
+ * Attaches the calling native thread to the JVM until it exits, whatever the attach policy.
+ * Native thread pools can call this when a worker starts, so its upcalls never attach or detach.
+ *
+ * Returns 0 on success, or a JNI error code.
+ */
+static jint
+jffi_attachCurrentThread(void)
+{
+#ifndef _WIN32
+    ThreadData* td = thread_data_get();
+    JavaVM* jvm = jffi_jvm;
+    JNIEnv* env;
+    jint status;
+
+    if ((*jvm)->GetEnv(jvm, (void **) &env, JNI_VERSION_1_4) == JNI_OK) {
+        td->attach_pinned = td->attached_vm != NULL;
+        return JNI_OK;
+    }
+
+    if ((status = (*jvm)->AttachCurrentThreadAsDaemon(jvm, (void **) &env, NULL)) == JNI_OK) {
+        __sync_fetch_and_add(&jffi_threadAttachCount, 1);
+        td->attached_vm = jvm;
+        td->attach_pinned = 1;
+    }
+
+    return status;
+#else
+    return JNI_ERR;
+#endif
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    getAttachCurrentThreadFunction
+ * Signature: ()J
+ */
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_getAttachCurrentThreadFunction(JNIEnv *env, jobject self)
+{
+    return p2j(jffi_attachCurrentThread);
+}
+
+#ifndef _WIN32
+/*
+ * Decides whether a thread that was just attached for an upcall stays attached afterwards.
+ */
+static bool
+keep_attached(ThreadData* td, const ThreadAttachPolicy* attach, jlong now)
+{
+    switch (attach->policy) {
+        case com_kenai_jffi_Foreign_ATTACH_KEEP:
+            return true;
+
+        case com_kenai_jffi_Foreign_ATTACH_IDLE:
+            // only threads making upcalls more often than the idle timeout stay attached
+            return td->last_upcall != 0 && now - td->last_upcall < attach->value;
 
+        default:
+            return td->attach_count++ >= attach->value;
+    }
+}
+#endif
 
 static void
-closure_begin(Closure* closure, JNIEnv** penv, bool* detach)
+closure_begin(Closure* closure, JNIEnv** penv, bool* detach, const ThreadAttachPolicy* attach)
 {
     JavaVM* jvm = closure->magazine->jvm;
+#ifndef _WIN32
+    ThreadData* td = thread_data_get();
+    jlong now = attach->policy == com_kenai_jffi_Foreign_ATTACH_IDLE ? jffi_nanoTime() : 0;
+#endif
 
     *detach = (*jvm)->GetEnv(jvm, (void **)penv, JNI_VERSION_1_4) != JNI_OK
         && (*jvm)->AttachCurrentThreadAsDaemon(jvm, (void **)penv, NULL) == JNI_OK;
+    if (*detach) {
+        __sync_fetch_and_add(&jffi_threadAttachCount, 1);
+    }
 
 #ifndef _WIN32
-    if (*detach && thread_data_get()->attach_count++ >= THREAD_ATTACH_THRESHOLD) {
-        thread_data_get()->attached_vm = jvm;
+    if (*detach && keep_attached(td, attach, now)) {
+        td->attached_vm = jvm;
         *detach = false;
+
+    } else if (td->attached_vm != NULL && !td->attach_pinned && attach->policy == com_kenai_jffi_Foreign_ATTACH_IDLE
+            && now - td->last_upcall >= attach->value) {
+        // a native thread can only detach itself, so an idle thread is detached after its next upcall
+        td->attached_vm = NULL;
+        *detach = true;
     }
 #endif
     
@@ -283,7 +472,7 @@ closure_begin(Closure* closure, JNIEnv** penv, bool* detach)
 }
 
 static void
-closure_end(Closure* closure, JNIEnv* env, bool detach)
+closure_end(Closure* closure, JNIEnv* env, bool detach, const ThreadAttachPolicy* attach)
 {
     JavaVM* jvm = closure->magazine->jvm;
     bool clearException = detach;
@@ -302,14 +491,27 @@ closure_end(Closure* closure, JNIEnv* env, bool detach)
 
     if (detach) {
         (*jvm)->DetachCurrentThread(jvm);
+        __sync_fetch_and_add(&jffi_threadDetachCount, 1);
     }
+
+#ifndef _WIN32
+    if (attach->policy == com_kenai_jffi_Foreign_ATTACH_IDLE) {
+        thread_data_get()->last_upcall = jffi_nanoTime();
+    }
+#endif
 }
 
+#define CALL_CLOSURE(Type) (closure->magazine->dispatchClass != NULL \
+    ? (*env)->CallStatic##Type##MethodA(env, closure->magazine->dispatchClass, closure->magazine->methodID, jargs) \
+    : (*env)->Call##Type##MethodA(env, closure->javaObject, closure->magazine->methodID, jargs))
+
 static void
 closure_invoke(ffi_cif* cif, void* retval, void** parameters, void* user_data)
 {
     Closure* closure = (Closure *) user_data;
     
+    // the attach policy is read once, so a concurrent setThreadAttachPolicy() cannot change it mid upcall
+    const ThreadAttachPolicy* attach = threadAttachPolicy;
     JNIEnv* env;
     int i;
     bool detach;
@@ -318,15 +520,22 @@ closure_invoke(ffi_cif* cif, void* retval, void** parameters, void* user_data)
     FaultData* fdp;
 #endif
 
-    closure_begin(closure, &env, &detach);
+    closure_begin(closure, &env, &detach, attach);
 #if FAULT_PROTECT_ENABLED
     fdp = td->fault_data;
     td->fault_data = NULL;
 #endif
 
     if (closure->magazine->callWithPrimitiveParameters) {
-        // allocate one more than the parameter count (for the struct return value)
-        jvalue* jparams = alloca((cif->nargs + 1) * sizeof(jvalue));
+        // allocate two more than the parameter count (for the cookie and the struct return value)
+        jvalue* jargs = alloca((cif->nargs + 2) * sizeof(jvalue));
+        jvalue* jparams = jargs;
+
+        if (closure->magazine->dispatchClass != NULL) {
+            // a static dispatch method takes the closure cookie ahead of the native parameters
+            jargs[0].j = closure->cookie;
+            jparams = &jargs[1];
+        }
 
         for (i = 0; i < (int) cif->nargs; i++) {
             jvalue* vp = &jparams[i];
@@ -355,11 +564,11 @@ closure_invoke(ffi_cif* cif, void* retval, void** parameters, void* user_data)
                     break;
 
                 case FFI_TYPE_FLOAT:
-                    vp->i = *(jfloat *) parameters[i];
+                    vp->f = *(jfloat *) parameters[i];
                     break;
 
                 case FFI_TYPE_DOUBLE:
-                    vp->i = *(jdouble *) parameters[i];
+                    vp->d = *(jdouble *) parameters[i];
                     break;
 
                 case FFI_TYPE_POINTER:
@@ -386,57 +595,57 @@ closure_invoke(ffi_cif* cif, void* retval, void** parameters, void* user_data)
 
         switch (cif->rtype->type) {
             case FFI_TYPE_VOID:
-                (*env)->CallVoidMethodA(env, closure->javaObject, closure->magazine->methodID, jparams);
+                CALL_CLOSURE(Void);
                 *((ffi_sarg *) retval) = 0;
                 break;
 
             case FFI_TYPE_SINT8:
-                *((ffi_sarg *) retval) = (*env)->CallByteMethodA(env, closure->javaObject, closure->magazine->methodID, jparams);
+                *((ffi_sarg *) retval) = CALL_CLOSURE(Byte);
                 break;
 
             case FFI_TYPE_SINT16:
-                *((ffi_sarg *) retval) = (*env)->CallShortMethodA(env, closure->javaObject, closure->magazine->methodID, jparams);
+                *((ffi_sarg *) retval) = CALL_CLOSURE(Short);
                 break;
 
             case FFI_TYPE_SINT32:
             case FFI_TYPE_INT:
-                *((ffi_sarg *) retval) = (*env)->CallIntMethodA(env, closure->javaObject, closure->magazine->methodID, jparams);
+                *((ffi_sarg *) retval) = CALL_CLOSURE(Int);
                 break;
 
             case FFI_TYPE_UINT8:
-                *((ffi_arg *) retval) = (*env)->CallByteMethodA(env, closure->javaObject, closure->magazine->methodID, jparams);
+                *((ffi_arg *) retval) = CALL_CLOSURE(Byte);
                 break;
 
             case FFI_TYPE_UINT16:
-                *((ffi_arg *) retval) = (*env)->CallShortMethodA(env, closure->javaObject, closure->magazine->methodID, jparams);
+                *((ffi_arg *) retval) = CALL_CLOSURE(Short);
                 break;
 
             case FFI_TYPE_UINT32:
-                *((ffi_arg *) retval) = (*env)->CallIntMethodA(env, closure->javaObject, closure->magazine->methodID, jparams);
+                *((ffi_arg *) retval) = CALL_CLOSURE(Int);
                 break;
 
             case FFI_TYPE_SINT64:
-                *((int64_t *) retval) = (*env)->CallLongMethodA(env, closure->javaObject, closure->magazine->methodID, jparams);
+                *((int64_t *) retval) = CALL_CLOSURE(Long);
                 break;
 
             case FFI_TYPE_UINT64:
-                *((uint64_t *) retval) = (*env)->CallLongMethodA(env, closure->javaObject, closure->magazine->methodID, jparams);
+                *((uint64_t *) retval) = CALL_CLOSURE(Long);
                 break;
 
             case FFI_TYPE_POINTER:
                 if (cif->rtype->size == 4) {
-                    *((ffi_arg *) retval) = (*env)->CallIntMethodA(env, closure->javaObject, closure->magazine->methodID, jparams);
+                    *((ffi_arg *) retval) = CALL_CLOSURE(Int);
                 } else {
-                    *((ffi_arg *) retval) = (*env)->CallLongMethodA(env, closure->javaObject, closure->magazine->methodID, jparams);
+                    *((ffi_arg *) retval) = CALL_CLOSURE(Long);
                 }
                 break;
 
             case FFI_TYPE_FLOAT:
-                *((float *) retval) = (*env)->CallFloatMethodA(env, closure->javaObject, closure->magazine->methodID, jparams);
+                *((float *) retval) = CALL_CLOSURE(Float);
                 break;
 
             case FFI_TYPE_DOUBLE:
-                *((double *) retval) = (*env)->CallDoubleMethodA(env, closure->javaObject, closure->magazine->methodID, jparams);
+                *((double *) retval) = CALL_CLOSURE(Double);
                 break;
 
             case FFI_TYPE_STRUCT:
@@ -445,7 +654,7 @@ closure_invoke(ffi_cif* cif, void* retval, void** parameters, void* user_data)
 #endif
                 // stuff the retval in as the last parameter passed to the java method
                 jparams[cif->nargs].j = p2j(retval);
-                (*env)->CallVoidMethodA(env, closure->javaObject, closure->magazine->methodID, jparams);
+                CALL_CLOSURE(Void);
                 break;
 
             default:
@@ -456,6 +665,28 @@ closure_invoke(ffi_cif* cif, void* retval, void** parameters, void* user_data)
         jvalue jparams[2];
         jparams[0].j = p2j(retval);
         jparams[1].j = p2j(parameters);
+
+        if (closure->magazine->flatParameters) {
+            // Copy each argument value into its own 8 byte slot, so java can read it without a pointer load
+            jlong* slots = alloca((cif->nargs + 1) * sizeof(jlong));
+
+            for (i = 0; i < (int) cif->nargs; i++) {
+                slots[i] = 0LL;
+                switch (cif->arg_types[i]->type) {
+                    case FFI_TYPE_STRUCT:
+#if FFI_TYPE_LONGDOUBLE != FFI_TYPE_DOUBLE
+                    case FFI_TYPE_LONGDOUBLE:
+#endif
+                        *(void **) &slots[i] = parameters[i];
+                        break;
+
+                    default:
+                        memcpy(&slots[i], parameters[i], cif->arg_types[i]->size);
+                        break;
+                }
+            }
+            jparams[1].j = p2j(slots);
+        }
         //
         // Do the actual invoke - the java code will unmarshal the arguments
         //
@@ -470,7 +701,7 @@ closure_invoke(ffi_cif* cif, void* retval, void** parameters, void* user_data)
 #if FAULT_PROTECT_ENABLED
     td->fault_data = fdp;
 #endif
-    closure_end(closure, env, detach);
+    closure_end(closure, env, detach, attach);
 }
 
 static bool
@@ -0,0 +1,284 @@
+#include <sys/types.h>
+#include <stdlib.h>
+#include <errno.h>
+#include <ffi.h>
+#include <jni.h>
+#include "endian.h"
+#include "jffi.h"
+#include "Exception.h"
+#include "CallContext.h"
+#include "LastError.h"
+#include "FaultProtect.h"
+#include "com_kenai_jffi_Foreign.h"
+#include "FastNumeric.h"
+
+
+#if !FAULT_PROTECT_ENABLED
+# define CALL(ctx, stmt) do { stmt; SAVE_ERRNO(ctx); } while(0)
+#else
+# define CALL(ctx, stmt) FAULTPROT_CTX(env, ctx, stmt, return 0)
+#endif
+
+/*
+ * Calls through the direct prototype when the context is all-float/all-double, otherwise
+ * through libffi, which reads each jfloat/jdouble argument using the context's own types.
+ */
+#if defined(FP_BYPASS_FFI)
+# define INVOKE_FP(ctx, flag, direct, slow) do { \
+        if (likely(((ctx)->flags & (flag)) != 0)) { direct; } else { slow; } \
+    } while (0)
+#else
+# define INVOKE_FP(ctx, flag, direct, slow) do { slow; } while (0)
+#endif
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeF0
+ * Signature: (JJ)F
+ */
+JNIEXPORT jfloat JNICALL
+Java_com_kenai_jffi_Foreign_invokeF0(JNIEnv* env, jclass self, jlong ctxAddress, jlong function)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    CALL(ctx, INVOKE_FP(ctx, CALL_CTX_FAST_FLOAT,
+            invokeF0(ctx, j2p(function), &retval.f),
+            ffi_call0(ctx, j2p(function), &retval)));
+
+    return retval.f;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeF1
+ * Signature: (JJF)F
+ */
+JNIEXPORT jfloat JNICALL
+Java_com_kenai_jffi_Foreign_invokeF1(JNIEnv* env, jclass self, jlong ctxAddress, jlong function, jfloat arg1)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    CALL(ctx, INVOKE_FP(ctx, CALL_CTX_FAST_FLOAT,
+            invokeF1(ctx, j2p(function), &retval.f, arg1),
+            ffi_call1(ctx, j2p(function), &retval, arg1)));
+
+    return retval.f;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeF2
+ * Signature: (JJFF)F
+ */
+JNIEXPORT jfloat JNICALL
+Java_com_kenai_jffi_Foreign_invokeF2(JNIEnv* env, jclass self, jlong ctxAddress, jlong function, jfloat arg1, jfloat arg2)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    CALL(ctx, INVOKE_FP(ctx, CALL_CTX_FAST_FLOAT,
+            invokeF2(ctx, j2p(function), &retval.f, arg1, arg2),
+            ffi_call2(ctx, j2p(function), &retval, arg1, arg2)));
+
+    return retval.f;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeF3
+ * Signature: (JJFFF)F
+ */
+JNIEXPORT jfloat JNICALL
+Java_com_kenai_jffi_Foreign_invokeF3(JNIEnv* env, jclass self, jlong ctxAddress, jlong function, jfloat arg1, jfloat arg2, jfloat arg3)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    CALL(ctx, INVOKE_FP(ctx, CALL_CTX_FAST_FLOAT,
+            invokeF3(ctx, j2p(function), &retval.f, arg1, arg2, arg3),
+            ffi_call3(ctx, j2p(function), &retval, arg1, arg2, arg3)));
+
+    return retval.f;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeF4
+ * Signature: (JJFFFF)F
+ */
+JNIEXPORT jfloat JNICALL
+Java_com_kenai_jffi_Foreign_invokeF4(JNIEnv* env, jclass self, jlong ctxAddress, jlong function, jfloat arg1, jfloat arg2, jfloat arg3, jfloat arg4)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    CALL(ctx, INVOKE_FP(ctx, CALL_CTX_FAST_FLOAT,
+            invokeF4(ctx, j2p(function), &retval.f, arg1, arg2, arg3, arg4),
+            ffi_call4(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4)));
+
+    return retval.f;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeF5
+ * Signature: (JJFFFFF)F
+ */
+JNIEXPORT jfloat JNICALL
+Java_com_kenai_jffi_Foreign_invokeF5(JNIEnv* env, jclass self, jlong ctxAddress, jlong function, jfloat arg1, jfloat arg2, jfloat arg3, jfloat arg4, jfloat arg5)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    CALL(ctx, INVOKE_FP(ctx, CALL_CTX_FAST_FLOAT,
+            invokeF5(ctx, j2p(function), &retval.f, arg1, arg2, arg3, arg4, arg5),
+            ffi_call5(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5)));
+
+    return retval.f;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeF6
+ * Signature: (JJFFFFFF)F
+ */
+JNIEXPORT jfloat JNICALL
+Java_com_kenai_jffi_Foreign_invokeF6(JNIEnv* env, jclass self, jlong ctxAddress, jlong function, jfloat arg1, jfloat arg2, jfloat arg3, jfloat arg4, jfloat arg5, jfloat arg6)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    CALL(ctx, INVOKE_FP(ctx, CALL_CTX_FAST_FLOAT,
+            invokeF6(ctx, j2p(function), &retval.f, arg1, arg2, arg3, arg4, arg5, arg6),
+            ffi_call6(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6)));
+
+    return retval.f;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeD0
+ * Signature: (JJ)D
+ */
+JNIEXPORT jdouble JNICALL
+Java_com_kenai_jffi_Foreign_invokeD0(JNIEnv* env, jclass self, jlong ctxAddress, jlong function)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    CALL(ctx, INVOKE_FP(ctx, CALL_CTX_FAST_DOUBLE,
+            invokeD0(ctx, j2p(function), &retval.d),
+            ffi_call0(ctx, j2p(function), &retval)));
+
+    return retval.d;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeD1
+ * Signature: (JJD)D
+ */
+JNIEXPORT jdouble JNICALL
+Java_com_kenai_jffi_Foreign_invokeD1(JNIEnv* env, jclass self, jlong ctxAddress, jlong function, jdouble arg1)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    CALL(ctx, INVOKE_FP(ctx, CALL_CTX_FAST_DOUBLE,
+            invokeD1(ctx, j2p(function), &retval.d, arg1),
+            ffi_call1(ctx, j2p(function), &retval, arg1)));
+
+    return retval.d;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeD2
+ * Signature: (JJDD)D
+ */
+JNIEXPORT jdouble JNICALL
+Java_com_kenai_jffi_Foreign_invokeD2(JNIEnv* env, jclass self, jlong ctxAddress, jlong function, jdouble arg1, jdouble arg2)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    CALL(ctx, INVOKE_FP(ctx, CALL_CTX_FAST_DOUBLE,
+            invokeD2(ctx, j2p(function), &retval.d, arg1, arg2),
+            ffi_call2(ctx, j2p(function), &retval, arg1, arg2)));
+
+    return retval.d;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeD3
+ * Signature: (JJDDD)D
+ */
+JNIEXPORT jdouble JNICALL
+Java_com_kenai_jffi_Foreign_invokeD3(JNIEnv* env, jclass self, jlong ctxAddress, jlong function, jdouble arg1, jdouble arg2, jdouble arg3)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    CALL(ctx, INVOKE_FP(ctx, CALL_CTX_FAST_DOUBLE,
+            invokeD3(ctx, j2p(function), &retval.d, arg1, arg2, arg3),
+            ffi_call3(ctx, j2p(function), &retval, arg1, arg2, arg3)));
+
+    return retval.d;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeD4
+ * Signature: (JJDDDD)D
+ */
+JNIEXPORT jdouble JNICALL
+Java_com_kenai_jffi_Foreign_invokeD4(JNIEnv* env, jclass self, jlong ctxAddress, jlong function, jdouble arg1, jdouble arg2, jdouble arg3, jdouble arg4)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    CALL(ctx, INVOKE_FP(ctx, CALL_CTX_FAST_DOUBLE,
+            invokeD4(ctx, j2p(function), &retval.d, arg1, arg2, arg3, arg4),
+            ffi_call4(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4)));
+
+    return retval.d;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeD5
+ * Signature: (JJDDDDD)D
+ */
+JNIEXPORT jdouble JNICALL
+Java_com_kenai_jffi_Foreign_invokeD5(JNIEnv* env, jclass self, jlong ctxAddress, jlong function, jdouble arg1, jdouble arg2, jdouble arg3, jdouble arg4, jdouble arg5)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    CALL(ctx, INVOKE_FP(ctx, CALL_CTX_FAST_DOUBLE,
+            invokeD5(ctx, j2p(function), &retval.d, arg1, arg2, arg3, arg4, arg5),
+            ffi_call5(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5)));
+
+    return retval.d;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeD6
+ * Signature: (JJDDDDDD)D
+ */
+JNIEXPORT jdouble JNICALL
+Java_com_kenai_jffi_Foreign_invokeD6(JNIEnv* env, jclass self, jlong ctxAddress, jlong function, jdouble arg1, jdouble arg2, jdouble arg3, jdouble arg4, jdouble arg5, jdouble arg6)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    CALL(ctx, INVOKE_FP(ctx, CALL_CTX_FAST_DOUBLE,
+            invokeD6(ctx, j2p(function), &retval.d, arg1, arg2, arg3, arg4, arg5, arg6),
+            ffi_call6(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6)));
+
+    return retval.d;
+}
@@ -230,3 +230,147 @@ Java_com_kenai_jffi_Foreign_invokeI6NoErrno(JNIEnv*env, jobject self, jlong ctxA
 
     return (jint) retval;
 }
+
+JNIEXPORT jint JNICALL
+Java_com_kenai_jffi_Foreign_invokeI7(JNIEnv*env, jobject self, jlong ctxAddress, jlong function,
+        jint arg1, jint arg2, jint arg3, jint arg4, jint arg5, jint arg6, jint arg7)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    ffi_sarg retval;
+
+    CALL(ctx, invokeI7(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7));
+
+    return (jint) retval;
+}
+
+JNIEXPORT jint JNICALL
+Java_com_kenai_jffi_Foreign_invokeI7NoErrno(JNIEnv*env, jobject self, jlong ctxAddress, jlong function,
+        jint arg1, jint arg2, jint arg3, jint arg4, jint arg5, jint arg6, jint arg7)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    ffi_sarg retval;
+
+    invokeI7(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+
+    return (jint) retval;
+}
+
+JNIEXPORT jint JNICALL
+Java_com_kenai_jffi_Foreign_invokeI8(JNIEnv*env, jobject self, jlong ctxAddress, jlong function,
+        jint arg1, jint arg2, jint arg3, jint arg4, jint arg5, jint arg6, jint arg7, jint arg8)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    ffi_sarg retval;
+
+    CALL(ctx, invokeI8(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8));
+
+    return (jint) retval;
+}
+
+JNIEXPORT jint JNICALL
+Java_com_kenai_jffi_Foreign_invokeI8NoErrno(JNIEnv*env, jobject self, jlong ctxAddress, jlong function,
+        jint arg1, jint arg2, jint arg3, jint arg4, jint arg5, jint arg6, jint arg7, jint arg8)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    ffi_sarg retval;
+
+    invokeI8(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+
+    return (jint) retval;
+}
+
+JNIEXPORT jint JNICALL
+Java_com_kenai_jffi_Foreign_invokeI9(JNIEnv*env, jobject self, jlong ctxAddress, jlong function,
+        jint arg1, jint arg2, jint arg3, jint arg4, jint arg5, jint arg6, jint arg7, jint arg8, jint arg9)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    ffi_sarg retval;
+
+    CALL(ctx, invokeI9(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9));
+
+    return (jint) retval;
+}
+
+JNIEXPORT jint JNICALL
+Java_com_kenai_jffi_Foreign_invokeI9NoErrno(JNIEnv*env, jobject self, jlong ctxAddress, jlong function,
+        jint arg1, jint arg2, jint arg3, jint arg4, jint arg5, jint arg6, jint arg7, jint arg8, jint arg9)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    ffi_sarg retval;
+
+    invokeI9(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+
+    return (jint) retval;
+}
+
+JNIEXPORT jint JNICALL
+Java_com_kenai_jffi_Foreign_invokeI10(JNIEnv*env, jobject self, jlong ctxAddress, jlong function,
+        jint arg1, jint arg2, jint arg3, jint arg4, jint arg5, jint arg6, jint arg7, jint arg8, jint arg9, jint arg10)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    ffi_sarg retval;
+
+    CALL(ctx, invokeI10(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10));
+
+    return (jint) retval;
+}
+
+JNIEXPORT jint JNICALL
+Java_com_kenai_jffi_Foreign_invokeI10NoErrno(JNIEnv*env, jobject self, jlong ctxAddress, jlong function,
+        jint arg1, jint arg2, jint arg3, jint arg4, jint arg5, jint arg6, jint arg7, jint arg8, jint arg9, jint arg10)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    ffi_sarg retval;
+
+    invokeI10(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+
+    return (jint) retval;
+}
+
+JNIEXPORT jint JNICALL
+Java_com_kenai_jffi_Foreign_invokeI11(JNIEnv*env, jobject self, jlong ctxAddress, jlong function,
+        jint arg1, jint arg2, jint arg3, jint arg4, jint arg5, jint arg6, jint arg7, jint arg8, jint arg9, jint arg10, jint arg11)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    ffi_sarg retval;
+
+    CALL(ctx, invokeI11(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11));
+
+    return (jint) retval;
+}
+
+JNIEXPORT jint JNICALL
+Java_com_kenai_jffi_Foreign_invokeI11NoErrno(JNIEnv*env, jobject self, jlong ctxAddress, jlong function,
+        jint arg1, jint arg2, jint arg3, jint arg4, jint arg5, jint arg6, jint arg7, jint arg8, jint arg9, jint arg10, jint arg11)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    ffi_sarg retval;
+
+    invokeI11(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11);
+
+    return (jint) retval;
+}
+
+JNIEXPORT jint JNICALL
+Java_com_kenai_jffi_Foreign_invokeI12(JNIEnv*env, jobject self, jlong ctxAddress, jlong function,
+        jint arg1, jint arg2, jint arg3, jint arg4, jint arg5, jint arg6, jint arg7, jint arg8, jint arg9, jint arg10, jint arg11, jint arg12)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    ffi_sarg retval;
+
+    CALL(ctx, invokeI12(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12));
+
+    return (jint) retval;
+}
+
+JNIEXPORT jint JNICALL
+Java_com_kenai_jffi_Foreign_invokeI12NoErrno(JNIEnv*env, jobject self, jlong ctxAddress, jlong function,
+        jint arg1, jint arg2, jint arg3, jint arg4, jint arg5, jint arg6, jint arg7, jint arg8, jint arg9, jint arg10, jint arg11, jint arg12)
+{
+    CallContext *ctx = (CallContext *) j2p(ctxAddress);
+    ffi_sarg retval;
+
+    invokeI12(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12);
+
+    return (jint) retval;
+}
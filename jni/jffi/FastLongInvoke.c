@@ -236,3 +236,147 @@ Java_com_kenai_jffi_Foreign_invokeL6NoErrno(JNIEnv* env, jobject self, jlong ctx
 
     return RETVAL(retval, ctx);
 }
+
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeL7(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5, jlong arg6, jlong arg7)
+{
+    CallContext* ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    FAULTPROT_CTX(env, ctx, invokeL7(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7), return 0);
+
+    return RETVAL(retval, ctx);
+}
+
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeL7NoErrno(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5, jlong arg6, jlong arg7)
+{
+    CallContext* ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    FAULTPROT_CTX(env, ctx, invokeL7(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7), return 0);
+
+    return RETVAL(retval, ctx);
+}
+
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeL8(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5, jlong arg6, jlong arg7, jlong arg8)
+{
+    CallContext* ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    FAULTPROT_CTX(env, ctx, invokeL8(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8), return 0);
+
+    return RETVAL(retval, ctx);
+}
+
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeL8NoErrno(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5, jlong arg6, jlong arg7, jlong arg8)
+{
+    CallContext* ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    FAULTPROT_CTX(env, ctx, invokeL8(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8), return 0);
+
+    return RETVAL(retval, ctx);
+}
+
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeL9(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5, jlong arg6, jlong arg7, jlong arg8, jlong arg9)
+{
+    CallContext* ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    FAULTPROT_CTX(env, ctx, invokeL9(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9), return 0);
+
+    return RETVAL(retval, ctx);
+}
+
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeL9NoErrno(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5, jlong arg6, jlong arg7, jlong arg8, jlong arg9)
+{
+    CallContext* ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    FAULTPROT_CTX(env, ctx, invokeL9(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9), return 0);
+
+    return RETVAL(retval, ctx);
+}
+
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeL10(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5, jlong arg6, jlong arg7, jlong arg8, jlong arg9, jlong arg10)
+{
+    CallContext* ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    FAULTPROT_CTX(env, ctx, invokeL10(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10), return 0);
+
+    return RETVAL(retval, ctx);
+}
+
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeL10NoErrno(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5, jlong arg6, jlong arg7, jlong arg8, jlong arg9, jlong arg10)
+{
+    CallContext* ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    FAULTPROT_CTX(env, ctx, invokeL10(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10), return 0);
+
+    return RETVAL(retval, ctx);
+}
+
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeL11(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5, jlong arg6, jlong arg7, jlong arg8, jlong arg9, jlong arg10, jlong arg11)
+{
+    CallContext* ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    FAULTPROT_CTX(env, ctx, invokeL11(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11), return 0);
+
+    return RETVAL(retval, ctx);
+}
+
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeL11NoErrno(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5, jlong arg6, jlong arg7, jlong arg8, jlong arg9, jlong arg10, jlong arg11)
+{
+    CallContext* ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    FAULTPROT_CTX(env, ctx, invokeL11(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11), return 0);
+
+    return RETVAL(retval, ctx);
+}
+
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeL12(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5, jlong arg6, jlong arg7, jlong arg8, jlong arg9, jlong arg10, jlong arg11, jlong arg12)
+{
+    CallContext* ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    FAULTPROT_CTX(env, ctx, invokeL12(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12), return 0);
+
+    return RETVAL(retval, ctx);
+}
+
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeL12NoErrno(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5, jlong arg6, jlong arg7, jlong arg8, jlong arg9, jlong arg10, jlong arg11, jlong arg12)
+{
+    CallContext* ctx = (CallContext *) j2p(ctxAddress);
+    FFIValue retval;
+
+    FAULTPROT_CTX(env, ctx, invokeL12(ctx, j2p(function), &retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12), return 0);
+
+    return RETVAL(retval, ctx);
+}
@@ -7,6 +7,20 @@
 
 #if defined(__x86_64__) && defined(__GNUC__)
 # define LONG_BYPASS_FFI
+# define FP_BYPASS_FFI
+#endif
+
+/*
+ * The SysV x86_64 ABI assigns integer and floating point parameters to their own register
+ * sequences independently of their position, so any signature with at most 6 integer and
+ * 8 floating point parameters can be called through one fixed prototype.
+ */
+#if defined(__x86_64__) && defined(__GNUC__) && !defined(_WIN32)
+# define MIXED_BYPASS_FFI
+# define MIXED_MAX_GP (6)
+# define MIXED_MAX_FP (8)
+# define STRUCT_BYPASS_FFI
+# define STRUCT_MAX_SIZE (16)
 #endif
 
 
@@ -46,6 +60,30 @@
             CLEAR_VARARGS; *(retval) = ((jint (*)(jint, jint, jint, jint, jint, jint)) (fn))(arg1, arg2, arg3, arg4, arg5, arg6); \
     } while (0)
 
+# define invokeI7(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7) do { \
+            CLEAR_VARARGS; *(retval) = ((jint (*)(jint, jint, jint, jint, jint, jint, jint)) (fn))(arg1, arg2, arg3, arg4, arg5, arg6, arg7); \
+    } while (0)
+
+# define invokeI8(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8) do { \
+            CLEAR_VARARGS; *(retval) = ((jint (*)(jint, jint, jint, jint, jint, jint, jint, jint)) (fn))(arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8); \
+    } while (0)
+
+# define invokeI9(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9) do { \
+            CLEAR_VARARGS; *(retval) = ((jint (*)(jint, jint, jint, jint, jint, jint, jint, jint, jint)) (fn))(arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9); \
+    } while (0)
+
+# define invokeI10(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10) do { \
+            CLEAR_VARARGS; *(retval) = ((jint (*)(jint, jint, jint, jint, jint, jint, jint, jint, jint, jint)) (fn))(arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10); \
+    } while (0)
+
+# define invokeI11(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11) do { \
+            CLEAR_VARARGS; *(retval) = ((jint (*)(jint, jint, jint, jint, jint, jint, jint, jint, jint, jint, jint)) (fn))(arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11); \
+    } while (0)
+
+# define invokeI12(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12) do { \
+            CLEAR_VARARGS; *(retval) = ((jint (*)(jint, jint, jint, jint, jint, jint, jint, jint, jint, jint, jint, jint)) (fn))(arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12); \
+    } while (0)
+
 #else /* non-i386, non-x86_64 */
 
 # define invokeI0 ffi_call0
@@ -55,6 +93,12 @@
 # define invokeI4 ffi_call4
 # define invokeI5 ffi_call5
 # define invokeI6 ffi_call6
+# define invokeI7 ffi_call7
+# define invokeI8 ffi_call8
+# define invokeI9 ffi_call9
+# define invokeI10 ffi_call10
+# define invokeI11 ffi_call11
+# define invokeI12 ffi_call12
 
 #endif
 
@@ -90,6 +134,30 @@
             CLEAR_VARARGS; (retval)->j = ((jlong (*)(jlong, jlong, jlong, jlong, jlong, jlong)) (fn))(arg1, arg2, arg3, arg4, arg5, arg6); \
     } while (0)
 
+# define invokeL7(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7) do { \
+            CLEAR_VARARGS; (retval)->j = ((jlong (*)(jlong, jlong, jlong, jlong, jlong, jlong, jlong)) (fn))(arg1, arg2, arg3, arg4, arg5, arg6, arg7); \
+    } while (0)
+
+# define invokeL8(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8) do { \
+            CLEAR_VARARGS; (retval)->j = ((jlong (*)(jlong, jlong, jlong, jlong, jlong, jlong, jlong, jlong)) (fn))(arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8); \
+    } while (0)
+
+# define invokeL9(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9) do { \
+            CLEAR_VARARGS; (retval)->j = ((jlong (*)(jlong, jlong, jlong, jlong, jlong, jlong, jlong, jlong, jlong)) (fn))(arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9); \
+    } while (0)
+
+# define invokeL10(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10) do { \
+            CLEAR_VARARGS; (retval)->j = ((jlong (*)(jlong, jlong, jlong, jlong, jlong, jlong, jlong, jlong, jlong, jlong)) (fn))(arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10); \
+    } while (0)
+
+# define invokeL11(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11) do { \
+            CLEAR_VARARGS; (retval)->j = ((jlong (*)(jlong, jlong, jlong, jlong, jlong, jlong, jlong, jlong, jlong, jlong, jlong)) (fn))(arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11); \
+    } while (0)
+
+# define invokeL12(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12) do { \
+            CLEAR_VARARGS; (retval)->j = ((jlong (*)(jlong, jlong, jlong, jlong, jlong, jlong, jlong, jlong, jlong, jlong, jlong, jlong)) (fn))(arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12); \
+    } while (0)
+
 #else /* non-i386, non-x86_64 */
 
 # define invokeL0 ffi_call0
@@ -99,7 +167,216 @@
 # define invokeL4 ffi_call4
 # define invokeL5 ffi_call5
 # define invokeL6 ffi_call6
+# define invokeL7 ffi_call7
+# define invokeL8 ffi_call8
+# define invokeL9 ffi_call9
+# define invokeL10 ffi_call10
+# define invokeL11 ffi_call11
+# define invokeL12 ffi_call12
+
+#endif
+
+#if defined(FP_BYPASS_FFI)
+
+# define invokeD0(ctx, fn, retval) do { \
+            *(retval) = ((jdouble (*)()) (fn))(); \
+    } while (0)
+
+# define invokeD1(ctx, fn, retval, arg1) do { \
+            *(retval) = ((jdouble (*)(jdouble)) (fn))(arg1); \
+    } while (0)
+
+# define invokeD2(ctx, fn, retval, arg1, arg2) do { \
+            *(retval) = ((jdouble (*)(jdouble, jdouble)) (fn))(arg1, arg2); \
+    } while (0)
+
+# define invokeD3(ctx, fn, retval, arg1, arg2, arg3) do { \
+            *(retval) = ((jdouble (*)(jdouble, jdouble, jdouble)) (fn))(arg1, arg2, arg3); \
+    } while (0)
+
+# define invokeD4(ctx, fn, retval, arg1, arg2, arg3, arg4) do { \
+            *(retval) = ((jdouble (*)(jdouble, jdouble, jdouble, jdouble)) (fn))(arg1, arg2, arg3, arg4); \
+    } while (0)
+
+# define invokeD5(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5) do { \
+            *(retval) = ((jdouble (*)(jdouble, jdouble, jdouble, jdouble, jdouble)) (fn))(arg1, arg2, arg3, arg4, arg5); \
+    } while (0)
+
+# define invokeD6(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6) do { \
+            *(retval) = ((jdouble (*)(jdouble, jdouble, jdouble, jdouble, jdouble, jdouble)) (fn))(arg1, arg2, arg3, arg4, arg5, arg6); \
+    } while (0)
+
+# define invokeF0(ctx, fn, retval) do { \
+            *(retval) = ((jfloat (*)()) (fn))(); \
+    } while (0)
+
+# define invokeF1(ctx, fn, retval, arg1) do { \
+            *(retval) = ((jfloat (*)(jfloat)) (fn))(arg1); \
+    } while (0)
+
+# define invokeF2(ctx, fn, retval, arg1, arg2) do { \
+            *(retval) = ((jfloat (*)(jfloat, jfloat)) (fn))(arg1, arg2); \
+    } while (0)
+
+# define invokeF3(ctx, fn, retval, arg1, arg2, arg3) do { \
+            *(retval) = ((jfloat (*)(jfloat, jfloat, jfloat)) (fn))(arg1, arg2, arg3); \
+    } while (0)
+
+# define invokeF4(ctx, fn, retval, arg1, arg2, arg3, arg4) do { \
+            *(retval) = ((jfloat (*)(jfloat, jfloat, jfloat, jfloat)) (fn))(arg1, arg2, arg3, arg4); \
+    } while (0)
+
+# define invokeF5(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5) do { \
+            *(retval) = ((jfloat (*)(jfloat, jfloat, jfloat, jfloat, jfloat)) (fn))(arg1, arg2, arg3, arg4, arg5); \
+    } while (0)
+
+# define invokeF6(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6) do { \
+            *(retval) = ((jfloat (*)(jfloat, jfloat, jfloat, jfloat, jfloat, jfloat)) (fn))(arg1, arg2, arg3, arg4, arg5, arg6); \
+    } while (0)
+
+#endif /* FP_BYPASS_FFI */
+
+#if defined(MIXED_BYPASS_FFI)
+
+/* Only the low bits of sub-word return values are defined by the ABI */
+static inline jlong
+extendReturnValue(CallContext* ctx, jlong result)
+{
+    switch (ctx->cif.rtype->type) {
+        case FFI_TYPE_SINT8:
+            return (int8_t) result;
+        case FFI_TYPE_UINT8:
+            return (uint8_t) result;
+        case FFI_TYPE_SINT16:
+            return (int16_t) result;
+        case FFI_TYPE_UINT16:
+            return (uint16_t) result;
+        case FFI_TYPE_INT:
+        case FFI_TYPE_SINT32:
+            return (int32_t) result;
+        case FFI_TYPE_UINT32:
+            return (uint32_t) result;
+        default:
+            return result;
+    }
+}
+
+typedef jlong (*MixedIntFunction)(jlong, jlong, jlong, jlong, jlong, jlong,
+        jdouble, jdouble, jdouble, jdouble, jdouble, jdouble, jdouble, jdouble);
+typedef jdouble (*MixedFPFunction)(jlong, jlong, jlong, jlong, jlong, jlong,
+        jdouble, jdouble, jdouble, jdouble, jdouble, jdouble, jdouble, jdouble);
+
+/*
+ * Calls a function whose parameters are any mix of integer, pointer, float and double values,
+ * packed the same way as for invokeN (float and double values are passed as their raw bits).
+ * Floating point values are handed over in the low bits of an xmm register, which is where the
+ * callee reads a float from, so float and double parameters need no conversion.
+ * args must hold argc values; CALL_CTX_FAST_MIXED guarantees argc <= MIXED_MAX_GP + MIXED_MAX_FP.
+ */
+static inline jlong
+invokeMixedArgs(CallContext* ctx, void* fn, int argc, const jlong* args)
+{
+    jlong gp[MIXED_MAX_GP] = { 0 };
+    union { jlong j; jdouble d; } fp[MIXED_MAX_FP] = { { 0 } };
+    int i, ngp = 0, nfp = 0;
+
+    for (i = 0; i < argc; i++) {
+        if ((ctx->fpParamMask & (1U << i)) != 0) {
+            fp[nfp++].j = args[i];
+        } else {
+            gp[ngp++] = args[i];
+        }
+    }
 
+    if ((ctx->flags & CALL_CTX_FP_RETURN) != 0) {
+        union { jlong j; jdouble d; } result;
+        result.j = 0;
+        result.d = ((MixedFPFunction) fn)(gp[0], gp[1], gp[2], gp[3], gp[4], gp[5],
+                fp[0].d, fp[1].d, fp[2].d, fp[3].d, fp[4].d, fp[5].d, fp[6].d, fp[7].d);
+        return result.j;
+
+    } else {
+        return extendReturnValue(ctx, ((MixedIntFunction) fn)(gp[0], gp[1], gp[2], gp[3], gp[4], gp[5],
+                fp[0].d, fp[1].d, fp[2].d, fp[3].d, fp[4].d, fp[5].d, fp[6].d, fp[7].d));
+    }
+}
+
+static inline jlong
+invokeMixed(CallContext* ctx, void* fn, int argc, jlong n1, jlong n2, jlong n3, jlong n4, jlong n5, jlong n6,
+        jlong n7, jlong n8, jlong n9, jlong n10, jlong n11, jlong n12)
+{
+    const jlong args[MIXED_MAX_GP + MIXED_MAX_FP] = { n1, n2, n3, n4, n5, n6, n7, n8, n9, n10, n11, n12 };
+
+    return invokeMixedArgs(ctx, fn, argc, args);
+}
+
+#endif /* MIXED_BYPASS_FFI */
+
+static inline jlong
+numericResult(ffi_type* rtype, FFIValue* retval)
+{
+    switch (rtype->type) {
+        case FFI_TYPE_VOID:
+            return 0;
+        case FFI_TYPE_FLOAT:
+            return (jlong) retval->u32;
+        case FFI_TYPE_DOUBLE:
+        case FFI_TYPE_SINT64:
+        case FFI_TYPE_UINT64:
+            return retval->j;
+        case FFI_TYPE_SINT8:
+            return (int8_t) retval->sarg;
+        case FFI_TYPE_UINT8:
+            return (uint8_t) retval->arg;
+        case FFI_TYPE_SINT16:
+            return (int16_t) retval->sarg;
+        case FFI_TYPE_UINT16:
+            return (uint16_t) retval->arg;
+        case FFI_TYPE_UINT32:
+            return (uint32_t) retval->arg;
+        case FFI_TYPE_POINTER:
+            return p2j(retval->p);
+        default:
+            return (int32_t) retval->sarg;
+    }
+}
+
+/*
+ * Calls a function with parameters packed as for invokeN, one 64 bit slot per parameter, with
+ * struct parameters passed as the address of the struct.  The result is returned as for invokeN,
+ * with a float result in the low 32 bits.  ffiValues must have room for one pointer per parameter.
+ */
+static inline jlong
+invokeNumericArgs(CallContext* ctx, void* function, jlong* args, void** ffiValues)
+{
+#if defined(MIXED_BYPASS_FFI)
+    if (likely((ctx->flags & CALL_CTX_FAST_MIXED) != 0)) {
+        // A mixed signature can have up to MIXED_MAX_GP + MIXED_MAX_FP parameters, more than the
+        // twelve invokeMixed takes, so the packed parameters are read straight from args
+        jlong result = invokeMixedArgs(ctx, function, ctx->cif.nargs, args);
+        return ctx->cif.rtype->type == FFI_TYPE_FLOAT ? (jlong) (uint32_t) result : result;
+
+    } else if (likely((ctx->flags & CALL_CTX_FAST_LONG) != 0 && ctx->cif.nargs <= MIXED_MAX_GP)) {
+        jlong n[MIXED_MAX_GP] = { 0 };
+        memcpy(n, args, ctx->cif.nargs * sizeof(jlong));
+        CLEAR_VARARGS;
+        return extendReturnValue(ctx, ((jlong (*)(jlong, jlong, jlong, jlong, jlong, jlong)) function)(
+                n[0], n[1], n[2], n[3], n[4], n[5]));
+    }
 #endif
+    {
+        FFIValue retval;
+        unsigned int i;
+
+        for (i = 0; i < ctx->cif.nargs; i++) {
+            ffi_type* type = ctx->cif.arg_types[i];
+            ffiValues[i] = type->type == FFI_TYPE_STRUCT ? j2p(args[i]) : ARGPTR(&args[i], type);
+        }
+
+        retval.j = 0;
+        ffi_call(&ctx->cif, FFI_FN(function), &retval, ffiValues);
+        return numericResult(ctx->cif.rtype, &retval);
+    }
+}
 
 #endif /* JFFI_FASTNUMERIC_H */
\ No newline at end of file
@@ -52,7 +52,6 @@
 /* for return values <= sizeof(long), need to use an ffi_sarg sized return value */
 # define RETVAL(retval, ctx) ((ctx->cif.rtype)->size > sizeof(ffi_sarg) ? (retval).j : (retval).sarg)
 
-#define MAX_STACK_ARRAY (1024)
 
 
 #define OBJIDX(flags) ((flags & com_kenai_jffi_ObjectBuffer_INDEX_MASK) >> com_kenai_jffi_ObjectBuffer_INDEX_SHIFT)
@@ -92,9 +91,21 @@ static jlong call5(JNIEnv* env, CallContext* ctx, void* function,
         jlong n1, jlong n2, jlong n3, jlong n4, jlong n5);
 static jlong call6(JNIEnv* env, CallContext* ctx, void* function,
         jlong n1, jlong n2, jlong n3, jlong n4, jlong n5, jlong n6);
+static jlong call7(JNIEnv* env, CallContext* ctx, void* function,
+        jlong n1, jlong n2, jlong n3, jlong n4, jlong n5, jlong n6, jlong n7);
+static jlong call8(JNIEnv* env, CallContext* ctx, void* function,
+        jlong n1, jlong n2, jlong n3, jlong n4, jlong n5, jlong n6, jlong n7, jlong n8);
+static jlong call9(JNIEnv* env, CallContext* ctx, void* function,
+        jlong n1, jlong n2, jlong n3, jlong n4, jlong n5, jlong n6, jlong n7, jlong n8, jlong n9);
+static jlong call10(JNIEnv* env, CallContext* ctx, void* function,
+        jlong n1, jlong n2, jlong n3, jlong n4, jlong n5, jlong n6, jlong n7, jlong n8, jlong n9, jlong n10);
+static jlong call11(JNIEnv* env, CallContext* ctx, void* function,
+        jlong n1, jlong n2, jlong n3, jlong n4, jlong n5, jlong n6, jlong n7, jlong n8, jlong n9, jlong n10, jlong n11);
+static jlong call12(JNIEnv* env, CallContext* ctx, void* function,
+        jlong n1, jlong n2, jlong n3, jlong n4, jlong n5, jlong n6, jlong n7, jlong n8, jlong n9, jlong n10, jlong n11, jlong n12);
 static bool pin_arrays(JNIEnv* env, Pinned* pinned, int pinnedCount, 
         Array* arrays, int *arrayCount, jlong* v);
-static bool object_to_ptr(JNIEnv* env, jobject obj, int off, int len, int f, jlong* vp, 
+static bool object_to_ptr(JNIEnv* env, jobject obj, int off, int len, int f, bool pin, jlong* vp, 
         Array* arrays, int* arrayCount, Pinned* pinned, int* pinnedCount);
 
 /*
@@ -118,6 +129,11 @@ Java_com_kenai_jffi_Foreign_invokeN0(JNIEnv* env, jobject self, jlong ctxAddress
     } else if (likely((ctx->flags & CALL_CTX_FAST_INT) != 0)) {
         invokeI0(ctx, j2p(function), &retval.j);
 #endif
+
+#if defined(MIXED_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_MIXED) != 0)) {
+        retval.j = invokeMixed(ctx, j2p(function), 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+#endif
     } else {
         ffi_call0(ctx, j2p(function), &retval);
     }, return 0);
@@ -180,6 +196,48 @@ Java_com_kenai_jffi_Foreign_invokeN6(JNIEnv* env, jobject self, jlong ctxAddress
     return call6(env, (CallContext *) j2p(ctxAddress), j2p(function), arg1, arg2, arg3, arg4, arg5, arg6);
 }
 
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeN7(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5, jlong arg6, jlong arg7)
+{
+    return call7(env, (CallContext *) j2p(ctxAddress), j2p(function), arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+}
+
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeN8(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5, jlong arg6, jlong arg7, jlong arg8)
+{
+    return call8(env, (CallContext *) j2p(ctxAddress), j2p(function), arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+}
+
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeN9(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5, jlong arg6, jlong arg7, jlong arg8, jlong arg9)
+{
+    return call9(env, (CallContext *) j2p(ctxAddress), j2p(function), arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+}
+
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeN10(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5, jlong arg6, jlong arg7, jlong arg8, jlong arg9, jlong arg10)
+{
+    return call10(env, (CallContext *) j2p(ctxAddress), j2p(function), arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+}
+
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeN11(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5, jlong arg6, jlong arg7, jlong arg8, jlong arg9, jlong arg10, jlong arg11)
+{
+    return call11(env, (CallContext *) j2p(ctxAddress), j2p(function), arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11);
+}
+
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeN12(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5, jlong arg6, jlong arg7, jlong arg8, jlong arg9, jlong arg10, jlong arg11, jlong arg12)
+{
+    return call12(env, (CallContext *) j2p(ctxAddress), j2p(function), arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12);
+}
+
 static jlong
 call1(JNIEnv* env, CallContext* ctx, void* function, jlong n1)
 {
@@ -196,6 +254,11 @@ call1(JNIEnv* env, CallContext* ctx, void* function, jlong n1)
         invokeI1(ctx, function, &retval.j, (jint) n1);
 #endif
 
+#if defined(MIXED_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_MIXED) != 0)) {
+        retval.j = invokeMixed(ctx, function, 1, n1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+#endif
+
     } else {
         ffi_call1(ctx, function, &retval, n1);
     }, return 0);
@@ -219,6 +282,11 @@ call2(JNIEnv* env, CallContext* ctx, void* function, jlong n1, jlong n2)
         invokeI2(ctx, function, &retval.j, (jint) n1, (jint) n2);
 #endif
 
+#if defined(MIXED_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_MIXED) != 0)) {
+        retval.j = invokeMixed(ctx, function, 2, n1, n2, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+#endif
+
     } else {
         ffi_call2(ctx, function, &retval, n1, n2);
     }, return 0);
@@ -242,6 +310,11 @@ call3(JNIEnv* env, CallContext* ctx, void* function, jlong n1, jlong n2, jlong n
         invokeI3(ctx, function, &retval.j, (jint) n1, (jint) n2, (jint) n3);
 #endif
 
+#if defined(MIXED_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_MIXED) != 0)) {
+        retval.j = invokeMixed(ctx, function, 3, n1, n2, n3, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+#endif
+
     } else {
         ffi_call3(ctx, function, &retval, n1, n2, n3);
     }, return 0);
@@ -267,6 +340,11 @@ call4(JNIEnv* env, CallContext* ctx, void* function, jlong n1, jlong n2, jlong n
         invokeI4(ctx, function, &retval.j, (jint) n1, (jint) n2, (jint) n3, (jint) n4);
 #endif
 
+#if defined(MIXED_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_MIXED) != 0)) {
+        retval.j = invokeMixed(ctx, function, 4, n1, n2, n3, n4, 0, 0, 0, 0, 0, 0, 0, 0);
+#endif
+
     } else {
         ffi_call4(ctx, function, &retval, n1, n2, n3, n4);
     }, return 0);
@@ -292,6 +370,11 @@ call5(JNIEnv* env, CallContext* ctx, void* function,
         invokeI5(ctx, function, &retval.j, (jint) n1, (jint) n2, (jint) n3, (jint) n4, (jint) n5);
 #endif
 
+#if defined(MIXED_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_MIXED) != 0)) {
+        retval.j = invokeMixed(ctx, function, 5, n1, n2, n3, n4, n5, 0, 0, 0, 0, 0, 0, 0);
+#endif
+
     } else {
         ffi_call5(ctx, function, &retval, n1, n2, n3, n4, n5);
     }, return 0);
@@ -316,6 +399,11 @@ call6(JNIEnv* env, CallContext* ctx, void* function,
         invokeI6(ctx, function, &retval.j, (jint) n1, (jint) n2, (jint) n3, (jint) n4, (jint) n5, (jint) n6);
 #endif
 
+#if defined(MIXED_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_MIXED) != 0)) {
+        retval.j = invokeMixed(ctx, function, 6, n1, n2, n3, n4, n5, n6, 0, 0, 0, 0, 0, 0);
+#endif
+
     } else {
         ffi_call6(ctx, function, &retval, n1, n2, n3, n4, n5, n6);
     }, return 0);
@@ -323,6 +411,180 @@ call6(JNIEnv* env, CallContext* ctx, void* function,
     return RETVAL(retval, ctx);
 }
 
+static jlong
+call7(JNIEnv* env, CallContext* ctx, void* function,
+        jlong n1, jlong n2, jlong n3, jlong n4, jlong n5, jlong n6, jlong n7)
+{
+    FFIValue retval;
+
+    FAULTPROT_CTX(env, ctx, if (0) {
+#if defined(LONG_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_LONG) != 0)) {
+        invokeL7(ctx, function, &retval, n1, n2, n3, n4, n5, n6, n7);
+#endif
+
+#if defined(INT_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_INT) != 0)) {
+        invokeI7(ctx, function, &retval.j, (jint) n1, (jint) n2, (jint) n3, (jint) n4, (jint) n5, (jint) n6, (jint) n7);
+#endif
+
+#if defined(MIXED_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_MIXED) != 0)) {
+        retval.j = invokeMixed(ctx, function, 7, n1, n2, n3, n4, n5, n6, n7, 0, 0, 0, 0, 0);
+#endif
+
+    } else {
+        ffi_call7(ctx, function, &retval, n1, n2, n3, n4, n5, n6, n7);
+    }, return 0);
+
+    return RETVAL(retval, ctx);
+}
+
+static jlong
+call8(JNIEnv* env, CallContext* ctx, void* function,
+        jlong n1, jlong n2, jlong n3, jlong n4, jlong n5, jlong n6, jlong n7, jlong n8)
+{
+    FFIValue retval;
+
+    FAULTPROT_CTX(env, ctx, if (0) {
+#if defined(LONG_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_LONG) != 0)) {
+        invokeL8(ctx, function, &retval, n1, n2, n3, n4, n5, n6, n7, n8);
+#endif
+
+#if defined(INT_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_INT) != 0)) {
+        invokeI8(ctx, function, &retval.j, (jint) n1, (jint) n2, (jint) n3, (jint) n4, (jint) n5, (jint) n6, (jint) n7, (jint) n8);
+#endif
+
+#if defined(MIXED_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_MIXED) != 0)) {
+        retval.j = invokeMixed(ctx, function, 8, n1, n2, n3, n4, n5, n6, n7, n8, 0, 0, 0, 0);
+#endif
+
+    } else {
+        ffi_call8(ctx, function, &retval, n1, n2, n3, n4, n5, n6, n7, n8);
+    }, return 0);
+
+    return RETVAL(retval, ctx);
+}
+
+static jlong
+call9(JNIEnv* env, CallContext* ctx, void* function,
+        jlong n1, jlong n2, jlong n3, jlong n4, jlong n5, jlong n6, jlong n7, jlong n8, jlong n9)
+{
+    FFIValue retval;
+
+    FAULTPROT_CTX(env, ctx, if (0) {
+#if defined(LONG_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_LONG) != 0)) {
+        invokeL9(ctx, function, &retval, n1, n2, n3, n4, n5, n6, n7, n8, n9);
+#endif
+
+#if defined(INT_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_INT) != 0)) {
+        invokeI9(ctx, function, &retval.j, (jint) n1, (jint) n2, (jint) n3, (jint) n4, (jint) n5, (jint) n6, (jint) n7, (jint) n8, (jint) n9);
+#endif
+
+#if defined(MIXED_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_MIXED) != 0)) {
+        retval.j = invokeMixed(ctx, function, 9, n1, n2, n3, n4, n5, n6, n7, n8, n9, 0, 0, 0);
+#endif
+
+    } else {
+        ffi_call9(ctx, function, &retval, n1, n2, n3, n4, n5, n6, n7, n8, n9);
+    }, return 0);
+
+    return RETVAL(retval, ctx);
+}
+
+static jlong
+call10(JNIEnv* env, CallContext* ctx, void* function,
+        jlong n1, jlong n2, jlong n3, jlong n4, jlong n5, jlong n6, jlong n7, jlong n8, jlong n9, jlong n10)
+{
+    FFIValue retval;
+
+    FAULTPROT_CTX(env, ctx, if (0) {
+#if defined(LONG_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_LONG) != 0)) {
+        invokeL10(ctx, function, &retval, n1, n2, n3, n4, n5, n6, n7, n8, n9, n10);
+#endif
+
+#if defined(INT_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_INT) != 0)) {
+        invokeI10(ctx, function, &retval.j, (jint) n1, (jint) n2, (jint) n3, (jint) n4, (jint) n5, (jint) n6, (jint) n7, (jint) n8, (jint) n9, (jint) n10);
+#endif
+
+#if defined(MIXED_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_MIXED) != 0)) {
+        retval.j = invokeMixed(ctx, function, 10, n1, n2, n3, n4, n5, n6, n7, n8, n9, n10, 0, 0);
+#endif
+
+    } else {
+        ffi_call10(ctx, function, &retval, n1, n2, n3, n4, n5, n6, n7, n8, n9, n10);
+    }, return 0);
+
+    return RETVAL(retval, ctx);
+}
+
+static jlong
+call11(JNIEnv* env, CallContext* ctx, void* function,
+        jlong n1, jlong n2, jlong n3, jlong n4, jlong n5, jlong n6, jlong n7, jlong n8, jlong n9, jlong n10, jlong n11)
+{
+    FFIValue retval;
+
+    FAULTPROT_CTX(env, ctx, if (0) {
+#if defined(LONG_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_LONG) != 0)) {
+        invokeL11(ctx, function, &retval, n1, n2, n3, n4, n5, n6, n7, n8, n9, n10, n11);
+#endif
+
+#if defined(INT_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_INT) != 0)) {
+        invokeI11(ctx, function, &retval.j, (jint) n1, (jint) n2, (jint) n3, (jint) n4, (jint) n5, (jint) n6, (jint) n7, (jint) n8, (jint) n9, (jint) n10, (jint) n11);
+#endif
+
+#if defined(MIXED_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_MIXED) != 0)) {
+        retval.j = invokeMixed(ctx, function, 11, n1, n2, n3, n4, n5, n6, n7, n8, n9, n10, n11, 0);
+#endif
+
+    } else {
+        ffi_call11(ctx, function, &retval, n1, n2, n3, n4, n5, n6, n7, n8, n9, n10, n11);
+    }, return 0);
+
+    return RETVAL(retval, ctx);
+}
+
+static jlong
+call12(JNIEnv* env, CallContext* ctx, void* function,
+        jlong n1, jlong n2, jlong n3, jlong n4, jlong n5, jlong n6, jlong n7, jlong n8, jlong n9, jlong n10, jlong n11, jlong n12)
+{
+    FFIValue retval;
+
+    FAULTPROT_CTX(env, ctx, if (0) {
+#if defined(LONG_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_LONG) != 0)) {
+        invokeL12(ctx, function, &retval, n1, n2, n3, n4, n5, n6, n7, n8, n9, n10, n11, n12);
+#endif
+
+#if defined(INT_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_INT) != 0)) {
+        invokeI12(ctx, function, &retval.j, (jint) n1, (jint) n2, (jint) n3, (jint) n4, (jint) n5, (jint) n6, (jint) n7, (jint) n8, (jint) n9, (jint) n10, (jint) n11, (jint) n12);
+#endif
+
+#if defined(MIXED_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_MIXED) != 0)) {
+        retval.j = invokeMixed(ctx, function, 12, n1, n2, n3, n4, n5, n6, n7, n8, n9, n10, n11, n12);
+#endif
+
+    } else {
+        ffi_call12(ctx, function, &retval, n1, n2, n3, n4, n5, n6, n7, n8, n9, n10, n11, n12);
+    }, return 0);
+
+    return RETVAL(retval, ctx);
+}
+
 static bool
 pin_arrays(JNIEnv* env, Pinned* pinned, int pinnedCount, 
         Array* arrays, int *arrayCount, jlong* v)
@@ -345,14 +607,14 @@ pin_arrays(JNIEnv* env, Pinned* pinned, int pinnedCount,
 }
 
 static bool 
-object_to_ptr(JNIEnv* env, jobject obj, int off, int len, int f, jlong* vp, 
+object_to_ptr(JNIEnv* env, jobject obj, int off, int len, int f, bool pin, jlong* vp, 
         Array* arrays, int* arrayCount, Pinned* pinned, int* pinnedCount)
 {
     if (unlikely(obj == NULL)) {
         throwException(env, NullPointer, "null object for parameter %d", OBJIDX(f));
         return false;
                 
-    } else if (unlikely(IS_PINNED_ARRAY(f))) {
+    } else if (unlikely(pin)) {
         Pinned* p = &pinned[(*pinnedCount)++];
         p->object = obj;
         p->offset = off;
@@ -398,7 +660,8 @@ object_to_ptr(JNIEnv* env, jobject obj, int off, int len, int f, jlong* vp,
     Array arrays[(n)]; \
     Pinned pinned[(n)]; \
     int arrayCount = 0, pinnedCount = 0; \
-    jlong retval = 0; \
+    jlong retval = 0, start = 0; \
+    bool timed = false; \
     jlong v[] = { N##n }
 
 #define END \
@@ -413,15 +676,19 @@ object_to_ptr(JNIEnv* env, jobject obj, int off, int len, int f, jlong* vp,
             idx, MAX_PARAM_INDEX); \
         goto error; \
     } \
-    if (likely(IS_UNPINNED_ARRAY(flags) && len < MAX_STACK_ARRAY)) { \
+    int strategy = IS_ARRAY(flags) ? jffi_arrayStrategy(ctx, flags, len) : ARRAY_STRATEGY_HEAP; \
+    if (likely(strategy == ARRAY_STRATEGY_STACK)) { \
         void* ptr = alloca(jffi_arraySize((len) + 1, (flags))); \
         if (unlikely(jffi_getArrayBuffer(env, obj, off, len, flags, &arrays[arrayCount], ptr) == NULL)) { \
             goto error; \
         } \
         v[idx] = p2j(ptr); \
         arrayCount++; \
-    } else if (!object_to_ptr(env, obj, off, len, flags, &v[idx], arrays, &arrayCount, pinned, &pinnedCount)) { \
+    } else if (!object_to_ptr(env, obj, off, len, flags, strategy == ARRAY_STRATEGY_CRITICAL, &v[idx], \
+            arrays, &arrayCount, pinned, &pinnedCount)) { \
         goto error; \
+    } else { \
+        timed |= IS_ARRAY(flags) && ((flags) & ARRAY_ADAPTIVE) != 0; \
     } \
 } while (0)
 
@@ -433,7 +700,13 @@ object_to_ptr(JNIEnv* env, jobject obj, int off, int len, int f, jlong* vp,
 
 #define CALL(n, args...) \
     PIN_ARRAYS; \
+    if (unlikely(timed)) { \
+        start = jffi_nanoTime(); \
+    } \
     retval = call##n(env, ctx, j2p(function), args); \
+    if (unlikely(timed)) { \
+        jffi_recordArrayCallTime(ctx, jffi_nanoTime() - start); \
+    } \
     END
 
 #define CALL1 CALL(1, v[0])
@@ -0,0 +1,188 @@
+#include <sys/types.h>
+#include <stdlib.h>
+#include <string.h>
+#include <errno.h>
+#if defined (__sun) || defined(_AIX)
+#  include <alloca.h>
+#endif
+#ifdef _WIN32
+#  include <malloc.h>
+#endif
+#include <ffi.h>
+#include <jni.h>
+#include "endian.h"
+#include "jffi.h"
+#include "Exception.h"
+#include "CallContext.h"
+#include "LastError.h"
+#include "FaultProtect.h"
+#include "com_kenai_jffi_Foreign.h"
+#include "FastNumeric.h"
+
+/*
+ * The invokeS family takes numeric parameters like invokeN, except that a struct-by-value
+ * parameter is passed as the native address of the struct, and a struct result is copied
+ * to a caller supplied native address instead of being returned.
+ */
+
+#if defined(STRUCT_BYPASS_FFI)
+typedef struct StructRegs {
+    jlong lo;
+    jlong hi;
+} StructRegs;
+
+typedef StructRegs (*StructFunction)(jlong, jlong, jlong, jlong, jlong, jlong);
+
+static inline jlong
+invokeStructDirect(CallContext* ctx, void* function, jlong returnAddress, const jlong* args, int argc)
+{
+    jlong gp[6] = { 0 };
+    StructRegs result;
+    int i, ngp = 0;
+
+    for (i = 0; i < argc; i++) {
+        ffi_type* type = ctx->cif.arg_types[i];
+        if (type->type == FFI_TYPE_STRUCT) {
+            memcpy(&gp[ngp], j2p(args[i]), type->size);
+            ngp += (int) ((type->size + 7) / 8);
+        } else {
+            gp[ngp++] = args[i];
+        }
+    }
+
+    result = ((StructFunction) function)(gp[0], gp[1], gp[2], gp[3], gp[4], gp[5]);
+    if (ctx->cif.rtype->type == FFI_TYPE_STRUCT) {
+        memcpy(j2p(returnAddress), &result, ctx->cif.rtype->size);
+        return returnAddress;
+    }
+
+    return extendReturnValue(ctx, result.lo);
+}
+#endif
+
+static inline jlong
+invokeStructFFI(CallContext* ctx, void* function, jlong returnAddress, jlong* args, int argc)
+{
+    void** ffiValues = alloca((argc > 0 ? argc : 1) * sizeof(void *));
+    ffi_type* rtype = ctx->cif.rtype;
+    int i;
+
+    for (i = 0; i < argc; i++) {
+        ffi_type* type = ctx->cif.arg_types[i];
+        ffiValues[i] = type->type == FFI_TYPE_STRUCT ? j2p(args[i]) : ARGPTR(&args[i], type);
+    }
+
+    if (rtype->type == FFI_TYPE_STRUCT) {
+        /* libffi may store a whole register's worth for small structs, so do not let it write to returnAddress */
+        void* retval = alloca(rtype->size > sizeof(FFIValue) * 2 ? rtype->size : sizeof(FFIValue) * 2);
+        ffi_call(&ctx->cif, FFI_FN(function), retval, ffiValues);
+        memcpy(j2p(returnAddress), retval, rtype->size);
+        return returnAddress;
+
+    } else {
+        FFIValue retval;
+        ffi_call(&ctx->cif, FFI_FN(function), &retval, ffiValues);
+        return rtype->size > sizeof(ffi_sarg) ? retval.j : retval.sarg;
+    }
+}
+
+static jlong
+callStruct(JNIEnv* env, CallContext* ctx, void* function, jlong returnAddress, jlong* args, int argc)
+{
+    jlong result = 0;
+
+    FAULTPROT_CTX(env, ctx, if (0) {
+#if defined(STRUCT_BYPASS_FFI)
+    } else if (likely((ctx->flags & CALL_CTX_FAST_STRUCT) != 0)) {
+        result = invokeStructDirect(ctx, function, returnAddress, args, argc);
+#endif
+    } else {
+        result = invokeStructFFI(ctx, function, returnAddress, args, argc);
+    }, return 0);
+
+    return result;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeS0
+ * Signature: (JJJ)J
+ */
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeS0(JNIEnv* env, jobject self, jlong ctxAddress, jlong function, jlong returnAddress)
+{
+    jlong args[] = { 0 };
+    return callStruct(env, (CallContext *) j2p(ctxAddress), j2p(function), returnAddress, args, 0);
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeS1
+ * Signature: (JJJJ)J
+ */
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeS1(JNIEnv* env, jobject self, jlong ctxAddress, jlong function, jlong returnAddress, jlong arg1)
+{
+    jlong args[] = { arg1 };
+    return callStruct(env, (CallContext *) j2p(ctxAddress), j2p(function), returnAddress, args, 1);
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeS2
+ * Signature: (JJJJJ)J
+ */
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeS2(JNIEnv* env, jobject self, jlong ctxAddress, jlong function, jlong returnAddress, jlong arg1, jlong arg2)
+{
+    jlong args[] = { arg1, arg2 };
+    return callStruct(env, (CallContext *) j2p(ctxAddress), j2p(function), returnAddress, args, 2);
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeS3
+ * Signature: (JJJJJJ)J
+ */
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeS3(JNIEnv* env, jobject self, jlong ctxAddress, jlong function, jlong returnAddress, jlong arg1, jlong arg2, jlong arg3)
+{
+    jlong args[] = { arg1, arg2, arg3 };
+    return callStruct(env, (CallContext *) j2p(ctxAddress), j2p(function), returnAddress, args, 3);
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeS4
+ * Signature: (JJJJJJJ)J
+ */
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeS4(JNIEnv* env, jobject self, jlong ctxAddress, jlong function, jlong returnAddress, jlong arg1, jlong arg2, jlong arg3, jlong arg4)
+{
+    jlong args[] = { arg1, arg2, arg3, arg4 };
+    return callStruct(env, (CallContext *) j2p(ctxAddress), j2p(function), returnAddress, args, 4);
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeS5
+ * Signature: (JJJJJJJJ)J
+ */
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeS5(JNIEnv* env, jobject self, jlong ctxAddress, jlong function, jlong returnAddress, jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5)
+{
+    jlong args[] = { arg1, arg2, arg3, arg4, arg5 };
+    return callStruct(env, (CallContext *) j2p(ctxAddress), j2p(function), returnAddress, args, 5);
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeS6
+ * Signature: (JJJJJJJJJ)J
+ */
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeS6(JNIEnv* env, jobject self, jlong ctxAddress, jlong function, jlong returnAddress, jlong arg1, jlong arg2, jlong arg3, jlong arg4, jlong arg5, jlong arg6)
+{
+    jlong args[] = { arg1, arg2, arg3, arg4, arg5, arg6 };
+    return callStruct(env, (CallContext *) j2p(ctxAddress), j2p(function), returnAddress, args, 6);
+}
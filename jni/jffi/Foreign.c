@@ -42,6 +42,8 @@
 #include "jffi.h"
 #include "FaultProtect.h"
 
+JavaVM* jffi_jvm;
+
 #ifndef _WIN32
 pthread_key_t jffi_threadDataKey;
 static void thread_data_free(void *ptr);
@@ -52,6 +54,11 @@ JNI_OnLoad(JavaVM *vm, void *reserved)
 {
 #ifndef _WIN32
     struct sigaction sa;
+#endif
+
+    jffi_jvm = vm;
+
+#ifndef _WIN32
     pthread_key_create(&jffi_threadDataKey, thread_data_free);
 
 #if FAULT_PROTECT_ENABLED
@@ -91,8 +98,10 @@ thread_data_free(void *ptr)
     
     if (td->attached_vm != NULL) {
         (*td->attached_vm)->DetachCurrentThread(td->attached_vm);
+        __sync_fetch_and_add(&jffi_threadDetachCount, 1);
     }
 
+    free(td->scratch.base);
     free(ptr);
 }
 #endif /* !_WIN32 */
@@ -32,6 +32,8 @@
 
 #include <sys/types.h>
 #include <stdlib.h>
+#include <stdbool.h>
+#include <string.h>
 #if defined (__sun) || defined(_AIX)
 #  include <alloca.h>
 #endif
@@ -51,8 +53,6 @@
 
 #define PARAM_SIZE (8)
 
-#define MAX_STACK_ARRAY (1024)
-
 typedef struct Pinned {
     jobject object;
     jsize offset;
@@ -61,21 +61,38 @@ typedef struct Pinned {
 } Pinned;
 
 #  define COPY_ARGS(ctx, src, ffiArgs) do { \
-    int idx; \
+    int idx, ldOffset = ctx->longDoubleOffset; \
     for (idx = 0; idx < (int) ctx->cif.nargs; ++idx) { \
-        if (unlikely(ctx->cif.arg_types[idx]->type == FFI_TYPE_STRUCT)) { \
+        ffi_type* argType = ctx->cif.arg_types[idx]; \
+        if (unlikely(argType->type == FFI_TYPE_STRUCT)) { \
             ffiArgs[idx] = *(void **) &src[idx * PARAM_SIZE]; \
+        } else if (unlikely(argType->type == FFI_TYPE_LONGDOUBLE && argType->size > PARAM_SIZE)) { \
+            ffiArgs[idx] = &src[ldOffset]; \
+            ldOffset += (int) argType->size; \
         } else { \
             ffiArgs[idx] = &src[idx * PARAM_SIZE]; \
         } \
     } \
 } while (0)
-#  define ARG_BUFFER_SIZE(ctx) ((ctx)->cif.nargs * PARAM_SIZE)
+#  define ARG_BUFFER_SIZE(ctx) ((ctx)->argBufferSize)
+
+#ifdef USE_RAW
+#  define COPY_RAW_ARGS(ctx, src, ffiArgs) do { \
+    int idx; \
+    for (idx = 0; idx < (int) ctx->cif.nargs; ++idx) { \
+        ffiArgs[idx] = &src[ctx->rawParamOffsets[idx]]; \
+    } \
+} while (0)
+#endif
 
 static void
 invokeArrayWithObjects_(JNIEnv* env, jlong ctxAddress, jlong function, jbyteArray paramBuffer,
 			jint objectCount, jint* infoBuffer, jobject* objectBuffer, void* retval);
 
+static void
+invokeWithObjects(JNIEnv* env, CallContext* ctx, jlong function, jbyte* params, bool raw,
+        jint objectCount, jint* infoBuffer, jobject* objectBuffer, void* retval);
+
 
 /*
  * Class:     com_kenai_jffi_Foreign
@@ -85,7 +102,11 @@ invokeArrayWithObjects_(JNIEnv* env, jlong ctxAddress, jlong function, jbyteArra
 JNIEXPORT jboolean JNICALL
 Java_com_kenai_jffi_Foreign_isRawParameterPackingEnabled(JNIEnv* env, jobject self)
 {
+#ifdef USE_RAW
+    return JNI_TRUE;
+#else
     return JNI_FALSE;
+#endif
 }
 
 /*
@@ -164,10 +185,41 @@ invokeArrayWithObjects_(JNIEnv* env, jlong ctxAddress, jlong function, jbyteArra
         jint objectCount, jint* infoBuffer, jobject* objectBuffer, void* retval)
 {
     CallContext* ctx = (CallContext *) j2p(ctxAddress);
+    jbyte* params = NULL;
+    const bool raw = (ctx->flags & CALL_CTX_RAW_PARAMS) != 0;
+    const int size = raw ? ctx->rawParameterSize : (int) ARG_BUFFER_SIZE(ctx);
+
+    if (ctx->cif.nargs > 0) {
+        params = alloca(size);
+        (*env)->GetByteArrayRegion(env, paramBuffer, 0, size, params);
+    }
+
+#ifdef USE_RAW
+    // The parameters already have the stack layout of the call, so libffi can copy them straight in
+    if (raw && objectCount == 0) {
+        FAULTPROT_CTX(env, ctx, ffi_raw_call(&ctx->cif, FFI_FN(j2p(function)), retval, (ffi_raw *) params), );
+        return;
+    }
+#endif
+
+    invokeWithObjects(env, ctx, function, params, raw, objectCount, infoBuffer, objectBuffer, retval);
+}
+
+/*
+ * Invokes a function with its parameters already encoded at params, either in PARAM_SIZE slots or
+ * at the raw parameter offsets.  The parameters are used in place, and pointer parameters are
+ * overwritten with the address of any object passed in that position.
+ */
+static void
+invokeWithObjects(JNIEnv* env, CallContext* ctx, jlong function, jbyte* params, bool raw,
+        jint objectCount, jint* infoBuffer, jobject* objectBuffer, void* retval)
+{
     void **ffiArgs = { NULL };
     Array *arrays = NULL;
     Pinned *pinned = NULL;
     int i, arrayCount = 0, pinnedCount = 0, paramBytes = 0;
+    bool timed = false;
+    jlong start = 0;
 
     if (unlikely(objectCount > 0)) {
         arrays = alloca(objectCount * sizeof(Array));
@@ -175,10 +227,15 @@ invokeArrayWithObjects_(JNIEnv* env, jlong ctxAddress, jlong function, jbyteArra
     }
 
     if (ctx->cif.nargs > 0) {
-        jbyte* tmpBuffer = alloca(ARG_BUFFER_SIZE(ctx));
-        (*env)->GetByteArrayRegion(env, paramBuffer, 0, ARG_BUFFER_SIZE(ctx), tmpBuffer);
         ffiArgs = alloca(ctx->cif.nargs * sizeof(void *));
-        COPY_ARGS(ctx, tmpBuffer, ffiArgs);
+#ifdef USE_RAW
+        if (raw) {
+            COPY_RAW_ARGS(ctx, params, ffiArgs);
+        } else
+#endif
+        {
+            COPY_ARGS(ctx, params, ffiArgs);
+        }
     }
     
     for (i = 0; i < objectCount; ++i) {
@@ -196,35 +253,38 @@ invokeArrayWithObjects_(JNIEnv* env, jlong ctxAddress, jlong function, jbyteArra
                     goto cleanup;
                 }
                 
-                if (unlikely((type & com_kenai_jffi_ObjectBuffer_PINNED) != 0)) {
-
-                    // Record the pinned array, but the actual pinning will be done just before the ffi_call
-                    Pinned* p = &pinned[pinnedCount++];
-                    p->object = object;
-                    p->offset = offset;
-                    p->length = length;
-                    p->type = type;
-                    ptr = NULL;
-                    
-                } else if (likely(length < MAX_STACK_ARRAY)) {
-
-                    ptr = alloca(jffi_arraySize(length + 1, type));
-                    if (unlikely(jffi_getArrayBuffer(env, object, offset, length, type,
-                        &arrays[arrayCount], ptr) == NULL)) {
-                        goto cleanup;
+                switch (jffi_arrayStrategy(ctx, type, length)) {
+                    case ARRAY_STRATEGY_CRITICAL: {
+                        // Record the pinned array, but the actual pinning will be done just before the ffi_call
+                        Pinned* p = &pinned[pinnedCount++];
+                        p->object = object;
+                        p->offset = offset;
+                        p->length = length;
+                        p->type = type;
+                        ptr = NULL;
+                        timed |= (type & ARRAY_ADAPTIVE) != 0;
+                        break;
                     }
-                    ++arrayCount;
-                    
 
-                } else {
-                    ptr = jffi_getArrayHeap(env, object, offset, length, type, &arrays[arrayCount]);
-                    if (unlikely(ptr == NULL)) {
-                        goto cleanup;
-                    }
-                    ++arrayCount;
+                    case ARRAY_STRATEGY_STACK:
+                        ptr = alloca(jffi_arraySize(length + 1, type));
+                        if (unlikely(jffi_getArrayBuffer(env, object, offset, length, type,
+                            &arrays[arrayCount], ptr) == NULL)) {
+                            goto cleanup;
+                        }
+                        ++arrayCount;
+                        break;
+
+                    default:
+                        ptr = jffi_getArrayHeap(env, object, offset, length, type, &arrays[arrayCount]);
+                        if (unlikely(ptr == NULL)) {
+                            goto cleanup;
+                        }
+                        ++arrayCount;
+                        timed |= (type & ARRAY_ADAPTIVE) != 0;
+                        break;
                 }
-                
-                
+
                 break;
 
             case com_kenai_jffi_ObjectBuffer_BUFFER:
@@ -295,8 +355,16 @@ invokeArrayWithObjects_(JNIEnv* env, jlong ctxAddress, jlong function, jbyteArra
         ++arrayCount;
     }
 
+    if (unlikely(timed)) {
+        start = jffi_nanoTime();
+    }
+
     FAULTPROT_CTX(env, ctx, ffi_call(&ctx->cif, FFI_FN(j2p(function)), retval, ffiArgs), );
 
+    if (unlikely(timed)) {
+        jffi_recordArrayCallTime(ctx, jffi_nanoTime() - start);
+    }
+
 cleanup:
     /* Release any array backing memory */
     RELEASE_ARRAYS(env, arrays, arrayCount);
@@ -444,6 +512,41 @@ Java_com_kenai_jffi_Foreign_invokeArrayWithObjectsDouble(JNIEnv* env, jobject se
     return retval.d;
 }
 
+/*
+ * Structs returned in registers may be stored a whole register at a time, which would write past
+ * the end of the caller's memory, so only larger structs, which come back in memory, are written
+ * straight to it.
+ */
+#define STRUCT_RETURN_BUFFER(ctx, returnAddress) \
+    ((ctx)->cif.rtype->size > 16 ? j2p(returnAddress) : alloca((ctx)->cif.rtype->size))
+
+#define STRUCT_RETURN_COPY(ctx, retval, returnAddress) do { \
+    if ((retval) != j2p(returnAddress)) { \
+        memcpy(j2p(returnAddress), (retval), (ctx)->cif.rtype->size); \
+    } \
+} while (0)
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeArrayWithObjectsReturnStructAddress
+ * Signature: (JJ[BI[I[Ljava/lang/Object;J)V
+ */
+JNIEXPORT void JNICALL
+Java_com_kenai_jffi_Foreign_invokeArrayWithObjectsReturnStructAddress(JNIEnv* env, jobject self,
+       jlong ctxAddress, jlong function, jbyteArray paramBuffer, jint objectCount, jintArray objectInfo,
+       jobjectArray objectArray, jlong returnAddress)
+{
+    CallContext* ctx = (CallContext *) j2p(ctxAddress);
+    void* retval = STRUCT_RETURN_BUFFER(ctx, returnAddress);
+
+    if (objectCount > 0) {
+        invokeArrayWithObjects(env, ctxAddress, function, paramBuffer, objectCount, objectInfo, objectArray, retval);
+    } else {
+        invokeArrayWithObjects_(env, ctxAddress, function, paramBuffer, 0, NULL, NULL, retval);
+    }
+    STRUCT_RETURN_COPY(ctx, retval, returnAddress);
+}
+
 /*
  * Class:     com_kenai_jffi_Foreign
  * Method:    invokeArrayWithObjectsReturnStruct
@@ -461,6 +564,116 @@ Java_com_kenai_jffi_Foreign_invokeArrayWithObjectsReturnStruct(JNIEnv* env, jobj
     (*env)->SetByteArrayRegion(env, returnBuffer, returnBufferOffset, ctx->cif.rtype->size, retval);
 }
 
+static void
+invokeDirectWithObjects(JNIEnv* env, jlong ctxAddress, jlong function, jlong paramAddress,
+        jint objectCount, jintArray objectInfo, jobjectArray objectArray, void* retval)
+{
+    jint* infoBuffer = NULL;
+    jobject* objectBuffer = NULL;
+    int i;
+
+    if (objectCount > 0) {
+        infoBuffer = alloca(objectCount * sizeof(jint) * 3);
+        objectBuffer = alloca(objectCount * sizeof(jobject));
+        (*env)->GetIntArrayRegion(env, objectInfo, 0, objectCount * 3, infoBuffer);
+        for (i = 0; i < objectCount; ++i) {
+            objectBuffer[i] = (*env)->GetObjectArrayElement(env, objectArray, i);
+        }
+    }
+
+    invokeWithObjects(env, (CallContext *) j2p(ctxAddress), function, (jbyte *) j2p(paramAddress), false,
+            objectCount, infoBuffer, objectBuffer, retval);
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeDirectInt32
+ * Signature: (JJJLjava/lang/Object;I[I[Ljava/lang/Object;)I
+ */
+JNIEXPORT jint JNICALL
+Java_com_kenai_jffi_Foreign_invokeDirectInt32(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong paramAddress, jobject paramMemory, jint objectCount, jintArray objectInfo, jobjectArray objectArray)
+{
+    FFIValue retval;
+    invokeDirectWithObjects(env, ctxAddress, function, paramAddress, objectCount, objectInfo, objectArray, &retval);
+    return_int(retval);
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeDirectInt64
+ * Signature: (JJJLjava/lang/Object;I[I[Ljava/lang/Object;)J
+ */
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_invokeDirectInt64(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong paramAddress, jobject paramMemory, jint objectCount, jintArray objectInfo, jobjectArray objectArray)
+{
+    FFIValue retval;
+    invokeDirectWithObjects(env, ctxAddress, function, paramAddress, objectCount, objectInfo, objectArray, &retval);
+    return retval.s64;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeDirectFloat
+ * Signature: (JJJLjava/lang/Object;I[I[Ljava/lang/Object;)F
+ */
+JNIEXPORT jfloat JNICALL
+Java_com_kenai_jffi_Foreign_invokeDirectFloat(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong paramAddress, jobject paramMemory, jint objectCount, jintArray objectInfo, jobjectArray objectArray)
+{
+    FFIValue retval;
+    invokeDirectWithObjects(env, ctxAddress, function, paramAddress, objectCount, objectInfo, objectArray, &retval);
+    return retval.f;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeDirectDouble
+ * Signature: (JJJLjava/lang/Object;I[I[Ljava/lang/Object;)D
+ */
+JNIEXPORT jdouble JNICALL
+Java_com_kenai_jffi_Foreign_invokeDirectDouble(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong paramAddress, jobject paramMemory, jint objectCount, jintArray objectInfo, jobjectArray objectArray)
+{
+    FFIValue retval;
+    invokeDirectWithObjects(env, ctxAddress, function, paramAddress, objectCount, objectInfo, objectArray, &retval);
+    return retval.d;
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeDirectReturnStruct
+ * Signature: (JJJLjava/lang/Object;I[I[Ljava/lang/Object;[BI)V
+ */
+JNIEXPORT void JNICALL
+Java_com_kenai_jffi_Foreign_invokeDirectReturnStruct(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong paramAddress, jobject paramMemory, jint objectCount, jintArray objectInfo, jobjectArray objectArray,
+        jbyteArray returnBuffer, jint returnBufferOffset)
+{
+    CallContext* ctx = (CallContext *) j2p(ctxAddress);
+    jbyte* retval = alloca(ctx->cif.rtype->size);
+
+    invokeDirectWithObjects(env, ctxAddress, function, paramAddress, objectCount, objectInfo, objectArray, retval);
+    (*env)->SetByteArrayRegion(env, returnBuffer, returnBufferOffset, ctx->cif.rtype->size, retval);
+}
+
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    invokeDirectReturnStructAddress
+ * Signature: (JJJLjava/lang/Object;I[I[Ljava/lang/Object;J)V
+ */
+JNIEXPORT void JNICALL
+Java_com_kenai_jffi_Foreign_invokeDirectReturnStructAddress(JNIEnv* env, jobject self, jlong ctxAddress, jlong function,
+        jlong paramAddress, jobject paramMemory, jint objectCount, jintArray objectInfo, jobjectArray objectArray, jlong returnAddress)
+{
+    CallContext* ctx = (CallContext *) j2p(ctxAddress);
+    void* retval = STRUCT_RETURN_BUFFER(ctx, returnAddress);
+
+    invokeDirectWithObjects(env, ctxAddress, function, paramAddress, objectCount, objectInfo, objectArray, retval);
+    STRUCT_RETURN_COPY(ctx, retval, returnAddress);
+}
+
 /*
  * Class:     com_kenai_jffi_Foreign
  * Method:    invokePointerParameterArray
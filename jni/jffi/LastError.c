@@ -76,6 +76,22 @@ Java_com_kenai_jffi_Foreign_setLastError(JNIEnv* env, jobject self, jint value)
 #endif
 }
 
+/*
+ * Class:     com_kenai_jffi_Foreign
+ * Method:    getLastErrorAddress
+ * Signature: ()J
+ */
+JNIEXPORT jlong JNICALL
+Java_com_kenai_jffi_Foreign_getLastErrorAddress(JNIEnv* env, jobject self)
+{
+#ifdef _WIN32
+    return p2j(&last_error);
+#else
+    ThreadData* td = thread_data_get();
+    return td != NULL ? p2j(&td->error) : 0LL;
+#endif
+}
+
 void
 jffi_save_errno(void)
 {
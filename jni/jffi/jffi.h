@@ -116,12 +116,33 @@ typedef union FFIValue {
     ffi_arg arg;
 } FFIValue;
 
+extern JavaVM* jffi_jvm;
+
+/*
+ * Counts of native threads attached to and detached from the JVM for closure upcalls.
+ * They are long, not jlong, so 32 bit targets update them without 64 bit atomics and read them whole.
+ */
+extern volatile long jffi_threadAttachCount;
+extern volatile long jffi_threadDetachCount;
+
 #ifndef _WIN32
+/** Per-thread memory that heap array copies are carved from, see Array.c */
+typedef struct ScratchArena {
+    char* base;
+    size_t size;
+    size_t used;
+} ScratchArena;
+
 typedef struct ThreadData {
     int error;
     int attach_count;
     JavaVM* attached_vm;
+    /** Set when the thread asked to stay attached until it exits */
+    int attach_pinned;
+    /** When the last upcall on this thread returned, in nanoseconds, see ClosureMagazine.c */
+    jlong last_upcall;
     struct FaultData_* fault_data;
+    ScratchArena scratch;
 } ThreadData;
 
 extern pthread_key_t jffi_threadDataKey;
@@ -206,6 +227,99 @@ thread_data_get()
         ffi_call(&(ctx)->cif, FFI_FN((fn)), (retval), ffiValues); \
     } while (0)
 
+# define ffi_call7(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7) do { \
+        void* ffiValues[] = { \
+            ARGPTR(&arg1, (ctx)->cif.arg_types[0]), \
+            ARGPTR(&arg2, (ctx)->cif.arg_types[1]), \
+            ARGPTR(&arg3, (ctx)->cif.arg_types[2]), \
+            ARGPTR(&arg4, (ctx)->cif.arg_types[3]), \
+            ARGPTR(&arg5, (ctx)->cif.arg_types[4]), \
+            ARGPTR(&arg6, (ctx)->cif.arg_types[5]), \
+            ARGPTR(&arg7, (ctx)->cif.arg_types[6]) \
+        }; \
+        ffi_call(&(ctx)->cif, FFI_FN((fn)), (retval), ffiValues); \
+    } while (0)
+
+# define ffi_call8(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8) do { \
+        void* ffiValues[] = { \
+            ARGPTR(&arg1, (ctx)->cif.arg_types[0]), \
+            ARGPTR(&arg2, (ctx)->cif.arg_types[1]), \
+            ARGPTR(&arg3, (ctx)->cif.arg_types[2]), \
+            ARGPTR(&arg4, (ctx)->cif.arg_types[3]), \
+            ARGPTR(&arg5, (ctx)->cif.arg_types[4]), \
+            ARGPTR(&arg6, (ctx)->cif.arg_types[5]), \
+            ARGPTR(&arg7, (ctx)->cif.arg_types[6]), \
+            ARGPTR(&arg8, (ctx)->cif.arg_types[7]) \
+        }; \
+        ffi_call(&(ctx)->cif, FFI_FN((fn)), (retval), ffiValues); \
+    } while (0)
+
+# define ffi_call9(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9) do { \
+        void* ffiValues[] = { \
+            ARGPTR(&arg1, (ctx)->cif.arg_types[0]), \
+            ARGPTR(&arg2, (ctx)->cif.arg_types[1]), \
+            ARGPTR(&arg3, (ctx)->cif.arg_types[2]), \
+            ARGPTR(&arg4, (ctx)->cif.arg_types[3]), \
+            ARGPTR(&arg5, (ctx)->cif.arg_types[4]), \
+            ARGPTR(&arg6, (ctx)->cif.arg_types[5]), \
+            ARGPTR(&arg7, (ctx)->cif.arg_types[6]), \
+            ARGPTR(&arg8, (ctx)->cif.arg_types[7]), \
+            ARGPTR(&arg9, (ctx)->cif.arg_types[8]) \
+        }; \
+        ffi_call(&(ctx)->cif, FFI_FN((fn)), (retval), ffiValues); \
+    } while (0)
+
+# define ffi_call10(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10) do { \
+        void* ffiValues[] = { \
+            ARGPTR(&arg1, (ctx)->cif.arg_types[0]), \
+            ARGPTR(&arg2, (ctx)->cif.arg_types[1]), \
+            ARGPTR(&arg3, (ctx)->cif.arg_types[2]), \
+            ARGPTR(&arg4, (ctx)->cif.arg_types[3]), \
+            ARGPTR(&arg5, (ctx)->cif.arg_types[4]), \
+            ARGPTR(&arg6, (ctx)->cif.arg_types[5]), \
+            ARGPTR(&arg7, (ctx)->cif.arg_types[6]), \
+            ARGPTR(&arg8, (ctx)->cif.arg_types[7]), \
+            ARGPTR(&arg9, (ctx)->cif.arg_types[8]), \
+            ARGPTR(&arg10, (ctx)->cif.arg_types[9]) \
+        }; \
+        ffi_call(&(ctx)->cif, FFI_FN((fn)), (retval), ffiValues); \
+    } while (0)
+
+# define ffi_call11(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11) do { \
+        void* ffiValues[] = { \
+            ARGPTR(&arg1, (ctx)->cif.arg_types[0]), \
+            ARGPTR(&arg2, (ctx)->cif.arg_types[1]), \
+            ARGPTR(&arg3, (ctx)->cif.arg_types[2]), \
+            ARGPTR(&arg4, (ctx)->cif.arg_types[3]), \
+            ARGPTR(&arg5, (ctx)->cif.arg_types[4]), \
+            ARGPTR(&arg6, (ctx)->cif.arg_types[5]), \
+            ARGPTR(&arg7, (ctx)->cif.arg_types[6]), \
+            ARGPTR(&arg8, (ctx)->cif.arg_types[7]), \
+            ARGPTR(&arg9, (ctx)->cif.arg_types[8]), \
+            ARGPTR(&arg10, (ctx)->cif.arg_types[9]), \
+            ARGPTR(&arg11, (ctx)->cif.arg_types[10]) \
+        }; \
+        ffi_call(&(ctx)->cif, FFI_FN((fn)), (retval), ffiValues); \
+    } while (0)
+
+# define ffi_call12(ctx, fn, retval, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12) do { \
+        void* ffiValues[] = { \
+            ARGPTR(&arg1, (ctx)->cif.arg_types[0]), \
+            ARGPTR(&arg2, (ctx)->cif.arg_types[1]), \
+            ARGPTR(&arg3, (ctx)->cif.arg_types[2]), \
+            ARGPTR(&arg4, (ctx)->cif.arg_types[3]), \
+            ARGPTR(&arg5, (ctx)->cif.arg_types[4]), \
+            ARGPTR(&arg6, (ctx)->cif.arg_types[5]), \
+            ARGPTR(&arg7, (ctx)->cif.arg_types[6]), \
+            ARGPTR(&arg8, (ctx)->cif.arg_types[7]), \
+            ARGPTR(&arg9, (ctx)->cif.arg_types[8]), \
+            ARGPTR(&arg10, (ctx)->cif.arg_types[9]), \
+            ARGPTR(&arg11, (ctx)->cif.arg_types[10]), \
+            ARGPTR(&arg12, (ctx)->cif.arg_types[11]) \
+        }; \
+        ffi_call(&(ctx)->cif, FFI_FN((fn)), (retval), ffiValues); \
+    } while (0)
+
 
 #if defined(__APPLE__)
 # define debug(fmt, a...) dprintf(STDERR_FILENO, fmt "\n", ##a)
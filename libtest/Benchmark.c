@@ -71,3 +71,32 @@ BrV(f32);
 BrV(f64);
 BrV(S);
 BrV(P);
+
+/*
+ * Value returning variants, so the benchmarks can measure the cost of each
+ * return type as well as each arity.
+ */
+#define R6(R, T1, T2, T3, T4, T5, T6) R bench_##T1##T2##T3##T4##T5##T6##_##R(T1 a1, T2 a2, T3 a3, T4 a4, T5 a5, T6 a6) { return (R) a1; }
+#define R5(R, T1, T2, T3, T4, T5) R bench_##T1##T2##T3##T4##T5##_##R(T1 a1, T2 a2, T3 a3, T4 a4, T5 a5) { return (R) a1; }
+#define R4(R, T1, T2, T3, T4) R bench_##T1##T2##T3##T4##_##R(T1 a1, T2 a2, T3 a3, T4 a4) { return (R) a1; }
+#define R3(R, T1, T2, T3) R bench_##T1##T2##T3##_##R(T1 a1, T2 a2, T3 a3) { return (R) a1; }
+#define R2(R, T1, T2) R bench_##T1##T2##_##R(T1 a1, T2 a2) { return (R) a1; }
+#define R1(R, T1) R bench_##T1##_##R(T1 a1) { return (R) a1; }
+#define R0(R) R bench_v_##R(void) { return (R) 0; }
+#define BrT(T) R0(T); R1(T, T); R2(T, T, T); R3(T, T, T, T); R4(T, T, T, T, T); R5(T, T, T, T, T, T); R6(T, T, T, T, T, T, T);
+BrT(s32);
+BrT(s64);
+BrT(f32);
+BrT(f64);
+
+struct bench_pair {
+    s64 first;
+    s64 second;
+};
+
+struct bench_pair
+bench_s64s64_pair(s64 a1, s64 a2)
+{
+    struct bench_pair p = { a1, a2 };
+    return p;
+}
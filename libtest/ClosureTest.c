@@ -86,6 +86,22 @@ void testClosureDrV(void (*closure)(double), double a1)
 {
     (*closure)(a1);
 }
+int testClosureIrI(int (*closure)(int), int a1)
+{
+    return (*closure)(a1);
+}
+int testClosureIIrI(int (*closure)(int, int), int a1, int a2)
+{
+    return (*closure)(a1, a2);
+}
+long long testClosureLrL(long long (*closure)(long long), long long a1)
+{
+    return (*closure)(a1);
+}
+long long testClosureLLrL(long long (*closure)(long long, long long), long long a1, long long a2)
+{
+    return (*closure)(a1, a2);
+}
 void testOptionalClosureBrV(void (*closure)(char), char a1)
 {
     if (closure) {
@@ -95,6 +95,50 @@ TEST2(u64)
 #endif
 
 #define ADD3(R, T1, T2, T3) R add_##T1##T2##T3##_##R(T1 arg1, T2 arg2, T3 arg3) { return arg1 + arg2 + arg3; }
+ADD3(f64, f64, f64, s32)
+ADD3(f32, s32, f32, s64)
+ADD3(s64, f32, s32, f64)
+
+/* Weighted sums, so an argument passed in the wrong position changes the result */
+#define W6(T)  T a1, T a2, T a3, T a4, T a5, T a6
+#define W7(T)  W6(T), T a7
+#define W8(T)  W7(T), T a8
+#define W9(T)  W8(T), T a9
+#define W10(T) W9(T), T a10
+#define W11(T) W10(T), T a11
+#define W12(T) W11(T), T a12
+#define S6  (a1 + 2*a2 + 3*a3 + 4*a4 + 5*a5 + 6*a6)
+#define S7  (S6 + 7*a7)
+#define S8  (S7 + 8*a8)
+#define S9  (S8 + 9*a9)
+#define S10 (S9 + 10*a10)
+#define S11 (S10 + 11*a11)
+#define S12 (S11 + 12*a12)
+#define SUMN(T, N) T sum##N##_##T(W##N(T)) { return S##N; }
+#define SUMS(T) SUMN(T, 6) SUMN(T, 7) SUMN(T, 8) SUMN(T, 9) SUMN(T, 10) SUMN(T, 11) SUMN(T, 12)
+SUMS(s32)
+SUMS(s64)
+
+f64 sum12_s32f64(s32 a1, f64 a2, s32 a3, f64 a4, s32 a5, f64 a6, s32 a7, f64 a8, s32 a9, f64 a10, s32 a11, f64 a12)
+{
+    return S12;
+}
+
+/* More parameters than the twelve an invokeN call takes, but still all in registers */
+#define S13 (S12 + 13*a13)
+#define S14 (S13 + 14*a14)
+f64 sum13_s64f64(s64 a1, f64 a2, s64 a3, f64 a4, s64 a5, f64 a6, s64 a7, f64 a8, s64 a9, f64 a10, s64 a11, f64 a12,
+        f64 a13)
+{
+    return S13;
+}
+
+f64 sum14_s64f64(s64 a1, f64 a2, s64 a3, f64 a4, s64 a5, f64 a6, s64 a7, f64 a8, s64 a9, f64 a10, s64 a11, f64 a12,
+        f64 a13, f64 a14)
+{
+    return S14;
+}
+
 #define pack_f32(buf, v) do { *(float *)(buf) = v; } while(0)
 #define pack_f64(buf, v) do { *(double *)(buf) = v; } while(0)
 #define pack_f128(buf, v) do { *(long double *)(buf) = v; } while(0)
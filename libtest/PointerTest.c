@@ -175,3 +175,58 @@ invokeOOO(unsigned long *p1, unsigned long *p2, unsigned long *p3)
 }
 #define N3O1 p1[0] = n1; p1[1] = n2; p1[2] = n3
 #define N3O2 p1[0] = n1; p1[1] = n2; p1[2] = n3
+
+unsigned long
+invokeOOOO(unsigned long *p1, unsigned long *p2, unsigned long *p3, unsigned long *p4)
+{
+    unsigned long ret = *p1 + *p2 + *p3 + *p4;
+    *p1 = *p2 = *p3 = *p4 = ret;
+    return ret;
+}
+
+unsigned long
+invokeNNOOOO(unsigned long n1, unsigned long n2, unsigned long *p1, unsigned long *p2, unsigned long *p3, unsigned long *p4)
+{
+    unsigned long ret = *p1 + *p2 + *p3 + *p4;
+    *p1 = *p2 = *p3 = *p4 = n1 + n2;
+    return ret;
+}
+
+unsigned long
+invokeOOOOOO(unsigned long *p1, unsigned long *p2, unsigned long *p3, unsigned long *p4, unsigned long *p5, unsigned long *p6)
+{
+    return *p1 + 2 * *p2 + 3 * *p3 + 4 * *p4 + 5 * *p5 + 6 * *p6;
+}
+
+double
+dot_f64(const double *a, const double *b, int n)
+{
+    double sum = 0;
+    int i;
+    for (i = 0; i < n; i++) {
+        sum += a[i] * b[i];
+    }
+    return sum;
+}
+
+float
+sum_f32(const float *a, int n)
+{
+    float sum = 0;
+    int i;
+    for (i = 0; i < n; i++) {
+        sum += a[i];
+    }
+    return sum;
+}
+
+int
+sum_s32(const int *a, int n)
+{
+    int sum = 0;
+    int i;
+    for (i = 0; i < n; i++) {
+        sum += a[i];
+    }
+    return sum;
+}
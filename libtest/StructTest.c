@@ -215,3 +215,42 @@ struct_s8s32_s64_ret_s64(struct s8s32 s, long long s64)
 {
     return s64;
 }
+
+struct s64s64 {
+    long long a;
+    long long b;
+};
+
+// Add n to both fields of a two register struct, returned in two registers
+struct s64s64
+struct_s64s64_add(struct s64s64 s, long long n)
+{
+    s.a += n;
+    s.b += n;
+    return s;
+}
+
+struct f64f64 {
+    double a;
+    double b;
+};
+
+// Passed in SSE registers, so it can not use the integer register fast path
+struct f64f64
+struct_f64f64_swap(struct f64f64 s)
+{
+    struct f64f64 r = { s.b, s.a };
+    return r;
+}
+
+struct s64x4 {
+    long long a, b, c, d;
+};
+
+// Too big for registers, so it is returned in memory
+struct s64x4
+struct_s64x4_make(long long a, long long b, long long c, long long d)
+{
+    struct s64x4 s = { a, b, c, d };
+    return s;
+}
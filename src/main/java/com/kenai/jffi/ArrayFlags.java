@@ -55,6 +55,9 @@ public final class ArrayFlags {
     /** For OUT arrays, clear the native memory area before passing to the native function */
     public static final int CLEAR = ObjectBuffer.CLEAR;
 
+    /** Copy or pin the array, whichever is expected to be cheaper for its size, direction and the call time */
+    public static final int ADAPTIVE = ObjectBuffer.ADAPTIVE;
+
     /**
      * Tests if the flags indicate data should be copied from native memory.
      *
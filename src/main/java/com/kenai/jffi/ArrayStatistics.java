@@ -0,0 +1,61 @@
+package com.kenai.jffi;
+
+/**
+ * Counts how array parameters with the {@link ObjectParameterInfo#ADAPTIVE} flag were passed to the
+ * functions of a {@link CallContext}.
+ *
+ * @see CallContext#getArrayStatistics()
+ */
+public final class ArrayStatistics {
+    private final long stackCopyCount, heapCopyCount, pinnedCount, averageCallTime;
+
+    ArrayStatistics(long stackCopyCount, long heapCopyCount, long pinnedCount, long averageCallTime) {
+        this.stackCopyCount = stackCopyCount;
+        this.heapCopyCount = heapCopyCount;
+        this.pinnedCount = pinnedCount;
+        this.averageCallTime = averageCallTime;
+    }
+
+    /**
+     * Gets the number of arrays that were small enough to copy onto the native stack.
+     *
+     * @return The number of stack copies.
+     */
+    public long getStackCopyCount() {
+        return stackCopyCount;
+    }
+
+    /**
+     * Gets the number of arrays that were copied to and from malloc'd memory.
+     *
+     * @return The number of heap copies.
+     */
+    public long getHeapCopyCount() {
+        return heapCopyCount;
+    }
+
+    /**
+     * Gets the number of arrays that were pinned and passed to the function without copying.
+     *
+     * @return The number of pinned arrays.
+     */
+    public long getPinnedCount() {
+        return pinnedCount;
+    }
+
+    /**
+     * Gets the moving average of the time taken by calls that were passed a large adaptive array.
+     * Arrays are only pinned while this is short, since pinning holds off garbage collection.
+     *
+     * @return The average call time, in nanoseconds.
+     */
+    public long getAverageCallTime() {
+        return averageCallTime;
+    }
+
+    @Override
+    public String toString() {
+        return "ArrayStatistics[stack=" + stackCopyCount + ", heap=" + heapCopyCount
+                + ", pinned=" + pinnedCount + ", averageCallTime=" + averageCallTime + "ns]";
+    }
+}
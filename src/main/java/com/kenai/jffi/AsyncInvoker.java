@@ -0,0 +1,159 @@
+package com.kenai.jffi;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Invokes native functions on a pool of worker threads, so a blocking call does not hold up the
+ * calling thread, or pin the carrier of a virtual thread.
+ *
+ * The invocation buffer is copied when the call is submitted, so it can be reset or reused straight
+ * away.  Java arrays in the buffer are still read when the call runs and OUT arrays are written
+ * before the future completes, so they must not be touched until then.  Arrays are always copied
+ * rather than pinned, since a pinned array would block the garbage collector for as long as the
+ * call blocks.
+ */
+public final class AsyncInvoker {
+    private final Executor executor;
+    private final Invoker invoker = Invoker.getInstance();
+
+    /** Lazy-initialization singleton holder */
+    private static final class SingletonHolder {
+        static final AsyncInvoker INSTANCE = new AsyncInvoker(newWorkerPool(
+                Integer.getInteger("jffi.async.threads", Math.max(4, Runtime.getRuntime().availableProcessors()))));
+    }
+
+    private AsyncInvoker(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Gets the <code>AsyncInvoker</code> that uses the shared pool of native worker threads.
+     *
+     * The pool size is set with the <tt>jffi.async.threads</tt> system property.  Idle workers exit
+     * after a minute.
+     *
+     * @return An instance of <code>AsyncInvoker</code>
+     */
+    public static AsyncInvoker getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Creates an <code>AsyncInvoker</code> that makes calls on the threads of an executor.
+     *
+     * @param executor The executor to run native calls on.
+     * @return A new <code>AsyncInvoker</code>
+     */
+    public static AsyncInvoker newInstance(Executor executor) {
+        if (executor == null) {
+            throw new NullPointerException("executor is null");
+        }
+
+        return new AsyncInvoker(executor);
+    }
+
+    /**
+     * Gets the executor calls are run on.
+     */
+    final Executor executor() {
+        return executor;
+    }
+
+    private static Executor newWorkerPool(int threadCount) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threadCount, threadCount, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new WorkerThreadFactory());
+        pool.allowCoreThreadTimeOut(true);
+
+        return pool;
+    }
+
+    /**
+     * Invokes a function on a worker thread.
+     *
+     * @param function The <code>Function</code> to invoke.
+     * @param buffer A buffer containing the arguments to the function.
+     * @return A future completed with the return value and errno, or with the exception thrown by the call.
+     */
+    public CompletableFuture<AsyncResult> invoke(Function function, HeapInvocationBuffer buffer) {
+        return invoke(function.getCallContext(), function.getFunctionAddress(), buffer);
+    }
+
+    /**
+     * Invokes a function on a worker thread.
+     *
+     * @param ctx The call context that describes the function.
+     * @param function The address of the function to invoke.
+     * @param buffer A buffer containing the arguments to the function.
+     * @return A future completed with the return value and errno, or with the exception thrown by the call.
+     */
+    public CompletableFuture<AsyncResult> invoke(final CallContext ctx, final long function, HeapInvocationBuffer buffer) {
+        final HeapInvocationBuffer arguments = buffer.copyForAsync();
+        final CompletableFuture<AsyncResult> future = new CompletableFuture<AsyncResult>();
+
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (future.isDone()) {
+                        return;
+                    }
+
+                    try {
+                        future.complete(call(ctx, function, arguments));
+                    } catch (Throwable t) {
+                        future.completeExceptionally(t);
+                    }
+                }
+            });
+
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+
+        return future;
+    }
+
+    private AsyncResult call(CallContext ctx, long function, HeapInvocationBuffer buffer) {
+        Type returnType = ctx.getReturnType();
+        int type = returnType.type();
+        long value = 0;
+        byte[] struct = null;
+
+        if (type == Foreign.TYPE_STRUCT || type == Foreign.TYPE_LONGDOUBLE) {
+            struct = invoker.invokeStruct(ctx, function, buffer);
+
+        } else if (type == Foreign.TYPE_FLOAT) {
+            value = Float.floatToRawIntBits(invoker.invokeFloat(ctx, function, buffer));
+
+        } else if (type == Foreign.TYPE_DOUBLE) {
+            value = Double.doubleToRawLongBits(invoker.invokeDouble(ctx, function, buffer));
+
+        } else if (returnType.size() <= 4) {
+            value = invoker.invokeInt(ctx, function, buffer);
+
+        } else {
+            value = invoker.invokeLong(ctx, function, buffer);
+        }
+
+        return new AsyncResult(value, struct, Foreign.getLastError());
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "jffi-native-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.kenai.jffi;
+
+/**
+ * The return value and errno of a call made by an {@link AsyncInvoker}.
+ */
+public final class AsyncResult {
+    private final long value;
+    private final byte[] struct;
+    private final int errno;
+
+    AsyncResult(long value, byte[] struct, int errno) {
+        this.value = value;
+        this.struct = struct;
+        this.errno = errno;
+    }
+
+    /**
+     * Gets the return value of a function returning a 32 bit or smaller integer.
+     *
+     * @return The integer value.
+     */
+    public int intValue() {
+        return (int) value;
+    }
+
+    /**
+     * Gets the return value of a function returning a 64 bit integer.
+     *
+     * @return The integer value.
+     */
+    public long longValue() {
+        return value;
+    }
+
+    /**
+     * Gets the return value of a function returning a native address.
+     *
+     * @return The address.
+     */
+    public long addressValue() {
+        return value;
+    }
+
+    /**
+     * Gets the return value of a function returning a float.
+     *
+     * @return The floating point value.
+     */
+    public float floatValue() {
+        return Float.intBitsToFloat((int) value);
+    }
+
+    /**
+     * Gets the return value of a function returning a double.
+     *
+     * @return The floating point value.
+     */
+    public double doubleValue() {
+        return Double.longBitsToDouble(value);
+    }
+
+    /**
+     * Gets the return value of a function returning a struct or long double.
+     *
+     * @return The value encoded in native byte order, or null if the function returns a scalar.
+     */
+    public byte[] structValue() {
+        return struct;
+    }
+
+    /**
+     * Gets the errno the worker thread saw straight after the call returned.
+     *
+     * @return The value of errno/GetLastError()
+     */
+    public int getErrno() {
+        return errno;
+    }
+}
@@ -0,0 +1,238 @@
+package com.kenai.jffi;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs calls to functions that may block on the {@link AsyncInvoker} worker threads when the caller
+ * is a virtual thread.  The virtual thread parks while it waits, so its carrier can run other
+ * virtual threads instead of being pinned for the whole native call.
+ *
+ * Thread.isVirtual() is only looked up reflectively, so on JVMs without virtual threads every call
+ * runs on the calling thread.
+ */
+final class BlockingSupport {
+    private BlockingSupport() {}
+
+    private static final MethodHandle IS_VIRTUAL = findIsVirtual();
+
+    private static MethodHandle findIsVirtual() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks if the current thread is a virtual thread.  Calls to functions that may block are
+     * only moved to a worker thread when this is true.
+     */
+    static boolean isVirtualThread() {
+        try {
+            return IS_VIRTUAL != null && (boolean) IS_VIRTUAL.invokeExact(Thread.currentThread());
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    static long invokeN(final CallContext ctx, final long function, final long... args) {
+        return run(ctx, new Supplier<Long>() {
+            @Override
+            public Long get() {
+                Invoker invoker = Invoker.getInstance();
+                switch (args.length) {
+                    case 0: return invoker.invokeN0(ctx, function);
+                    case 1: return invoker.invokeN1(ctx, function, args[0]);
+                    case 2: return invoker.invokeN2(ctx, function, args[0], args[1]);
+                    case 3: return invoker.invokeN3(ctx, function, args[0], args[1], args[2]);
+                    case 4: return invoker.invokeN4(ctx, function, args[0], args[1], args[2], args[3]);
+                    case 5: return invoker.invokeN5(ctx, function, args[0], args[1], args[2], args[3], args[4]);
+                    case 6: return invoker.invokeN6(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5]);
+                    case 7: return invoker.invokeN7(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6]);
+                    case 8: return invoker.invokeN8(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7]);
+                    case 9: return invoker.invokeN9(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8]);
+                    case 10: return invoker.invokeN10(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9]);
+                    case 11: return invoker.invokeN11(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9], args[10]);
+                    case 12: return invoker.invokeN12(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9], args[10], args[11]);
+                    default: throw new IllegalArgumentException("unsupported parameter count: " + args.length);
+                }
+            }
+        });
+    }
+
+    static int invokeI(final CallContext ctx, final long function, final boolean noErrno, final int... args) {
+        return run(ctx, new Supplier<Integer>() {
+            @Override
+            public Integer get() {
+                Invoker invoker = Invoker.getInstance();
+                switch (args.length) {
+                    case 0: return noErrno ? invoker.invokeI0NoErrno(ctx, function) : invoker.invokeI0(ctx, function);
+                    case 1: return noErrno ? invoker.invokeI1NoErrno(ctx, function, args[0]) : invoker.invokeI1(ctx, function, args[0]);
+                    case 2: return noErrno ? invoker.invokeI2NoErrno(ctx, function, args[0], args[1]) : invoker.invokeI2(ctx, function, args[0], args[1]);
+                    case 3: return noErrno ? invoker.invokeI3NoErrno(ctx, function, args[0], args[1], args[2]) : invoker.invokeI3(ctx, function, args[0], args[1], args[2]);
+                    case 4: return noErrno ? invoker.invokeI4NoErrno(ctx, function, args[0], args[1], args[2], args[3]) : invoker.invokeI4(ctx, function, args[0], args[1], args[2], args[3]);
+                    case 5: return noErrno ? invoker.invokeI5NoErrno(ctx, function, args[0], args[1], args[2], args[3], args[4]) : invoker.invokeI5(ctx, function, args[0], args[1], args[2], args[3], args[4]);
+                    case 6: return noErrno ? invoker.invokeI6NoErrno(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5]) : invoker.invokeI6(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5]);
+                    case 7: return noErrno ? invoker.invokeI7NoErrno(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6]) : invoker.invokeI7(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6]);
+                    case 8: return noErrno ? invoker.invokeI8NoErrno(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7]) : invoker.invokeI8(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7]);
+                    case 9: return noErrno ? invoker.invokeI9NoErrno(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8]) : invoker.invokeI9(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8]);
+                    case 10: return noErrno ? invoker.invokeI10NoErrno(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9]) : invoker.invokeI10(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9]);
+                    case 11: return noErrno ? invoker.invokeI11NoErrno(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9], args[10]) : invoker.invokeI11(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9], args[10]);
+                    case 12: return noErrno ? invoker.invokeI12NoErrno(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9], args[10], args[11]) : invoker.invokeI12(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9], args[10], args[11]);
+                    default: throw new IllegalArgumentException("unsupported parameter count: " + args.length);
+                }
+            }
+        });
+    }
+
+    static long invokeL(final CallContext ctx, final long function, final boolean noErrno, final long... args) {
+        return run(ctx, new Supplier<Long>() {
+            @Override
+            public Long get() {
+                Invoker invoker = Invoker.getInstance();
+                switch (args.length) {
+                    case 0: return noErrno ? invoker.invokeL0NoErrno(ctx, function) : invoker.invokeL0(ctx, function);
+                    case 1: return noErrno ? invoker.invokeL1NoErrno(ctx, function, args[0]) : invoker.invokeL1(ctx, function, args[0]);
+                    case 2: return noErrno ? invoker.invokeL2NoErrno(ctx, function, args[0], args[1]) : invoker.invokeL2(ctx, function, args[0], args[1]);
+                    case 3: return noErrno ? invoker.invokeL3NoErrno(ctx, function, args[0], args[1], args[2]) : invoker.invokeL3(ctx, function, args[0], args[1], args[2]);
+                    case 4: return noErrno ? invoker.invokeL4NoErrno(ctx, function, args[0], args[1], args[2], args[3]) : invoker.invokeL4(ctx, function, args[0], args[1], args[2], args[3]);
+                    case 5: return noErrno ? invoker.invokeL5NoErrno(ctx, function, args[0], args[1], args[2], args[3], args[4]) : invoker.invokeL5(ctx, function, args[0], args[1], args[2], args[3], args[4]);
+                    case 6: return noErrno ? invoker.invokeL6NoErrno(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5]) : invoker.invokeL6(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5]);
+                    case 7: return noErrno ? invoker.invokeL7NoErrno(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6]) : invoker.invokeL7(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6]);
+                    case 8: return noErrno ? invoker.invokeL8NoErrno(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7]) : invoker.invokeL8(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7]);
+                    case 9: return noErrno ? invoker.invokeL9NoErrno(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8]) : invoker.invokeL9(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8]);
+                    case 10: return noErrno ? invoker.invokeL10NoErrno(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9]) : invoker.invokeL10(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9]);
+                    case 11: return noErrno ? invoker.invokeL11NoErrno(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9], args[10]) : invoker.invokeL11(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9], args[10]);
+                    case 12: return noErrno ? invoker.invokeL12NoErrno(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9], args[10], args[11]) : invoker.invokeL12(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9], args[10], args[11]);
+                    default: throw new IllegalArgumentException("unsupported parameter count: " + args.length);
+                }
+            }
+        });
+    }
+
+    static float invokeF(final CallContext ctx, final long function, final float... args) {
+        return run(ctx, new Supplier<Float>() {
+            @Override
+            public Float get() {
+                Invoker invoker = Invoker.getInstance();
+                switch (args.length) {
+                    case 0: return invoker.invokeF0(ctx, function);
+                    case 1: return invoker.invokeF1(ctx, function, args[0]);
+                    case 2: return invoker.invokeF2(ctx, function, args[0], args[1]);
+                    case 3: return invoker.invokeF3(ctx, function, args[0], args[1], args[2]);
+                    case 4: return invoker.invokeF4(ctx, function, args[0], args[1], args[2], args[3]);
+                    case 5: return invoker.invokeF5(ctx, function, args[0], args[1], args[2], args[3], args[4]);
+                    case 6: return invoker.invokeF6(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5]);
+                    default: throw new IllegalArgumentException("unsupported parameter count: " + args.length);
+                }
+            }
+        });
+    }
+
+    static double invokeD(final CallContext ctx, final long function, final double... args) {
+        return run(ctx, new Supplier<Double>() {
+            @Override
+            public Double get() {
+                Invoker invoker = Invoker.getInstance();
+                switch (args.length) {
+                    case 0: return invoker.invokeD0(ctx, function);
+                    case 1: return invoker.invokeD1(ctx, function, args[0]);
+                    case 2: return invoker.invokeD2(ctx, function, args[0], args[1]);
+                    case 3: return invoker.invokeD3(ctx, function, args[0], args[1], args[2]);
+                    case 4: return invoker.invokeD4(ctx, function, args[0], args[1], args[2], args[3]);
+                    case 5: return invoker.invokeD5(ctx, function, args[0], args[1], args[2], args[3], args[4]);
+                    case 6: return invoker.invokeD6(ctx, function, args[0], args[1], args[2], args[3], args[4], args[5]);
+                    default: throw new IllegalArgumentException("unsupported parameter count: " + args.length);
+                }
+            }
+        });
+    }
+
+    static int invokeInt(final CallContext ctx, final long function, final HeapInvocationBuffer buffer) {
+        return run(ctx, new Supplier<Integer>() {
+            @Override
+            public Integer get() {
+                return Invoker.getInstance().invokeInt(ctx, function, buffer);
+            }
+        });
+    }
+
+    static long invokeLong(final CallContext ctx, final long function, final HeapInvocationBuffer buffer) {
+        return run(ctx, new Supplier<Long>() {
+            @Override
+            public Long get() {
+                return Invoker.getInstance().invokeLong(ctx, function, buffer);
+            }
+        });
+    }
+
+    static float invokeFloat(final CallContext ctx, final long function, final HeapInvocationBuffer buffer) {
+        return run(ctx, new Supplier<Float>() {
+            @Override
+            public Float get() {
+                return Invoker.getInstance().invokeFloat(ctx, function, buffer);
+            }
+        });
+    }
+
+    static double invokeDouble(final CallContext ctx, final long function, final HeapInvocationBuffer buffer) {
+        return run(ctx, new Supplier<Double>() {
+            @Override
+            public Double get() {
+                return Invoker.getInstance().invokeDouble(ctx, function, buffer);
+            }
+        });
+    }
+
+    static byte[] invokeStruct(final CallContext ctx, final long function, final HeapInvocationBuffer buffer) {
+        return run(ctx, new Supplier<byte[]>() {
+            @Override
+            public byte[] get() {
+                return Invoker.getInstance().invokeStruct(ctx, function, buffer);
+            }
+        });
+    }
+
+    /**
+     * Runs a call on a worker thread and waits for it, then copies the errno the worker saw to the
+     * current thread.
+     */
+    static <T> T run(CallContext ctx, final Supplier<T> call) {
+        final boolean saveErrno = (ctx.flags & Foreign.F_NOERRNO) == 0;
+        final int[] errno = new int[1];
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(new Supplier<T>() {
+            @Override
+            public T get() {
+                T value = call.get();
+                if (saveErrno) {
+                    errno[0] = Foreign.getLastError();
+                }
+                return value;
+            }
+        }, AsyncInvoker.getInstance().executor());
+
+        T value;
+        try {
+            value = future.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw ex;
+        }
+
+        if (saveErrno) {
+            Foreign.setLastError(errno[0]);
+        }
+
+        return value;
+    }
+}
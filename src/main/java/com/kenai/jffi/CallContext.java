@@ -34,8 +34,10 @@ package com.kenai.jffi;
 
 import com.kenai.jffi.internal.Cleaner;
 
+import java.lang.invoke.MethodHandle;
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -68,8 +70,30 @@ public final class CallContext {
     
     final int flags;
 
+    /** Whether heap invocation buffers pack the parameters in the libffi raw layout */
+    final boolean rawParameterPacking;
+
+    /** Whether calls from a virtual thread are run on a worker thread, so its carrier is not pinned */
+    final boolean mayBlock;
+
+    /** Offset of the first long double value in an invocation buffer, after the parameter slots */
+    final int longDoubleOffset;
+
+    /** Size of a heap or direct invocation buffer, including any long double values */
+    final int parameterBufferSize;
+
     volatile int disposed;
 
+    /** java.lang.foreign downcall handles, created on first use when that engine is enabled */
+    private DowncallSupport.Handles downcallHandles;
+
+    /** Number of slots in the invocation buffer pool, indexed by thread id */
+    private static final int BUFFER_POOL_STRIPES = 8;
+
+    /** Idle invocation buffers, handed out by {@link HeapInvocationBuffer#acquire(CallContext)} */
+    private final AtomicReferenceArray<HeapInvocationBuffer> invocationBuffers
+            = new AtomicReferenceArray<HeapInvocationBuffer>(BUFFER_POOL_STRIPES);
+
     final AtomicIntegerFieldUpdater<CallContext> UPDATER = AtomicIntegerFieldUpdater.newUpdater(CallContext.class, "disposed");
 
     /** A handle to the foreign interface to keep it alive as long as this object is alive */
@@ -99,6 +123,24 @@ public final class CallContext {
         return CallContextCache.getInstance().getCallContext(returnType, parameterTypes, convention, saveErrno, faultProtect);
     }
 
+    /**
+     * Returns a {@link CallContext} instance, which may be a previously cached instance that matches.
+     *
+     * @param returnType The return type of the native function.
+     * @param fixedParamCount The number of parameters that are fixed, for varargs calls
+     * @param parameterTypes The parameter types the function accepts.
+     * @param convention The calling convention of the function.
+     * @param saveErrno Indicates that the errno should be saved
+     * @param faultProtect Whether faults in the native function are turned into a {@link FaultException}
+     * @param mayBlock Whether the function may block, so calls from a virtual thread are run on a worker thread
+     * @return An instance of CallContext
+     */
+    public static CallContext getCallContext(Type returnType, int fixedParamCount, Type[] parameterTypes, CallingConvention convention,
+                                             boolean saveErrno, boolean faultProtect, boolean mayBlock) {
+        return CallContextCache.getInstance().getCallContext(returnType, fixedParamCount, parameterTypes, convention,
+                saveErrno, faultProtect, mayBlock);
+    }
+
     /**
      * Creates a new instance of <code>Function</code> with default calling convention.
      *
@@ -137,6 +179,11 @@ public final class CallContext {
      */
     CallContext(Type returnType, int fixedParamCount, Type[] parameterTypes, CallingConvention convention,
                 boolean saveErrno, boolean faultProtect) {
+        this(returnType, fixedParamCount, parameterTypes, convention, saveErrno, faultProtect, false);
+    }
+
+    CallContext(Type returnType, int fixedParamCount, Type[] parameterTypes, CallingConvention convention,
+                boolean saveErrno, boolean faultProtect, boolean mayBlock) {
 
         final int flags = (!saveErrno ? Foreign.F_NOERRNO : 0)
                 | (convention == CallingConvention.STDCALL ? Foreign.F_STDCALL : Foreign.F_DEFAULT)
@@ -163,6 +210,16 @@ public final class CallContext {
         this.rawParameterSize = foreign.getCallContextRawParameterSize(h);
         this.parameterTypeHandles = Type.nativeHandles(parameterTypes);
         this.flags = flags;
+        this.rawParameterPacking = isRawParameterPacking(foreign, fixedParamCount, parameterTypes);
+        this.mayBlock = mayBlock;
+
+        // Long doubles too big for a slot are stored after the slots, the same as the native call context
+        int longDoubleSize = 0;
+        for (Type type : parameterTypes) {
+            longDoubleSize += isInlineLongDouble(type) ? type.size() : 0;
+        }
+        this.longDoubleOffset = longDoubleSize > 0 ? (parameterCount * 8 + 15) & ~15 : parameterCount * 8;
+        this.parameterBufferSize = longDoubleOffset + longDoubleSize;
 
         Cleaner.register(this, new Runnable() {
             @Override
@@ -180,6 +237,31 @@ public final class CallContext {
         });
     }
 
+    /**
+     * Checks if a parameter is a long double stored after the parameter slots of an invocation buffer.
+     */
+    static boolean isInlineLongDouble(Type type) {
+        return type.type() == Foreign.TYPE_LONGDOUBLE && type.size() > 8;
+    }
+
+    /**
+     * Checks if the raw layout is used for a function, following the same rules as the native call context.
+     * Struct and long double values are passed by reference, so only functions with scalar parameters qualify.
+     */
+    private static boolean isRawParameterPacking(Foreign foreign, int fixedParamCount, Type[] parameterTypes) {
+        if (fixedParamCount != parameterTypes.length || !foreign.isRawParameterPackingEnabled()) {
+            return false;
+        }
+
+        for (Type type : parameterTypes) {
+            if (type.type() == Foreign.TYPE_STRUCT || type.type() == Foreign.TYPE_LONGDOUBLE) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     /**
      * Gets the number of parameters the native function accepts.
      *
@@ -189,6 +271,22 @@ public final class CallContext {
         return parameterCount;
     }
 
+    /**
+     * Checks if the function may block.  Calls made from a virtual thread to a function that may
+     * block are run on a native worker thread, and the virtual thread waits without pinning its carrier.
+     * <p>
+     * Only calls made through the {@link Invoker} invokeI, invokeL, invokeF, invokeD and invokeN methods,
+     * and the {@link HeapInvocationBuffer} methods such as {@link Invoker#invokeInt(CallContext, long, HeapInvocationBuffer)},
+     * are moved to a worker thread.  {@link ObjectParameterInvoker}, {@link DirectInvocationBuffer} and the
+     * {@link InvokeDynamicSupport} handles always call the function on the current thread.
+     * </p>
+     *
+     * @return true if the function was declared as one that may block.
+     */
+    public final boolean mayBlock() {
+        return mayBlock;
+    }
+
     /**
      * Gets the number of bytes required to pack all the parameters this function
      * accepts, into a region of memory.
@@ -199,6 +297,35 @@ public final class CallContext {
         return rawParameterSize;
     }
 
+    /**
+     * Gets how array parameters with the {@link ObjectParameterInfo#ADAPTIVE} flag have been passed
+     * to functions called with this context.
+     *
+     * @return A snapshot of the counters.
+     */
+    public final ArrayStatistics getArrayStatistics() {
+        long[] stats = new long[4];
+        Foreign.getInstance().getCallContextArrayStatistics(contextAddress, stats);
+        return new ArrayStatistics(stats[0], stats[1], stats[2], stats[3]);
+    }
+
+    /**
+     * Gets the context for a variadic call, with the fixed parameters of this context followed by
+     * the types of the variadic arguments.
+     *
+     * @param variadicTypes The types of the variadic arguments.
+     * @return A shared <code>CallContext</code> from the {@link CallContextCache}.
+     */
+    final CallContext getVariadicContext(Type[] variadicTypes) {
+        Type[] types = new Type[fixedParamCount + variadicTypes.length];
+        System.arraycopy(parameterTypes, 0, types, 0, fixedParamCount);
+        System.arraycopy(variadicTypes, 0, types, fixedParamCount, variadicTypes.length);
+
+        return CallContextCache.getInstance().getCallContext(returnType, fixedParamCount, types,
+                (flags & Foreign.F_STDCALL) != 0 ? CallingConvention.STDCALL : CallingConvention.DEFAULT,
+                (flags & Foreign.F_NOERRNO) == 0, (flags & Foreign.F_PROTECT) != 0, mayBlock);
+    }
+
     /**
      * Gets the address of the function context.
      *
@@ -208,6 +335,54 @@ public final class CallContext {
         return contextAddress;
     }
 
+    /**
+     * Gets the (long function, int...)int downcall handle for this context.
+     *
+     * @param noErrno true if the caller does not need errno saved
+     * @return A downcall handle, or null if the call must go through JNI.
+     */
+    final MethodHandle getIntDowncall(boolean noErrno) {
+        return noErrno || (flags & Foreign.F_NOERRNO) != 0 ? getDowncallHandles().intHandle : null;
+    }
+
+    /**
+     * Gets the (long function, long...)long downcall handle for this context.
+     *
+     * @param noErrno true if the caller does not need errno saved
+     * @return A downcall handle, or null if the call must go through JNI.
+     */
+    final MethodHandle getLongDowncall(boolean noErrno) {
+        return noErrno || (flags & Foreign.F_NOERRNO) != 0 ? getDowncallHandles().longHandle : null;
+    }
+
+    private DowncallSupport.Handles getDowncallHandles() {
+        DowncallSupport.Handles handles = downcallHandles;
+        return handles != null ? handles : (downcallHandles = DowncallSupport.newHandles(this));
+    }
+
+    /**
+     * Takes an idle invocation buffer from this context's pool, or creates a new one if the
+     * current thread's slot is empty.
+     */
+    final HeapInvocationBuffer acquireInvocationBuffer() {
+        int stripe = (int) Thread.currentThread().getId() & (BUFFER_POOL_STRIPES - 1);
+        HeapInvocationBuffer buffer = invocationBuffers.get(stripe);
+        return buffer != null && invocationBuffers.compareAndSet(stripe, buffer, null)
+                ? buffer : new HeapInvocationBuffer(this);
+    }
+
+    /**
+     * Resets an invocation buffer and returns it to this context's pool.  The buffer is dropped
+     * if the current thread's slot is already full.
+     */
+    final void releaseInvocationBuffer(HeapInvocationBuffer buffer) {
+        buffer.reset();
+        int stripe = (int) Thread.currentThread().getId() & (BUFFER_POOL_STRIPES - 1);
+        if (invocationBuffers.get(stripe) == null) {
+            invocationBuffers.compareAndSet(stripe, null, buffer);
+        }
+    }
+
     /**
      * Gets the native return type of this function.
      *
@@ -236,6 +411,8 @@ public final class CallContext {
 
         if (flags != that.flags) return false;
         if (parameterCount != that.parameterCount) return false;
+        if (fixedParamCount != that.fixedParamCount) return false;
+        if (mayBlock != that.mayBlock) return false;
         if (rawParameterSize != that.rawParameterSize) return false;
         if (!Arrays.equals(parameterTypes, that.parameterTypes)) return false;
         if (!returnType.equals(that.returnType)) return false;
@@ -249,6 +426,8 @@ public final class CallContext {
         result = 31 * result + returnType.hashCode();
         result = 31 * result + Arrays.hashCode(parameterTypes);
         result = 31 * result + flags;
+        result = 31 * result + fixedParamCount;
+        result = 31 * result + (mayBlock ? 1 : 0);
         return result;
     }
 
@@ -80,7 +80,12 @@ public class CallContextCache {
 
     public final CallContext getCallContext(Type returnType, int fixedParamCount, Type[] parameterTypes, CallingConvention convention,
                                             boolean saveErrno, boolean faultProtect) {
-        Signature signature = new Signature(returnType, parameterTypes, convention, saveErrno, faultProtect);
+        return getCallContext(returnType, fixedParamCount, parameterTypes, convention, saveErrno, faultProtect, false);
+    }
+
+    public final CallContext getCallContext(Type returnType, int fixedParamCount, Type[] parameterTypes, CallingConvention convention,
+                                            boolean saveErrno, boolean faultProtect, boolean mayBlock) {
+        Signature signature = new Signature(returnType, fixedParamCount, parameterTypes, convention, saveErrno, faultProtect, mayBlock);
         CallContextRef ref = contextCache.get(signature);
         CallContext ctx;
 
@@ -93,7 +98,7 @@ public class CallContextCache {
             contextCache.remove(ref.signature);
         }
 
-        ctx = new CallContext(returnType, fixedParamCount, parameterTypes.clone(), convention, saveErrno, faultProtect);
+        ctx = new CallContext(returnType, fixedParamCount, parameterTypes.clone(), convention, saveErrno, faultProtect, mayBlock);
         contextCache.put(signature, new CallContextRef(signature, ctx, contextReferenceQueue));
 
         return ctx;
@@ -117,21 +122,25 @@ public class CallContextCache {
          */
         private final Type returnType;
         private final Type[] parameterTypes;
+        private final int fixedParamCount;
         private final CallingConvention convention;
         private final boolean saveErrno;
         private final boolean faultProtect;
+        private final boolean mayBlock;
         private int hashCode = 0;
 
-        public Signature(Type returnType, Type[] parameterTypes, CallingConvention convention, boolean saveErrno,
-                         boolean faultProtect) {
+        public Signature(Type returnType, int fixedParamCount, Type[] parameterTypes, CallingConvention convention,
+                         boolean saveErrno, boolean faultProtect, boolean mayBlock) {
             if (returnType == null || parameterTypes == null) {
                 throw new NullPointerException("null return type or parameter types array");
             }
             this.returnType = returnType;
             this.parameterTypes = parameterTypes;
+            this.fixedParamCount = fixedParamCount;
             this.convention = convention;
             this.saveErrno = saveErrno;
             this.faultProtect = faultProtect;
+            this.mayBlock = mayBlock;
         }
 
         @Override
@@ -142,7 +151,8 @@ public class CallContextCache {
 
             final Signature other = (Signature) obj;
 
-            if (convention != other.convention || saveErrno != other.saveErrno || faultProtect != other.faultProtect) {
+            if (convention != other.convention || saveErrno != other.saveErrno || faultProtect != other.faultProtect
+                    || fixedParamCount != other.fixedParamCount || mayBlock != other.mayBlock) {
                 return false;
             }
 
@@ -171,9 +181,11 @@ public class CallContextCache {
                 paramHash = 31 * paramHash + parameterTypes[i].hashCode();
             }
             hash = 53 * hash + paramHash;
+            hash = 53 * hash + this.fixedParamCount;
             hash = 53 * hash + this.convention.hashCode();
             hash = 53 * hash + (this.saveErrno ? 1 : 0);
             hash = 53 * hash + (this.faultProtect ? 1 : 0);
+            hash = 53 * hash + (this.mayBlock ? 1 : 0);
             return hash;
         }
 
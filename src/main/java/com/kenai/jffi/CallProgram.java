@@ -0,0 +1,344 @@
+package com.kenai.jffi;
+
+import com.kenai.jffi.internal.Cleaner;
+
+import java.lang.annotation.Native;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A fixed sequence of native calls that runs from a single JNI call.
+ *
+ * Each parameter of a step is a constant, one of the program inputs, or the result of an earlier
+ * step.  Values are packed the same way as for {@link Invoker#invokeN1}.  A step can end the program
+ * early when its result matches an exit condition, e.g. when a lock or read call reports an error.
+ * <pre>
+ *     CallProgram.Builder b = CallProgram.builder();
+ *     CallProgram.Step lock = b.call(lockFunction, CallProgram.input(0)).exitIf(CallProgram.Exit.NOT_EQUAL, 0);
+ *     CallProgram.Step read = b.call(readFunction, CallProgram.input(0), CallProgram.input(1));
+ *     b.call(unlockFunction, CallProgram.input(0));
+ *     CallProgram program = b.build();
+ * </pre>
+ */
+public final class CallProgram {
+    @Native static final int ARG_CONSTANT = 0;
+    @Native static final int ARG_INPUT = 1;
+    @Native static final int ARG_RESULT = 2;
+
+    @Native static final int EXIT_NONE = 0;
+    @Native static final int EXIT_EQUAL = 1;
+    @Native static final int EXIT_NOT_EQUAL = 2;
+    @Native static final int EXIT_LESS_THAN = 3;
+
+    /** Conditions on a step result that end the program */
+    public enum Exit {
+        /** Exit when the result equals the value */
+        EQUAL(EXIT_EQUAL),
+        /** Exit when the result does not equal the value */
+        NOT_EQUAL(EXIT_NOT_EQUAL),
+        /** Exit when the result is less than the value, as a signed 64 bit integer */
+        LESS_THAN(EXIT_LESS_THAN);
+
+        final int code;
+
+        Exit(int code) {
+            this.code = code;
+        }
+    }
+
+    private final Foreign foreign = Foreign.getInstance();
+    private final long address;
+    private final int stepCount, inputCount;
+    /** keep a reference to the call contexts, to avoid GC whilst the program is in use */
+    @SuppressWarnings({"FieldCanBeLocal", "UnusedDeclaration"})
+    private final CallContext[] callContexts;
+    private volatile int disposed;
+    private static final AtomicIntegerFieldUpdater<CallProgram> UPDATER = AtomicIntegerFieldUpdater.newUpdater(CallProgram.class, "disposed");
+
+    private CallProgram(long[] code, int stepCount, int inputCount, CallContext[] callContexts) {
+        this.address = foreign.newCallProgram(code);
+        if (address == 0L) {
+            throw new RuntimeException("failed to create call program");
+        }
+        this.stepCount = stepCount;
+        this.inputCount = inputCount;
+        this.callContexts = callContexts;
+
+        Cleaner.register(this, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    int disposed = UPDATER.getAndSet(CallProgram.this, 1);
+                    if (disposed == 0) {
+                        foreign.freeCallProgram(address);
+                    }
+                } catch (Throwable t) {
+                    Logger.getLogger(getClass().getName()).log(Level.WARNING,
+                            "exception when freeing " + getClass() + ": %s", t.getLocalizedMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Creates a new builder to record the steps of a program.
+     *
+     * @return A new <tt>Builder</tt>.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates an argument with a fixed value.
+     *
+     * @param value The value, packed as for {@link Invoker#invokeN1}.
+     * @return An <tt>Argument</tt>.
+     */
+    public static Argument constant(long value) {
+        return new Argument(ARG_CONSTANT, value);
+    }
+
+    /**
+     * Creates an argument that takes its value from the program inputs on each run.
+     *
+     * @param index The index of the input.
+     * @return An <tt>Argument</tt>.
+     */
+    public static Argument input(int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("negative input index " + index);
+        }
+        return new Argument(ARG_INPUT, index);
+    }
+
+    /**
+     * Gets the number of steps in this program.
+     *
+     * @return The number of steps.
+     */
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    /**
+     * Gets the number of input values this program reads.
+     *
+     * @return The number of inputs.
+     */
+    public int getInputCount() {
+        return inputCount;
+    }
+
+    /**
+     * Runs the program.
+     *
+     * @param inputs The input values, packed as for {@link Invoker#invokeN1}.
+     * @param results An array to store the result of each step in, or null.
+     * @return The number of steps that ran.  This is less than {@link #getStepCount()} if a step
+     * triggered its exit condition.
+     */
+    public int invoke(long[] inputs, long[] results) {
+        if (disposed != 0) {
+            throw new IllegalStateException("call program has been disposed");
+        }
+
+        if (inputs.length < inputCount) {
+            throw new ArrayIndexOutOfBoundsException("program reads " + inputCount + " inputs");
+        }
+
+        if (results != null && results.length < stepCount) {
+            throw new ArrayIndexOutOfBoundsException("program has " + stepCount + " steps");
+        }
+
+        return Foreign.invokeCallProgram(address, inputs, results);
+    }
+
+    /**
+     * Runs the program, and returns the result of the last step that ran.
+     *
+     * @param inputs The input values, packed as for {@link Invoker#invokeN1}.
+     * @return The result of the last step that ran.
+     */
+    public long invoke(long... inputs) {
+        long[] results = new long[stepCount];
+        int count = invoke(inputs, results);
+        return count > 0 ? results[count - 1] : 0L;
+    }
+
+    /**
+     * Frees the native program.  The program must not be used after this.
+     */
+    public void dispose() {
+        int disposed = UPDATER.getAndSet(this, 1);
+        if (disposed == 0) {
+            foreign.freeCallProgram(address);
+        }
+    }
+
+    /**
+     * A parameter of a step.
+     */
+    public static final class Argument {
+        final int kind;
+        final long value;
+        final Builder builder;
+
+        private Argument(int kind, long value) {
+            this(kind, value, null);
+        }
+
+        private Argument(int kind, long value, Builder builder) {
+            this.kind = kind;
+            this.value = value;
+            this.builder = builder;
+        }
+    }
+
+    /**
+     * A recorded call.
+     */
+    public static final class Step {
+        private final Builder builder;
+        private final int index;
+        private final CallContext callContext;
+        private final long function;
+        private final Argument[] arguments;
+        private Exit exit;
+        private long exitValue;
+
+        private Step(Builder builder, int index, CallContext callContext, long function, Argument[] arguments) {
+            this.builder = builder;
+            this.index = index;
+            this.callContext = callContext;
+            this.function = function;
+            this.arguments = arguments;
+        }
+
+        /**
+         * Gets the position of this step in the program.
+         *
+         * @return The index of this step.
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Creates an argument that takes the result of this step.
+         *
+         * @return An <tt>Argument</tt>.
+         */
+        public Argument result() {
+            return new Argument(ARG_RESULT, index, builder);
+        }
+
+        /**
+         * Ends the program after this step if its result matches a condition.
+         *
+         * @param exit The condition to check.
+         * @param value The value to compare the result with.
+         * @return This step.
+         */
+        public Step exitIf(Exit exit, long value) {
+            this.exit = exit;
+            this.exitValue = value;
+            return this;
+        }
+    }
+
+    /**
+     * Records the steps of a program.
+     */
+    public static final class Builder {
+        private final List<Step> steps = new ArrayList<Step>();
+        private int inputCount;
+
+        private Builder() {}
+
+        /**
+         * Appends a call to the program.
+         *
+         * @param function The <b>Function</b> to call.
+         * @param arguments The parameters of the call.
+         * @return The new <tt>Step</tt>.
+         */
+        public Step call(Function function, Argument... arguments) {
+            return call(function.getCallContext(), function.getFunctionAddress(), arguments);
+        }
+
+        /**
+         * Appends a call to the program.
+         *
+         * @param callContext The <b>CallContext</b> describing how to call the function.
+         * @param function The address of the native function to call.
+         * @param arguments The parameters of the call.
+         * @return The new <tt>Step</tt>.
+         */
+        public Step call(CallContext callContext, long function, Argument... arguments) {
+            if (arguments.length != callContext.getParameterCount()) {
+                throw new IllegalArgumentException("function takes " + callContext.getParameterCount()
+                        + " parameters, not " + arguments.length);
+            }
+
+            int returnType = callContext.getReturnType().type();
+            if (returnType == Foreign.TYPE_STRUCT || returnType == Foreign.TYPE_LONGDOUBLE) {
+                throw new IllegalArgumentException("call programs do not support struct or long double results");
+            }
+
+            for (int i = 0; i < arguments.length; i++) {
+                if (callContext.getParameterType(i).type() == Foreign.TYPE_LONGDOUBLE) {
+                    throw new IllegalArgumentException("call programs do not support long double parameters");
+                }
+
+                if (arguments[i].kind == ARG_RESULT && arguments[i].builder != this) {
+                    throw new IllegalArgumentException("parameter " + i + " refers to a step of another program");
+                }
+
+                if (arguments[i].kind == ARG_INPUT) {
+                    inputCount = Math.max(inputCount, (int) arguments[i].value + 1);
+                }
+            }
+
+            Step step = new Step(this, steps.size(), callContext, function, arguments.clone());
+            steps.add(step);
+
+            return step;
+        }
+
+        /**
+         * Compiles the recorded steps into a native program.
+         *
+         * @return A new <tt>CallProgram</tt>.
+         */
+        public CallProgram build() {
+            int length = 2;
+            for (Step step : steps) {
+                length += 5 + step.arguments.length * 2;
+            }
+
+            long[] code = new long[length];
+            CallContext[] callContexts = new CallContext[steps.size()];
+            int pos = 0;
+            code[pos++] = steps.size();
+            code[pos++] = inputCount;
+            for (Step step : steps) {
+                callContexts[step.index] = step.callContext;
+                code[pos++] = step.callContext.getAddress();
+                code[pos++] = step.function;
+                code[pos++] = step.exit != null ? step.exit.code : EXIT_NONE;
+                code[pos++] = step.exitValue;
+                code[pos++] = step.arguments.length;
+                for (Argument argument : step.arguments) {
+                    code[pos++] = argument.kind;
+                    code[pos++] = argument.value;
+                }
+            }
+
+            return new CallProgram(code, steps.size(), inputCount, callContexts);
+        }
+    }
+}
@@ -42,6 +42,9 @@ public interface Closure {
 
     /**
      * An interface to the native callback parameter buffer.
+     *
+     * A buffer is only valid until {@link Closure#invoke} returns, and may be reused for later calls
+     * on the same thread.
      */
     public static interface Buffer {
 
@@ -0,0 +1,97 @@
+package com.kenai.jffi;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Static methods called by native closures with primitive signatures.
+ *
+ * Each closure slot is registered under a cookie that the native trampoline passes ahead of the
+ * parameters, so an upcall needs neither a global reference to a proxy object nor a parameter buffer.
+ */
+final class ClosureDispatch {
+    static final Method INT_UNARY = getMethod("invokeIntUnary", int.class);
+    static final Method INT_BINARY = getMethod("invokeIntBinary", int.class, int.class);
+    static final Method LONG_UNARY = getMethod("invokeLongUnary", long.class);
+    static final Method LONG_BINARY = getMethod("invokeLongBinary", long.class, long.class);
+
+    /** The proxy of each registered slot, indexed by cookie */
+    private static volatile AtomicReferenceArray<ClosurePool.Proxy> proxies
+            = new AtomicReferenceArray<ClosurePool.Proxy>(256);
+
+    /** Cookies given back by freed magazines */
+    private static int[] freeCookies = new int[16];
+    private static int freeCount;
+    private static int nextCookie;
+
+    private ClosureDispatch() {
+    }
+
+    private static Method getMethod(String name, Class... parameterTypes) {
+        Class[] types = new Class[parameterTypes.length + 1];
+        types[0] = long.class;
+        System.arraycopy(parameterTypes, 0, types, 1, parameterTypes.length);
+        try {
+            return ClosureDispatch.class.getDeclaredMethod(name, types);
+        } catch (Throwable ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Registers the proxy of a closure slot.
+     *
+     * @return The cookie the native closure passes to the dispatch method.
+     */
+    static synchronized long register(ClosurePool.Proxy proxy) {
+        int cookie = freeCount > 0 ? freeCookies[--freeCount] : nextCookie++;
+        AtomicReferenceArray<ClosurePool.Proxy> table = proxies;
+        if (cookie >= table.length()) {
+            AtomicReferenceArray<ClosurePool.Proxy> grown = new AtomicReferenceArray<ClosurePool.Proxy>(table.length() * 2);
+            for (int i = 0; i < table.length(); i++) {
+                grown.set(i, table.get(i));
+            }
+            proxies = table = grown;
+        }
+        table.set(cookie, proxy);
+
+        return cookie;
+    }
+
+    /**
+     * Removes a slot once its native closure has been freed, so the cookie can be reused.
+     */
+    static synchronized void unregister(long cookie) {
+        proxies.set((int) cookie, null);
+        if (freeCount == freeCookies.length) {
+            int[] grown = new int[freeCookies.length * 2];
+            System.arraycopy(freeCookies, 0, grown, 0, freeCount);
+            freeCookies = grown;
+        }
+        freeCookies[freeCount++] = (int) cookie;
+    }
+
+    private static Object closure(long cookie) {
+        return proxies.get((int) cookie).closure;
+    }
+
+    static int invokeIntUnary(long cookie, int a1) {
+        Object closure = closure(cookie);
+        return closure instanceof IntUnaryClosure ? ((IntUnaryClosure) closure).invoke(a1) : 0;
+    }
+
+    static int invokeIntBinary(long cookie, int a1, int a2) {
+        Object closure = closure(cookie);
+        return closure instanceof IntBinaryClosure ? ((IntBinaryClosure) closure).invoke(a1, a2) : 0;
+    }
+
+    static long invokeLongUnary(long cookie, long a1) {
+        Object closure = closure(cookie);
+        return closure instanceof LongUnaryClosure ? ((LongUnaryClosure) closure).invoke(a1) : 0L;
+    }
+
+    static long invokeLongBinary(long cookie, long a1, long a2) {
+        Object closure = closure(cookie);
+        return closure instanceof LongBinaryClosure ? ((LongBinaryClosure) closure).invoke(a1, a2) : 0L;
+    }
+}
@@ -32,11 +32,11 @@
 
 package com.kenai.jffi;
 
-import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
 import java.lang.reflect.Method;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Allocates and manages the lifecycle of native closures (aka callbacks)
@@ -49,8 +49,17 @@ public final class ClosureManager {
      * reclaimed, and there is memory pressure, the native closure pool can be freed.
      * This will allow the CallContext instance to also be collected if it is not
      * strongly referenced elsewhere, and ejected from the {@link CallContextCache}
+     *
+     * Entries whose pool has been reclaimed are culled from the map via poolReferenceQueue.
      */
-    private final Map<CallContext, Reference<ClosurePool>> poolMap = new WeakHashMap<CallContext, Reference<ClosurePool>>();
+    private final ConcurrentMap<CallContext, PoolRef> poolMap = new ConcurrentHashMap<CallContext, PoolRef>();
+
+    /** Pools of closures with primitive signatures, dispatched through {@link ClosureDispatch} */
+    private final ConcurrentMap<CallContext, PoolRef> dispatchPoolMap = new ConcurrentHashMap<CallContext, PoolRef>();
+
+    private final ReferenceQueue<ClosurePool> poolReferenceQueue = new ReferenceQueue<ClosurePool>();
+
+    private volatile ThreadAttachPolicy threadAttachPolicy = ThreadAttachPolicy.DEFAULT;
 
     /** Holder class to do lazy allocation of the ClosureManager instance */
     private static final class SingletonHolder {
@@ -97,16 +106,176 @@ public final class ClosureManager {
         return pool.newClosureHandle(closure);
     }
 
-    public final synchronized ClosurePool getClosurePool(CallContext callContext) {
-        Reference<ClosurePool> ref = poolMap.get(callContext);
+    /**
+     * Wraps a java object that implements the {@link IntUnaryClosure} interface in a native closure
+     * taking and returning a 32 bit integer.
+     *
+     * @param closure The java object to be called when the native closure is invoked.
+     * @param convention The calling convention of the closure.
+     * @return A new {@link Closure.Handle} instance.
+     */
+    public final Closure.Handle newIntUnaryClosure(IntUnaryClosure closure, CallingConvention convention) {
+        return newDispatchClosure(closure, ClosureDispatch.INT_UNARY, Type.SINT32, convention, Type.SINT32);
+    }
+
+    /**
+     * Wraps a java object that implements the {@link IntBinaryClosure} interface in a native closure
+     * taking two 32 bit integers and returning a 32 bit integer.
+     *
+     * @param closure The java object to be called when the native closure is invoked.
+     * @param convention The calling convention of the closure.
+     * @return A new {@link Closure.Handle} instance.
+     */
+    public final Closure.Handle newIntBinaryClosure(IntBinaryClosure closure, CallingConvention convention) {
+        return newDispatchClosure(closure, ClosureDispatch.INT_BINARY, Type.SINT32, convention, Type.SINT32, Type.SINT32);
+    }
+
+    /**
+     * Wraps a java object that implements the {@link LongUnaryClosure} interface in a native closure
+     * taking and returning a 64 bit integer.
+     *
+     * @param closure The java object to be called when the native closure is invoked.
+     * @param convention The calling convention of the closure.
+     * @return A new {@link Closure.Handle} instance.
+     */
+    public final Closure.Handle newLongUnaryClosure(LongUnaryClosure closure, CallingConvention convention) {
+        return newDispatchClosure(closure, ClosureDispatch.LONG_UNARY, Type.SINT64, convention, Type.SINT64);
+    }
+
+    /**
+     * Wraps a java object that implements the {@link LongBinaryClosure} interface in a native closure
+     * taking two 64 bit integers and returning a 64 bit integer.
+     *
+     * @param closure The java object to be called when the native closure is invoked.
+     * @param convention The calling convention of the closure.
+     * @return A new {@link Closure.Handle} instance.
+     */
+    public final Closure.Handle newLongBinaryClosure(LongBinaryClosure closure, CallingConvention convention) {
+        return newDispatchClosure(closure, ClosureDispatch.LONG_BINARY, Type.SINT64, convention, Type.SINT64, Type.SINT64);
+    }
+
+    private Closure.Handle newDispatchClosure(Object closure, Method dispatchMethod, Type returnType,
+            CallingConvention convention, Type... parameterTypes) {
+        if (closure == null) {
+            throw new NullPointerException("closure is null");
+        }
+
+        CallContext callContext = CallContextCache.getInstance().getCallContext(returnType, parameterTypes, convention);
+
+        return getClosurePool(dispatchPoolMap, callContext, dispatchMethod, false).newHandle(closure);
+    }
+
+    public final ClosurePool getClosurePool(CallContext callContext) {
+        return getClosurePool(poolMap, callContext, null, false);
+    }
+
+    /**
+     * Gets the closure pool for a call context, and keeps it strongly reachable from then on.
+     *
+     * A pinned pool, and the native closure memory it has allocated, is never freed under memory
+     * pressure, so callbacks of a frequently used signature do not have to warm up a new pool.
+     *
+     * @param callContext The call context (return type, param types, convention) of the closures.
+     * @return The pinned <code>ClosurePool</code>
+     */
+    public final ClosurePool pinClosurePool(CallContext callContext) {
+        return getClosurePool(poolMap, callContext, null, true);
+    }
+
+    private ClosurePool getClosurePool(ConcurrentMap<CallContext, PoolRef> map, CallContext callContext,
+            Method dispatchMethod, boolean pin) {
+        PoolRef ref = map.get(callContext);
         ClosurePool pool;
         if (ref != null && (pool = ref.get()) != null) {
+            if (pin && ref.pinned == null) {
+                ref.pinned = pool;
+            }
             return pool;
         }
 
-        poolMap.put(callContext, new SoftReference<ClosurePool>(pool = new ClosurePool(callContext)));
+        // Cull any reclaimed pools
+        while ((ref = (PoolRef) poolReferenceQueue.poll()) != null) {
+            ref.map.remove(ref.callContext, ref);
+        }
+
+        ClosurePool newPool = new ClosurePool(callContext, dispatchMethod);
+        PoolRef newRef = new PoolRef(map, callContext, newPool, poolReferenceQueue);
+        newRef.pinned = pin ? newPool : null;
+
+        for (;;) {
+            if ((ref = map.putIfAbsent(callContext, newRef)) == null) {
+                return newPool;
+            }
+
+            // Another thread installed a pool first; use it unless it has already been reclaimed
+            if ((pool = ref.get()) != null) {
+                if (pin && ref.pinned == null) {
+                    ref.pinned = pool;
+                }
+                return pool;
+            }
+
+            if (map.replace(callContext, ref, newRef)) {
+                return newPool;
+            }
+        }
+    }
+
+    private static final class PoolRef extends SoftReference<ClosurePool> {
+        final ConcurrentMap<CallContext, PoolRef> map;
+        final CallContext callContext;
+
+        /** Set to the pool itself when pinned, so it is never reclaimed */
+        volatile ClosurePool pinned;
 
-        return pool;
+        PoolRef(ConcurrentMap<CallContext, PoolRef> map, CallContext callContext, ClosurePool pool,
+                ReferenceQueue<ClosurePool> queue) {
+            super(pool, queue);
+            this.map = map;
+            this.callContext = callContext;
+        }
+    }
+
+    /**
+     * Sets how long native threads that are attached to the JVM to run a closure stay attached.
+     *
+     * @param policy The policy for threads attached by later upcalls.
+     */
+    public final void setThreadAttachPolicy(ThreadAttachPolicy policy) {
+        Foreign.getInstance().setThreadAttachPolicy(policy.policy, policy.value);
+        threadAttachPolicy = policy;
+    }
+
+    /**
+     * Gets the policy set with {@link #setThreadAttachPolicy(ThreadAttachPolicy)}.
+     *
+     * @return The current <code>ThreadAttachPolicy</code>
+     */
+    public final ThreadAttachPolicy getThreadAttachPolicy() {
+        return threadAttachPolicy;
+    }
+
+    /**
+     * Gets how many native threads have been attached to and detached from the JVM to run closures.
+     *
+     * @return A snapshot of the counters.
+     */
+    public final ThreadAttachStatistics getThreadAttachStatistics() {
+        long[] stats = new long[2];
+        Foreign.getInstance().getThreadAttachStatistics(stats);
+        return new ThreadAttachStatistics(stats[0], stats[1]);
+    }
+
+    /**
+     * Gets the address of a native <tt>int (*)(void)</tt> function that attaches the calling thread
+     * to the JVM until the thread exits, whatever the attach policy.  Native thread pools can call it
+     * when a worker starts, so upcalls from that worker never attach or detach.  The function returns
+     * zero on success, or a JNI error code.
+     *
+     * @return The address of the native function.
+     */
+    public final long getAttachCurrentThreadFunction() {
+        return Foreign.getInstance().getAttachCurrentThreadFunction();
     }
 
     public ClosureMagazine newClosureMagazine(CallContext callContext, Method method) {
@@ -114,7 +283,8 @@ public final class ClosureManager {
         Class[] methodParameterTypes = method.getParameterTypes();
         boolean callWithPrimitiveArgs = methodParameterTypes.length < 1 ||
                 !Closure.Buffer.class.isAssignableFrom(method.getParameterTypes()[0]);
-        long magazine = foreign.newClosureMagazine(callContext.getAddress(), method, callWithPrimitiveArgs);
+        long magazine = foreign.newClosureMagazine(callContext.getAddress(), method,
+                callWithPrimitiveArgs ? Foreign.CLOSURE_PRIMITIVE_PARAMETERS : 0);
         if (magazine == 0L) {
             throw new RuntimeException("could not allocate new closure magazine");
         }
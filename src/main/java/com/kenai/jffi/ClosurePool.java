@@ -36,13 +36,26 @@ import com.kenai.jffi.internal.Cleaner;
 
 import java.lang.reflect.Method;
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public final class ClosurePool {
 
+    /** The number of free closure slots in each cached batch */
+    private static final int BATCH_SIZE = 8;
+
+    /** Number of thread caches, indexed by thread id */
+    private static final int CACHE_STRIPES = cacheStripes();
+
     private final Set<Magazine> magazines = Collections.synchronizedSet(new HashSet<Magazine>());
-    private final ConcurrentLinkedQueue<Handle> freeQueue = new ConcurrentLinkedQueue<Handle>();
-    private final ConcurrentLinkedQueue<Handle> partialQueue = new ConcurrentLinkedQueue<Handle>();
+
+    /** Batches of free slots shared by all threads */
+    private final Depot depot = new Depot();
+
+    /**
+     * Threads allocate from and free to the cache of their stripe, and only go to the depot a batch at a time.
+     * The caches are not thread locals, so they do not keep this pool alive for as long as any thread that used it.
+     */
+    private final AtomicReferenceArray<ThreadCache> caches = new AtomicReferenceArray<ThreadCache>(CACHE_STRIPES);
 
     //
     // Since the CallContext native handle is used by the native pool code
@@ -50,8 +63,35 @@ public final class ClosurePool {
     //
     private final CallContext callContext;
 
+    /** The static method that primitive closures are dispatched through, or null for {@link Closure}s */
+    private final Method dispatchMethod;
+
     ClosurePool(CallContext callContext) {
+        this(callContext, null);
+    }
+
+    ClosurePool(CallContext callContext, Method dispatchMethod) {
         this.callContext = callContext;
+        this.dispatchMethod = dispatchMethod;
+    }
+
+    private static int cacheStripes() {
+        int stripes = 1;
+        while (stripes < 64 && stripes < Runtime.getRuntime().availableProcessors() * 2) {
+            stripes <<= 1;
+        }
+
+        return stripes;
+    }
+
+    private ThreadCache cache() {
+        int stripe = (int) Thread.currentThread().getId() & (CACHE_STRIPES - 1);
+        ThreadCache cache = caches.get(stripe);
+        if (cache == null && !caches.compareAndSet(stripe, null, cache = new ThreadCache(depot))) {
+            cache = caches.get(stripe);
+        }
+
+        return cache;
     }
 
     synchronized void recycle(Magazine magazine) {
@@ -67,29 +107,44 @@ public final class ClosurePool {
     }
 
     void recycle(Magazine.Slot slot, MagazineHolder holder) {
-        partialQueue.add(new Handle(slot, holder));
+        ThreadCache cache = cache();
+        synchronized (cache) {
+            cache.free(slot, holder);
+        }
     }
 
     private void useMagazine(Magazine m) {
         MagazineHolder h = new MagazineHolder(this, m);
 
-        ArrayList<Handle> handles = new ArrayList<Handle>();
+        Batch batch = new Batch();
         Magazine.Slot s;
-        ConcurrentLinkedQueue<Handle> q = m.isFull() ? freeQueue : partialQueue;
         while ((s = m.get()) != null) {
-            handles.add(new Handle(s, h));
+            if (batch.isFull()) {
+                depot.putLoaded(batch);
+                batch = new Batch();
+            }
+            batch.push(s, h);
         }
 
-        q.addAll(handles);
+        if (!batch.isEmpty()) {
+            depot.putLoaded(batch);
+        }
     }
 
     public Closure.Handle newClosureHandle(Closure closure) {
-        Handle h = partialQueue.poll();
-        if (h == null) {
-            h = freeQueue.poll();
-        }
-        if (h == null) {
-            h = allocateNewHandle();
+        return newHandle(closure);
+    }
+
+    /**
+     * Allocates a handle for a closure object of the kind this pool dispatches to.
+     */
+    Closure.Handle newHandle(Object closure) {
+        Handle h;
+
+        while ((h = allocate()) == null) {
+            Magazine m = new Magazine(callContext, dispatchMethod);
+            useMagazine(m);
+            magazines.add(m);
         }
 
         h.slot.proxy.closure = closure;
@@ -97,16 +152,130 @@ public final class ClosurePool {
         return h;
     }
 
-    private Handle allocateNewHandle() {
-        Handle h;
+    private Handle allocate() {
+        ThreadCache cache = cache();
+        synchronized (cache) {
+            return cache.allocate();
+        }
+    }
 
-        while ((h = partialQueue.poll()) == null && (h = freeQueue.poll()) == null) {
-            Magazine m = new Magazine(callContext);
-            useMagazine(m);
-            magazines.add(m);
+    /**
+     * A stack of free closure slots, along with the holders that keep their magazines from being recycled.
+     */
+    private static final class Batch {
+        private final Magazine.Slot[] slots = new Magazine.Slot[BATCH_SIZE];
+        private final MagazineHolder[] holders = new MagazineHolder[BATCH_SIZE];
+        private int count;
+
+        boolean isEmpty() {
+            return count == 0;
         }
 
-        return h;
+        boolean isFull() {
+            return count == BATCH_SIZE;
+        }
+
+        void push(Magazine.Slot slot, MagazineHolder holder) {
+            slots[count] = slot;
+            holders[count] = holder;
+            count++;
+        }
+
+        Handle pop() {
+            --count;
+            Handle h = new Handle(slots[count], holders[count]);
+            slots[count] = null;
+            holders[count] = null;
+
+            return h;
+        }
+    }
+
+    /**
+     * The shared store of loaded and empty batches.
+     */
+    private static final class Depot {
+        private final ArrayDeque<Batch> loaded = new ArrayDeque<Batch>();
+        private final ArrayDeque<Batch> empty = new ArrayDeque<Batch>();
+
+        synchronized void putLoaded(Batch batch) {
+            loaded.push(batch);
+        }
+
+        /**
+         * Takes a batch with free slots in exchange for an empty one.
+         *
+         * @return A loaded batch, or null if the depot has none.
+         */
+        synchronized Batch exchangeEmpty(Batch batch) {
+            Batch b = loaded.poll();
+            if (b != null) {
+                empty.push(batch);
+            }
+
+            return b;
+        }
+
+        /**
+         * Takes an empty batch in exchange for a full one.
+         */
+        synchronized Batch exchangeFull(Batch batch) {
+            loaded.push(batch);
+            Batch b = empty.poll();
+
+            return b != null ? b : new Batch();
+        }
+    }
+
+    /**
+     * The batches of free slots the threads of a stripe allocate from and free to.  The previous batch is always
+     * either empty or full, so after going to the depot a stripe can do at least a batch worth of
+     * allocations or frees before going again.
+     */
+    private static final class ThreadCache {
+        private final Depot depot;
+        private Batch loaded = new Batch();
+        private Batch previous = new Batch();
+
+        ThreadCache(Depot depot) {
+            this.depot = depot;
+        }
+
+        Handle allocate() {
+            if (loaded.isEmpty()) {
+                if (!previous.isEmpty()) {
+                    swap();
+                } else {
+                    Batch b = depot.exchangeEmpty(loaded);
+                    if (b == null) {
+                        return null;
+                    }
+                    loaded = b;
+                }
+            }
+
+            return loaded.pop();
+        }
+
+        void free(Magazine.Slot slot, MagazineHolder holder) {
+            if (loaded.isFull()) {
+                if (previous.isEmpty()) {
+                    swap();
+                } else {
+                    Batch b = depot.exchangeFull(previous);
+                    previous = loaded;
+                    loaded = b;
+                }
+            }
+
+            loaded.push(slot, holder);
+        }
+
+        private void swap() {
+            Batch b = loaded;
+            loaded = previous;
+            previous = b;
+        }
     }
 
         /**
@@ -175,19 +344,30 @@ public final class ClosurePool {
         private int next;
         private int freeCount;
 
-        Magazine(CallContext ctx) {
+        Magazine(CallContext ctx, Method dispatchMethod) {
             this.ctx = ctx;
-            this.magazine = foreign.newClosureMagazine(ctx.getAddress(), Proxy.METHOD, false);
+            this.magazine = dispatchMethod != null
+                    ? foreign.newClosureMagazine(ctx.getAddress(), dispatchMethod,
+                        Foreign.CLOSURE_PRIMITIVE_PARAMETERS | Foreign.CLOSURE_STATIC_DISPATCH)
+                    : foreign.newClosureMagazine(ctx.getAddress(), Proxy.METHOD, Foreign.CLOSURE_FLAT_PARAMETERS);
             ArrayList<Slot> slots = new ArrayList<Slot>();
 
             for (;;) {
                 long h;
+                long cookie = -1L;
                 Proxy proxy = new Proxy(ctx);
-                if ((h = foreign.closureMagazineGet(magazine, proxy)) == 0) {
+                if (dispatchMethod != null) {
+                    cookie = ClosureDispatch.register(proxy);
+                    if ((h = foreign.closureMagazineGetStatic(magazine, cookie)) == 0) {
+                        ClosureDispatch.unregister(cookie);
+                        break;
+                    }
+
+                } else if ((h = foreign.closureMagazineGet(magazine, proxy)) == 0) {
                     break;
                 }
 
-                Slot s = new Slot(h, proxy);
+                Slot s = new Slot(h, proxy, cookie);
                 slots.add(s);
             }
 
@@ -213,6 +393,11 @@ public final class ClosurePool {
 
                     if (magazine != 0 && release) {
                         foreign.freeClosureMagazine(magazine);
+                        for (int i = 0; i < Magazine.this.slots.length; i++) {
+                            if (Magazine.this.slots[i].cookie != -1L) {
+                                ClosureDispatch.unregister(Magazine.this.slots[i].cookie);
+                            }
+                        }
                     }
                 }
             });
@@ -261,11 +446,15 @@ public final class ClosurePool {
             final long codeAddress;
 
             final Proxy proxy;
+
+            /** The cookie the proxy is registered under with {@link ClosureDispatch}, or -1 */
+            final long cookie;
             volatile boolean autorelease;
 
-            public Slot(long handle, Proxy proxy) {
+            public Slot(long handle, Proxy proxy, long cookie) {
                 this.handle = handle;
                 this.proxy = proxy;
+                this.cookie = cookie;
                 this.autorelease = true;
                 codeAddress = IO.getAddress(handle);
             }
@@ -303,7 +492,8 @@ public final class ClosurePool {
          */
         final CallContext callContext;
 
-        volatile Closure closure;
+        /** The {@link Closure}, or primitive closure for static dispatch, called by this slot */
+        volatile Object closure;
 
         /**
          * Gets the Method to be invoked by native code
@@ -328,10 +518,15 @@ public final class ClosurePool {
          * the closure.
          *
          * @param retvalAddress The address of the native return value buffer
-         * @param paramAddress The address of the native parameter buffer.
+         * @param paramAddress The address of the native parameter values, each in an 8 byte slot.
          */
         public void invoke(long retvalAddress, long paramAddress) {
-            closure.invoke(new DirectClosureBuffer(callContext, retvalAddress, paramAddress));
+            DirectClosureBuffer buffer = DirectClosureBuffer.acquire(callContext, retvalAddress, paramAddress);
+            try {
+                ((Closure) closure).invoke(buffer);
+            } finally {
+                buffer.release();
+            }
         }
     }
     private static final Closure NULL_CLOSURE = new Closure() {
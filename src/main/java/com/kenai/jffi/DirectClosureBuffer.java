@@ -41,48 +41,108 @@ final class DirectClosureBuffer implements Closure.Buffer {
     private static final MemoryIO IO = MemoryIO.getInstance();
     private static final NativeWordIO WordIO = NativeWordIO.getInstance();
     private static final long PARAM_SIZE = Platform.getPlatform().addressSize() / 8;
-    private final long retval;
-    private final long parameters;
+    private static final long FLAT_PARAM_SIZE = 8;
+
+    /** The buffer each thread rebinds for upcalls, so they do not allocate */
+    private static final ThreadLocal<DirectClosureBuffer> THREAD_BUFFER = new ThreadLocal<DirectClosureBuffer>() {
+        @Override
+        protected DirectClosureBuffer initialValue() {
+            return new DirectClosureBuffer(null, 0L, 0L, true);
+        }
+    };
+
+    private long retval;
+    private long parameters;
+    private long parameterSize;
+    private boolean flat;
+    private boolean inUse;
     /* Keep references to the return and parameter types to prevent garbage collection */
-    private final CallContext callContext;
+    private CallContext callContext;
 
     public DirectClosureBuffer(CallContext callContext, long retval, long parameters) {
+        this(callContext, retval, parameters, false);
+    }
+
+    /**
+     * Creates a buffer over the parameters of an upcall.
+     *
+     * @param flat true if the parameter values are stored in consecutive 8 byte slots,
+     * false if parameters is an array of pointers to the values.
+     */
+    DirectClosureBuffer(CallContext callContext, long retval, long parameters, boolean flat) {
         super();
+        rebind(callContext, retval, parameters, flat);
+    }
+
+    /**
+     * Gets the current thread's buffer, bound to the parameters of an upcall with flat parameters.
+     * A nested upcall on the same thread gets a new buffer, since the outer one is still in use.
+     *
+     * The buffer must be handed back with {@link #release()} when the closure returns.
+     */
+    static DirectClosureBuffer acquire(CallContext callContext, long retval, long parameters) {
+        DirectClosureBuffer buffer = THREAD_BUFFER.get();
+        if (buffer.inUse) {
+            return new DirectClosureBuffer(callContext, retval, parameters, true);
+        }
+
+        buffer.rebind(callContext, retval, parameters, true);
+        buffer.inUse = true;
+
+        return buffer;
+    }
+
+    /**
+     * Unbinds this buffer from its upcall, so the thread can use it for the next one.
+     */
+    void release() {
+        inUse = false;
+        callContext = null;
+    }
+
+    private void rebind(CallContext callContext, long retval, long parameters, boolean flat) {
         this.callContext = callContext;
         this.retval = retval;
         this.parameters = parameters;
+        this.flat = flat;
+        this.parameterSize = flat ? FLAT_PARAM_SIZE : PARAM_SIZE;
+    }
+
+    private long parameterAddress(int index) {
+        long slot = parameters + (index * parameterSize);
+        return flat ? slot : IO.getAddress(slot);
     }
 
     public final byte getByte(int index) {
-        return IO.getByte(IO.getAddress(parameters + (index * PARAM_SIZE)));
+        return IO.getByte(parameterAddress(index));
     }
 
     public final short getShort(int index) {
-        return IO.getShort(IO.getAddress(parameters + (index * PARAM_SIZE)));
+        return IO.getShort(parameterAddress(index));
     }
 
     public final int getInt(int index) {
-        return IO.getInt(IO.getAddress(parameters + (index * PARAM_SIZE)));
+        return IO.getInt(parameterAddress(index));
     }
 
     public final long getLong(int index) {
-        return IO.getLong(IO.getAddress(parameters + (index * PARAM_SIZE)));
+        return IO.getLong(parameterAddress(index));
     }
 
     public final float getFloat(int index) {
-        return IO.getFloat(IO.getAddress(parameters + (index * PARAM_SIZE)));
+        return IO.getFloat(parameterAddress(index));
     }
 
     public final double getDouble(int index) {
-        return IO.getDouble(IO.getAddress(parameters + (index * PARAM_SIZE)));
+        return IO.getDouble(parameterAddress(index));
     }
 
     public final long getAddress(int index) {
-        return IO.getAddress(IO.getAddress(parameters + (index * PARAM_SIZE)));
+        return IO.getAddress(parameterAddress(index));
     }
 
     public final long getStruct(int index) {
-        return IO.getAddress(parameters + (index * PARAM_SIZE));
+        return IO.getAddress(parameters + (index * parameterSize));
     }
 
     public final void setByteReturn(byte value) {
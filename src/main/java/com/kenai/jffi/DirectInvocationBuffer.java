@@ -0,0 +1,364 @@
+package com.kenai.jffi;
+
+import com.kenai.jffi.internal.Cleaner;
+
+import java.math.BigDecimal;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An implementation of {@link InvocationBuffer} that packs its parameters into native memory, in
+ * the layout the native invoker passes to the function.  Unlike {@link HeapInvocationBuffer}, the
+ * parameters do not have to be copied out of a java array on each call.
+ *
+ * Java arrays and heap buffers are still passed the same way as for a <code>HeapInvocationBuffer</code>.
+ */
+public final class DirectInvocationBuffer extends InvocationBuffer {
+    private static final int PARAM_SIZE = 8;
+    private static final int MIN_CAPACITY = 8 * PARAM_SIZE;
+
+    private static final ThreadLocal<DirectInvocationBuffer> threadBuffer = new ThreadLocal<DirectInvocationBuffer>();
+
+    private final MemoryIO io = MemoryIO.getInstance();
+    private CallContext callContext;
+    private boolean threadLocal;
+    private Memory memory;
+    private ObjectBuffer objectBuffer;
+    private int paramIndex = 0;
+    private int longDoubleOffset;
+    private byte[] longDouble;
+
+    /**
+     * Creates a new instance of <code>DirectInvocationBuffer</code>.
+     *
+     * @param function The function that this buffer is going to be used with.
+     */
+    public DirectInvocationBuffer(Function function) {
+        this(function.getCallContext());
+    }
+
+    /**
+     * Creates a new instance of <code>DirectInvocationBuffer</code>.
+     *
+     * @param callContext The {@link CallContext} describing how the function should be invoked
+     */
+    public DirectInvocationBuffer(CallContext callContext) {
+        this.callContext = callContext;
+        this.memory = new Memory(Math.max(PARAM_SIZE, callContext.parameterBufferSize));
+        this.longDoubleOffset = callContext.longDoubleOffset;
+    }
+
+    /**
+     * Gets the <code>DirectInvocationBuffer</code> of the current thread, reset and ready to encode
+     * parameters for a call.
+     *
+     * The native memory is reused by every call on the thread, so the buffer is only valid until
+     * the next call to this method on the same thread.  Invoking a function releases the buffer
+     * from its call context and parameters, so it has to be fetched again for the next call.
+     *
+     * @param callContext The {@link CallContext} describing how the function should be invoked
+     * @return A <code>DirectInvocationBuffer</code> with no parameters added.
+     */
+    public static DirectInvocationBuffer forCurrentThread(CallContext callContext) {
+        DirectInvocationBuffer buffer = threadBuffer.get();
+        if (buffer == null) {
+            threadBuffer.set(buffer = new DirectInvocationBuffer(callContext));
+            buffer.threadLocal = true;
+        }
+
+        buffer.reset(callContext);
+
+        return buffer;
+    }
+
+    /**
+     * Gets the <code>DirectInvocationBuffer</code> of the current thread for a function.
+     *
+     * @param function The function that this buffer is going to be used with.
+     * @return A <code>DirectInvocationBuffer</code> with no parameters added.
+     * @see #forCurrentThread(CallContext)
+     */
+    public static DirectInvocationBuffer forCurrentThread(Function function) {
+        return forCurrentThread(function.getCallContext());
+    }
+
+    /**
+     * Removes all parameters from this buffer, so it can be filled in for another call.
+     */
+    public final void reset() {
+        paramIndex = 0;
+        longDoubleOffset = callContext().longDoubleOffset;
+        if (objectBuffer != null) {
+            objectBuffer.reset();
+        }
+    }
+
+    private void reset(CallContext callContext) {
+        int size = callContext.parameterBufferSize;
+        if (size > memory.size) {
+            memory = new Memory(Math.max(MIN_CAPACITY, Integer.highestOneBit(size - 1) << 1));
+        }
+        this.callContext = callContext;
+        reset();
+    }
+
+    /**
+     * Gets the address of the encoded parameters, checking they have room for a call context.
+     *
+     * @param ctx The call context the buffer is being invoked with.
+     * @return The native address of the parameters.
+     */
+    final long address(CallContext ctx) {
+        callContext();
+        if (ctx.parameterBufferSize > memory.size) {
+            throw new IllegalArgumentException("buffer is too small for " + ctx.getParameterCount() + " parameters");
+        }
+
+        return memory.address;
+    }
+
+    /**
+     * Gets the object that owns the native memory returned by {@link #address(CallContext)}.  It is
+     * passed to the native invoker so the memory cannot be freed while the call is running.
+     */
+    final Object memory() {
+        return memory;
+    }
+
+    /**
+     * Unbinds the thread buffer from its call context and parameter arrays once a call has been
+     * made with it, so the thread does not keep them reachable.  Buffers created with a constructor
+     * keep their parameters, so they can be invoked again.
+     */
+    final void release() {
+        if (threadLocal) {
+            callContext = null;
+            if (objectBuffer != null) {
+                objectBuffer.reset();
+            }
+        }
+    }
+
+    private CallContext callContext() {
+        if (callContext == null) {
+            throw new IllegalStateException("buffer was released by a call, get it again with forCurrentThread()");
+        }
+
+        return callContext;
+    }
+
+    /**
+     * Gets the object buffer used to store java heap array parameters
+     *
+     * @return An <code>ObjectBuffer</code>, or null if no objects have been added.
+     */
+    final ObjectBuffer objectBuffer() {
+        return objectBuffer;
+    }
+
+    private long nextSlot() {
+        CallContext ctx = callContext();
+        if (paramIndex >= ctx.getParameterCount()) {
+            throw new IndexOutOfBoundsException("too many parameters for " + ctx.getParameterCount() + " parameter function");
+        }
+
+        return memory.address + (paramIndex++ * PARAM_SIZE);
+    }
+
+    private ObjectBuffer getObjectBuffer() {
+        if (objectBuffer == null) {
+            objectBuffer = new ObjectBuffer();
+        }
+
+        return objectBuffer;
+    }
+
+    public final void putByte(final int value) {
+        io.putByte(nextSlot(), (byte) value);
+    }
+
+    public final void putShort(final int value) {
+        io.putShort(nextSlot(), (short) value);
+    }
+
+    public final void putInt(final int value) {
+        io.putInt(nextSlot(), value);
+    }
+
+    public final void putLong(final long value) {
+        io.putLong(nextSlot(), value);
+    }
+
+    public final void putFloat(final float value) {
+        io.putFloat(nextSlot(), value);
+    }
+
+    public final void putDouble(final double value) {
+        io.putDouble(nextSlot(), value);
+    }
+
+    public final void putLongDouble(final double value) {
+        byte[] ld = longDoubleBuffer();
+        if (LongDouble.isSupported()) {
+            LongDouble.encode(value, ld, 0);
+        } else {
+            Foreign.getInstance().longDoubleFromDouble(value, ld, 0, ld.length);
+        }
+        putLongDoubleBytes(ld);
+    }
+
+    public final void putLongDouble(final BigDecimal value) {
+        byte[] ld = longDoubleBuffer();
+        if (LongDouble.isSupported()) {
+            LongDouble.encode(value, ld, 0);
+        } else {
+            Foreign.getInstance().longDoubleFromString(value.toEngineeringString(), ld, 0, ld.length);
+        }
+        putLongDoubleBytes(ld);
+    }
+
+    /**
+     * Adds a long double parameter with the value <tt>mantissa * 2^exponent</tt>, rounded to the
+     * precision of the native long double.
+     *
+     * @param mantissa The signed significand.
+     * @param exponent The power of two to scale the significand by.
+     */
+    public final void putLongDouble(final long mantissa, final int exponent) {
+        if (LongDouble.isSupported()) {
+            byte[] ld = longDoubleBuffer();
+            LongDouble.encode(mantissa, exponent, ld, 0);
+            putLongDoubleBytes(ld);
+        } else {
+            putLongDouble(LongDouble.toBigDecimal(mantissa, exponent));
+        }
+    }
+
+    private byte[] longDoubleBuffer() {
+        return longDouble != null ? longDouble : (longDouble = new byte[Type.LONGDOUBLE.size()]);
+    }
+
+    /**
+     * Stores an encoded long double in its slot, or after the slots if it does not fit.  Parameters
+     * not declared as a long double are passed as a java array instead.
+     */
+    private void putLongDoubleBytes(byte[] ld) {
+        CallContext ctx = callContext();
+        Type type = paramIndex < ctx.getParameterCount() ? ctx.getParameterType(paramIndex) : null;
+        if (type == null || type.type() != Foreign.TYPE_LONGDOUBLE) {
+            putArray(ld.clone(), 0, ld.length, ObjectBuffer.IN);
+
+        } else if (CallContext.isInlineLongDouble(type)) {
+            nextSlot();
+            io.putByteArray(memory.address + longDoubleOffset, ld, 0, ld.length);
+            longDoubleOffset += ld.length;
+
+        } else {
+            io.putByteArray(nextSlot(), ld, 0, ld.length);
+        }
+    }
+
+    public final void putAddress(final long value) {
+        io.putAddress(nextSlot(), value);
+    }
+
+    public final void putArray(final byte[] array, int offset, int length, int flags) {
+        nextSlot();
+        getObjectBuffer().putArray(paramIndex - 1, array, offset, length, flags);
+    }
+
+    public final void putArray(final short[] array, int offset, int length, int flags) {
+        nextSlot();
+        getObjectBuffer().putArray(paramIndex - 1, array, offset, length, flags);
+    }
+
+    public final void putArray(final int[] array, int offset, int length, int flags) {
+        nextSlot();
+        getObjectBuffer().putArray(paramIndex - 1, array, offset, length, flags);
+    }
+
+    public final void putArray(final long[] array, int offset, int length, int flags) {
+        nextSlot();
+        getObjectBuffer().putArray(paramIndex - 1, array, offset, length, flags);
+    }
+
+    public final void putArray(final float[] array, int offset, int length, int flags) {
+        nextSlot();
+        getObjectBuffer().putArray(paramIndex - 1, array, offset, length, flags);
+    }
+
+    public final void putArray(final double[] array, int offset, int length, int flags) {
+        nextSlot();
+        getObjectBuffer().putArray(paramIndex - 1, array, offset, length, flags);
+    }
+
+    public final void putDirectBuffer(final java.nio.Buffer value, int offset, int length) {
+        nextSlot();
+        getObjectBuffer().putDirectBuffer(paramIndex - 1, value, offset, length);
+    }
+
+    public final void putStruct(final byte[] struct, int offset) {
+        final Type type = callContext().getParameterType(paramIndex);
+        nextSlot();
+        getObjectBuffer().putArray(paramIndex - 1, struct, offset, type.size(), ObjectBuffer.IN);
+    }
+
+    public final void putStruct(final long struct) {
+        io.putAddress(nextSlot(), struct);
+    }
+
+    public final void putObject(Object o, ObjectParameterStrategy strategy, ObjectParameterInfo info) {
+        putObject(o, strategy, info.ioflags());
+    }
+
+    public final void putObject(Object o, ObjectParameterStrategy strategy, int flags) {
+        long slot = nextSlot();
+        if (strategy.isDirect()) {
+            io.putAddress(slot, strategy.address(o));
+
+        } else {
+            getObjectBuffer().putObject(strategy.object(o), strategy.offset(o), strategy.length(o),
+                    ObjectBuffer.makeObjectFlags(flags, strategy.typeInfo, paramIndex - 1));
+        }
+    }
+
+    public final void putJNIEnvironment() {
+        io.putAddress(nextSlot(), 0L);
+        getObjectBuffer().putJNI(paramIndex - 1, null, ObjectBuffer.JNIENV);
+    }
+
+    public final void putJNIObject(Object obj) {
+        io.putAddress(nextSlot(), 0L);
+        getObjectBuffer().putJNI(paramIndex - 1, obj, ObjectBuffer.JNIOBJECT);
+    }
+
+    /**
+     * The native memory backing a buffer, freed once it is no longer reachable.
+     */
+    private static final class Memory {
+        final long address;
+        final int size;
+
+        Memory(int size) {
+            final MemoryIO io = MemoryIO.getInstance();
+            this.size = size;
+            this.address = io.allocateMemory(size, true);
+            if (address == 0L) {
+                throw new OutOfMemoryError("failed to allocate invocation buffer");
+            }
+
+            final long address = this.address;
+            Cleaner.register(this, new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        io.freeMemory(address);
+                    } catch (Throwable t) {
+                        Logger.getLogger(getClass().getName()).log(Level.WARNING,
+                                "Exception when freeing invocation buffer: %s", t.getLocalizedMessage());
+                    }
+                }
+            });
+        }
+    }
+}
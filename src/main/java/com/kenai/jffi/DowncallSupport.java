@@ -0,0 +1,490 @@
+package com.kenai.jffi;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * Builds java.lang.foreign downcall handles for a {@link CallContext}, so the fast numeric
+ * {@link Invoker} methods can bypass the JNI stubs on JDK 22 and later.
+ * <p>
+ * The engine is selected with <code>-Djffi.invoker.panama=true</code>.  The java.lang.foreign API is
+ * only accessed reflectively, so on older JVMs (or when the property is not set) every call still goes
+ * through JNI.  Contexts that save errno, use fault protection or stdcall, or have struct/long double
+ * types also stay on the JNI path.
+ */
+final class DowncallSupport {
+    private DowncallSupport() {}
+
+    /** Whether the java.lang.foreign engine was requested and is usable on this JVM */
+    static final boolean ENABLED = Boolean.getBoolean("jffi.invoker.panama") && Panama.getInstance() != null;
+
+    /**
+     * The downcall handles for one {@link CallContext}.  Both take the function address as the first
+     * parameter, and use the same bit-level conventions as the JNI invokeI/invokeL/invokeN stubs.
+     */
+    static final class Handles {
+        static final Handles UNSUPPORTED = new Handles(null, null);
+
+        /** (long function, int...)int */
+        final MethodHandle intHandle;
+        /** (long function, long...)long */
+        final MethodHandle longHandle;
+
+        Handles(MethodHandle intHandle, MethodHandle longHandle) {
+            this.intHandle = intHandle;
+            this.longHandle = longHandle;
+        }
+    }
+
+    /** Whether java.lang.foreign is usable on this JVM, whether or not the engine was requested */
+    static boolean isAvailable() {
+        return Panama.getInstance() != null;
+    }
+
+    static Handles newHandles(CallContext ctx) {
+        return ENABLED ? createHandles(ctx) : Handles.UNSUPPORTED;
+    }
+
+    /**
+     * Builds the downcall handles for a context without checking <code>jffi.invoker.panama</code>.
+     * Both handles are null if java.lang.foreign is not available, or cannot call the context.
+     */
+    static Handles createHandles(CallContext ctx) {
+        Panama panama = Panama.getInstance();
+        if (panama == null || (ctx.flags & (Foreign.F_STDCALL | Foreign.F_PROTECT)) != 0) {
+            return Handles.UNSUPPORTED;
+        }
+
+        try {
+            MethodHandle mh = panama.downcallHandle(ctx);
+            if (mh == null) {
+                return Handles.UNSUPPORTED;
+            }
+
+            // Convert each parameter from the jffi bit-level representation to the layout carrier
+            for (int i = 0; i < ctx.getParameterCount(); i++) {
+                MethodHandle filter = parameterFilter(panama, ctx.getParameterType(i).type());
+                if (filter != null) {
+                    mh = MethodHandles.filterArguments(mh, i + 1, filter);
+                }
+            }
+            mh = MethodHandles.filterArguments(mh, 0, panama.ofAddress);
+
+            return new Handles(adapt(panama, mh, ctx, int.class), adapt(panama, mh, ctx, long.class));
+
+        } catch (Throwable t) {
+            return Handles.UNSUPPORTED;
+        }
+    }
+
+    private static MethodHandle adapt(Panama panama, MethodHandle mh, CallContext ctx, Class<?> carrier) throws Exception {
+        int type = ctx.getReturnType().type();
+        if (type == Foreign.TYPE_VOID) {
+            mh = MethodHandles.filterReturnValue(mh, MethodHandles.constant(carrier, carrier == int.class ? (Object) 0 : (Object) 0L));
+        } else {
+            MethodHandle filter = returnFilter(panama, type);
+            if (filter != null) {
+                mh = MethodHandles.filterReturnValue(mh, filter);
+            }
+        }
+
+        Class<?>[] params = new Class<?>[ctx.getParameterCount() + 1];
+        Arrays.fill(params, carrier);
+        params[0] = long.class;
+
+        return MethodHandles.explicitCastArguments(mh, MethodType.methodType(carrier, params));
+    }
+
+    private static MethodHandle parameterFilter(Panama panama, int type) throws Exception {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        switch (type) {
+            case Foreign.TYPE_FLOAT:
+                return lookup.findStatic(Float.class, "intBitsToFloat", MethodType.methodType(float.class, int.class));
+
+            case Foreign.TYPE_DOUBLE:
+                return lookup.findStatic(Double.class, "longBitsToDouble", MethodType.methodType(double.class, long.class));
+
+            case Foreign.TYPE_POINTER:
+                return panama.ofAddress;
+
+            default:
+                return null;
+        }
+    }
+
+    private static MethodHandle returnFilter(Panama panama, int type) throws Exception {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        switch (type) {
+            case Foreign.TYPE_UINT8:
+                return lookup.findStatic(Byte.class, "toUnsignedLong", MethodType.methodType(long.class, byte.class));
+
+            case Foreign.TYPE_UINT16:
+                return lookup.findStatic(Short.class, "toUnsignedLong", MethodType.methodType(long.class, short.class));
+
+            case Foreign.TYPE_UINT32:
+                return lookup.findStatic(Integer.class, "toUnsignedLong", MethodType.methodType(long.class, int.class));
+
+            case Foreign.TYPE_FLOAT:
+                return lookup.findStatic(Float.class, "floatToRawIntBits", MethodType.methodType(int.class, float.class));
+
+            case Foreign.TYPE_DOUBLE:
+                return lookup.findStatic(Double.class, "doubleToRawLongBits", MethodType.methodType(long.class, double.class));
+
+            case Foreign.TYPE_POINTER:
+                return panama.address;
+
+            default:
+                return null;
+        }
+    }
+
+    static int invokeI0(MethodHandle mh, long function) {
+        try {
+            return (int) mh.invokeExact(function);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int invokeI1(MethodHandle mh, long function, int arg1) {
+        try {
+            return (int) mh.invokeExact(function, arg1);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int invokeI2(MethodHandle mh, long function, int arg1, int arg2) {
+        try {
+            return (int) mh.invokeExact(function, arg1, arg2);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int invokeI3(MethodHandle mh, long function, int arg1, int arg2, int arg3) {
+        try {
+            return (int) mh.invokeExact(function, arg1, arg2, arg3);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int invokeI4(MethodHandle mh, long function, int arg1, int arg2, int arg3, int arg4) {
+        try {
+            return (int) mh.invokeExact(function, arg1, arg2, arg3, arg4);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int invokeI5(MethodHandle mh, long function, int arg1, int arg2, int arg3, int arg4, int arg5) {
+        try {
+            return (int) mh.invokeExact(function, arg1, arg2, arg3, arg4, arg5);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int invokeI6(MethodHandle mh, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6) {
+        try {
+            return (int) mh.invokeExact(function, arg1, arg2, arg3, arg4, arg5, arg6);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int invokeI7(MethodHandle mh, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7) {
+        try {
+            return (int) mh.invokeExact(function, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int invokeI8(MethodHandle mh, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8) {
+        try {
+            return (int) mh.invokeExact(function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int invokeI9(MethodHandle mh, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9) {
+        try {
+            return (int) mh.invokeExact(function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int invokeI10(MethodHandle mh, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10) {
+        try {
+            return (int) mh.invokeExact(function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int invokeI11(MethodHandle mh, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10, int arg11) {
+        try {
+            return (int) mh.invokeExact(function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int invokeI12(MethodHandle mh, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10, int arg11, int arg12) {
+        try {
+            return (int) mh.invokeExact(function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static long invokeL0(MethodHandle mh, long function) {
+        try {
+            return (long) mh.invokeExact(function);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static long invokeL1(MethodHandle mh, long function, long arg1) {
+        try {
+            return (long) mh.invokeExact(function, arg1);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static long invokeL2(MethodHandle mh, long function, long arg1, long arg2) {
+        try {
+            return (long) mh.invokeExact(function, arg1, arg2);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static long invokeL3(MethodHandle mh, long function, long arg1, long arg2, long arg3) {
+        try {
+            return (long) mh.invokeExact(function, arg1, arg2, arg3);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static long invokeL4(MethodHandle mh, long function, long arg1, long arg2, long arg3, long arg4) {
+        try {
+            return (long) mh.invokeExact(function, arg1, arg2, arg3, arg4);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static long invokeL5(MethodHandle mh, long function, long arg1, long arg2, long arg3, long arg4, long arg5) {
+        try {
+            return (long) mh.invokeExact(function, arg1, arg2, arg3, arg4, arg5);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static long invokeL6(MethodHandle mh, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6) {
+        try {
+            return (long) mh.invokeExact(function, arg1, arg2, arg3, arg4, arg5, arg6);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static long invokeL7(MethodHandle mh, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7) {
+        try {
+            return (long) mh.invokeExact(function, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static long invokeL8(MethodHandle mh, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8) {
+        try {
+            return (long) mh.invokeExact(function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static long invokeL9(MethodHandle mh, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9) {
+        try {
+            return (long) mh.invokeExact(function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static long invokeL10(MethodHandle mh, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10) {
+        try {
+            return (long) mh.invokeExact(function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static long invokeL11(MethodHandle mh, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10, long arg11) {
+        try {
+            return (long) mh.invokeExact(function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static long invokeL12(MethodHandle mh, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10, long arg11, long arg12) {
+        try {
+            return (long) mh.invokeExact(function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        }
+
+        throw new RuntimeException(t);
+    }
+
+    /**
+     * Reflective access to java.lang.foreign, which cannot be referenced directly while targeting Java 8.
+     */
+    private static final class Panama {
+        private static final Panama INSTANCE = load();
+
+        static Panama getInstance() {
+            return INSTANCE;
+        }
+
+        private static Panama load() {
+            if (Platform.getPlatform().getJavaMajorVersion() < 22) {
+                return null;
+            }
+
+            try {
+                return new Panama();
+            } catch (Throwable t) {
+                return null;
+            }
+        }
+
+        private final Object linker;
+        private final Method downcallHandle, of, ofVoid, firstVariadicArg;
+        private final Class<?> layoutClass, optionClass;
+        private final Object javaByte, javaShort, javaInt, javaLong, javaFloat, javaDouble, address64;
+
+        /** MemorySegment.ofAddress(long) */
+        final MethodHandle ofAddress;
+
+        /** MemorySegment.address() */
+        final MethodHandle address;
+
+        private Panama() throws Exception {
+            Class<?> linkerClass = Class.forName("java.lang.foreign.Linker");
+            Class<?> descriptorClass = Class.forName("java.lang.foreign.FunctionDescriptor");
+            Class<?> valueLayoutClass = Class.forName("java.lang.foreign.ValueLayout");
+            Class<?> segmentClass = Class.forName("java.lang.foreign.MemorySegment");
+            layoutClass = Class.forName("java.lang.foreign.MemoryLayout");
+            optionClass = Class.forName("java.lang.foreign.Linker$Option");
+            Class<?> layoutArrayClass = Array.newInstance(layoutClass, 0).getClass();
+            Class<?> optionArrayClass = Array.newInstance(optionClass, 0).getClass();
+
+            linker = linkerClass.getMethod("nativeLinker").invoke(null);
+            downcallHandle = linkerClass.getMethod("downcallHandle", descriptorClass, optionArrayClass);
+            of = descriptorClass.getMethod("of", layoutClass, layoutArrayClass);
+            ofVoid = descriptorClass.getMethod("ofVoid", layoutArrayClass);
+            firstVariadicArg = optionClass.getMethod("firstVariadicArg", int.class);
+
+            javaByte = valueLayoutClass.getField("JAVA_BYTE").get(null);
+            javaShort = valueLayoutClass.getField("JAVA_SHORT").get(null);
+            javaInt = valueLayoutClass.getField("JAVA_INT").get(null);
+            javaLong = valueLayoutClass.getField("JAVA_LONG").get(null);
+            javaFloat = valueLayoutClass.getField("JAVA_FLOAT").get(null);
+            javaDouble = valueLayoutClass.getField("JAVA_DOUBLE").get(null);
+            address64 = valueLayoutClass.getField("ADDRESS").get(null);
+
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            ofAddress = lookup.findStatic(segmentClass, "ofAddress", MethodType.methodType(segmentClass, long.class));
+            address = lookup.findVirtual(segmentClass, "address", MethodType.methodType(long.class));
+        }
+
+        private Object layout(int type) {
+            switch (type) {
+                case Foreign.TYPE_SINT8:
+                case Foreign.TYPE_UINT8:
+                    return javaByte;
+
+                case Foreign.TYPE_SINT16:
+                case Foreign.TYPE_UINT16:
+                    return javaShort;
+
+                case Foreign.TYPE_SINT32:
+                case Foreign.TYPE_UINT32:
+                    return javaInt;
+
+                case Foreign.TYPE_SINT64:
+                case Foreign.TYPE_UINT64:
+                    return javaLong;
+
+                case Foreign.TYPE_FLOAT:
+                    return javaFloat;
+
+                case Foreign.TYPE_DOUBLE:
+                    return javaDouble;
+
+                case Foreign.TYPE_POINTER:
+                    return address64;
+
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * Creates a downcall handle of type (MemorySegment, carriers...)carrier, or returns null if
+         * the signature contains a type java.lang.foreign cannot express as a scalar layout.
+         */
+        MethodHandle downcallHandle(CallContext ctx) throws Exception {
+            Object layouts = Array.newInstance(layoutClass, ctx.getParameterCount());
+            for (int i = 0; i < ctx.getParameterCount(); i++) {
+                Object layout = layout(ctx.getParameterType(i).type());
+                if (layout == null) {
+                    return null;
+                }
+                Array.set(layouts, i, layout);
+            }
+
+            Object descriptor;
+            if (ctx.getReturnType().type() == Foreign.TYPE_VOID) {
+                descriptor = ofVoid.invoke(null, layouts);
+            } else {
+                Object returnLayout = layout(ctx.getReturnType().type());
+                if (returnLayout == null) {
+                    return null;
+                }
+                descriptor = of.invoke(null, returnLayout, layouts);
+            }
+
+            Object options = Array.newInstance(optionClass, ctx.fixedParamCount < ctx.getParameterCount() ? 1 : 0);
+            if (Array.getLength(options) > 0) {
+                Array.set(options, 0, firstVariadicArg.invoke(null, ctx.fixedParamCount));
+            }
+
+            return (MethodHandle) downcallHandle.invoke(linker, descriptor, options);
+        }
+    }
+}
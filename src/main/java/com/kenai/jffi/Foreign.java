@@ -58,6 +58,11 @@ final class Foreign {
                 }
 
                 foreign.init();
+
+                Long scratchHighWaterMark = Long.getLong("jffi.scratch.highWaterMark");
+                if (scratchHighWaterMark != null) {
+                    foreign.setScratchHighWaterMark(scratchHighWaterMark);
+                }
                 
                 return new ValidInstanceHolder(foreign);
 
@@ -457,6 +462,22 @@ final class Foreign {
      */
     final native int getCallContextRawParameterSize(long callContext);
 
+    /**
+     * Gets how adaptive array parameters have been passed to the functions of a call context.
+     *
+     * @param callContext The call context
+     * @param stats An array to store the stack copy, heap copy and pinned counts, and the average call time in.
+     */
+    final native void getCallContextArrayStatistics(long callContext, long[] stats);
+
+    /**
+     * Sets the largest per-thread scratch arena kept between calls, for copies of java arrays.
+     * Arrays that do not fit are copied to malloc'd memory.
+     *
+     * @param size The size in bytes.
+     */
+    final native void setScratchHighWaterMark(long size);
+
     final native boolean isRawParameterPackingEnabled();
 
     /**
@@ -465,6 +486,14 @@ final class Foreign {
      * @return An integer.
      */
     static native int getLastError();
+
+    /**
+     * Gets the address the last error of the current thread is saved at.  The address stays valid
+     * until the thread exits.
+     *
+     * @return The address of a native int, or 0 if it could not be allocated.
+     */
+    static native long getLastErrorAddress();
     
     /**
      * Sets the native errno value
@@ -473,9 +502,50 @@ final class Foreign {
      */
     static native void setLastError(int error);
 
-    final native long newClosureMagazine(long contextAddress, Method closureMethod, boolean callWithPrimitiveParameters);
+    /**
+     * Call the closure method with the native parameters unpacked as java primitives
+     */
+    @Native
+    static final int CLOSURE_PRIMITIVE_PARAMETERS = 0x1;
+
+    /**
+     * Pass the closure method the parameter values copied into consecutive 8 byte slots
+     */
+    @Native
+    static final int CLOSURE_FLAT_PARAMETERS = 0x2;
+
+    /**
+     * The closure method is static, and takes the closure cookie ahead of the parameters
+     */
+    @Native
+    static final int CLOSURE_STATIC_DISPATCH = 0x4;
+
+    final native long newClosureMagazine(long contextAddress, Method closureMethod, int flags);
     final native void freeClosureMagazine(long closurePool);
     final native long closureMagazineGet(long closurePool, Object proxy);
+    final native long closureMagazineGetStatic(long closurePool, long cookie);
+
+    /**
+     * Threads attached for an upcall stay attached once they have made a number of upcalls
+     */
+    @Native
+    static final int ATTACH_THRESHOLD = 0;
+
+    /**
+     * Threads attached for an upcall stay attached until they exit
+     */
+    @Native
+    static final int ATTACH_KEEP = 1;
+
+    /**
+     * Threads attached for an upcall are detached once they go idle
+     */
+    @Native
+    static final int ATTACH_IDLE = 2;
+
+    final native void setThreadAttachPolicy(int policy, long value);
+    final native void getThreadAttachStatistics(long[] stats);
+    final native long getAttachCurrentThreadFunction();
 
     /**
      * Gets the address of the ffi_type structure for the builtin type
@@ -674,6 +744,18 @@ final class Foreign {
     static native int invokeI4NoErrno(long callContext, long function, int arg1, int arg2, int arg3, int arg4);
     static native int invokeI5NoErrno(long callContext, long function, int arg1, int arg2, int arg3, int arg4, int arg5);
     static native int invokeI6NoErrno(long callContext, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6);
+    static native int invokeI7(long callContext, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7);
+    static native int invokeI8(long callContext, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8);
+    static native int invokeI9(long callContext, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9);
+    static native int invokeI10(long callContext, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10);
+    static native int invokeI11(long callContext, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10, int arg11);
+    static native int invokeI12(long callContext, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10, int arg11, int arg12);
+    static native int invokeI7NoErrno(long callContext, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7);
+    static native int invokeI8NoErrno(long callContext, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8);
+    static native int invokeI9NoErrno(long callContext, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9);
+    static native int invokeI10NoErrno(long callContext, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10);
+    static native int invokeI11NoErrno(long callContext, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10, int arg11);
+    static native int invokeI12NoErrno(long callContext, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10, int arg11, int arg12);
     
     /**
      * Invokes a function with no arguments, and returns a 64 bit integer.
@@ -760,6 +842,18 @@ final class Foreign {
     static native long invokeL4NoErrno(long ctx, long function, long arg1, long arg2, long arg3, long arg4);
     static native long invokeL5NoErrno(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5);
     static native long invokeL6NoErrno(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6);
+    static native long invokeL7(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7);
+    static native long invokeL8(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8);
+    static native long invokeL9(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9);
+    static native long invokeL10(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10);
+    static native long invokeL11(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10, long arg11);
+    static native long invokeL12(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10, long arg11, long arg12);
+    static native long invokeL7NoErrno(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7);
+    static native long invokeL8NoErrno(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8);
+    static native long invokeL9NoErrno(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9);
+    static native long invokeL10NoErrno(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10);
+    static native long invokeL11NoErrno(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10, long arg11);
+    static native long invokeL12NoErrno(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10, long arg11, long arg12);
 
     /**
      * Invokes a function with zero numeric arguments, and returns a numeric value.
@@ -838,6 +932,217 @@ final class Foreign {
      */
     static native long invokeN6(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6);
 
+    /**
+     * Invokes a function with seven numeric arguments, and returns a numeric value.
+     *
+     * @param function The address of the function context structure from {@link #newCallContext}.
+     * @param arg1 The first numeric argument.
+     * @param arg2 The second numeric argument.
+     * @param arg3 The third numeric argument.
+     * @param arg4 The fourth numeric argument.
+     * @param arg5 The fifth numeric argument.
+     * @param arg6 The sixth numeric argument.
+     * @param arg7 The seventh numeric argument.
+     * @return A numeric value.
+     */
+    static native long invokeN7(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7);
+
+    /**
+     * Invokes a function with eight numeric arguments, and returns a numeric value.
+     *
+     * @param function The address of the function context structure from {@link #newCallContext}.
+     * @param arg1 The first numeric argument.
+     * @param arg2 The second numeric argument.
+     * @param arg3 The third numeric argument.
+     * @param arg4 The fourth numeric argument.
+     * @param arg5 The fifth numeric argument.
+     * @param arg6 The sixth numeric argument.
+     * @param arg7 The seventh numeric argument.
+     * @param arg8 The eighth numeric argument.
+     * @return A numeric value.
+     */
+    static native long invokeN8(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8);
+
+    /**
+     * Invokes a function with nine numeric arguments, and returns a numeric value.
+     *
+     * @param function The address of the function context structure from {@link #newCallContext}.
+     * @param arg1 The first numeric argument.
+     * @param arg2 The second numeric argument.
+     * @param arg3 The third numeric argument.
+     * @param arg4 The fourth numeric argument.
+     * @param arg5 The fifth numeric argument.
+     * @param arg6 The sixth numeric argument.
+     * @param arg7 The seventh numeric argument.
+     * @param arg8 The eighth numeric argument.
+     * @param arg9 The ninth numeric argument.
+     * @return A numeric value.
+     */
+    static native long invokeN9(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9);
+
+    /**
+     * Invokes a function with ten numeric arguments, and returns a numeric value.
+     *
+     * @param function The address of the function context structure from {@link #newCallContext}.
+     * @param arg1 The first numeric argument.
+     * @param arg2 The second numeric argument.
+     * @param arg3 The third numeric argument.
+     * @param arg4 The fourth numeric argument.
+     * @param arg5 The fifth numeric argument.
+     * @param arg6 The sixth numeric argument.
+     * @param arg7 The seventh numeric argument.
+     * @param arg8 The eighth numeric argument.
+     * @param arg9 The ninth numeric argument.
+     * @param arg10 The tenth numeric argument.
+     * @return A numeric value.
+     */
+    static native long invokeN10(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10);
+
+    /**
+     * Invokes a function with eleven numeric arguments, and returns a numeric value.
+     *
+     * @param function The address of the function context structure from {@link #newCallContext}.
+     * @param arg1 The first numeric argument.
+     * @param arg2 The second numeric argument.
+     * @param arg3 The third numeric argument.
+     * @param arg4 The fourth numeric argument.
+     * @param arg5 The fifth numeric argument.
+     * @param arg6 The sixth numeric argument.
+     * @param arg7 The seventh numeric argument.
+     * @param arg8 The eighth numeric argument.
+     * @param arg9 The ninth numeric argument.
+     * @param arg10 The tenth numeric argument.
+     * @param arg11 The eleventh numeric argument.
+     * @return A numeric value.
+     */
+    static native long invokeN11(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10, long arg11);
+
+    /**
+     * Invokes a function with twelve numeric arguments, and returns a numeric value.
+     *
+     * @param function The address of the function context structure from {@link #newCallContext}.
+     * @param arg1 The first numeric argument.
+     * @param arg2 The second numeric argument.
+     * @param arg3 The third numeric argument.
+     * @param arg4 The fourth numeric argument.
+     * @param arg5 The fifth numeric argument.
+     * @param arg6 The sixth numeric argument.
+     * @param arg7 The seventh numeric argument.
+     * @param arg8 The eighth numeric argument.
+     * @param arg9 The ninth numeric argument.
+     * @param arg10 The tenth numeric argument.
+     * @param arg11 The eleventh numeric argument.
+     * @param arg12 The twelfth numeric argument.
+     * @return A numeric value.
+     */
+    static native long invokeN12(long ctx, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10, long arg11, long arg12);
+
+    /**
+     * Invokes a function with up to six float arguments, and returns a float value.
+     *
+     * Every parameter of the call context must be a float; on x86_64 this bypasses libffi.
+     *
+     * @param ctx The address of the call context structure from {@link #newCallContext}.
+     * @param function The address of the function to invoke.
+     * @return A float value.
+     */
+    static native float invokeF0(long ctx, long function);
+    static native float invokeF1(long ctx, long function, float arg1);
+    static native float invokeF2(long ctx, long function, float arg1, float arg2);
+    static native float invokeF3(long ctx, long function, float arg1, float arg2, float arg3);
+    static native float invokeF4(long ctx, long function, float arg1, float arg2, float arg3, float arg4);
+    static native float invokeF5(long ctx, long function, float arg1, float arg2, float arg3, float arg4, float arg5);
+    static native float invokeF6(long ctx, long function, float arg1, float arg2, float arg3, float arg4, float arg5, float arg6);
+
+    /**
+     * Invokes a function with up to six double arguments, and returns a double value.
+     *
+     * Every parameter of the call context must be a double; on x86_64 this bypasses libffi.
+     *
+     * @param ctx The address of the call context structure from {@link #newCallContext}.
+     * @param function The address of the function to invoke.
+     * @return A double value.
+     */
+    static native double invokeD0(long ctx, long function);
+    static native double invokeD1(long ctx, long function, double arg1);
+    static native double invokeD2(long ctx, long function, double arg1, double arg2);
+    static native double invokeD3(long ctx, long function, double arg1, double arg2, double arg3);
+    static native double invokeD4(long ctx, long function, double arg1, double arg2, double arg3, double arg4);
+    static native double invokeD5(long ctx, long function, double arg1, double arg2, double arg3, double arg4, double arg5);
+    static native double invokeD6(long ctx, long function, double arg1, double arg2, double arg3, double arg4, double arg5, double arg6);
+
+    /**
+     * Invokes a function with up to six numeric or small struct arguments.
+     *
+     * Struct parameters are passed as the native address of the struct value, and a struct result
+     * is copied to <tt>returnAddress</tt>.  On x86_64 calls where every struct is passed in
+     * registers bypass libffi.
+     *
+     * @param ctx The address of the call context structure from {@link #newCallContext}.
+     * @param function The address of the function to invoke.
+     * @param returnAddress The native memory to store a struct result in.
+     * @return <tt>returnAddress</tt> for a struct result, otherwise the numeric result.
+     */
+    static native long invokeS0(long ctx, long function, long returnAddress);
+    static native long invokeS1(long ctx, long function, long returnAddress, long arg1);
+    static native long invokeS2(long ctx, long function, long returnAddress, long arg1, long arg2);
+    static native long invokeS3(long ctx, long function, long returnAddress, long arg1, long arg2, long arg3);
+    static native long invokeS4(long ctx, long function, long returnAddress, long arg1, long arg2, long arg3, long arg4);
+    static native long invokeS5(long ctx, long function, long returnAddress, long arg1, long arg2, long arg3, long arg4, long arg5);
+    static native long invokeS6(long ctx, long function, long returnAddress, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6);
+
+    /**
+     * Invokes a function <tt>count</tt> times from a single native call.
+     *
+     * Each call takes its parameters from a row of 64 bit slots packed the same way as for
+     * {@link #invokeN1}, with struct parameters passed as the address of the struct.
+     *
+     * @param ctx The address of the call context structure from {@link #newCallContext}.
+     * @param function The address of the function to invoke.
+     * @param argBlock The native address of the first row of parameters.
+     * @param stride The distance in bytes between rows of parameters.
+     * @param count The number of times to call the function.
+     * @param resultAddress The native memory to store each 64 bit result in, or 0 to discard them.
+     */
+    static native void invokeBatch(long ctx, long function, long argBlock, int stride, int count, long resultAddress);
+
+    /**
+     * Invokes a function <tt>count</tt> times from a single native call, taking the parameters of
+     * each call from consecutive elements of <tt>args</tt>.
+     *
+     * @param ctx The address of the call context structure from {@link #newCallContext}.
+     * @param function The address of the function to invoke.
+     * @param args The parameters of every call, one row after another.
+     * @param count The number of times to call the function.
+     * @param results The array to store each result in, or null to discard them.
+     */
+    static native void invokeBatchArray(long ctx, long function, long[] args, int count, long[] results);
+
+    /**
+     * Compiles the long[] encoding of a {@link CallProgram} into a native program.
+     *
+     * @param code The encoded program.
+     * @return The native address of the program.
+     */
+    final native long newCallProgram(long[] code);
+
+    /**
+     * Frees a program created by {@link #newCallProgram}.
+     *
+     * @param program The native address of the program.
+     */
+    final native void freeCallProgram(long program);
+
+    /**
+     * Runs every step of a call program from a single native call.
+     *
+     * @param program The native address of the program from {@link #newCallProgram}.
+     * @param inputs The program input values.
+     * @param results The array to store the result of each step in.
+     * @return The number of steps that ran.
+     */
+    static native int invokeCallProgram(long program, long[] inputs, long[] results);
+
     /**
      * Invokes a function with one numeric argument, and returns a numeric value.
      *
@@ -1075,6 +1380,30 @@ final class Foreign {
     static native double invokeArrayWithObjectsDouble(long callContext, long function, byte[] buffer, int objectCount, int[] objectInfo, Object[] objects);
     static native void invokeArrayWithObjectsReturnStruct(long callContext, long function, byte[] buffer, int objectCount, int[] objectInfo, Object[] objects,
             byte[] returnBuffer, int returnBufferOffset);
+
+    /*
+     * Invokes a function that returns a struct, storing the struct at returnAddress.  objectInfo and
+     * objects may be null when objectCount is zero.
+     */
+    static native void invokeArrayWithObjectsReturnStructAddress(long callContext, long function, byte[] buffer,
+            int objectCount, int[] objectInfo, Object[] objects, long returnAddress);
+
+    /* ---------------------------------------------------------------------- */
+    /*
+     * Invokes a function with the parameters already encoded in native memory at paramAddress,
+     * eight bytes per parameter.  objectInfo and objects may be null when objectCount is zero.
+     * paramMemory is the java object that frees paramAddress once it is unreachable; it is only
+     * passed so the native call keeps it reachable until the function returns.
+     */
+    static native int invokeDirectInt32(long callContext, long function, long paramAddress, Object paramMemory, int objectCount, int[] objectInfo, Object[] objects);
+    static native long invokeDirectInt64(long callContext, long function, long paramAddress, Object paramMemory, int objectCount, int[] objectInfo, Object[] objects);
+    static native float invokeDirectFloat(long callContext, long function, long paramAddress, Object paramMemory, int objectCount, int[] objectInfo, Object[] objects);
+    static native double invokeDirectDouble(long callContext, long function, long paramAddress, Object paramMemory, int objectCount, int[] objectInfo, Object[] objects);
+    static native void invokeDirectReturnStruct(long callContext, long function, long paramAddress, Object paramMemory, int objectCount, int[] objectInfo, Object[] objects,
+            byte[] returnBuffer, int returnBufferOffset);
+    static native void invokeDirectReturnStructAddress(long callContext, long function, long paramAddress, Object paramMemory, int objectCount, int[] objectInfo, Object[] objects,
+            long returnAddress);
+
     /* ---------------------------------------------------------------------- */
     static native int invokeArrayO1Int32(long callContext, long function, byte[] buffer, Object o1, int o1Info, int o1off, int o1len);
     static native int invokeArrayO2Int32(long callContext, long function, byte[] buffer, Object o1, int o1Info, int o1off, int o1len,
@@ -39,8 +39,14 @@ package com.kenai.jffi;
  * native function.
  */
 public final class Function {
+    /** The number of variadic argument shapes each function remembers */
+    private static final int VARIADIC_CACHE_SIZE = 4;
+
     private final CallContext callContext;
 
+    /** Functions for the most recently used variadic argument shapes, newest first */
+    private volatile VariadicEntry[] variadicCache;
+
     /** The address of the function */
     final long functionAddress;
 
@@ -114,6 +120,23 @@ public final class Function {
         this.contextAddress = callContext.getAddress();
     }
 
+    /**
+     * Creates a new instance of <code>Function</code> for a function that may block.
+     *
+     * @param address The native address of the function to invoke.
+     * @param returnType The return type of the native function.
+     * @param paramTypes The parameter types the function accepts.
+     * @param convention The calling convention of the function.
+     * @param saveErrno Whether the errno should be saved or not
+     * @param mayBlock Whether calls from a virtual thread should be run on a native worker thread
+     * @see CallContext#mayBlock()
+     */
+    public Function(long address, Type returnType, Type[] paramTypes, CallingConvention convention, boolean saveErrno, boolean mayBlock) {
+        this.functionAddress = address;
+        this.callContext = CallContext.getCallContext(returnType, paramTypes.length, paramTypes, convention, saveErrno, false, mayBlock);
+        this.contextAddress = callContext.getAddress();
+    }
+
     /**
      * Gets the number of parameters the native function accepts.
      *
@@ -174,6 +197,66 @@ public final class Function {
         return callContext.getParameterType(index);
     }
 
+    /**
+     * Gets the function to invoke for a variadic call passing arguments of the given types after
+     * the fixed parameters of this function.
+     *
+     * The last few argument shapes are cached, so repeated calls with the same types do not need a
+     * lookup in the {@link CallContextCache}.  The fixed parameters are all the parameters of this
+     * function, unless it was created with a smaller <tt>fixedParamCount</tt>.
+     *
+     * @param variadicTypes The types of the variadic arguments, after the C default argument promotions.
+     * @return A <code>Function</code> with the same address, for passing to an {@link Invoker}.
+     */
+    public final Function variadic(Type... variadicTypes) {
+        VariadicEntry[] cache = variadicCache;
+        if (cache != null) {
+            for (VariadicEntry entry : cache) {
+                if (entry.matches(variadicTypes)) {
+                    return entry.function;
+                }
+            }
+        }
+
+        Function function = new Function(functionAddress, callContext.getVariadicContext(variadicTypes));
+        VariadicEntry entry = new VariadicEntry(variadicTypes.clone(), function);
+
+        // Racing updates can lose an entry, which only costs another CallContextCache lookup later
+        int length = cache != null ? Math.min(cache.length + 1, VARIADIC_CACHE_SIZE) : 1;
+        VariadicEntry[] updated = new VariadicEntry[length];
+        updated[0] = entry;
+        if (cache != null) {
+            System.arraycopy(cache, 0, updated, 1, length - 1);
+        }
+        variadicCache = updated;
+
+        return function;
+    }
+
     @Deprecated
     public final void dispose() {}
+
+    private static final class VariadicEntry {
+        final Type[] types;
+        final Function function;
+
+        VariadicEntry(Type[] types, Function function) {
+            this.types = types;
+            this.function = function;
+        }
+
+        boolean matches(Type[] other) {
+            if (types.length != other.length) {
+                return false;
+            }
+
+            for (int i = 0; i < types.length; i++) {
+                if (types[i] != other[i] && !types[i].equals(other[i])) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
 }
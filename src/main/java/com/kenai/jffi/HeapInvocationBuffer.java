@@ -42,10 +42,12 @@ import java.nio.ByteOrder;
 public final class HeapInvocationBuffer extends InvocationBuffer {
     private static final int PARAM_SIZE = 8;
     private final CallContext callContext;
+    private final Encoder encoder;
     private final byte[] buffer;
     private ObjectBuffer objectBuffer;
     private int paramOffset = 0;
     private int paramIndex = 0;
+    private int longDoubleOffset;
 
     /**
      * Creates a new instance of <code>HeapInvocationBuffer</code>.
@@ -54,7 +56,9 @@ public final class HeapInvocationBuffer extends InvocationBuffer {
      */
     public HeapInvocationBuffer(Function function) {
         this.callContext = function.getCallContext();
-        buffer = new byte[Encoder.getInstance().getBufferSize(callContext)];
+        this.encoder = Encoder.getInstance(callContext);
+        buffer = new byte[encoder.getBufferSize(callContext)];
+        longDoubleOffset = callContext.longDoubleOffset;
     }
 
     /**
@@ -64,7 +68,9 @@ public final class HeapInvocationBuffer extends InvocationBuffer {
      */
     public HeapInvocationBuffer(CallContext callContext) {
         this.callContext = callContext;
-        buffer = new byte[Encoder.getInstance().getBufferSize(callContext)];
+        this.encoder = Encoder.getInstance(callContext);
+        buffer = new byte[encoder.getBufferSize(callContext)];
+        longDoubleOffset = callContext.longDoubleOffset;
     }
 
     /**
@@ -74,11 +80,76 @@ public final class HeapInvocationBuffer extends InvocationBuffer {
      */
     public HeapInvocationBuffer(CallContext context, int objectCount) {
         this.callContext = context;
-        buffer = new byte[Encoder.getInstance().getBufferSize(context)];
+        this.encoder = Encoder.getInstance(context);
+        buffer = new byte[encoder.getBufferSize(context)];
+        longDoubleOffset = context.longDoubleOffset;
         objectBuffer = new ObjectBuffer(objectCount);
     }
 
 
+    /**
+     * Gets a reset <code>HeapInvocationBuffer</code> from the pool kept by a call context, so
+     * repeated calls do not allocate a new buffer each time.
+     *
+     * The buffer should be given back with {@link #release()} once the call has been made.
+     *
+     * @param callContext The {@link CallContext} describing how the function should be invoked
+     * @return A <code>HeapInvocationBuffer</code> with no parameters added.
+     */
+    public static HeapInvocationBuffer acquire(CallContext callContext) {
+        return callContext.acquireInvocationBuffer();
+    }
+
+    /**
+     * Gets a reset <code>HeapInvocationBuffer</code> from the pool kept by the call context of a function.
+     *
+     * @param function The function that this buffer is going to be used with.
+     * @return A <code>HeapInvocationBuffer</code> with no parameters added.
+     * @see #acquire(CallContext)
+     */
+    public static HeapInvocationBuffer acquire(Function function) {
+        return function.getCallContext().acquireInvocationBuffer();
+    }
+
+    /**
+     * Resets this buffer and returns it to the pool of its call context.  The buffer must not be
+     * used after this.
+     */
+    public final void release() {
+        callContext.releaseInvocationBuffer(this);
+    }
+
+    /**
+     * Removes all parameters from this buffer, so it can be filled in for another call.
+     *
+     * The backing array and object buffer are kept, so a reset buffer does not allocate again
+     * for the same parameters.
+     */
+    public final void reset() {
+        paramOffset = 0;
+        paramIndex = 0;
+        longDoubleOffset = callContext.longDoubleOffset;
+        if (objectBuffer != null) {
+            objectBuffer.reset();
+        }
+    }
+
+    /**
+     * Copies the parameters added so far, for a call made on another thread while this buffer is reused.
+     *
+     * @return A new <code>HeapInvocationBuffer</code> with the same parameters.
+     */
+    final HeapInvocationBuffer copyForAsync() {
+        HeapInvocationBuffer copy = new HeapInvocationBuffer(callContext);
+        System.arraycopy(buffer, 0, copy.buffer, 0, buffer.length);
+        copy.paramOffset = paramOffset;
+        copy.paramIndex = paramIndex;
+        copy.longDoubleOffset = longDoubleOffset;
+        copy.objectBuffer = objectBuffer != null ? objectBuffer.copyForAsync() : null;
+
+        return copy;
+    }
+
     /**
      * Gets the backing array of this <code>InvocationBuffer</code>
      *
@@ -98,53 +169,111 @@ public final class HeapInvocationBuffer extends InvocationBuffer {
     }
     
     public final void putByte(final int value) {
-        paramOffset = Encoder.getInstance().putByte(buffer, paramOffset, value);
+        paramOffset = encoder.putByte(buffer, paramOffset, value);
         ++paramIndex;
     }
 
     public final void putShort(final int value) {
-        paramOffset = Encoder.getInstance().putShort(buffer, paramOffset, value);
+        paramOffset = encoder.putShort(buffer, paramOffset, value);
         ++paramIndex;
     }
 
     public final void putInt(final int value) {
-        paramOffset = Encoder.getInstance().putInt(buffer, paramOffset, value);
+        paramOffset = encoder.putInt(buffer, paramOffset, value);
         ++paramIndex;
     }
 
     public final void putLong(final long value) {
-        paramOffset = Encoder.getInstance().putLong(buffer, paramOffset, value);
+        paramOffset = encoder.putLong(buffer, paramOffset, value);
         ++paramIndex;
     }
 
     public final void putFloat(final float value) {
-        paramOffset = Encoder.getInstance().putFloat(buffer, paramOffset, value);
+        paramOffset = encoder.putFloat(buffer, paramOffset, value);
         ++paramIndex;
     }
 
     public final void putDouble(final double value) {
-        paramOffset = Encoder.getInstance().putDouble(buffer, paramOffset, value);
+        paramOffset = encoder.putDouble(buffer, paramOffset, value);
         ++paramIndex;
     }
 
     public final void putLongDouble(final double value) {
-        byte[] ld = new byte[Type.LONGDOUBLE.size()];
-        Foreign.getInstance().longDoubleFromDouble(value, ld, 0, Type.LONGDOUBLE.size());
-        getObjectBuffer().putArray(paramIndex, ld, 0, ld.length, ObjectBuffer.IN);
+        if (!isLongDoubleParameter()) {
+            byte[] ld = new byte[Type.LONGDOUBLE.size()];
+            Foreign.getInstance().longDoubleFromDouble(value, ld, 0, Type.LONGDOUBLE.size());
+            putLongDoubleArray(ld);
+
+        } else if (LongDouble.isSupported()) {
+            LongDouble.encode(value, buffer, nextLongDouble());
+
+        } else {
+            Foreign.getInstance().longDoubleFromDouble(value, buffer, nextLongDouble(), Type.LONGDOUBLE.size());
+        }
+    }
+
+    public final void putLongDouble(final BigDecimal value) {
+        if (!isLongDoubleParameter()) {
+            byte[] ld = new byte[Type.LONGDOUBLE.size()];
+            Foreign.getInstance().longDoubleFromString(value.toEngineeringString(), ld, 0, Type.LONGDOUBLE.size());
+            putLongDoubleArray(ld);
+
+        } else if (LongDouble.isSupported()) {
+            LongDouble.encode(value, buffer, nextLongDouble());
+
+        } else {
+            Foreign.getInstance().longDoubleFromString(value.toEngineeringString(), buffer, nextLongDouble(), Type.LONGDOUBLE.size());
+        }
+    }
+
+    /**
+     * Adds a long double parameter with the value <tt>mantissa * 2^exponent</tt>, rounded to the
+     * precision of the native long double.
+     *
+     * @param mantissa The signed significand.
+     * @param exponent The power of two to scale the significand by.
+     */
+    public final void putLongDouble(final long mantissa, final int exponent) {
+        if (isLongDoubleParameter() && LongDouble.isSupported()) {
+            LongDouble.encode(mantissa, exponent, buffer, nextLongDouble());
+        } else {
+            putLongDouble(LongDouble.toBigDecimal(mantissa, exponent));
+        }
+    }
+
+    /**
+     * Checks if the next parameter is declared as a long double, so its value can be stored in
+     * this buffer instead of being passed as a java array.
+     */
+    private boolean isLongDoubleParameter() {
+        return paramIndex < callContext.getParameterCount()
+                && callContext.getParameterType(paramIndex).type() == Foreign.TYPE_LONGDOUBLE;
+    }
+
+    /**
+     * Skips the slot of a long double parameter, and gets the offset its value is stored at.
+     */
+    private int nextLongDouble() {
+        int offset = paramOffset;
+        if (CallContext.isInlineLongDouble(callContext.getParameterType(paramIndex))) {
+            offset = longDoubleOffset;
+            longDoubleOffset += Type.LONGDOUBLE.size();
+        }
+
         paramOffset += PARAM_SIZE;
         ++paramIndex;
+
+        return offset;
     }
 
-    public final void putLongDouble(final BigDecimal value) {
-        byte[] ld = new byte[Type.LONGDOUBLE.size()];
-        Foreign.getInstance().longDoubleFromString(value.toEngineeringString(), ld, 0, Type.LONGDOUBLE.size());
+    private void putLongDoubleArray(byte[] ld) {
         getObjectBuffer().putArray(paramIndex, ld, 0, ld.length, ObjectBuffer.IN);
         paramOffset += PARAM_SIZE;
         ++paramIndex;
     }
 
     public final void putAddress(final long value) {
-        paramOffset = Encoder.getInstance().putAddress(buffer, paramOffset, value);
+        paramOffset = encoder.putAddress(buffer, paramOffset, value);
         ++paramIndex;
     }
 
@@ -157,59 +286,59 @@ public final class HeapInvocationBuffer extends InvocationBuffer {
     }
 
     public final void putArray(final byte[] array, int offset, int length, int flags) {
-        paramOffset = Encoder.getInstance().skipAddress(paramOffset);
+        paramOffset = encoder.skipAddress(paramOffset);
         getObjectBuffer().putArray(paramIndex++, array, offset, length, flags);
     }
 
     public final void putArray(final short[] array, int offset, int length, int flags) {
-        paramOffset = Encoder.getInstance().skipAddress(paramOffset);
+        paramOffset = encoder.skipAddress(paramOffset);
         getObjectBuffer().putArray(paramIndex++, array, offset, length, flags);
     }
 
     public final void putArray(final int[] array, int offset, int length, int flags) {
-        paramOffset = Encoder.getInstance().skipAddress(paramOffset);
+        paramOffset = encoder.skipAddress(paramOffset);
         getObjectBuffer().putArray(paramIndex++, array, offset, length, flags);
     }
 
     public final void putArray(final long[] array, int offset, int length, int flags) {
-        paramOffset = Encoder.getInstance().skipAddress(paramOffset);
+        paramOffset = encoder.skipAddress(paramOffset);
         getObjectBuffer().putArray(paramIndex++, array, offset, length, flags);
     }
 
     public final void putArray(final float[] array, int offset, int length, int flags) {
-        paramOffset = Encoder.getInstance().skipAddress(paramOffset);
+        paramOffset = encoder.skipAddress(paramOffset);
         getObjectBuffer().putArray(paramIndex++, array, offset, length, flags);
     }
 
     public final void putArray(final double[] array, int offset, int length, int flags) {
-        paramOffset = Encoder.getInstance().skipAddress(paramOffset);
+        paramOffset = encoder.skipAddress(paramOffset);
         getObjectBuffer().putArray(paramIndex++, array, offset, length, flags);
     }
 
     public final void putDirectBuffer(final java.nio.Buffer value, int offset, int length) {
-        paramOffset = Encoder.getInstance().skipAddress(paramOffset);
+        paramOffset = encoder.skipAddress(paramOffset);
         getObjectBuffer().putDirectBuffer(paramIndex++, value, offset, length);
     }
 
     public final void putStruct(final byte[] struct, int offset) {
         final Type type = callContext.getParameterType(paramIndex);
-        paramOffset = Encoder.getInstance().skipAddress(paramOffset);
+        paramOffset = encoder.skipAddress(paramOffset);
         getObjectBuffer().putArray(paramIndex, struct, offset, type.size(), ObjectBuffer.IN);
         ++paramIndex;
     }
 
     public final void putStruct(final long struct) {
         final Type type = callContext.getParameterType(paramIndex);
-        paramOffset = Encoder.getInstance().putAddress(buffer, paramOffset, struct);
+        paramOffset = encoder.putAddress(buffer, paramOffset, struct);
         ++paramIndex;
     }
 
     public final void putObject(Object o, ObjectParameterStrategy strategy, ObjectParameterInfo info) {
         if (strategy.isDirect()) {
-            paramOffset = Encoder.getInstance().putAddress(buffer, paramOffset, strategy.address(o));
+            paramOffset = encoder.putAddress(buffer, paramOffset, strategy.address(o));
 
         } else {
-            paramOffset = Encoder.getInstance().skipAddress(paramOffset);
+            paramOffset = encoder.skipAddress(paramOffset);
             getObjectBuffer().putObject(strategy.object(o), strategy.offset(o), strategy.length(o),
                     ObjectBuffer.makeObjectFlags(info.ioflags(), strategy.typeInfo, paramIndex));
         }
@@ -218,10 +347,10 @@ public final class HeapInvocationBuffer extends InvocationBuffer {
 
     public final void putObject(Object o, ObjectParameterStrategy strategy, int flags) {
         if (strategy.isDirect()) {
-            paramOffset = Encoder.getInstance().putAddress(buffer, paramOffset, strategy.address(o));
+            paramOffset = encoder.putAddress(buffer, paramOffset, strategy.address(o));
 
         } else {
-            paramOffset = Encoder.getInstance().skipAddress(paramOffset);
+            paramOffset = encoder.skipAddress(paramOffset);
             getObjectBuffer().putObject(strategy.object(o), strategy.offset(o), strategy.length(o),
                     ObjectBuffer.makeObjectFlags(flags, strategy.typeInfo, paramIndex));
         }
@@ -230,12 +359,12 @@ public final class HeapInvocationBuffer extends InvocationBuffer {
     }
 
     public final void putJNIEnvironment() {
-        paramOffset = Encoder.getInstance().putAddress(buffer, paramOffset, 0L);
+        paramOffset = encoder.putAddress(buffer, paramOffset, 0L);
         getObjectBuffer().putJNI(paramIndex++, null, ObjectBuffer.JNIENV);
     }
     
     public final void putJNIObject(Object obj) {
-        paramOffset = Encoder.getInstance().putAddress(buffer, paramOffset, 0L);
+        paramOffset = encoder.putAddress(buffer, paramOffset, 0L);
         getObjectBuffer().putJNI(paramIndex++, obj, ObjectBuffer.JNIOBJECT);
     }
 
@@ -252,6 +381,15 @@ public final class HeapInvocationBuffer extends InvocationBuffer {
             return SingletonHolder.INSTANCE;
         }
 
+        /** Gets the encoder for the parameter layout the native invoker expects for a function */
+        static Encoder getInstance(CallContext callContext) {
+            return callContext.rawParameterPacking ? RawEncoderHolder.INSTANCE : SingletonHolder.INSTANCE;
+        }
+
+        private static class RawEncoderHolder {
+            static final Encoder INSTANCE = new RawEncoder(ArrayIO.getInstance(), Platform.getPlatform().addressSize() / 8);
+        }
+
         /** Gets the size in bytes of the buffer required for the function */
         public abstract int getBufferSize(CallContext callContext);
 
@@ -336,7 +474,7 @@ public final class HeapInvocationBuffer extends InvocationBuffer {
         }
 
         public final int getBufferSize(CallContext callContext) {
-            return callContext.getParameterCount() * PARAM_SIZE;
+            return callContext.parameterBufferSize;
         }
         public final int putByte(byte[] buffer, int offset, int value) {
             io.putByte(buffer, offset, value); return offset + PARAM_SIZE;
@@ -366,6 +504,54 @@ public final class HeapInvocationBuffer extends InvocationBuffer {
         }
     }
 
+    /**
+     * Packs parameters in the libffi raw layout, where each value takes its own size rounded up
+     * to the size of a native argument word.  This is only used on little endian platforms.
+     */
+    static final class RawEncoder extends Encoder {
+        private final ArrayIO io;
+        private final int argSize;
+
+        RawEncoder(ArrayIO io, int argSize) {
+            this.io = io;
+            this.argSize = argSize;
+        }
+
+        private int align(int offset, int size) {
+            return offset + ((size + argSize - 1) & ~(argSize - 1));
+        }
+
+        public final int getBufferSize(CallContext callContext) {
+            return callContext.getRawParameterSize();
+        }
+        public final int putByte(byte[] buffer, int offset, int value) {
+            io.putByte(buffer, offset, value); return align(offset, 1);
+        }
+        public final int putShort(byte[] buffer, int offset, int value) {
+            io.putShort(buffer, offset, value); return align(offset, 2);
+        }
+        public final int putInt(byte[] buffer, int offset, int value) {
+            io.putInt(buffer, offset, value); return align(offset, 4);
+        }
+        public final int putLong(byte[] buffer, int offset, long value) {
+            io.putLong(buffer, offset, value); return align(offset, 8);
+        }
+        public final int putFloat(byte[] buffer, int offset, float value) {
+            io.putFloat(buffer, offset, value); return align(offset, 4);
+        }
+        public final int putDouble(byte[] buffer, int offset, double value) {
+            io.putDouble(buffer, offset, value); return align(offset, 8);
+        }
+        public final int putAddress(byte[] buffer, int offset, long value) {
+            io.putAddress(buffer, offset, value); return skipAddress(offset);
+        }
+
+        @Override
+        public int skipAddress(int offset) {
+            return align(offset, argSize);
+        }
+    }
+
     private static abstract class ArrayIO {
         private static final class SingletonHolder {
             private static final ArrayIO DEFAULT;
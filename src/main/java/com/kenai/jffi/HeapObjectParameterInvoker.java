@@ -45,6 +45,14 @@ final class HeapObjectParameterInvoker extends ObjectParameterInvoker {
                 o2, o2flags.asObjectInfo(), o2off, o2len);
     }
 
+    private long invokeObjects(Function function, byte[] paramBuffer, Object[] objects, int[] objInfo) {
+        return function.getReturnType().size() == 8
+            ? foreign.invokeArrayWithObjectsInt64(function.getContextAddress(), function.getFunctionAddress(),
+                paramBuffer, objects.length, objInfo, objects)
+            : foreign.invokeArrayWithObjectsInt32(function.getContextAddress(), function.getFunctionAddress(),
+                paramBuffer, objects.length, objInfo, objects);
+    }
+
     private long invokeO3(Function function, byte[] paramBuffer,
                           Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
                           Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
@@ -68,7 +76,7 @@ final class HeapObjectParameterInvoker extends ObjectParameterInvoker {
                              Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
 
         return invokeO1(function,
-                new byte[HeapInvocationBuffer.Encoder.getInstance().getBufferSize(function.getCallContext())],
+                new byte[HeapInvocationBuffer.Encoder.getInstance(function.getCallContext()).getBufferSize(function.getCallContext())],
                 o1, o1off, o1len, o1flags);
     }
     
@@ -76,7 +84,7 @@ final class HeapObjectParameterInvoker extends ObjectParameterInvoker {
                              long n1, long n2,
                              Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
 
-        HeapInvocationBuffer.Encoder encoder = HeapInvocationBuffer.Encoder.getInstance();
+        HeapInvocationBuffer.Encoder encoder = HeapInvocationBuffer.Encoder.getInstance(function.getCallContext());
         byte[] paramBuffer = new byte[encoder.getBufferSize(function.getCallContext())];
         
         int poff = 0;
@@ -91,13 +99,13 @@ final class HeapObjectParameterInvoker extends ObjectParameterInvoker {
                              Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
                              Object o2, int o2off, int o2len, ObjectParameterInfo o2flags) {
 
-        return invokeO2(function, new byte[HeapInvocationBuffer.Encoder.getInstance().getBufferSize(function.getCallContext())],
+        return invokeO2(function, new byte[HeapInvocationBuffer.Encoder.getInstance(function.getCallContext()).getBufferSize(function.getCallContext())],
                 o1, o1off, o1len, o1flags,
                 o2, o2off, o2len, o2flags);
     }
 
     private static byte[] encodeN3(Function function, long n1, long n2, long n3) {
-        HeapInvocationBuffer.Encoder encoder = HeapInvocationBuffer.Encoder.getInstance();
+        HeapInvocationBuffer.Encoder encoder = HeapInvocationBuffer.Encoder.getInstance(function.getCallContext());
         byte[] paramBuffer = new byte[encoder.getBufferSize(function.getCallContext())];
         int poff = 0;
         poff = encode(encoder, paramBuffer, poff, function.getParameterType(0), n1);
@@ -136,7 +144,7 @@ final class HeapObjectParameterInvoker extends ObjectParameterInvoker {
     }
 
     private static byte[] encodeN4(Function function, long n1, long n2, long n3, long n4) {
-        HeapInvocationBuffer.Encoder encoder = HeapInvocationBuffer.Encoder.getInstance();
+        HeapInvocationBuffer.Encoder encoder = HeapInvocationBuffer.Encoder.getInstance(function.getCallContext());
         byte[] paramBuffer = new byte[encoder.getBufferSize(function.getCallContext())];
         int poff = 0;
         poff = encode(encoder, paramBuffer, poff, function.getParameterType(0), n1);
@@ -176,7 +184,7 @@ final class HeapObjectParameterInvoker extends ObjectParameterInvoker {
     }
 
     private static byte[] encodeN5(Function function, long n1, long n2, long n3, long n4, long n5) {
-        HeapInvocationBuffer.Encoder encoder = HeapInvocationBuffer.Encoder.getInstance();
+        HeapInvocationBuffer.Encoder encoder = HeapInvocationBuffer.Encoder.getInstance(function.getCallContext());
         byte[] paramBuffer = new byte[encoder.getBufferSize(function.getCallContext())];
         int poff = 0;
         poff = encode(encoder, paramBuffer, poff, function.getParameterType(0), n1);
@@ -219,7 +227,7 @@ final class HeapObjectParameterInvoker extends ObjectParameterInvoker {
     }
 
     private static byte[] encodeN6(Function function, long n1, long n2, long n3, long n4, long n5, long n6) {
-        HeapInvocationBuffer.Encoder encoder = HeapInvocationBuffer.Encoder.getInstance();
+        HeapInvocationBuffer.Encoder encoder = HeapInvocationBuffer.Encoder.getInstance(function.getCallContext());
         byte[] paramBuffer = new byte[encoder.getBufferSize(function.getCallContext())];
         int poff = 0;
         poff = encode(encoder, paramBuffer, poff, function.getParameterType(0), n1);
@@ -264,4 +272,113 @@ final class HeapObjectParameterInvoker extends ObjectParameterInvoker {
                 o3, o3off, o3len, o3flags);
     }
 
+    public long invokeN4O4rN(Function function,
+                             long n1, long n2, long n3, long n4,
+                             Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                             Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                             Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                             Object o4, int o4off, int o4len, ObjectParameterInfo o4flags) {
+
+        int[] objInfo = {
+                o1flags.asObjectInfo(), o1off, o1len,
+                o2flags.asObjectInfo(), o2off, o2len,
+                o3flags.asObjectInfo(), o3off, o3len,
+                o4flags.asObjectInfo(), o4off, o4len
+        };
+
+        return invokeObjects(function, encodeN4(function, n1, n2, n3, n4), new Object[] { o1, o2, o3, o4 }, objInfo);
+    }
+
+    public long invokeN5O4rN(Function function,
+                             long n1, long n2, long n3, long n4, long n5,
+                             Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                             Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                             Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                             Object o4, int o4off, int o4len, ObjectParameterInfo o4flags) {
+
+        int[] objInfo = {
+                o1flags.asObjectInfo(), o1off, o1len,
+                o2flags.asObjectInfo(), o2off, o2len,
+                o3flags.asObjectInfo(), o3off, o3len,
+                o4flags.asObjectInfo(), o4off, o4len
+        };
+
+        return invokeObjects(function, encodeN5(function, n1, n2, n3, n4, n5), new Object[] { o1, o2, o3, o4 }, objInfo);
+    }
+
+    public long invokeN5O5rN(Function function,
+                             long n1, long n2, long n3, long n4, long n5,
+                             Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                             Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                             Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                             Object o4, int o4off, int o4len, ObjectParameterInfo o4flags,
+                             Object o5, int o5off, int o5len, ObjectParameterInfo o5flags) {
+
+        int[] objInfo = {
+                o1flags.asObjectInfo(), o1off, o1len,
+                o2flags.asObjectInfo(), o2off, o2len,
+                o3flags.asObjectInfo(), o3off, o3len,
+                o4flags.asObjectInfo(), o4off, o4len,
+                o5flags.asObjectInfo(), o5off, o5len
+        };
+
+        return invokeObjects(function, encodeN5(function, n1, n2, n3, n4, n5), new Object[] { o1, o2, o3, o4, o5 }, objInfo);
+    }
+
+    public long invokeN6O4rN(Function function,
+                             long n1, long n2, long n3, long n4, long n5, long n6,
+                             Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                             Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                             Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                             Object o4, int o4off, int o4len, ObjectParameterInfo o4flags) {
+
+        int[] objInfo = {
+                o1flags.asObjectInfo(), o1off, o1len,
+                o2flags.asObjectInfo(), o2off, o2len,
+                o3flags.asObjectInfo(), o3off, o3len,
+                o4flags.asObjectInfo(), o4off, o4len
+        };
+
+        return invokeObjects(function, encodeN6(function, n1, n2, n3, n4, n5, n6), new Object[] { o1, o2, o3, o4 }, objInfo);
+    }
+
+    public long invokeN6O5rN(Function function,
+                             long n1, long n2, long n3, long n4, long n5, long n6,
+                             Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                             Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                             Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                             Object o4, int o4off, int o4len, ObjectParameterInfo o4flags,
+                             Object o5, int o5off, int o5len, ObjectParameterInfo o5flags) {
+
+        int[] objInfo = {
+                o1flags.asObjectInfo(), o1off, o1len,
+                o2flags.asObjectInfo(), o2off, o2len,
+                o3flags.asObjectInfo(), o3off, o3len,
+                o4flags.asObjectInfo(), o4off, o4len,
+                o5flags.asObjectInfo(), o5off, o5len
+        };
+
+        return invokeObjects(function, encodeN6(function, n1, n2, n3, n4, n5, n6), new Object[] { o1, o2, o3, o4, o5 }, objInfo);
+    }
+
+    public long invokeN6O6rN(Function function,
+                             long n1, long n2, long n3, long n4, long n5, long n6,
+                             Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                             Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                             Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                             Object o4, int o4off, int o4len, ObjectParameterInfo o4flags,
+                             Object o5, int o5off, int o5len, ObjectParameterInfo o5flags,
+                             Object o6, int o6off, int o6len, ObjectParameterInfo o6flags) {
+
+        int[] objInfo = {
+                o1flags.asObjectInfo(), o1off, o1len,
+                o2flags.asObjectInfo(), o2off, o2len,
+                o3flags.asObjectInfo(), o3off, o3len,
+                o4flags.asObjectInfo(), o4off, o4len,
+                o5flags.asObjectInfo(), o5off, o5len,
+                o6flags.asObjectInfo(), o6off, o6len
+        };
+
+        return invokeObjects(function, encodeN6(function, n1, n2, n3, n4, n5, n6), new Object[] { o1, o2, o3, o4, o5, o6 }, objInfo);
+    }
 }
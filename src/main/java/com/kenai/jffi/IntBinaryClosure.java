@@ -0,0 +1,12 @@
+package com.kenai.jffi;
+
+/**
+ * A native closure that takes two 32 bit integers and returns a 32 bit integer.
+ *
+ * The parameters and return value are passed unboxed, without a {@link Closure.Buffer}.
+ *
+ * @see ClosureManager#newIntBinaryClosure(IntBinaryClosure, CallingConvention)
+ */
+public interface IntBinaryClosure {
+    int invoke(int a1, int a2);
+}
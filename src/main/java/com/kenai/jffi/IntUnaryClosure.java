@@ -0,0 +1,12 @@
+package com.kenai.jffi;
+
+/**
+ * A native closure that takes one 32 bit integer and returns a 32 bit integer.
+ *
+ * The parameter and return value are passed unboxed, without a {@link Closure.Buffer}.
+ *
+ * @see ClosureManager#newIntUnaryClosure(IntUnaryClosure, CallingConvention)
+ */
+public interface IntUnaryClosure {
+    int invoke(int a1);
+}
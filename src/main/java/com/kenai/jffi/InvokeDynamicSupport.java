@@ -31,15 +31,15 @@ public final class InvokeDynamicSupport {
 
         Platform.CPU cpu = Platform.getPlatform().getCPU();
 
-        if (!(callContext.getReturnType() instanceof Type.Builtin)) {
+        if ((callContext.flags & Foreign.F_STDCALL) != 0) {
             return null;
         }
 
-        if ((callContext.flags & Foreign.F_STDCALL) != 0) {
+        if (!(callContext.getReturnType() instanceof Type.Builtin)) {
             return null;
         }
 
-        if (callContext.getParameterCount() > 6) {
+        if (callContext.getParameterCount() > 12) {
             return null;
         }
 
@@ -118,10 +118,139 @@ public final class InvokeDynamicSupport {
             methodName += "NoErrno";
         }
 
-        Class[] params = new Class[2 + callContext.getParameterCount()];
+        return getInvoker(callContext, function, methodName, nativeIntClass);
+    }
+
+    /**
+     * Gets a handle for a call whose parameters and result are all float, or all double values.
+     * <p>
+     * Unlike the handles from {@link #getFastNumericInvoker}, which pass floating point values as
+     * their raw bits in a <tt>long</tt>, this handle takes and returns <tt>float</tt> or
+     * <tt>double</tt> values.
+     * </p>
+     *
+     * @param callContext The call context of the function.
+     * @param function The address of the function to invoke.
+     * @return An invoker, or null if the signature is not all float or all double values.
+     */
+    public static Invoker getFastFloatingPointInvoker(CallContext callContext, long function) {
+        if ((callContext.flags & Foreign.F_STDCALL) != 0 || callContext.getParameterCount() > 6) {
+            return null;
+        }
+
+        Class fpClass = getFloatingPointClass(callContext);
+        return fpClass != null
+                ? getInvoker(callContext, function, (fpClass == float.class ? "invokeF" : "invokeD") + callContext.getParameterCount(), fpClass)
+                : null;
+    }
+
+    /**
+     * Gets a handle for a call that passes or returns small structs by value.
+     * <p>
+     * The handle takes the address to store a struct result in, followed by one <tt>long</tt> per
+     * parameter, with struct parameters passed as the native address of the struct value.  It
+     * returns the result address for a struct result, otherwise the numeric result.
+     * </p>
+     *
+     * @param callContext The call context of the function.
+     * @param function The address of the function to invoke.
+     * @return An invoker, or null if the function has no struct types, or the structs are too large.
+     */
+    public static Invoker getFastStructInvoker(CallContext callContext, long function) {
+        if ((callContext.flags & Foreign.F_STDCALL) != 0 || !hasStruct(callContext) || !isSmallStructCall(callContext)) {
+            return null;
+        }
+
+        return getInvoker(callContext, function, "invokeS" + callContext.getParameterCount(), long.class, 3 + callContext.getParameterCount());
+    }
+
+    /**
+     * Gets the parameter class of the float/double invoker family that can call this context,
+     * which requires every parameter to be the same floating point type as the result.
+     */
+    private static Class getFloatingPointClass(CallContext callContext) {
+        int type;
+        switch (callContext.getReturnType().type()) {
+            case Foreign.TYPE_FLOAT:
+            case Foreign.TYPE_DOUBLE:
+                type = callContext.getReturnType().type();
+                break;
+
+            case Foreign.TYPE_VOID:
+                if (callContext.getParameterCount() < 1 || !(callContext.getParameterType(0) instanceof Type.Builtin)) {
+                    return null;
+                }
+                type = callContext.getParameterType(0).type();
+                break;
+
+            default:
+                return null;
+        }
+
+        for (int i = 0; i < callContext.getParameterCount(); i++) {
+            if (!(callContext.getParameterType(i) instanceof Type.Builtin) || callContext.getParameterType(i).type() != type) {
+                return null;
+            }
+        }
+
+        return type == Foreign.TYPE_FLOAT ? float.class
+                : type == Foreign.TYPE_DOUBLE ? double.class : null;
+    }
+
+    private static boolean hasStruct(CallContext callContext) {
+        if (callContext.getReturnType().type() == Foreign.TYPE_STRUCT) {
+            return true;
+        }
+
+        for (int i = 0; i < callContext.getParameterCount(); i++) {
+            if (callContext.getParameterType(i).type() == Foreign.TYPE_STRUCT) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks if the invokeS family can call this context, which passes each struct by address
+     * and limits structs to the 16 bytes the SysV x86_64 ABI can pass in registers.
+     */
+    private static boolean isSmallStructCall(CallContext callContext) {
+        if (callContext.getParameterCount() > 6 || !isSmallStructOrNumeric(callContext.getReturnType())) {
+            return false;
+        }
+
+        for (int i = 0; i < callContext.getParameterCount(); i++) {
+            if (!isSmallStructOrNumeric(callContext.getParameterType(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isSmallStructOrNumeric(Type type) {
+        switch (type.type()) {
+            case Foreign.TYPE_STRUCT:
+                return type.size() <= 16;
+
+            case Foreign.TYPE_LONGDOUBLE:
+                return false;
+
+            default:
+                return true;
+        }
+    }
+
+    private static Invoker getInvoker(CallContext callContext, long function, String methodName, Class parameterClass) {
+        return getInvoker(callContext, function, methodName, parameterClass, 2 + callContext.getParameterCount());
+    }
+
+    private static Invoker getInvoker(CallContext callContext, long function, String methodName, Class parameterClass, int parameterCount) {
+        Class[] params = new Class[parameterCount];
         params[0] = long.class;
         params[1] = long.class;
-        Arrays.fill(params, 2, params.length, nativeIntClass);
+        Arrays.fill(params, 2, params.length, parameterClass);
 
         try {
             Method method = Foreign.class.getDeclaredMethod(methodName, params);
@@ -32,7 +32,10 @@
 
 package com.kenai.jffi;
 
+import java.lang.invoke.MethodHandle;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
 
 /**
  * Provides native function invocation facilities.
@@ -83,7 +86,14 @@ public abstract class Invoker {
      * @return A 32 bit integer value.
      */
     public final int invokeI0(CallContext context, long function) {
-        return Foreign.invokeI0(context.contextAddress, function);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, false);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeI0(mh, function)
+                : Foreign.invokeI0(context.contextAddress, function);
     }
 
     /**
@@ -95,7 +105,14 @@ public abstract class Invoker {
      * @return A 32 bit integer value.
      */
     public final int invokeI1(CallContext context, long function, int arg1) {
-        return Foreign.invokeI1(context.contextAddress, function, arg1);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, false, arg1);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeI1(mh, function, arg1)
+                : Foreign.invokeI1(context.contextAddress, function, arg1);
     }
 
     /**
@@ -108,7 +125,14 @@ public abstract class Invoker {
      * @return A 32 bit integer value.
      */
     public final int invokeI2(CallContext context, long function, int arg1, int arg2) {
-        return Foreign.invokeI2(context.contextAddress, function, arg1, arg2);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, false, arg1, arg2);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeI2(mh, function, arg1, arg2)
+                : Foreign.invokeI2(context.contextAddress, function, arg1, arg2);
     }
 
     /**
@@ -122,7 +146,14 @@ public abstract class Invoker {
      * @return A 32 bit integer value.
      */
     public final int invokeI3(CallContext context, long function, int arg1, int arg2, int arg3) {
-        return Foreign.invokeI3(context.contextAddress, function, arg1, arg2, arg3);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, false, arg1, arg2, arg3);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeI3(mh, function, arg1, arg2, arg3)
+                : Foreign.invokeI3(context.contextAddress, function, arg1, arg2, arg3);
     }
 
     /**
@@ -137,7 +168,14 @@ public abstract class Invoker {
      * @return A 32 bit integer value.
      */
     public final int invokeI4(CallContext context, long function, int arg1, int arg2, int arg3, int arg4) {
-        return Foreign.invokeI4(context.contextAddress, function, arg1, arg2, arg3, arg4);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, false, arg1, arg2, arg3, arg4);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeI4(mh, function, arg1, arg2, arg3, arg4)
+                : Foreign.invokeI4(context.contextAddress, function, arg1, arg2, arg3, arg4);
     }
 
     /**
@@ -153,7 +191,14 @@ public abstract class Invoker {
      * @return A 32 bit integer value.
      */
     public final int invokeI5(CallContext context, long function, int arg1, int arg2, int arg3, int arg4, int arg5) {
-        return Foreign.invokeI5(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, false, arg1, arg2, arg3, arg4, arg5);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeI5(mh, function, arg1, arg2, arg3, arg4, arg5)
+                : Foreign.invokeI5(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5);
     }
 
     /**
@@ -170,35 +215,322 @@ public abstract class Invoker {
      * @return A 32 bit integer value.
      */
     public final int invokeI6(CallContext context, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6) {
-        return Foreign.invokeI6(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, false, arg1, arg2, arg3, arg4, arg5, arg6);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeI6(mh, function, arg1, arg2, arg3, arg4, arg5, arg6)
+                : Foreign.invokeI6(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6);
     }
 
     public final int invokeI0NoErrno(CallContext context, long function) {
-        return Foreign.invokeI0NoErrno(context.contextAddress, function);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, true);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeI0(mh, function)
+                : Foreign.invokeI0NoErrno(context.contextAddress, function);
     }
 
     public final int invokeI1NoErrno(CallContext context, long function, int arg1) {
-        return Foreign.invokeI1NoErrno(context.contextAddress, function, arg1);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, true, arg1);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeI1(mh, function, arg1)
+                : Foreign.invokeI1NoErrno(context.contextAddress, function, arg1);
     }
 
     public final int invokeI2NoErrno(CallContext context, long function, int arg1, int arg2) {
-        return Foreign.invokeI2NoErrno(context.contextAddress, function, arg1, arg2);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, true, arg1, arg2);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeI2(mh, function, arg1, arg2)
+                : Foreign.invokeI2NoErrno(context.contextAddress, function, arg1, arg2);
     }
 
     public final int invokeI3NoErrno(CallContext context, long function, int arg1, int arg2, int arg3) {
-        return Foreign.invokeI3NoErrno(context.contextAddress, function, arg1, arg2, arg3);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, true, arg1, arg2, arg3);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeI3(mh, function, arg1, arg2, arg3)
+                : Foreign.invokeI3NoErrno(context.contextAddress, function, arg1, arg2, arg3);
     }
 
     public final int invokeI4NoErrno(CallContext context, long function, int arg1, int arg2, int arg3, int arg4) {
-        return Foreign.invokeI4NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, true, arg1, arg2, arg3, arg4);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeI4(mh, function, arg1, arg2, arg3, arg4)
+                : Foreign.invokeI4NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4);
     }
 
     public final int invokeI5NoErrno(CallContext context, long function, int arg1, int arg2, int arg3, int arg4, int arg5) {
-        return Foreign.invokeI5NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, true, arg1, arg2, arg3, arg4, arg5);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeI5(mh, function, arg1, arg2, arg3, arg4, arg5)
+                : Foreign.invokeI5NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5);
     }
 
     public final int invokeI6NoErrno(CallContext context, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6) {
-        return Foreign.invokeI6NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, true, arg1, arg2, arg3, arg4, arg5, arg6);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeI6(mh, function, arg1, arg2, arg3, arg4, arg5, arg6)
+                : Foreign.invokeI6NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6);
+    }
+
+    /**
+     * Invokes a function with seven integer arguments, and returns a 32 bit integer.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first 32 bit integer argument.
+     * @param arg2 The second 32 bit integer argument.
+     * @param arg3 The third 32 bit integer argument.
+     * @param arg4 The fourth 32 bit integer argument.
+     * @param arg5 The fifth 32 bit integer argument.
+     * @param arg6 The sixth 32 bit integer argument.
+     * @param arg7 The seventh 32 bit integer argument.
+     * @return A 32 bit integer value.
+     */
+    public final int invokeI7(CallContext context, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, false, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeI7(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7)
+                : Foreign.invokeI7(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+    }
+
+    /**
+     * Invokes a function with eight integer arguments, and returns a 32 bit integer.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first 32 bit integer argument.
+     * @param arg2 The second 32 bit integer argument.
+     * @param arg3 The third 32 bit integer argument.
+     * @param arg4 The fourth 32 bit integer argument.
+     * @param arg5 The fifth 32 bit integer argument.
+     * @param arg6 The sixth 32 bit integer argument.
+     * @param arg7 The seventh 32 bit integer argument.
+     * @param arg8 The eighth 32 bit integer argument.
+     * @return A 32 bit integer value.
+     */
+    public final int invokeI8(CallContext context, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, false, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeI8(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8)
+                : Foreign.invokeI8(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+    }
+
+    /**
+     * Invokes a function with nine integer arguments, and returns a 32 bit integer.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first 32 bit integer argument.
+     * @param arg2 The second 32 bit integer argument.
+     * @param arg3 The third 32 bit integer argument.
+     * @param arg4 The fourth 32 bit integer argument.
+     * @param arg5 The fifth 32 bit integer argument.
+     * @param arg6 The sixth 32 bit integer argument.
+     * @param arg7 The seventh 32 bit integer argument.
+     * @param arg8 The eighth 32 bit integer argument.
+     * @param arg9 The ninth 32 bit integer argument.
+     * @return A 32 bit integer value.
+     */
+    public final int invokeI9(CallContext context, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, false, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeI9(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9)
+                : Foreign.invokeI9(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+    }
+
+    /**
+     * Invokes a function with ten integer arguments, and returns a 32 bit integer.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first 32 bit integer argument.
+     * @param arg2 The second 32 bit integer argument.
+     * @param arg3 The third 32 bit integer argument.
+     * @param arg4 The fourth 32 bit integer argument.
+     * @param arg5 The fifth 32 bit integer argument.
+     * @param arg6 The sixth 32 bit integer argument.
+     * @param arg7 The seventh 32 bit integer argument.
+     * @param arg8 The eighth 32 bit integer argument.
+     * @param arg9 The ninth 32 bit integer argument.
+     * @param arg10 The tenth 32 bit integer argument.
+     * @return A 32 bit integer value.
+     */
+    public final int invokeI10(CallContext context, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, false, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeI10(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10)
+                : Foreign.invokeI10(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+    }
+
+    /**
+     * Invokes a function with eleven integer arguments, and returns a 32 bit integer.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first 32 bit integer argument.
+     * @param arg2 The second 32 bit integer argument.
+     * @param arg3 The third 32 bit integer argument.
+     * @param arg4 The fourth 32 bit integer argument.
+     * @param arg5 The fifth 32 bit integer argument.
+     * @param arg6 The sixth 32 bit integer argument.
+     * @param arg7 The seventh 32 bit integer argument.
+     * @param arg8 The eighth 32 bit integer argument.
+     * @param arg9 The ninth 32 bit integer argument.
+     * @param arg10 The tenth 32 bit integer argument.
+     * @param arg11 The eleventh 32 bit integer argument.
+     * @return A 32 bit integer value.
+     */
+    public final int invokeI11(CallContext context, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10, int arg11) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, false, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeI11(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11)
+                : Foreign.invokeI11(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11);
+    }
+
+    /**
+     * Invokes a function with twelve integer arguments, and returns a 32 bit integer.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first 32 bit integer argument.
+     * @param arg2 The second 32 bit integer argument.
+     * @param arg3 The third 32 bit integer argument.
+     * @param arg4 The fourth 32 bit integer argument.
+     * @param arg5 The fifth 32 bit integer argument.
+     * @param arg6 The sixth 32 bit integer argument.
+     * @param arg7 The seventh 32 bit integer argument.
+     * @param arg8 The eighth 32 bit integer argument.
+     * @param arg9 The ninth 32 bit integer argument.
+     * @param arg10 The tenth 32 bit integer argument.
+     * @param arg11 The eleventh 32 bit integer argument.
+     * @param arg12 The twelfth 32 bit integer argument.
+     * @return A 32 bit integer value.
+     */
+    public final int invokeI12(CallContext context, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10, int arg11, int arg12) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, false, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeI12(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12)
+                : Foreign.invokeI12(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12);
+    }
+
+    public final int invokeI7NoErrno(CallContext context, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, true, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeI7(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7)
+                : Foreign.invokeI7NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+    }
+
+    public final int invokeI8NoErrno(CallContext context, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, true, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeI8(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8)
+                : Foreign.invokeI8NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+    }
+
+    public final int invokeI9NoErrno(CallContext context, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, true, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeI9(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9)
+                : Foreign.invokeI9NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+    }
+
+    public final int invokeI10NoErrno(CallContext context, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, true, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeI10(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10)
+                : Foreign.invokeI10NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+    }
+
+    public final int invokeI11NoErrno(CallContext context, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10, int arg11) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, true, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeI11(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11)
+                : Foreign.invokeI11NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11);
+    }
+
+    public final int invokeI12NoErrno(CallContext context, long function, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10, int arg11, int arg12) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeI(context, function, true, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getIntDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeI12(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12)
+                : Foreign.invokeI12NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12);
     }
 
     /**
@@ -365,7 +697,14 @@ public abstract class Invoker {
      * @return A 64 bit integer value.
      */
     public final long invokeL0(CallContext context, long function) {
-        return Foreign.invokeL0(context.contextAddress, function);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, false);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL0(mh, function)
+                : Foreign.invokeL0(context.contextAddress, function);
     }
 
     /**
@@ -377,7 +716,14 @@ public abstract class Invoker {
      * @return A 64 bit integer value.
      */
     public final long invokeL1(CallContext context, long function, long arg1) {
-        return Foreign.invokeL1(context.contextAddress, function, arg1);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, false, arg1);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL1(mh, function, arg1)
+                : Foreign.invokeL1(context.contextAddress, function, arg1);
     }
 
     /**
@@ -390,7 +736,14 @@ public abstract class Invoker {
      * @return A 64 bit integer value.
      */
     public final long invokeL2(CallContext context, long function, long arg1, long arg2) {
-        return Foreign.invokeL2(context.contextAddress, function, arg1, arg2);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, false, arg1, arg2);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL2(mh, function, arg1, arg2)
+                : Foreign.invokeL2(context.contextAddress, function, arg1, arg2);
     }
 
     /**
@@ -404,7 +757,14 @@ public abstract class Invoker {
      * @return A 64 bit integer value.
      */
     public final long invokeL3(CallContext context, long function, long arg1, long arg2, long arg3) {
-        return Foreign.invokeL3(context.contextAddress, function, arg1, arg2, arg3);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, false, arg1, arg2, arg3);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL3(mh, function, arg1, arg2, arg3)
+                : Foreign.invokeL3(context.contextAddress, function, arg1, arg2, arg3);
     }
 
     /**
@@ -419,7 +779,14 @@ public abstract class Invoker {
      * @return A 64 bit integer value.
      */
     public final long invokeL4(CallContext context, long function, long arg1, long arg2, long arg3, long arg4) {
-        return Foreign.invokeL4(context.contextAddress, function, arg1, arg2, arg3, arg4);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, false, arg1, arg2, arg3, arg4);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL4(mh, function, arg1, arg2, arg3, arg4)
+                : Foreign.invokeL4(context.contextAddress, function, arg1, arg2, arg3, arg4);
     }
 
     /**
@@ -435,7 +802,14 @@ public abstract class Invoker {
      * @return A 64 bit integer value.
      */
     public final long invokeL5(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5) {
-        return Foreign.invokeL5(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, false, arg1, arg2, arg3, arg4, arg5);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL5(mh, function, arg1, arg2, arg3, arg4, arg5)
+                : Foreign.invokeL5(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5);
     }
 
     /**
@@ -452,150 +826,451 @@ public abstract class Invoker {
      * @return A 64 bit integer value.
      */
     public final long invokeL6(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6) {
-        return Foreign.invokeL6(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, false, arg1, arg2, arg3, arg4, arg5, arg6);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL6(mh, function, arg1, arg2, arg3, arg4, arg5, arg6)
+                : Foreign.invokeL6(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6);
     }
 
     public final long invokeL0NoErrno(CallContext context, long function) {
-        return Foreign.invokeL0NoErrno(context.contextAddress, function);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, true);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeL0(mh, function)
+                : Foreign.invokeL0NoErrno(context.contextAddress, function);
     }
 
     public final long invokeL1NoErrno(CallContext context, long function, long arg1) {
-        return Foreign.invokeL1NoErrno(context.contextAddress, function, arg1);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, true, arg1);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeL1(mh, function, arg1)
+                : Foreign.invokeL1NoErrno(context.contextAddress, function, arg1);
     }
 
     public final long invokeL2NoErrno(CallContext context, long function, long arg1, long arg2) {
-        return Foreign.invokeL2NoErrno(context.contextAddress, function, arg1, arg2);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, true, arg1, arg2);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeL2(mh, function, arg1, arg2)
+                : Foreign.invokeL2NoErrno(context.contextAddress, function, arg1, arg2);
     }
 
     public final long invokeL3NoErrno(CallContext context, long function, long arg1, long arg2, long arg3) {
-        return Foreign.invokeL3NoErrno(context.contextAddress, function, arg1, arg2, arg3);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, true, arg1, arg2, arg3);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeL3(mh, function, arg1, arg2, arg3)
+                : Foreign.invokeL3NoErrno(context.contextAddress, function, arg1, arg2, arg3);
     }
 
     public final long invokeL4NoErrno(CallContext context, long function, long arg1, long arg2, long arg3, long arg4) {
-        return Foreign.invokeL4NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, true, arg1, arg2, arg3, arg4);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeL4(mh, function, arg1, arg2, arg3, arg4)
+                : Foreign.invokeL4NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4);
     }
 
     public final long invokeL5NoErrno(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5) {
-        return Foreign.invokeL5NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5);
-    }
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, true, arg1, arg2, arg3, arg4, arg5);
+        }
 
-    public final long invokeL6NoErrno(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6) {
-        return Foreign.invokeL6NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6);
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeL5(mh, function, arg1, arg2, arg3, arg4, arg5)
+                : Foreign.invokeL5NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5);
     }
 
+    public final long invokeL6NoErrno(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, true, arg1, arg2, arg3, arg4, arg5, arg6);
+        }
 
-    /**
-     * Invokes a function with no arguments, and returns a 64 bit integer.
-     *
-     * @param function The <code>Function</code> to invoke.
-     * @return A 64 bit integer value.
-     */
-    public final long invokeVrL(Function function) {
-        return Foreign.invokeL0(function.contextAddress, function.functionAddress);
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeL6(mh, function, arg1, arg2, arg3, arg4, arg5, arg6)
+                : Foreign.invokeL6NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6);
     }
 
     /**
-     * Invokes a function with one 64 bit integer argument, and returns a 64 bit integer.
-     *
-     * @param function The <code>Function</code> to invoke.
-     * @param arg1 The 64 bit integer argument.
-     * @return A 64 bit integer value.
-     */
-    public final long invokeLrL(Function function, long arg1) {
-        return Foreign.invokeL1(function.contextAddress, function.functionAddress, arg1);
-    }
-    
-    /**
-     * Invokes a function with two 64 bit integer arguments, and returns a 64 bit integer.
+     * Invokes a function with seven 64 bit integer arguments, and returns a 64 bit integer value.
      *
-     * @param function The <code>Function</code> to invoke.
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
      * @param arg1 The first 64 bit integer argument.
      * @param arg2 The second 64 bit integer argument.
+     * @param arg3 The third 64 bit integer argument.
+     * @param arg4 The fourth 64 bit integer argument.
+     * @param arg5 The fifth 64 bit integer argument.
+     * @param arg6 The sixth 64 bit integer argument.
+     * @param arg7 The seventh 64 bit integer argument.
      * @return A 64 bit integer value.
      */
-    public final long invokeLLrL(Function function, long arg1, long arg2) {
-        return Foreign.invokeL2(function.contextAddress, function.functionAddress, arg1, arg2);
+    public final long invokeL7(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, false, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL7(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7)
+                : Foreign.invokeL7(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
     }
 
     /**
-     * Invokes a function with three 64 bit integer arguments, and returns a 64 bit integer.
+     * Invokes a function with eight 64 bit integer arguments, and returns a 64 bit integer value.
      *
-     * @param function The <code>Function</code> to invoke.
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
      * @param arg1 The first 64 bit integer argument.
      * @param arg2 The second 64 bit integer argument.
      * @param arg3 The third 64 bit integer argument.
+     * @param arg4 The fourth 64 bit integer argument.
+     * @param arg5 The fifth 64 bit integer argument.
+     * @param arg6 The sixth 64 bit integer argument.
+     * @param arg7 The seventh 64 bit integer argument.
+     * @param arg8 The eighth 64 bit integer argument.
      * @return A 64 bit integer value.
      */
-    public final long invokeLLLrL(Function function, long arg1, long arg2, long arg3) {
-        return Foreign.invokeL3(function.contextAddress, function.functionAddress, arg1, arg2, arg3);
+    public final long invokeL8(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, false, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL8(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8)
+                : Foreign.invokeL8(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
     }
 
     /**
-     * Invokes a function with four 64 bit integer arguments, and returns a 64 bit integer.
+     * Invokes a function with nine 64 bit integer arguments, and returns a 64 bit integer value.
      *
-     * @param function The <code>Function</code> to invoke.
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
      * @param arg1 The first 64 bit integer argument.
      * @param arg2 The second 64 bit integer argument.
      * @param arg3 The third 64 bit integer argument.
      * @param arg4 The fourth 64 bit integer argument.
+     * @param arg5 The fifth 64 bit integer argument.
+     * @param arg6 The sixth 64 bit integer argument.
+     * @param arg7 The seventh 64 bit integer argument.
+     * @param arg8 The eighth 64 bit integer argument.
+     * @param arg9 The ninth 64 bit integer argument.
      * @return A 64 bit integer value.
      */
-    public final long invokeLLLLrL(Function function, long arg1, long arg2, long arg3, long arg4) {
-        return Foreign.invokeL4(function.contextAddress, function.functionAddress, arg1, arg2, arg3, arg4);
+    public final long invokeL9(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, false, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL9(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9)
+                : Foreign.invokeL9(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
     }
 
     /**
-     * Invokes a function with five 64 bit integer arguments, and returns a 64 bit integer.
+     * Invokes a function with ten 64 bit integer arguments, and returns a 64 bit integer value.
      *
-     * @param function The <code>Function</code> to invoke.
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
      * @param arg1 The first 64 bit integer argument.
      * @param arg2 The second 64 bit integer argument.
      * @param arg3 The third 64 bit integer argument.
      * @param arg4 The fourth 64 bit integer argument.
      * @param arg5 The fifth 64 bit integer argument.
+     * @param arg6 The sixth 64 bit integer argument.
+     * @param arg7 The seventh 64 bit integer argument.
+     * @param arg8 The eighth 64 bit integer argument.
+     * @param arg9 The ninth 64 bit integer argument.
+     * @param arg10 The tenth 64 bit integer argument.
      * @return A 64 bit integer value.
      */
-    public final long invokeLLLLLrL(Function function, long arg1, long arg2, long arg3, long arg4, long arg5) {
-        return Foreign.invokeL5(function.contextAddress, function.functionAddress, arg1, arg2, arg3, arg4, arg5);
+    public final long invokeL10(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, false, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL10(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10)
+                : Foreign.invokeL10(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
     }
 
     /**
-     * Invokes a function with six 64 bit integer arguments, and returns a 64 bit integer.
+     * Invokes a function with eleven 64 bit integer arguments, and returns a 64 bit integer value.
      *
-     * @param function The <code>Function</code> to invoke.
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
      * @param arg1 The first 64 bit integer argument.
      * @param arg2 The second 64 bit integer argument.
      * @param arg3 The third 64 bit integer argument.
      * @param arg4 The fourth 64 bit integer argument.
      * @param arg5 The fifth 64 bit integer argument.
      * @param arg6 The sixth 64 bit integer argument.
+     * @param arg7 The seventh 64 bit integer argument.
+     * @param arg8 The eighth 64 bit integer argument.
+     * @param arg9 The ninth 64 bit integer argument.
+     * @param arg10 The tenth 64 bit integer argument.
+     * @param arg11 The eleventh 64 bit integer argument.
      * @return A 64 bit integer value.
      */
-    public final long invokeLLLLLLrL(Function function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6) {
-        return Foreign.invokeL6(function.contextAddress, function.functionAddress, arg1, arg2, arg3, arg4, arg5, arg6);
-    }
+    public final long invokeL11(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10, long arg11) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, false, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11);
+        }
 
-    /**
-     * Invokes a function with no arguments, and returns a numeric value.
-     *
-     * @param context The <b>CallContext</b> describing how to invoke the function.
-     * @param function Address of the native function to invoke.
-     * @return A numeric value.
-     */
-    public final long invokeN0(CallContext context, long function) {
-        return Foreign.invokeN0(context.contextAddress, function);
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL11(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11)
+                : Foreign.invokeL11(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11);
     }
 
     /**
-     * Invokes a function with one numeric argument, and returns a numeric value.
+     * Invokes a function with twelve 64 bit integer arguments, and returns a 64 bit integer value.
      *
      * @param context The <b>CallContext</b> describing how to invoke the function.
      * @param function Address of the native function to invoke.
-     * @param arg1 The numeric argument.
+     * @param arg1 The first 64 bit integer argument.
+     * @param arg2 The second 64 bit integer argument.
+     * @param arg3 The third 64 bit integer argument.
+     * @param arg4 The fourth 64 bit integer argument.
+     * @param arg5 The fifth 64 bit integer argument.
+     * @param arg6 The sixth 64 bit integer argument.
+     * @param arg7 The seventh 64 bit integer argument.
+     * @param arg8 The eighth 64 bit integer argument.
+     * @param arg9 The ninth 64 bit integer argument.
+     * @param arg10 The tenth 64 bit integer argument.
+     * @param arg11 The eleventh 64 bit integer argument.
+     * @param arg12 The twelfth 64 bit integer argument.
+     * @return A 64 bit integer value.
+     */
+    public final long invokeL12(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10, long arg11, long arg12) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, false, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL12(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12)
+                : Foreign.invokeL12(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12);
+    }
+
+    public final long invokeL7NoErrno(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, true, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeL7(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7)
+                : Foreign.invokeL7NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+    }
+
+    public final long invokeL8NoErrno(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, true, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeL8(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8)
+                : Foreign.invokeL8NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+    }
+
+    public final long invokeL9NoErrno(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, true, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeL9(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9)
+                : Foreign.invokeL9NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+    }
+
+    public final long invokeL10NoErrno(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, true, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeL10(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10)
+                : Foreign.invokeL10NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+    }
+
+    public final long invokeL11NoErrno(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10, long arg11) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, true, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeL11(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11)
+                : Foreign.invokeL11NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11);
+    }
+
+    public final long invokeL12NoErrno(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10, long arg11, long arg12) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeL(context, function, true, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(true) : null;
+        return mh != null
+                ? DowncallSupport.invokeL12(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12)
+                : Foreign.invokeL12NoErrno(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12);
+    }
+
+
+    /**
+     * Invokes a function with no arguments, and returns a 64 bit integer.
+     *
+     * @param function The <code>Function</code> to invoke.
+     * @return A 64 bit integer value.
+     */
+    public final long invokeVrL(Function function) {
+        return Foreign.invokeL0(function.contextAddress, function.functionAddress);
+    }
+
+    /**
+     * Invokes a function with one 64 bit integer argument, and returns a 64 bit integer.
+     *
+     * @param function The <code>Function</code> to invoke.
+     * @param arg1 The 64 bit integer argument.
+     * @return A 64 bit integer value.
+     */
+    public final long invokeLrL(Function function, long arg1) {
+        return Foreign.invokeL1(function.contextAddress, function.functionAddress, arg1);
+    }
+    
+    /**
+     * Invokes a function with two 64 bit integer arguments, and returns a 64 bit integer.
+     *
+     * @param function The <code>Function</code> to invoke.
+     * @param arg1 The first 64 bit integer argument.
+     * @param arg2 The second 64 bit integer argument.
+     * @return A 64 bit integer value.
+     */
+    public final long invokeLLrL(Function function, long arg1, long arg2) {
+        return Foreign.invokeL2(function.contextAddress, function.functionAddress, arg1, arg2);
+    }
+
+    /**
+     * Invokes a function with three 64 bit integer arguments, and returns a 64 bit integer.
+     *
+     * @param function The <code>Function</code> to invoke.
+     * @param arg1 The first 64 bit integer argument.
+     * @param arg2 The second 64 bit integer argument.
+     * @param arg3 The third 64 bit integer argument.
+     * @return A 64 bit integer value.
+     */
+    public final long invokeLLLrL(Function function, long arg1, long arg2, long arg3) {
+        return Foreign.invokeL3(function.contextAddress, function.functionAddress, arg1, arg2, arg3);
+    }
+
+    /**
+     * Invokes a function with four 64 bit integer arguments, and returns a 64 bit integer.
+     *
+     * @param function The <code>Function</code> to invoke.
+     * @param arg1 The first 64 bit integer argument.
+     * @param arg2 The second 64 bit integer argument.
+     * @param arg3 The third 64 bit integer argument.
+     * @param arg4 The fourth 64 bit integer argument.
+     * @return A 64 bit integer value.
+     */
+    public final long invokeLLLLrL(Function function, long arg1, long arg2, long arg3, long arg4) {
+        return Foreign.invokeL4(function.contextAddress, function.functionAddress, arg1, arg2, arg3, arg4);
+    }
+
+    /**
+     * Invokes a function with five 64 bit integer arguments, and returns a 64 bit integer.
+     *
+     * @param function The <code>Function</code> to invoke.
+     * @param arg1 The first 64 bit integer argument.
+     * @param arg2 The second 64 bit integer argument.
+     * @param arg3 The third 64 bit integer argument.
+     * @param arg4 The fourth 64 bit integer argument.
+     * @param arg5 The fifth 64 bit integer argument.
+     * @return A 64 bit integer value.
+     */
+    public final long invokeLLLLLrL(Function function, long arg1, long arg2, long arg3, long arg4, long arg5) {
+        return Foreign.invokeL5(function.contextAddress, function.functionAddress, arg1, arg2, arg3, arg4, arg5);
+    }
+
+    /**
+     * Invokes a function with six 64 bit integer arguments, and returns a 64 bit integer.
+     *
+     * @param function The <code>Function</code> to invoke.
+     * @param arg1 The first 64 bit integer argument.
+     * @param arg2 The second 64 bit integer argument.
+     * @param arg3 The third 64 bit integer argument.
+     * @param arg4 The fourth 64 bit integer argument.
+     * @param arg5 The fifth 64 bit integer argument.
+     * @param arg6 The sixth 64 bit integer argument.
+     * @return A 64 bit integer value.
+     */
+    public final long invokeLLLLLLrL(Function function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6) {
+        return Foreign.invokeL6(function.contextAddress, function.functionAddress, arg1, arg2, arg3, arg4, arg5, arg6);
+    }
+
+    /**
+     * Invokes a function with no arguments, and returns a numeric value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @return A numeric value.
+     */
+    public final long invokeN0(CallContext context, long function) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeN(context, function);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL0(mh, function)
+                : Foreign.invokeN0(context.contextAddress, function);
+    }
+
+    /**
+     * Invokes a function with one numeric argument, and returns a numeric value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The numeric argument.
      * @return A numeric value.
      */
     public final long invokeN1(CallContext context, long function, long arg1) {
-        return Foreign.invokeN1(context.contextAddress, function, arg1);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeN(context, function, arg1);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL1(mh, function, arg1)
+                : Foreign.invokeN1(context.contextAddress, function, arg1);
     }
 
     /**
@@ -608,7 +1283,14 @@ public abstract class Invoker {
      * @return A numeric value.
      */
     public final long invokeN2(CallContext context, long function, long arg1, long arg2) {
-        return Foreign.invokeN2(context.contextAddress, function, arg1, arg2);
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeN(context, function, arg1, arg2);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL2(mh, function, arg1, arg2)
+                : Foreign.invokeN2(context.contextAddress, function, arg1, arg2);
     }
 
     /**
@@ -621,56 +1303,726 @@ public abstract class Invoker {
      * @param arg3 The third numeric argument.
      * @return A numeric value.
      */
-    public final long invokeN3(CallContext context, long function, long arg1, long arg2, long arg3) {
-        return Foreign.invokeN3(context.contextAddress, function, arg1, arg2, arg3);
+    public final long invokeN3(CallContext context, long function, long arg1, long arg2, long arg3) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeN(context, function, arg1, arg2, arg3);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL3(mh, function, arg1, arg2, arg3)
+                : Foreign.invokeN3(context.contextAddress, function, arg1, arg2, arg3);
+    }
+
+    /**
+     * Invokes a function with four numeric arguments, and returns a numeric value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first numeric argument.
+     * @param arg2 The second numeric argument.
+     * @param arg3 The third numeric argument.
+     * @param arg4 The fourth numeric argument.
+     * @return A numeric value.
+     */
+    public final long invokeN4(CallContext context, long function, long arg1, long arg2, long arg3, long arg4) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeN(context, function, arg1, arg2, arg3, arg4);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL4(mh, function, arg1, arg2, arg3, arg4)
+                : Foreign.invokeN4(context.contextAddress, function, arg1, arg2, arg3, arg4);
+    }
+
+    /**
+     * Invokes a function with five numeric arguments, and returns a numeric value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first numeric argument.
+     * @param arg2 The second numeric argument.
+     * @param arg3 The third numeric argument.
+     * @param arg4 The fourth numeric argument.
+     * @param arg5 The fifth numeric argument.
+     * @return A numeric value.
+     */
+    public final long invokeN5(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeN(context, function, arg1, arg2, arg3, arg4, arg5);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL5(mh, function, arg1, arg2, arg3, arg4, arg5)
+                : Foreign.invokeN5(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5);
+    }
+
+    /**
+     * Invokes a function with six numeric arguments, and returns a numeric value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first numeric argument.
+     * @param arg2 The second numeric argument.
+     * @param arg3 The third numeric argument.
+     * @param arg4 The fourth numeric argument.
+     * @param arg5 The fifth numeric argument.
+     * @param arg6 The sixth numeric argument.
+     * @return A numeric value.
+     */
+    public final long invokeN6(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeN(context, function, arg1, arg2, arg3, arg4, arg5, arg6);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL6(mh, function, arg1, arg2, arg3, arg4, arg5, arg6)
+                : Foreign.invokeN6(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6);
+    }
+
+    /**
+     * Invokes a function with seven numeric arguments, and returns a numeric value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first numeric argument.
+     * @param arg2 The second numeric argument.
+     * @param arg3 The third numeric argument.
+     * @param arg4 The fourth numeric argument.
+     * @param arg5 The fifth numeric argument.
+     * @param arg6 The sixth numeric argument.
+     * @param arg7 The seventh numeric argument.
+     * @return A numeric value.
+     */
+    public final long invokeN7(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeN(context, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL7(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7)
+                : Foreign.invokeN7(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+    }
+
+    /**
+     * Invokes a function with eight numeric arguments, and returns a numeric value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first numeric argument.
+     * @param arg2 The second numeric argument.
+     * @param arg3 The third numeric argument.
+     * @param arg4 The fourth numeric argument.
+     * @param arg5 The fifth numeric argument.
+     * @param arg6 The sixth numeric argument.
+     * @param arg7 The seventh numeric argument.
+     * @param arg8 The eighth numeric argument.
+     * @return A numeric value.
+     */
+    public final long invokeN8(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeN(context, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL8(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8)
+                : Foreign.invokeN8(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+    }
+
+    /**
+     * Invokes a function with nine numeric arguments, and returns a numeric value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first numeric argument.
+     * @param arg2 The second numeric argument.
+     * @param arg3 The third numeric argument.
+     * @param arg4 The fourth numeric argument.
+     * @param arg5 The fifth numeric argument.
+     * @param arg6 The sixth numeric argument.
+     * @param arg7 The seventh numeric argument.
+     * @param arg8 The eighth numeric argument.
+     * @param arg9 The ninth numeric argument.
+     * @return A numeric value.
+     */
+    public final long invokeN9(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeN(context, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL9(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9)
+                : Foreign.invokeN9(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+    }
+
+    /**
+     * Invokes a function with ten numeric arguments, and returns a numeric value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first numeric argument.
+     * @param arg2 The second numeric argument.
+     * @param arg3 The third numeric argument.
+     * @param arg4 The fourth numeric argument.
+     * @param arg5 The fifth numeric argument.
+     * @param arg6 The sixth numeric argument.
+     * @param arg7 The seventh numeric argument.
+     * @param arg8 The eighth numeric argument.
+     * @param arg9 The ninth numeric argument.
+     * @param arg10 The tenth numeric argument.
+     * @return A numeric value.
+     */
+    public final long invokeN10(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeN(context, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL10(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10)
+                : Foreign.invokeN10(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+    }
+
+    /**
+     * Invokes a function with eleven numeric arguments, and returns a numeric value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first numeric argument.
+     * @param arg2 The second numeric argument.
+     * @param arg3 The third numeric argument.
+     * @param arg4 The fourth numeric argument.
+     * @param arg5 The fifth numeric argument.
+     * @param arg6 The sixth numeric argument.
+     * @param arg7 The seventh numeric argument.
+     * @param arg8 The eighth numeric argument.
+     * @param arg9 The ninth numeric argument.
+     * @param arg10 The tenth numeric argument.
+     * @param arg11 The eleventh numeric argument.
+     * @return A numeric value.
+     */
+    public final long invokeN11(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10, long arg11) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeN(context, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL11(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11)
+                : Foreign.invokeN11(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11);
+    }
+
+    /**
+     * Invokes a function with twelve numeric arguments, and returns a numeric value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first numeric argument.
+     * @param arg2 The second numeric argument.
+     * @param arg3 The third numeric argument.
+     * @param arg4 The fourth numeric argument.
+     * @param arg5 The fifth numeric argument.
+     * @param arg6 The sixth numeric argument.
+     * @param arg7 The seventh numeric argument.
+     * @param arg8 The eighth numeric argument.
+     * @param arg9 The ninth numeric argument.
+     * @param arg10 The tenth numeric argument.
+     * @param arg11 The eleventh numeric argument.
+     * @param arg12 The twelfth numeric argument.
+     * @return A numeric value.
+     */
+    public final long invokeN12(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6, long arg7, long arg8, long arg9, long arg10, long arg11, long arg12) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeN(context, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12);
+        }
+
+        MethodHandle mh = DowncallSupport.ENABLED ? context.getLongDowncall(false) : null;
+        return mh != null
+                ? DowncallSupport.invokeL12(mh, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12)
+                : Foreign.invokeN12(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12);
+    }
+
+    /**
+     * Invokes a function with no float arguments, and returns a float value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.  All parameters must be of type float.
+     * @param function Address of the native function to invoke.
+     * @return A float value.
+     */
+    public final float invokeF0(CallContext context, long function) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeF(context, function);
+        }
+
+        return Foreign.invokeF0(context.contextAddress, function);
+    }
+
+    /**
+     * Invokes a function with one float argument, and returns a float value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.  All parameters must be of type float.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The float argument.
+     * @return A float value.
+     */
+    public final float invokeF1(CallContext context, long function, float arg1) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeF(context, function, arg1);
+        }
+
+        return Foreign.invokeF1(context.contextAddress, function, arg1);
+    }
+
+    /**
+     * Invokes a function with two float arguments, and returns a float value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.  All parameters must be of type float.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first float argument.
+     * @param arg2 The second float argument.
+     * @return A float value.
+     */
+    public final float invokeF2(CallContext context, long function, float arg1, float arg2) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeF(context, function, arg1, arg2);
+        }
+
+        return Foreign.invokeF2(context.contextAddress, function, arg1, arg2);
+    }
+
+    /**
+     * Invokes a function with three float arguments, and returns a float value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.  All parameters must be of type float.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first float argument.
+     * @param arg2 The second float argument.
+     * @param arg3 The third float argument.
+     * @return A float value.
+     */
+    public final float invokeF3(CallContext context, long function, float arg1, float arg2, float arg3) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeF(context, function, arg1, arg2, arg3);
+        }
+
+        return Foreign.invokeF3(context.contextAddress, function, arg1, arg2, arg3);
+    }
+
+    /**
+     * Invokes a function with four float arguments, and returns a float value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.  All parameters must be of type float.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first float argument.
+     * @param arg2 The second float argument.
+     * @param arg3 The third float argument.
+     * @param arg4 The fourth float argument.
+     * @return A float value.
+     */
+    public final float invokeF4(CallContext context, long function, float arg1, float arg2, float arg3, float arg4) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeF(context, function, arg1, arg2, arg3, arg4);
+        }
+
+        return Foreign.invokeF4(context.contextAddress, function, arg1, arg2, arg3, arg4);
+    }
+
+    /**
+     * Invokes a function with five float arguments, and returns a float value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.  All parameters must be of type float.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first float argument.
+     * @param arg2 The second float argument.
+     * @param arg3 The third float argument.
+     * @param arg4 The fourth float argument.
+     * @param arg5 The fifth float argument.
+     * @return A float value.
+     */
+    public final float invokeF5(CallContext context, long function, float arg1, float arg2, float arg3, float arg4, float arg5) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeF(context, function, arg1, arg2, arg3, arg4, arg5);
+        }
+
+        return Foreign.invokeF5(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5);
+    }
+
+    /**
+     * Invokes a function with six float arguments, and returns a float value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.  All parameters must be of type float.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first float argument.
+     * @param arg2 The second float argument.
+     * @param arg3 The third float argument.
+     * @param arg4 The fourth float argument.
+     * @param arg5 The fifth float argument.
+     * @param arg6 The sixth float argument.
+     * @return A float value.
+     */
+    public final float invokeF6(CallContext context, long function, float arg1, float arg2, float arg3, float arg4, float arg5, float arg6) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeF(context, function, arg1, arg2, arg3, arg4, arg5, arg6);
+        }
+
+        return Foreign.invokeF6(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6);
+    }
+
+    /**
+     * Invokes a function with no double arguments, and returns a double value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.  All parameters must be of type double.
+     * @param function Address of the native function to invoke.
+     * @return A double value.
+     */
+    public final double invokeD0(CallContext context, long function) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeD(context, function);
+        }
+
+        return Foreign.invokeD0(context.contextAddress, function);
+    }
+
+    /**
+     * Invokes a function with one double argument, and returns a double value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.  All parameters must be of type double.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The double argument.
+     * @return A double value.
+     */
+    public final double invokeD1(CallContext context, long function, double arg1) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeD(context, function, arg1);
+        }
+
+        return Foreign.invokeD1(context.contextAddress, function, arg1);
+    }
+
+    /**
+     * Invokes a function with two double arguments, and returns a double value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.  All parameters must be of type double.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first double argument.
+     * @param arg2 The second double argument.
+     * @return A double value.
+     */
+    public final double invokeD2(CallContext context, long function, double arg1, double arg2) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeD(context, function, arg1, arg2);
+        }
+
+        return Foreign.invokeD2(context.contextAddress, function, arg1, arg2);
+    }
+
+    /**
+     * Invokes a function with three double arguments, and returns a double value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.  All parameters must be of type double.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first double argument.
+     * @param arg2 The second double argument.
+     * @param arg3 The third double argument.
+     * @return A double value.
+     */
+    public final double invokeD3(CallContext context, long function, double arg1, double arg2, double arg3) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeD(context, function, arg1, arg2, arg3);
+        }
+
+        return Foreign.invokeD3(context.contextAddress, function, arg1, arg2, arg3);
+    }
+
+    /**
+     * Invokes a function with four double arguments, and returns a double value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.  All parameters must be of type double.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first double argument.
+     * @param arg2 The second double argument.
+     * @param arg3 The third double argument.
+     * @param arg4 The fourth double argument.
+     * @return A double value.
+     */
+    public final double invokeD4(CallContext context, long function, double arg1, double arg2, double arg3, double arg4) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeD(context, function, arg1, arg2, arg3, arg4);
+        }
+
+        return Foreign.invokeD4(context.contextAddress, function, arg1, arg2, arg3, arg4);
+    }
+
+    /**
+     * Invokes a function with five double arguments, and returns a double value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.  All parameters must be of type double.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first double argument.
+     * @param arg2 The second double argument.
+     * @param arg3 The third double argument.
+     * @param arg4 The fourth double argument.
+     * @param arg5 The fifth double argument.
+     * @return A double value.
+     */
+    public final double invokeD5(CallContext context, long function, double arg1, double arg2, double arg3, double arg4, double arg5) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeD(context, function, arg1, arg2, arg3, arg4, arg5);
+        }
+
+        return Foreign.invokeD5(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5);
+    }
+
+    /**
+     * Invokes a function with six double arguments, and returns a double value.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.  All parameters must be of type double.
+     * @param function Address of the native function to invoke.
+     * @param arg1 The first double argument.
+     * @param arg2 The second double argument.
+     * @param arg3 The third double argument.
+     * @param arg4 The fourth double argument.
+     * @param arg5 The fifth double argument.
+     * @param arg6 The sixth double argument.
+     * @return A double value.
+     */
+    public final double invokeD6(CallContext context, long function, double arg1, double arg2, double arg3, double arg4, double arg5, double arg6) {
+        if (context.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeD(context, function, arg1, arg2, arg3, arg4, arg5, arg6);
+        }
+
+        return Foreign.invokeD6(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6);
+    }
+
+    /**
+     * Invokes a function with no numeric or struct arguments, without a heap buffer.
+     *
+     * Struct parameters are passed as the native address of the struct value.  If the function returns
+     * a struct, the result is copied to <tt>returnAddress</tt>, which must hold at least
+     * {@link CallContext#getReturnType()}.size() bytes.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param returnAddress The native memory to store a struct result in, or 0 for non-struct results.
+     * @return <tt>returnAddress</tt> for a struct result, otherwise a numeric value.
+     */
+    public final long invokeS0(CallContext context, long function, long returnAddress) {
+        return Foreign.invokeS0(context.contextAddress, function, returnAddress);
+    }
+
+    /**
+     * Invokes a function with one numeric or struct argument, without a heap buffer.
+     *
+     * Struct parameters are passed as the native address of the struct value.  If the function returns
+     * a struct, the result is copied to <tt>returnAddress</tt>, which must hold at least
+     * {@link CallContext#getReturnType()}.size() bytes.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param returnAddress The native memory to store a struct result in, or 0 for non-struct results.
+     * @param arg1 The numeric value or struct address.
+     * @return <tt>returnAddress</tt> for a struct result, otherwise a numeric value.
+     */
+    public final long invokeS1(CallContext context, long function, long returnAddress, long arg1) {
+        return Foreign.invokeS1(context.contextAddress, function, returnAddress, arg1);
+    }
+
+    /**
+     * Invokes a function with two numeric or struct arguments, without a heap buffer.
+     *
+     * Struct parameters are passed as the native address of the struct value.  If the function returns
+     * a struct, the result is copied to <tt>returnAddress</tt>, which must hold at least
+     * {@link CallContext#getReturnType()}.size() bytes.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param returnAddress The native memory to store a struct result in, or 0 for non-struct results.
+     * @param arg1 The first numeric value or struct address.
+     * @param arg2 The second numeric value or struct address.
+     * @return <tt>returnAddress</tt> for a struct result, otherwise a numeric value.
+     */
+    public final long invokeS2(CallContext context, long function, long returnAddress, long arg1, long arg2) {
+        return Foreign.invokeS2(context.contextAddress, function, returnAddress, arg1, arg2);
+    }
+
+    /**
+     * Invokes a function with three numeric or struct arguments, without a heap buffer.
+     *
+     * Struct parameters are passed as the native address of the struct value.  If the function returns
+     * a struct, the result is copied to <tt>returnAddress</tt>, which must hold at least
+     * {@link CallContext#getReturnType()}.size() bytes.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param returnAddress The native memory to store a struct result in, or 0 for non-struct results.
+     * @param arg1 The first numeric value or struct address.
+     * @param arg2 The second numeric value or struct address.
+     * @param arg3 The third numeric value or struct address.
+     * @return <tt>returnAddress</tt> for a struct result, otherwise a numeric value.
+     */
+    public final long invokeS3(CallContext context, long function, long returnAddress, long arg1, long arg2, long arg3) {
+        return Foreign.invokeS3(context.contextAddress, function, returnAddress, arg1, arg2, arg3);
+    }
+
+    /**
+     * Invokes a function with four numeric or struct arguments, without a heap buffer.
+     *
+     * Struct parameters are passed as the native address of the struct value.  If the function returns
+     * a struct, the result is copied to <tt>returnAddress</tt>, which must hold at least
+     * {@link CallContext#getReturnType()}.size() bytes.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param returnAddress The native memory to store a struct result in, or 0 for non-struct results.
+     * @param arg1 The first numeric value or struct address.
+     * @param arg2 The second numeric value or struct address.
+     * @param arg3 The third numeric value or struct address.
+     * @param arg4 The fourth numeric value or struct address.
+     * @return <tt>returnAddress</tt> for a struct result, otherwise a numeric value.
+     */
+    public final long invokeS4(CallContext context, long function, long returnAddress, long arg1, long arg2, long arg3, long arg4) {
+        return Foreign.invokeS4(context.contextAddress, function, returnAddress, arg1, arg2, arg3, arg4);
+    }
+
+    /**
+     * Invokes a function with five numeric or struct arguments, without a heap buffer.
+     *
+     * Struct parameters are passed as the native address of the struct value.  If the function returns
+     * a struct, the result is copied to <tt>returnAddress</tt>, which must hold at least
+     * {@link CallContext#getReturnType()}.size() bytes.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param returnAddress The native memory to store a struct result in, or 0 for non-struct results.
+     * @param arg1 The first numeric value or struct address.
+     * @param arg2 The second numeric value or struct address.
+     * @param arg3 The third numeric value or struct address.
+     * @param arg4 The fourth numeric value or struct address.
+     * @param arg5 The fifth numeric value or struct address.
+     * @return <tt>returnAddress</tt> for a struct result, otherwise a numeric value.
+     */
+    public final long invokeS5(CallContext context, long function, long returnAddress, long arg1, long arg2, long arg3, long arg4, long arg5) {
+        return Foreign.invokeS5(context.contextAddress, function, returnAddress, arg1, arg2, arg3, arg4, arg5);
+    }
+
+    /**
+     * Invokes a function with six numeric or struct arguments, without a heap buffer.
+     *
+     * Struct parameters are passed as the native address of the struct value.  If the function returns
+     * a struct, the result is copied to <tt>returnAddress</tt>, which must hold at least
+     * {@link CallContext#getReturnType()}.size() bytes.
+     *
+     * @param context The <b>CallContext</b> describing how to invoke the function.
+     * @param function Address of the native function to invoke.
+     * @param returnAddress The native memory to store a struct result in, or 0 for non-struct results.
+     * @param arg1 The first numeric value or struct address.
+     * @param arg2 The second numeric value or struct address.
+     * @param arg3 The third numeric value or struct address.
+     * @param arg4 The fourth numeric value or struct address.
+     * @param arg5 The fifth numeric value or struct address.
+     * @param arg6 The sixth numeric value or struct address.
+     * @return <tt>returnAddress</tt> for a struct result, otherwise a numeric value.
+     */
+    public final long invokeS6(CallContext context, long function, long returnAddress, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6) {
+        return Foreign.invokeS6(context.contextAddress, function, returnAddress, arg1, arg2, arg3, arg4, arg5, arg6);
+    }
+
+    /**
+     * Invokes a function <tt>count</tt> times from a single native call.
+     *
+     * Every call takes its parameters from a row of 64 bit slots in native memory, packed the same
+     * way as for {@link #invokeN1}: integer values sign or zero extended, float and double values as
+     * their raw bits, and struct values as the address of the struct.  Each result is stored as a
+     * 64 bit value in the same form.
+     *
+     * @param function The <b>Function</b> to invoke.
+     * @param argBlockAddress The native address of the first row of parameters.
+     * @param stride The distance in bytes between rows of parameters.
+     * @param count The number of times to call the function.
+     * @param resultAddress The native memory to store <tt>count</tt> results in, or 0 to discard them.
+     */
+    public final void invokeBatch(Function function, long argBlockAddress, int stride, int count, long resultAddress) {
+        invokeBatch(function.getCallContext(), function.getFunctionAddress(), argBlockAddress, stride, count, resultAddress);
     }
 
     /**
-     * Invokes a function with four numeric arguments, and returns a numeric value.
+     * Invokes a function <tt>count</tt> times from a single native call.
      *
      * @param context The <b>CallContext</b> describing how to invoke the function.
      * @param function Address of the native function to invoke.
-     * @param arg1 The first numeric argument.
-     * @param arg2 The second numeric argument.
-     * @param arg3 The third numeric argument.
-     * @param arg4 The fourth numeric argument.
-     * @return A numeric value.
+     * @param argBlockAddress The native address of the first row of parameters.
+     * @param stride The distance in bytes between rows of parameters.
+     * @param count The number of times to call the function.
+     * @param resultAddress The native memory to store <tt>count</tt> results in, or 0 to discard them.
+     * @see #invokeBatch(Function, long, int, int, long)
      */
-    public final long invokeN4(CallContext context, long function, long arg1, long arg2, long arg3, long arg4) {
-        return Foreign.invokeN4(context.contextAddress, function, arg1, arg2, arg3, arg4);
+    public final void invokeBatch(CallContext context, long function, long argBlockAddress, int stride, int count, long resultAddress) {
+        checkBatch(context, count);
+        if (stride < context.getParameterCount() * 8) {
+            throw new IllegalArgumentException("stride " + stride + " is too small for "
+                    + context.getParameterCount() + " parameters");
+        }
+
+        Foreign.invokeBatch(context.contextAddress, function, argBlockAddress, stride, count, resultAddress);
     }
 
     /**
-     * Invokes a function with five numeric arguments, and returns a numeric value.
+     * Invokes a function <tt>count</tt> times from a single native call, taking the parameters of
+     * each call from the next row of {@link CallContext#getParameterCount()} elements of <tt>args</tt>.
      *
-     * @param context The <b>CallContext</b> describing how to invoke the function.
-     * @param function Address of the native function to invoke.
-     * @param arg1 The first numeric argument.
-     * @param arg2 The second numeric argument.
-     * @param arg3 The third numeric argument.
-     * @param arg4 The fourth numeric argument.
-     * @param arg5 The fifth numeric argument.
-     * @return A numeric value.
+     * @param function The <b>Function</b> to invoke.
+     * @param args The parameters of every call, packed as for {@link #invokeBatch(Function, long, int, int, long)}.
+     * @param count The number of times to call the function.
+     * @param results The array to store each result in, or null to discard them.
      */
-    public final long invokeN5(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5) {
-        return Foreign.invokeN5(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5);
+    public final void invokeBatch(Function function, long[] args, int count, long[] results) {
+        invokeBatch(function.getCallContext(), function.getFunctionAddress(), args, count, results);
     }
 
     /**
-     * Invokes a function with six numeric arguments, and returns a numeric value.
+     * Invokes a function <tt>count</tt> times from a single native call, taking the parameters of
+     * each call from the next row of {@link CallContext#getParameterCount()} elements of <tt>args</tt>.
      *
      * @param context The <b>CallContext</b> describing how to invoke the function.
      * @param function Address of the native function to invoke.
-     * @param arg1 The first numeric argument.
-     * @param arg2 The second numeric argument.
-     * @param arg3 The third numeric argument.
-     * @param arg4 The fourth numeric argument.
-     * @param arg5 The fifth numeric argument.
-     * @param arg6 The sixth numeric argument.
-     * @return A numeric value.
+     * @param args The parameters of every call, packed as for {@link #invokeBatch(Function, long, int, int, long)}.
+     * @param count The number of times to call the function.
+     * @param results The array to store each result in, or null to discard them.
      */
-    public final long invokeN6(CallContext context, long function, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6) {
-        return Foreign.invokeN6(context.contextAddress, function, arg1, arg2, arg3, arg4, arg5, arg6);
+    public final void invokeBatch(CallContext context, long function, long[] args, int count, long[] results) {
+        checkBatch(context, count);
+        if ((long) count * context.getParameterCount() > args.length) {
+            throw new ArrayIndexOutOfBoundsException("parameter array too short for " + count + " calls");
+        }
+
+        if (results != null && results.length < count) {
+            throw new ArrayIndexOutOfBoundsException("result array too short for " + count + " calls");
+        }
+
+        Foreign.invokeBatchArray(context.contextAddress, function, args, count, results);
+    }
+
+    private static void checkBatch(CallContext context, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("negative call count " + count);
+        }
+
+        if (context.getReturnType().type() == Foreign.TYPE_STRUCT
+                || context.getReturnType().type() == Foreign.TYPE_LONGDOUBLE) {
+            throw new IllegalArgumentException("batch invocation does not support struct or long double results");
+        }
+
+        for (int i = 0; i < context.getParameterCount(); i++) {
+            if (context.getParameterType(i).type() == Foreign.TYPE_LONGDOUBLE) {
+                throw new IllegalArgumentException("batch invocation does not support long double parameters");
+            }
+        }
     }
 
     /**
@@ -1938,8 +3290,12 @@ public abstract class Invoker {
      * @return A native memory address.
      */
     public final int invokeInt(CallContext ctx, long function, HeapInvocationBuffer buffer) {
+        if (ctx.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeInt(ctx, function, buffer);
+        }
+
         ObjectBuffer objectBuffer = buffer.objectBuffer();
-        return objectBuffer != null
+        return objectBuffer != null && objectBuffer.objectCount() > 0
                 ? invokeArrayWithObjectsInt32(ctx.contextAddress, function, buffer, objectBuffer)
                 : Foreign.invokeArrayReturnInt(ctx.contextAddress, function, buffer.array());
     }
@@ -1964,8 +3320,12 @@ public abstract class Invoker {
      * @return A native memory address.
      */
     public final long invokeLong(CallContext ctx, long function, HeapInvocationBuffer buffer) {
+        if (ctx.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeLong(ctx, function, buffer);
+        }
+
         ObjectBuffer objectBuffer = buffer.objectBuffer();
-        return objectBuffer != null
+        return objectBuffer != null && objectBuffer.objectCount() > 0
                 ? invokeArrayWithObjectsInt64(ctx.contextAddress, function, buffer, objectBuffer)
                 : Foreign.invokeArrayReturnLong(ctx.contextAddress, function, buffer.array());
     }
@@ -1990,8 +3350,12 @@ public abstract class Invoker {
      * @return A native memory address.
      */
     public final float invokeFloat(CallContext ctx, long function, HeapInvocationBuffer buffer) {
+        if (ctx.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeFloat(ctx, function, buffer);
+        }
+
         ObjectBuffer objectBuffer = buffer.objectBuffer();
-        return objectBuffer != null
+        return objectBuffer != null && objectBuffer.objectCount() > 0
             ? Foreign.invokeArrayWithObjectsFloat(ctx.contextAddress, function, buffer.array(), objectBuffer.objectCount(), objectBuffer.info(), objectBuffer.objects())
             : Foreign.invokeArrayReturnFloat(ctx.contextAddress, function, buffer.array());
     }
@@ -2017,8 +3381,12 @@ public abstract class Invoker {
      * @return A native memory address.
      */
     public final double invokeDouble(CallContext ctx, long function, HeapInvocationBuffer buffer) {
+        if (ctx.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeDouble(ctx, function, buffer);
+        }
+
         ObjectBuffer objectBuffer = buffer.objectBuffer();
-        return objectBuffer != null
+        return objectBuffer != null && objectBuffer.objectCount() > 0
             ? Foreign.invokeArrayWithObjectsDouble(ctx.contextAddress, function, buffer.array(), objectBuffer.objectCount(), objectBuffer.info(), objectBuffer.objects())
             : Foreign.invokeArrayReturnDouble(ctx.contextAddress, function, buffer.array());
     }
@@ -2043,7 +3411,9 @@ public abstract class Invoker {
      */
     public final BigDecimal invokeBigDecimal(CallContext ctx, long function, HeapInvocationBuffer buffer) {
         byte[] rval = invokeStruct(ctx, function, buffer);
-        return new BigDecimal(foreign.longDoubleToString(rval, 0, rval.length));
+        return LongDouble.isSupported()
+                ? LongDouble.toBigDecimal(rval, 0)
+                : new BigDecimal(foreign.longDoubleToString(rval, 0, rval.length));
     }
 
     /**
@@ -2066,6 +3436,10 @@ public abstract class Invoker {
      * @return A byte array with the return value encoded in native byte order.
      */
     public final byte[] invokeStruct(CallContext ctx, long function, HeapInvocationBuffer buffer) {
+        if (ctx.mayBlock && BlockingSupport.isVirtualThread()) {
+            return BlockingSupport.invokeStruct(ctx, function, buffer);
+        }
+
         byte[] returnBuffer = new byte[ctx.getReturnType().size()];
         invokeStruct(ctx, function, buffer, returnBuffer, 0);
 
@@ -2095,7 +3469,7 @@ public abstract class Invoker {
      */
     public final void invokeStruct(CallContext ctx, long function, HeapInvocationBuffer buffer, byte[] returnBuffer, int offset) {
         ObjectBuffer objectBuffer = buffer.objectBuffer();
-        if (objectBuffer != null) {
+        if (objectBuffer != null && objectBuffer.objectCount() > 0) {
             Foreign.invokeArrayWithObjectsReturnStruct(ctx.contextAddress, function,
                     buffer.array(), objectBuffer.objectCount(), objectBuffer.info(), objectBuffer.objects(),
                     returnBuffer, offset);
@@ -2104,6 +3478,320 @@ public abstract class Invoker {
         }
     }
 
+    /**
+     * Invokes a function that returns a C struct by value, storing the struct in native memory.
+     *
+     * @param function The <code>Function</code> to invoke.
+     * @param buffer The parameter buffer.
+     * @param returnAddress The native memory to place the return value in.
+     */
+    public final void invokeStruct(Function function, HeapInvocationBuffer buffer, long returnAddress) {
+        invokeStruct(function.getCallContext(), function.getFunctionAddress(), buffer, returnAddress);
+    }
+
+    /**
+     * Invokes a function that returns a C struct by value, storing the struct in native memory.
+     *
+     * @param ctx The call context which describes how to call the native function.
+     * @param function The address of the native function to invoke.
+     * @param buffer The parameter buffer.
+     * @param returnAddress The native memory to place the return value in.  It must have room for
+     * the whole struct.
+     */
+    public final void invokeStruct(CallContext ctx, long function, HeapInvocationBuffer buffer, long returnAddress) {
+        if (returnAddress == 0L) {
+            throw new NullPointerException("null return address");
+        }
+
+        ObjectBuffer objectBuffer = buffer.objectBuffer();
+        if (objectBuffer != null && objectBuffer.objectCount() > 0) {
+            Foreign.invokeArrayWithObjectsReturnStructAddress(ctx.contextAddress, function,
+                    buffer.array(), objectBuffer.objectCount(), objectBuffer.info(), objectBuffer.objects(),
+                    returnAddress);
+        } else {
+            Foreign.invokeArrayWithObjectsReturnStructAddress(ctx.contextAddress, function, buffer.array(), 0, null, null,
+                    returnAddress);
+        }
+    }
+
+    /**
+     * Invokes a function that returns a C struct by value, storing the struct at the position of a buffer.
+     * The position of the buffer is not changed.
+     *
+     * @param ctx The call context which describes how to call the native function.
+     * @param function The address of the native function to invoke.
+     * @param buffer The parameter buffer.
+     * @param returnBuffer A direct or array backed buffer to place the return value in.
+     */
+    public final void invokeStruct(CallContext ctx, long function, HeapInvocationBuffer buffer, ByteBuffer returnBuffer) {
+        checkStructReturnBuffer(ctx, returnBuffer);
+        if (returnBuffer.isDirect()) {
+            invokeStruct(ctx, function, buffer, MemoryIO.getInstance().getDirectBufferAddress(returnBuffer) + returnBuffer.position());
+        } else {
+            invokeStruct(ctx, function, buffer, returnBuffer.array(), returnBuffer.arrayOffset() + returnBuffer.position());
+        }
+    }
+
+    private static void checkStructReturnBuffer(CallContext ctx, ByteBuffer returnBuffer) {
+        if (returnBuffer.remaining() < ctx.getReturnType().size()) {
+            throw new IndexOutOfBoundsException("return buffer has " + returnBuffer.remaining()
+                    + " bytes remaining, struct is " + ctx.getReturnType().size() + " bytes");
+        }
+
+        if (returnBuffer.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+
+        if (!returnBuffer.isDirect() && !returnBuffer.hasArray()) {
+            throw new IllegalArgumentException("return buffer must be direct or have an array");
+        }
+    }
+
+    /**
+     * Invokes a function and returns a native memory address.
+     *
+     * @param function The <code>Function</code> to invoke.
+     * @param buffer A buffer containing the arguments to the function.
+     * @return A native memory address.
+     */
+    public final long invokeAddress(Function function, DirectInvocationBuffer buffer) {
+        return invokeAddress(function.getCallContext(), function.getFunctionAddress(), buffer);
+    }
+
+    /**
+     * Invokes a function and returns a native memory address.
+     *
+     * @param ctx The call context which describes how to call the native function.
+     * @param function The address of the native function to invoke.
+     * @param buffer A buffer containing the arguments to the function.
+     * @return A native memory address.
+     */
+    public long invokeAddress(CallContext ctx, long function, DirectInvocationBuffer buffer) {
+        return Platform.getPlatform().addressSize() == 32
+                ? ((long) invokeInt(ctx, function, buffer)) & 0xffffffffL
+                : invokeLong(ctx, function, buffer);
+    }
+
+    /**
+     * Invokes a function and returns a 32 bit integer value.
+     *
+     * @param function The <code>Function</code> to invoke.
+     * @param buffer A buffer containing the arguments to the function.
+     * @return A 32 bit integer value.
+     */
+    public final int invokeInt(Function function, DirectInvocationBuffer buffer) {
+        return invokeInt(function.getCallContext(), function.getFunctionAddress(), buffer);
+    }
+
+    /**
+     * Invokes a function and returns a 32 bit integer value.
+     *
+     * @param ctx The call context which describes how to call the native function.
+     * @param function The address of the native function to invoke.
+     * @param buffer A buffer containing the arguments to the function.
+     * @return A 32 bit integer value.
+     */
+    public final int invokeInt(CallContext ctx, long function, DirectInvocationBuffer buffer) {
+        ObjectBuffer objectBuffer = buffer.objectBuffer();
+        try {
+            return objectBuffer != null && objectBuffer.objectCount() > 0
+                    ? Foreign.invokeDirectInt32(ctx.contextAddress, function, buffer.address(ctx), buffer.memory(),
+                            objectBuffer.objectCount(), objectBuffer.info(), objectBuffer.objects())
+                    : Foreign.invokeDirectInt32(ctx.contextAddress, function, buffer.address(ctx), buffer.memory(), 0, null, null);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Invokes a function and returns a 64 bit integer value.
+     *
+     * @param function The <code>Function</code> to invoke.
+     * @param buffer A buffer containing the arguments to the function.
+     * @return A 64 bit integer value.
+     */
+    public final long invokeLong(Function function, DirectInvocationBuffer buffer) {
+        return invokeLong(function.getCallContext(), function.getFunctionAddress(), buffer);
+    }
+
+    /**
+     * Invokes a function and returns a 64 bit integer value.
+     *
+     * @param ctx The call context which describes how to call the native function.
+     * @param function The address of the native function to invoke.
+     * @param buffer A buffer containing the arguments to the function.
+     * @return A 64 bit integer value.
+     */
+    public final long invokeLong(CallContext ctx, long function, DirectInvocationBuffer buffer) {
+        ObjectBuffer objectBuffer = buffer.objectBuffer();
+        try {
+            return objectBuffer != null && objectBuffer.objectCount() > 0
+                    ? Foreign.invokeDirectInt64(ctx.contextAddress, function, buffer.address(ctx), buffer.memory(),
+                            objectBuffer.objectCount(), objectBuffer.info(), objectBuffer.objects())
+                    : Foreign.invokeDirectInt64(ctx.contextAddress, function, buffer.address(ctx), buffer.memory(), 0, null, null);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Invokes a function and returns a 32 bit floating point value.
+     *
+     * @param function The <code>Function</code> to invoke.
+     * @param buffer A buffer containing the arguments to the function.
+     * @return A 32 bit floating point value.
+     */
+    public final float invokeFloat(Function function, DirectInvocationBuffer buffer) {
+        return invokeFloat(function.getCallContext(), function.getFunctionAddress(), buffer);
+    }
+
+    /**
+     * Invokes a function and returns a 32 bit floating point value.
+     *
+     * @param ctx The call context which describes how to call the native function.
+     * @param function The address of the native function to invoke.
+     * @param buffer A buffer containing the arguments to the function.
+     * @return A 32 bit floating point value.
+     */
+    public final float invokeFloat(CallContext ctx, long function, DirectInvocationBuffer buffer) {
+        ObjectBuffer objectBuffer = buffer.objectBuffer();
+        try {
+            return objectBuffer != null && objectBuffer.objectCount() > 0
+                    ? Foreign.invokeDirectFloat(ctx.contextAddress, function, buffer.address(ctx), buffer.memory(),
+                            objectBuffer.objectCount(), objectBuffer.info(), objectBuffer.objects())
+                    : Foreign.invokeDirectFloat(ctx.contextAddress, function, buffer.address(ctx), buffer.memory(), 0, null, null);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Invokes a function and returns a 64 bit floating point value.
+     *
+     * @param function The <code>Function</code> to invoke.
+     * @param buffer A buffer containing the arguments to the function.
+     * @return A 64 bit floating point value.
+     */
+    public final double invokeDouble(Function function, DirectInvocationBuffer buffer) {
+        return invokeDouble(function.getCallContext(), function.getFunctionAddress(), buffer);
+    }
+
+    /**
+     * Invokes a function and returns a 64 bit floating point value.
+     *
+     * @param ctx The call context which describes how to call the native function.
+     * @param function The address of the native function to invoke.
+     * @param buffer A buffer containing the arguments to the function.
+     * @return A 64 bit floating point value.
+     */
+    public final double invokeDouble(CallContext ctx, long function, DirectInvocationBuffer buffer) {
+        ObjectBuffer objectBuffer = buffer.objectBuffer();
+        try {
+            return objectBuffer != null && objectBuffer.objectCount() > 0
+                    ? Foreign.invokeDirectDouble(ctx.contextAddress, function, buffer.address(ctx), buffer.memory(),
+                            objectBuffer.objectCount(), objectBuffer.info(), objectBuffer.objects())
+                    : Foreign.invokeDirectDouble(ctx.contextAddress, function, buffer.address(ctx), buffer.memory(), 0, null, null);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Invokes a function that returns a C struct by value.
+     *
+     * @param function The <code>Function</code> to invoke.
+     * @param buffer The parameter buffer.
+     * @return A byte array with the return value encoded in native byte order.
+     */
+    public final byte[] invokeStruct(Function function, DirectInvocationBuffer buffer) {
+        return invokeStruct(function.getCallContext(), function.getFunctionAddress(), buffer);
+    }
+
+    /**
+     * Invokes a function that returns a C struct by value.
+     *
+     * @param ctx The call context which describes how to call the native function.
+     * @param function The address of the native function to invoke.
+     * @param buffer The parameter buffer.
+     * @return A byte array with the return value encoded in native byte order.
+     */
+    public final byte[] invokeStruct(CallContext ctx, long function, DirectInvocationBuffer buffer) {
+        byte[] returnBuffer = new byte[ctx.getReturnType().size()];
+        invokeStruct(ctx, function, buffer, returnBuffer, 0);
+
+        return returnBuffer;
+    }
+
+    /**
+     * Invokes a function that returns a C struct by value.
+     *
+     * @param ctx The call context which describes how to call the native function.
+     * @param function The address of the native function to invoke.
+     * @param buffer The parameter buffer.
+     * @param returnBuffer The output buffer to place the return value in.
+     * @param offset The offset within returnBuffer to place the return value.
+     */
+    public final void invokeStruct(CallContext ctx, long function, DirectInvocationBuffer buffer, byte[] returnBuffer, int offset) {
+        ObjectBuffer objectBuffer = buffer.objectBuffer();
+        try {
+            if (objectBuffer != null && objectBuffer.objectCount() > 0) {
+                Foreign.invokeDirectReturnStruct(ctx.contextAddress, function, buffer.address(ctx), buffer.memory(),
+                        objectBuffer.objectCount(), objectBuffer.info(), objectBuffer.objects(), returnBuffer, offset);
+            } else {
+                Foreign.invokeDirectReturnStruct(ctx.contextAddress, function, buffer.address(ctx), buffer.memory(), 0, null, null,
+                        returnBuffer, offset);
+            }
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Invokes a function that returns a C struct by value, storing the struct in native memory.
+     *
+     * @param ctx The call context which describes how to call the native function.
+     * @param function The address of the native function to invoke.
+     * @param buffer The parameter buffer.
+     * @param returnAddress The native memory to place the return value in.  It must have room for
+     * the whole struct.
+     */
+    public final void invokeStruct(CallContext ctx, long function, DirectInvocationBuffer buffer, long returnAddress) {
+        if (returnAddress == 0L) {
+            throw new NullPointerException("null return address");
+        }
+
+        ObjectBuffer objectBuffer = buffer.objectBuffer();
+        try {
+            if (objectBuffer != null && objectBuffer.objectCount() > 0) {
+                Foreign.invokeDirectReturnStructAddress(ctx.contextAddress, function, buffer.address(ctx), buffer.memory(),
+                        objectBuffer.objectCount(), objectBuffer.info(), objectBuffer.objects(), returnAddress);
+            } else {
+                Foreign.invokeDirectReturnStructAddress(ctx.contextAddress, function, buffer.address(ctx), buffer.memory(), 0, null, null,
+                        returnAddress);
+            }
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Invokes a function that returns a C struct by value, storing the struct at the position of a buffer.
+     * The position of the buffer is not changed.
+     *
+     * @param ctx The call context which describes how to call the native function.
+     * @param function The address of the native function to invoke.
+     * @param buffer The parameter buffer.
+     * @param returnBuffer A direct or array backed buffer to place the return value in.
+     */
+    public final void invokeStruct(CallContext ctx, long function, DirectInvocationBuffer buffer, ByteBuffer returnBuffer) {
+        checkStructReturnBuffer(ctx, returnBuffer);
+        if (returnBuffer.isDirect()) {
+            invokeStruct(ctx, function, buffer, MemoryIO.getInstance().getDirectBufferAddress(returnBuffer) + returnBuffer.position());
+        } else {
+            invokeStruct(ctx, function, buffer, returnBuffer.array(), returnBuffer.arrayOffset() + returnBuffer.position());
+        }
+    }
+
     public final Object invokeObject(Function function, HeapInvocationBuffer buffer) {
         ObjectBuffer objectBuffer = buffer.objectBuffer();
         return Foreign.invokeArrayWithObjectsReturnObject(function.contextAddress, function.functionAddress,
@@ -39,6 +39,19 @@ public final class LastError {
     @SuppressWarnings({"FieldCanBeLocal", "UnusedDeclaration"})
     private final Foreign foreign = Foreign.getInstance();
 
+    private final MemoryIO io = MemoryIO.getInstance();
+
+    /** Whether the saved error can be read with Unsafe, so reading it through its address avoids JNI */
+    private final boolean directRead = io instanceof UnsafeMemoryIO;
+
+    /** The address the last error of each thread is saved at, looked up once per thread */
+    private static final ThreadLocal<Long> errorAddress = new ThreadLocal<Long>() {
+        @Override
+        protected Long initialValue() {
+            return Foreign.getLastErrorAddress();
+        }
+    };
+
     /** Lazy-initialization singleton holder */
     private static final class SingletonHolder {
         static final LastError INSTANCE = new LastError();
@@ -63,7 +76,7 @@ public final class LastError {
      */
     @Deprecated
     public final int getError() {
-        return Foreign.getLastError();
+        return get();
     }
 
     /**
@@ -72,6 +85,14 @@ public final class LastError {
      * @return The value of errno/GetLastError()
      */
     public final int get() {
+        // A virtual thread can move to another carrier, so its saved error has no fixed address
+        if (directRead && !BlockingSupport.isVirtualThread()) {
+            long address = errorAddress.get();
+            if (address != 0L) {
+                return io.getInt(address);
+            }
+        }
+
         return Foreign.getLastError();
     }
 
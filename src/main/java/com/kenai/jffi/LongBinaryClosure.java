@@ -0,0 +1,12 @@
+package com.kenai.jffi;
+
+/**
+ * A native closure that takes two 64 bit integers and returns a 64 bit integer.
+ *
+ * The parameters and return value are passed unboxed, without a {@link Closure.Buffer}.
+ *
+ * @see ClosureManager#newLongBinaryClosure(LongBinaryClosure, CallingConvention)
+ */
+public interface LongBinaryClosure {
+    long invoke(long a1, long a2);
+}
@@ -0,0 +1,425 @@
+package com.kenai.jffi;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.ByteOrder;
+
+/**
+ * Converts between java values and the binary layout of the native <tt>long double</tt>, without
+ * formatting and parsing strings in native code.
+ *
+ * The x87 80 bit extended and IEEE 128 bit quad layouts are handled, and the layout in use is
+ * checked against the native conversion before it is trusted.  Other layouts, such as the PowerPC
+ * double-double, are not supported and {@link #isSupported()} returns false.
+ */
+final class LongDouble {
+    /** Matches the "%.35Lg" formatting used by the native string conversion */
+    private static final int DECIMAL_DIGITS = 35;
+    private static final MathContext DECIMAL_CONTEXT = new MathContext(DECIMAL_DIGITS, RoundingMode.HALF_EVEN);
+    private static final BigInteger FIVE = BigInteger.valueOf(5);
+    private static final boolean BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+
+    private static final int EXPONENT_BIAS = 16383;
+    private static final int MAX_BIASED_EXPONENT = 0x7fff;
+
+    private enum Format {
+        /** long double is the same as double */
+        DOUBLE(53),
+        /** 64 bit significand with an explicit integer bit, then a 15 bit exponent and the sign */
+        X87(64),
+        /** 112 bit fraction, 15 bit exponent and the sign, as two 64 bit words */
+        BINARY128(113);
+
+        final int precision;
+
+        Format(int precision) {
+            this.precision = precision;
+        }
+    }
+
+    private static final class FormatHolder {
+        static final Format FORMAT = detectFormat();
+    }
+
+    private LongDouble() {}
+
+    /**
+     * Checks if long double values can be converted in java on this platform.
+     *
+     * @return true if the native layout is known.
+     */
+    static boolean isSupported() {
+        return FormatHolder.FORMAT != null;
+    }
+
+    /**
+     * Encodes a double as a long double.  Every double is exactly representable.
+     *
+     * @param value The value to encode.
+     * @param buffer The array to store the long double in.
+     * @param offset The offset of the long double in the array.
+     */
+    static void encode(double value, byte[] buffer, int offset) {
+        encode(FormatHolder.FORMAT, value, buffer, offset);
+    }
+
+    private static void encode(Format format, double value, byte[] buffer, int offset) {
+        long bits = Double.doubleToRawLongBits(value);
+        boolean negative = bits < 0;
+        int exponent = (int) (bits >>> 52) & 0x7ff;
+        long fraction = bits & 0xfffffffffffffL;
+
+        if (format == Format.DOUBLE) {
+            putLong(buffer, offset, bits);
+
+        } else if (exponent == 0x7ff) {
+            // Infinity and NaN keep their payload, moved to the top of the wider fraction
+            if (format == Format.X87) {
+                putX87(buffer, offset, negative, MAX_BIASED_EXPONENT, 0x8000000000000000L | (fraction << 11));
+            } else {
+                putBinary128(buffer, offset, negative, MAX_BIASED_EXPONENT, fraction >>> 4, fraction << 60);
+            }
+
+        } else if (exponent == 0 && fraction == 0) {
+            putZero(format, buffer, offset, negative);
+
+        } else {
+            long significand = exponent != 0 ? fraction | (1L << 52) : fraction;
+            encodeExact(format, buffer, offset, negative, significand, (exponent != 0 ? exponent : 1) - 1075);
+        }
+    }
+
+    /**
+     * Encodes <tt>mantissa * 2^exponent</tt> as a long double, rounding to the nearest value if it
+     * does not fit.
+     *
+     * @param mantissa The signed significand.
+     * @param exponent The power of two to scale the significand by.
+     * @param buffer The array to store the long double in.
+     * @param offset The offset of the long double in the array.
+     */
+    static void encode(long mantissa, int exponent, byte[] buffer, int offset) {
+        Format format = FormatHolder.FORMAT;
+        if (mantissa == 0) {
+            putZero(format, buffer, offset, false);
+            return;
+        }
+
+        if (format != Format.DOUBLE && mantissa != Long.MIN_VALUE) {
+            // Up to 63 bits always fit in the significand, so only the exponent range needs checking
+            long significand = Math.abs(mantissa);
+            long biasedExponent = 63L - Long.numberOfLeadingZeros(significand) + exponent + EXPONENT_BIAS;
+            if (biasedExponent > 0 && biasedExponent < MAX_BIASED_EXPONENT) {
+                encodeExact(format, buffer, offset, mantissa < 0, significand, exponent);
+                return;
+            }
+        }
+
+        encode(format, buffer, offset, mantissa < 0, BigInteger.valueOf(mantissa).abs(), exponent);
+    }
+
+    /**
+     * Encodes a decimal value as a long double, rounding to the nearest value.
+     *
+     * @param value The value to encode.
+     * @param buffer The array to store the long double in.
+     * @param offset The offset of the long double in the array.
+     */
+    static void encode(BigDecimal value, byte[] buffer, int offset) {
+        Format format = FormatHolder.FORMAT;
+        if (value.signum() == 0) {
+            putZero(format, buffer, offset, false);
+            return;
+        }
+
+        boolean negative = value.signum() < 0;
+        long decimalExponent = value.precision() - 1L - value.scale();
+        if (decimalExponent > 5000 || decimalExponent < -5000) {
+            // Far outside the range of every format, so avoid building huge powers of ten
+            encode(format, buffer, offset, negative, BigInteger.ONE, decimalExponent > 0 ? 1 << 20 : -(1 << 20));
+            return;
+        }
+
+        BigInteger unscaled = value.unscaledValue().abs();
+        int scale = value.scale();
+        if (scale <= 0) {
+            encode(format, buffer, offset, negative, unscaled.multiply(BigInteger.TEN.pow(-scale)), 0);
+            return;
+        }
+
+        // Divide by 10^scale with enough extra bits to round, keeping a sticky bit for the remainder
+        BigInteger divisor = BigInteger.TEN.pow(scale);
+        int shift = Math.max(0, divisor.bitLength() - unscaled.bitLength() + format.precision + 2);
+        BigInteger[] qr = unscaled.shiftLeft(shift).divideAndRemainder(divisor);
+        BigInteger quotient = qr[1].signum() != 0 ? qr[0].shiftLeft(1).setBit(0) : qr[0].shiftLeft(1);
+        encode(format, buffer, offset, negative, quotient, -shift - 1);
+    }
+
+    /**
+     * Decodes a long double into the same decimal value as the native "%.35Lg" formatting gives.
+     *
+     * @param buffer The array holding the long double.
+     * @param offset The offset of the long double in the array.
+     * @return The decimal value.
+     * @throws NumberFormatException if the value is infinite or NaN.
+     */
+    static BigDecimal toBigDecimal(byte[] buffer, int offset) {
+        Format format = FormatHolder.FORMAT;
+        boolean negative;
+        int biasedExponent;
+        BigInteger significand;
+        int exponent;
+
+        if (format == Format.DOUBLE) {
+            double value = Double.longBitsToDouble(getLong(buffer, offset));
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                throw new NumberFormatException("long double value is " + value);
+            }
+            return toDecimalString(new BigDecimal(value));
+
+        } else if (format == Format.X87) {
+            long mantissa = getLong(buffer, offset);
+            int signExponent = getShort(buffer, offset + 8);
+            negative = (signExponent & 0x8000) != 0;
+            biasedExponent = signExponent & MAX_BIASED_EXPONENT;
+            significand = new BigInteger(1, toBytes(0, mantissa));
+            exponent = Math.max(1, biasedExponent) - EXPONENT_BIAS - 63;
+
+        } else {
+            long high = getLong(buffer, offset + (BIG_ENDIAN ? 0 : 8));
+            long low = getLong(buffer, offset + (BIG_ENDIAN ? 8 : 0));
+            negative = high < 0;
+            biasedExponent = (int) (high >>> 48) & MAX_BIASED_EXPONENT;
+            significand = new BigInteger(1, toBytes(high & 0xffffffffffffL, low));
+            if (biasedExponent != 0) {
+                significand = significand.setBit(112);
+            }
+            exponent = Math.max(1, biasedExponent) - EXPONENT_BIAS - 112;
+        }
+
+        if (biasedExponent == MAX_BIASED_EXPONENT) {
+            throw new NumberFormatException("long double value is infinite or NaN");
+        }
+
+        BigDecimal exact = exponent >= 0
+                ? new BigDecimal(significand.shiftLeft(exponent))
+                : new BigDecimal(significand.multiply(FIVE.pow(-exponent)), -exponent);
+
+        return toDecimalString(negative ? exact.negate() : exact);
+    }
+
+    /**
+     * Gets the exact decimal value of <tt>mantissa * 2^exponent</tt>.
+     */
+    static BigDecimal toBigDecimal(long mantissa, int exponent) {
+        BigInteger value = BigInteger.valueOf(mantissa);
+        return exponent >= 0
+                ? new BigDecimal(value.shiftLeft(exponent))
+                : new BigDecimal(value.multiply(FIVE.pow(-exponent)), -exponent);
+    }
+
+    /**
+     * Rounds to 35 significant digits and uses the scale that parsing the "%.35Lg" output would give.
+     */
+    private static BigDecimal toDecimalString(BigDecimal exact) {
+        if (exact.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+
+        BigDecimal rounded = exact.round(DECIMAL_CONTEXT).stripTrailingZeros();
+        int decimalExponent = rounded.precision() - rounded.scale() - 1;
+        if (rounded.scale() < 0 && decimalExponent < DECIMAL_DIGITS) {
+            // %g prints whole numbers without an exponent when they have few enough digits
+            return rounded.setScale(0);
+        }
+
+        return rounded;
+    }
+
+    private static void encodeExact(Format format, byte[] buffer, int offset, boolean negative, long significand, int exponent) {
+        // Doubles always land in the normal range of the wider formats, so no rounding is needed
+        int leadingBit = 63 - Long.numberOfLeadingZeros(significand);
+        int biasedExponent = leadingBit + exponent + EXPONENT_BIAS;
+        if (format == Format.X87) {
+            putX87(buffer, offset, negative, biasedExponent, significand << (63 - leadingBit));
+        } else {
+            long fraction = significand & ~(1L << leadingBit);
+            int shift = 112 - leadingBit;
+            long high = shift < 64 ? fraction >>> (64 - shift) : fraction << (shift - 64);
+            long low = shift < 64 ? fraction << shift : 0L;
+            putBinary128(buffer, offset, negative, biasedExponent, high, low);
+        }
+    }
+
+    /**
+     * Encodes <tt>magnitude * 2^exponent</tt>, rounding half to even to the precision of the format.
+     */
+    private static void encode(Format format, byte[] buffer, int offset, boolean negative, BigInteger magnitude, int exponent) {
+        long valueExponent = magnitude.bitLength() - 1L + exponent;
+        if (format == Format.DOUBLE) {
+            double value = valueExponent > Double.MAX_EXPONENT ? Double.POSITIVE_INFINITY
+                    : valueExponent < Double.MIN_EXPONENT - 54 ? 0d
+                    : new BigDecimal(magnitude).multiply(exponent >= 0
+                        ? new BigDecimal(BigInteger.ONE.shiftLeft(exponent))
+                        : new BigDecimal(FIVE.pow(-exponent), -exponent)).doubleValue();
+            putLong(buffer, offset, Double.doubleToRawLongBits(negative ? -value : value));
+            return;
+        }
+
+        int precision = format.precision;
+        int minExponent = 1 - EXPONENT_BIAS;
+        BigInteger significand;
+        int biasedExponent;
+
+        if (valueExponent >= MAX_BIASED_EXPONENT - EXPONENT_BIAS) {
+            biasedExponent = MAX_BIASED_EXPONENT;
+            significand = BigInteger.ZERO;
+
+        } else if (valueExponent < minExponent - precision - 1) {
+            biasedExponent = 0;
+            significand = BigInteger.ZERO;
+
+        } else {
+            // Subnormal values have a fixed exponent, so they lose precision instead
+            int shift = (int) Math.max(valueExponent, minExponent) - (precision - 1) - exponent;
+            significand = roundShiftRight(magnitude, shift);
+            if (significand.bitLength() > precision) {
+                significand = significand.shiftRight(1);
+                valueExponent++;
+            }
+
+            biasedExponent = significand.bitLength() == precision
+                    ? (int) Math.max(valueExponent, minExponent) + EXPONENT_BIAS : 0;
+            if (biasedExponent >= MAX_BIASED_EXPONENT) {
+                biasedExponent = MAX_BIASED_EXPONENT;
+                significand = BigInteger.ZERO;
+            }
+        }
+
+        if (format == Format.X87) {
+            // Infinity keeps the explicit integer bit
+            long bits = biasedExponent == MAX_BIASED_EXPONENT ? Long.MIN_VALUE : significand.longValue();
+            putX87(buffer, offset, negative, biasedExponent, bits);
+        } else {
+            putBinary128(buffer, offset, negative, biasedExponent,
+                    significand.shiftRight(64).longValue() & 0xffffffffffffL, significand.longValue());
+        }
+    }
+
+    private static BigInteger roundShiftRight(BigInteger value, int shift) {
+        if (shift <= 0) {
+            return value.shiftLeft(-shift);
+        }
+
+        BigInteger result = value.shiftRight(shift);
+        if (value.testBit(shift - 1)) {
+            boolean exactHalf = value.getLowestSetBit() == shift - 1;
+            if (!exactHalf || result.testBit(0)) {
+                result = result.add(BigInteger.ONE);
+            }
+        }
+
+        return result;
+    }
+
+    private static void putZero(Format format, byte[] buffer, int offset, boolean negative) {
+        if (format == Format.DOUBLE) {
+            putLong(buffer, offset, negative ? Long.MIN_VALUE : 0L);
+        } else if (format == Format.X87) {
+            putX87(buffer, offset, negative, 0, 0L);
+        } else {
+            putBinary128(buffer, offset, negative, 0, 0L, 0L);
+        }
+    }
+
+    private static void putX87(byte[] buffer, int offset, boolean negative, int biasedExponent, long significand) {
+        putLong(buffer, offset, significand);
+        putShort(buffer, offset + 8, (negative ? 0x8000 : 0) | biasedExponent);
+        for (int i = 10; i < Type.LONGDOUBLE.size(); i++) {
+            buffer[offset + i] = 0;
+        }
+    }
+
+    private static void putBinary128(byte[] buffer, int offset, boolean negative, int biasedExponent, long fractionHigh, long fractionLow) {
+        long high = (negative ? Long.MIN_VALUE : 0L) | ((long) biasedExponent << 48) | fractionHigh;
+        putLong(buffer, offset + (BIG_ENDIAN ? 0 : 8), high);
+        putLong(buffer, offset + (BIG_ENDIAN ? 8 : 0), fractionLow);
+    }
+
+    private static void putLong(byte[] buffer, int offset, long value) {
+        for (int i = 0; i < 8; i++) {
+            buffer[offset + (BIG_ENDIAN ? 7 - i : i)] = (byte) (value >>> (i * 8));
+        }
+    }
+
+    private static void putShort(byte[] buffer, int offset, int value) {
+        buffer[offset + (BIG_ENDIAN ? 1 : 0)] = (byte) value;
+        buffer[offset + (BIG_ENDIAN ? 0 : 1)] = (byte) (value >>> 8);
+    }
+
+    private static long getLong(byte[] buffer, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value |= (buffer[offset + (BIG_ENDIAN ? 7 - i : i)] & 0xffL) << (i * 8);
+        }
+
+        return value;
+    }
+
+    private static int getShort(byte[] buffer, int offset) {
+        return (buffer[offset + (BIG_ENDIAN ? 1 : 0)] & 0xff) | ((buffer[offset + (BIG_ENDIAN ? 0 : 1)] & 0xff) << 8);
+    }
+
+    private static byte[] toBytes(long high, long low) {
+        byte[] bytes = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (high >>> (56 - i * 8));
+            bytes[8 + i] = (byte) (low >>> (56 - i * 8));
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Finds the layout that encodes a few test values the same way the native code does.
+     */
+    private static Format detectFormat() {
+        try {
+            int size = Type.LONGDOUBLE.size();
+            Format candidate;
+            if (size == 8) {
+                candidate = Format.DOUBLE;
+            } else if (size == 16 && !isX87()) {
+                candidate = Format.BINARY128;
+            } else if (size >= 10 && isX87()) {
+                candidate = Format.X87;
+            } else {
+                return null;
+            }
+
+            int compareSize = candidate == Format.X87 ? 10 : size;
+            byte[] expected = new byte[size], actual = new byte[size];
+            for (double value : new double[] { 1d, -0.75d, Math.PI, Double.MIN_VALUE, 1e300, -Double.MAX_VALUE }) {
+                Foreign.getInstance().longDoubleFromDouble(value, expected, 0, size);
+                encode(candidate, value, actual, 0);
+                for (int i = 0; i < compareSize; i++) {
+                    if (expected[i] != actual[i]) {
+                        return null;
+                    }
+                }
+            }
+
+            return candidate;
+
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    private static boolean isX87() {
+        Platform.CPU cpu = Platform.getPlatform().getCPU();
+        return cpu == Platform.CPU.I386 || cpu == Platform.CPU.X86_64;
+    }
+}
@@ -0,0 +1,12 @@
+package com.kenai.jffi;
+
+/**
+ * A native closure that takes one 64 bit integer and returns a 64 bit integer.
+ *
+ * The parameter and return value are passed unboxed, without a {@link Closure.Buffer}.
+ *
+ * @see ClosureManager#newLongUnaryClosure(LongUnaryClosure, CallingConvention)
+ */
+public interface LongUnaryClosure {
+    long invoke(long a1);
+}
@@ -0,0 +1,291 @@
+package com.kenai.jffi;
+
+import com.kenai.jffi.internal.Cleaner;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Binds the <tt>native</tt> methods of a class directly to native functions.
+ *
+ * Each method is registered with a small generated stub, which drops the JNIEnv and jclass/jobject
+ * parameters and jumps to the function, so a call costs only the JVM's own native method transition.
+ * Parameter and return types must be primitives of the same size as the native types, and the
+ * function must take its parameters in registers.  errno is not saved, and calls are not fault protected.
+ * <pre>
+ *     final class LibC {
+ *         static native int getpid();
+ *     }
+ *
+ *     new NativeMethodBinder(LibC.class).bind("getpid", getpidFunction).register();
+ * </pre>
+ */
+public final class NativeMethodBinder {
+    /** The generated code for each class, kept as long as the class is alive */
+    private static final Map<Class, List<Stubs>> registeredStubs = new WeakHashMap<Class, List<Stubs>>();
+
+    /** Space reserved for each stub: up to six register moves, a 64 bit address load and a jump */
+    private static final int STUB_SIZE = 64;
+    private static final int MAX_INT_PARAMETERS = 6;
+    private static final int MAX_FLOAT_PARAMETERS = 8;
+
+    private final Class clazz;
+    private final Map<Method, Function> bindings = new LinkedHashMap<Method, Function>();
+
+    /**
+     * Creates a binder for the native methods of a class.
+     *
+     * @param clazz The class that declares the native methods.
+     */
+    public NativeMethodBinder(Class clazz) {
+        this.clazz = clazz;
+    }
+
+    /**
+     * Checks if stubs can be generated on this platform.
+     *
+     * @return true if {@link #register()} is supported.
+     */
+    public static boolean isSupported() {
+        Platform platform = Platform.getPlatform();
+        return platform.getCPU() == Platform.CPU.X86_64 && platform.getOS() != Platform.OS.WINDOWS;
+    }
+
+    /**
+     * Binds a native method to a function.
+     *
+     * @param methodName The name of the native method, which must not be overloaded.
+     * @param function The function to call.
+     * @return This binder.
+     */
+    public NativeMethodBinder bind(String methodName, Function function) {
+        Method method = null;
+        for (Method m : clazz.getDeclaredMethods()) {
+            if (m.getName().equals(methodName) && Modifier.isNative(m.getModifiers())) {
+                if (method != null) {
+                    throw new IllegalArgumentException("native method " + methodName + " is overloaded");
+                }
+                method = m;
+            }
+        }
+
+        if (method == null) {
+            throw new IllegalArgumentException("no native method " + methodName + " in " + clazz.getName());
+        }
+
+        return bind(method, function);
+    }
+
+    /**
+     * Binds a native method to a function.
+     *
+     * @param method The native method.
+     * @param function The function to call.
+     * @return This binder.
+     */
+    public NativeMethodBinder bind(Method method, Function function) {
+        if (method.getDeclaringClass() != clazz || !Modifier.isNative(method.getModifiers())) {
+            throw new IllegalArgumentException(method + " is not a native method of " + clazz.getName());
+        }
+
+        CallContext ctx = function.getCallContext();
+        Class[] parameterTypes = method.getParameterTypes();
+        if (parameterTypes.length != ctx.getParameterCount() || ctx.fixedParamCount != ctx.getParameterCount()) {
+            throw new IllegalArgumentException(method.getName() + " does not match the function parameter count");
+        }
+
+        if ((ctx.flags & Foreign.F_STDCALL) != 0) {
+            throw new IllegalArgumentException("stdcall functions are not supported");
+        }
+
+        if (!isCompatible(method.getReturnType(), ctx.getReturnType())) {
+            throw new IllegalArgumentException(method.getName() + " return type " + method.getReturnType()
+                    + " does not match native type " + ctx.getReturnType().type());
+        }
+
+        int intCount = 0, floatCount = 0;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (!isCompatible(parameterTypes[i], ctx.getParameterType(i)) || parameterTypes[i] == void.class) {
+                throw new IllegalArgumentException(method.getName() + " parameter " + i + " type " + parameterTypes[i]
+                        + " does not match native type " + ctx.getParameterType(i).type());
+            }
+
+            if (parameterTypes[i] == float.class || parameterTypes[i] == double.class) {
+                floatCount++;
+            } else {
+                intCount++;
+            }
+        }
+
+        if (intCount > MAX_INT_PARAMETERS || floatCount > MAX_FLOAT_PARAMETERS) {
+            throw new IllegalArgumentException(method.getName() + " has too many parameters to pass in registers");
+        }
+
+        bindings.put(method, function);
+
+        return this;
+    }
+
+    /**
+     * Generates the stubs for every bound method and registers them with the JVM.
+     */
+    public void register() {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("native method stubs are not supported on " + Platform.getPlatform().getName());
+        }
+
+        PageManager pm = PageManager.getInstance();
+        int npages = (int) ((bindings.size() * STUB_SIZE + pm.pageSize() - 1) / pm.pageSize());
+        long code = pm.allocatePages(Math.max(1, npages), PageManager.PROT_READ | PageManager.PROT_WRITE);
+        if (code == 0L) {
+            throw new OutOfMemoryError("could not allocate native method stubs");
+        }
+
+        Stubs stubs = new Stubs(pm, code, Math.max(1, npages), bindings.values().toArray(new Function[bindings.size()]));
+        List<NativeMethod> methods = new ArrayList<NativeMethod>(bindings.size());
+        long address = code;
+        for (Map.Entry<Method, Function> binding : bindings.entrySet()) {
+            byte[] stub = compile(binding.getKey(), binding.getValue().getFunctionAddress());
+            MemoryIO.getInstance().putByteArray(address, stub, 0, stub.length);
+            methods.add(new NativeMethod(address, binding.getKey().getName(), getSignature(binding.getKey())));
+            address += STUB_SIZE;
+        }
+        pm.protectPages(code, Math.max(1, npages), PageManager.PROT_READ | PageManager.PROT_EXEC);
+
+        synchronized (NativeMethodBinder.class) {
+            NativeMethods.register(clazz, methods);
+            List<Stubs> classStubs = registeredStubs.get(clazz);
+            if (classStubs == null) {
+                registeredStubs.put(clazz, classStubs = new ArrayList<Stubs>());
+            }
+            classStubs.add(stubs);
+        }
+    }
+
+    private static boolean isCompatible(Class javaType, Type nativeType) {
+        switch (nativeType.type()) {
+            case Foreign.TYPE_VOID:
+                return javaType == void.class;
+
+            case Foreign.TYPE_SINT8:
+            case Foreign.TYPE_UINT8:
+                return javaType == byte.class || javaType == boolean.class;
+
+            case Foreign.TYPE_SINT16:
+            case Foreign.TYPE_UINT16:
+                return javaType == short.class || javaType == char.class;
+
+            case Foreign.TYPE_SINT32:
+            case Foreign.TYPE_UINT32:
+                return javaType == int.class;
+
+            case Foreign.TYPE_SINT64:
+            case Foreign.TYPE_UINT64:
+            case Foreign.TYPE_POINTER:
+                return javaType == long.class;
+
+            case Foreign.TYPE_FLOAT:
+                return javaType == float.class;
+
+            case Foreign.TYPE_DOUBLE:
+                return javaType == double.class;
+
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Generates SysV x86_64 code that moves the integer parameters down two registers, over the
+     * JNIEnv and jclass/jobject parameters, and jumps to the function.  Floating point parameters
+     * are already in the right registers.
+     */
+    private static byte[] compile(Method method, long function) {
+        byte[] code = new byte[STUB_SIZE];
+        int pos = 0, intCount = 0;
+
+        for (Class type : method.getParameterTypes()) {
+            if (type == float.class || type == double.class) {
+                continue;
+            }
+
+            byte[] insn;
+            switch (intCount++) {
+                case 0: insn = new byte[] { 0x48, (byte) 0x89, (byte) 0xd7 }; break;        // mov %rdx, %rdi
+                case 1: insn = new byte[] { 0x48, (byte) 0x89, (byte) 0xce }; break;        // mov %rcx, %rsi
+                case 2: insn = new byte[] { 0x4c, (byte) 0x89, (byte) 0xc2 }; break;        // mov %r8, %rdx
+                case 3: insn = new byte[] { 0x4c, (byte) 0x89, (byte) 0xc9 }; break;        // mov %r9, %rcx
+                case 4: insn = new byte[] { 0x4c, (byte) 0x8b, 0x44, 0x24, 0x08 }; break;   // mov 0x8(%rsp), %r8
+                case 5: insn = new byte[] { 0x4c, (byte) 0x8b, 0x4c, 0x24, 0x10 }; break;   // mov 0x10(%rsp), %r9
+                default: throw new IllegalArgumentException("too many integer parameters");
+            }
+            System.arraycopy(insn, 0, code, pos, insn.length);
+            pos += insn.length;
+        }
+
+        // movabs $function, %rax
+        code[pos++] = 0x48;
+        code[pos++] = (byte) 0xb8;
+        for (int i = 0; i < 8; i++) {
+            code[pos++] = (byte) (function >>> (i * 8));
+        }
+
+        // jmp *%rax
+        code[pos++] = (byte) 0xff;
+        code[pos] = (byte) 0xe0;
+
+        return code;
+    }
+
+    private static String getSignature(Method method) {
+        StringBuilder sb = new StringBuilder("(");
+        for (Class type : method.getParameterTypes()) {
+            sb.append(getDescriptor(type));
+        }
+
+        return sb.append(')').append(getDescriptor(method.getReturnType())).toString();
+    }
+
+    private static char getDescriptor(Class type) {
+        if (type == void.class) return 'V';
+        if (type == boolean.class) return 'Z';
+        if (type == byte.class) return 'B';
+        if (type == char.class) return 'C';
+        if (type == short.class) return 'S';
+        if (type == int.class) return 'I';
+        if (type == long.class) return 'J';
+        if (type == float.class) return 'F';
+        if (type == double.class) return 'D';
+
+        throw new IllegalArgumentException("unsupported type " + type);
+    }
+
+    private static final class Stubs {
+        /** keep a reference to the functions, to avoid GC of their call contexts whilst bound */
+        @SuppressWarnings({"FieldCanBeLocal", "UnusedDeclaration"})
+        private final Function[] functions;
+
+        Stubs(final PageManager pm, final long code, final int npages, Function[] functions) {
+            this.functions = functions;
+
+            Cleaner.register(this, new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        pm.freePages(code, npages);
+                    } catch (Throwable t) {
+                        Logger.getLogger(getClass().getName()).log(Level.WARNING,
+                                "Exception when freeing native method stubs: %s", t.getLocalizedMessage());
+                    }
+                }
+            });
+        }
+    }
+}
@@ -263,4 +263,102 @@ final class NativeObjectParameterInvoker extends ObjectParameterInvoker {
                 o2, o2flags.asObjectInfo(), o2off, o2len,
                 o3, o3flags.asObjectInfo(), o3off, o3len);
     }
+
+    public final long invokeN4O4rN(Function function,
+                                   long n1, long n2, long n3, long n4,
+                                   Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                   Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                   Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                   Object o4, int o4off, int o4len, ObjectParameterInfo o4flags) {
+
+        return foreign.invokeN4O4(function.getContextAddress(), function.getFunctionAddress(),
+                n1, n2, n3, n4,
+                o1, o1flags.asObjectInfo(), o1off, o1len,
+                o2, o2flags.asObjectInfo(), o2off, o2len,
+                o3, o3flags.asObjectInfo(), o3off, o3len,
+                o4, o4flags.asObjectInfo(), o4off, o4len);
+    }
+
+    public final long invokeN5O4rN(Function function,
+                                   long n1, long n2, long n3, long n4, long n5,
+                                   Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                   Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                   Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                   Object o4, int o4off, int o4len, ObjectParameterInfo o4flags) {
+
+        return foreign.invokeN5O4(function.getContextAddress(), function.getFunctionAddress(),
+                n1, n2, n3, n4, n5,
+                o1, o1flags.asObjectInfo(), o1off, o1len,
+                o2, o2flags.asObjectInfo(), o2off, o2len,
+                o3, o3flags.asObjectInfo(), o3off, o3len,
+                o4, o4flags.asObjectInfo(), o4off, o4len);
+    }
+
+    public final long invokeN5O5rN(Function function,
+                                   long n1, long n2, long n3, long n4, long n5,
+                                   Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                   Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                   Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                   Object o4, int o4off, int o4len, ObjectParameterInfo o4flags,
+                                   Object o5, int o5off, int o5len, ObjectParameterInfo o5flags) {
+
+        return foreign.invokeN5O5(function.getContextAddress(), function.getFunctionAddress(),
+                n1, n2, n3, n4, n5,
+                o1, o1flags.asObjectInfo(), o1off, o1len,
+                o2, o2flags.asObjectInfo(), o2off, o2len,
+                o3, o3flags.asObjectInfo(), o3off, o3len,
+                o4, o4flags.asObjectInfo(), o4off, o4len,
+                o5, o5flags.asObjectInfo(), o5off, o5len);
+    }
+
+    public final long invokeN6O4rN(Function function,
+                                   long n1, long n2, long n3, long n4, long n5, long n6,
+                                   Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                   Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                   Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                   Object o4, int o4off, int o4len, ObjectParameterInfo o4flags) {
+
+        return foreign.invokeN6O4(function.getContextAddress(), function.getFunctionAddress(),
+                n1, n2, n3, n4, n5, n6,
+                o1, o1flags.asObjectInfo(), o1off, o1len,
+                o2, o2flags.asObjectInfo(), o2off, o2len,
+                o3, o3flags.asObjectInfo(), o3off, o3len,
+                o4, o4flags.asObjectInfo(), o4off, o4len);
+    }
+
+    public final long invokeN6O5rN(Function function,
+                                   long n1, long n2, long n3, long n4, long n5, long n6,
+                                   Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                   Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                   Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                   Object o4, int o4off, int o4len, ObjectParameterInfo o4flags,
+                                   Object o5, int o5off, int o5len, ObjectParameterInfo o5flags) {
+
+        return foreign.invokeN6O5(function.getContextAddress(), function.getFunctionAddress(),
+                n1, n2, n3, n4, n5, n6,
+                o1, o1flags.asObjectInfo(), o1off, o1len,
+                o2, o2flags.asObjectInfo(), o2off, o2len,
+                o3, o3flags.asObjectInfo(), o3off, o3len,
+                o4, o4flags.asObjectInfo(), o4off, o4len,
+                o5, o5flags.asObjectInfo(), o5off, o5len);
+    }
+
+    public final long invokeN6O6rN(Function function,
+                                   long n1, long n2, long n3, long n4, long n5, long n6,
+                                   Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                   Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                   Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                   Object o4, int o4off, int o4len, ObjectParameterInfo o4flags,
+                                   Object o5, int o5off, int o5len, ObjectParameterInfo o5flags,
+                                   Object o6, int o6off, int o6len, ObjectParameterInfo o6flags) {
+
+        return foreign.invokeN6O6(function.getContextAddress(), function.getFunctionAddress(),
+                n1, n2, n3, n4, n5, n6,
+                o1, o1flags.asObjectInfo(), o1off, o1len,
+                o2, o2flags.asObjectInfo(), o2off, o2len,
+                o3, o3flags.asObjectInfo(), o3off, o3len,
+                o4, o4flags.asObjectInfo(), o4off, o4len,
+                o5, o5flags.asObjectInfo(), o5off, o5len,
+                o6, o6flags.asObjectInfo(), o6off, o6len);
+    }
 }
@@ -32,6 +32,7 @@
 
 package com.kenai.jffi;
 import java.lang.annotation.Native;
+import java.util.Arrays;
 
 /**
  * Holds objects the native code must handle - such as primitive arrays
@@ -59,6 +60,13 @@ final class ObjectBuffer {
     @Native
     public static final int CLEAR = 0x10;
 
+    /**
+     * Let the native code choose between copying and pinning the array, from its size and
+     * direction and the time calls take
+     */
+    @Native
+    public static final int ADAPTIVE = 0x20;
+
     /*
      * WARNING: The following flags cannot be altered without recompiling the native
      * code
@@ -172,6 +180,36 @@ final class ObjectBuffer {
     final Object[] objects() {
         return objects;
     }
+    /**
+     * Removes all objects from this buffer, keeping its current capacity.
+     */
+    final void reset() {
+        Arrays.fill(objects, 0, objectIndex, null);
+        objectIndex = 0;
+        infoIndex = 0;
+    }
+
+    /**
+     * Copies this buffer for a call made on another thread.  The objects are shared, but arrays
+     * are marked to be copied instead of pinned for the call.
+     *
+     * @return A new <code>ObjectBuffer</code> with the same objects.
+     */
+    final ObjectBuffer copyForAsync() {
+        ObjectBuffer copy = new ObjectBuffer(Math.max(1, objects.length));
+        System.arraycopy(objects, 0, copy.objects, 0, objectIndex);
+        System.arraycopy(info, 0, copy.info, 0, infoIndex);
+        for (int i = 0; i < infoIndex; i += 3) {
+            if ((copy.info[i] & ARRAY) != 0) {
+                copy.info[i] &= ~(PINNED | ADAPTIVE);
+            }
+        }
+        copy.objectIndex = objectIndex;
+        copy.infoIndex = infoIndex;
+
+        return copy;
+    }
+
     /** Ensures that sufficient space is available to insert at least one more object */
     private final void ensureSpace() {
         if (objects.length <= (objectIndex + 1)) {
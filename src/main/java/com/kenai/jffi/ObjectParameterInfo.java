@@ -51,6 +51,9 @@ public final class ObjectParameterInfo {
     /** For OUT arrays, clear the native memory area before passing to the native function */
     public static final int CLEAR = ObjectBuffer.CLEAR;
 
+    /** Copy or pin the array, whichever is expected to be cheaper for its size, direction and the call time */
+    public static final int ADAPTIVE = ObjectBuffer.ADAPTIVE;
+
     public static final ObjectType ARRAY = ObjectType.ARRAY;
     public static final ObjectType BUFFER = ObjectType.BUFFER;
 
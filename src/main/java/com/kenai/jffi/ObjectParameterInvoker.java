@@ -141,4 +141,1021 @@ abstract public class ObjectParameterInvoker {
                                       Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
                                       Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
                                       Object o3, int o3off, int o3len, ObjectParameterInfo o3flags);
+
+    abstract public long invokeN4O4rN(Function function,
+                                      long n1, long n2, long n3, long n4,
+                                      Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                      Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                      Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                      Object o4, int o4off, int o4len, ObjectParameterInfo o4flags);
+    
+    abstract public long invokeN5O4rN(Function function,
+                                      long n1, long n2, long n3, long n4, long n5,
+                                      Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                      Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                      Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                      Object o4, int o4off, int o4len, ObjectParameterInfo o4flags);
+    
+    abstract public long invokeN5O5rN(Function function,
+                                      long n1, long n2, long n3, long n4, long n5,
+                                      Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                      Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                      Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                      Object o4, int o4off, int o4len, ObjectParameterInfo o4flags,
+                                      Object o5, int o5off, int o5len, ObjectParameterInfo o5flags);
+    
+    abstract public long invokeN6O4rN(Function function,
+                                      long n1, long n2, long n3, long n4, long n5, long n6,
+                                      Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                      Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                      Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                      Object o4, int o4off, int o4len, ObjectParameterInfo o4flags);
+    
+    abstract public long invokeN6O5rN(Function function,
+                                      long n1, long n2, long n3, long n4, long n5, long n6,
+                                      Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                      Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                      Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                      Object o4, int o4off, int o4len, ObjectParameterInfo o4flags,
+                                      Object o5, int o5off, int o5len, ObjectParameterInfo o5flags);
+    
+    abstract public long invokeN6O6rN(Function function,
+                                      long n1, long n2, long n3, long n4, long n5, long n6,
+                                      Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                      Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                      Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                      Object o4, int o4off, int o4len, ObjectParameterInfo o4flags,
+                                      Object o5, int o5off, int o5len, ObjectParameterInfo o5flags,
+                                      Object o6, int o6off, int o6len, ObjectParameterInfo o6flags);
+
+    /*
+     * The typed variants return the result of the rN variant, which carries the raw bits of a
+     * float or double return value.
+     */
+
+    /**
+     * Invokes a function with one parameter, which is an object, and returns a 32 bit integer value.
+     *
+     * @see #invokeN1O1rN
+     */
+    public final int invokeN1O1rI(Function function,
+                                  long n1,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
+        return (int) invokeN1O1rN(function, n1,
+                o1, o1off, o1len, o1flags);
+    }
+
+    /**
+     * Invokes a function with one parameter, which is an object, and returns a float value.
+     *
+     * @see #invokeN1O1rN
+     */
+    public final float invokeN1O1rF(Function function,
+                                    long n1,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
+        return Float.intBitsToFloat((int) invokeN1O1rN(function, n1,
+                o1, o1off, o1len, o1flags));
+    }
+
+    /**
+     * Invokes a function with one parameter, which is an object, and returns a double value.
+     *
+     * @see #invokeN1O1rN
+     */
+    public final double invokeN1O1rD(Function function,
+                                     long n1,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
+        return Double.longBitsToDouble(invokeN1O1rN(function, n1,
+                o1, o1off, o1len, o1flags));
+    }
+
+    /**
+     * Invokes a function with two parameters, one of which is an object, and returns a 32 bit integer value.
+     *
+     * @see #invokeN2O1rN
+     */
+    public final int invokeN2O1rI(Function function,
+                                  long n1, long n2,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
+        return (int) invokeN2O1rN(function, n1, n2,
+                o1, o1off, o1len, o1flags);
+    }
+
+    /**
+     * Invokes a function with two parameters, one of which is an object, and returns a float value.
+     *
+     * @see #invokeN2O1rN
+     */
+    public final float invokeN2O1rF(Function function,
+                                    long n1, long n2,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
+        return Float.intBitsToFloat((int) invokeN2O1rN(function, n1, n2,
+                o1, o1off, o1len, o1flags));
+    }
+
+    /**
+     * Invokes a function with two parameters, one of which is an object, and returns a double value.
+     *
+     * @see #invokeN2O1rN
+     */
+    public final double invokeN2O1rD(Function function,
+                                     long n1, long n2,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
+        return Double.longBitsToDouble(invokeN2O1rN(function, n1, n2,
+                o1, o1off, o1len, o1flags));
+    }
+
+    /**
+     * Invokes a function with two parameters, all of which are objects, and returns a 32 bit integer value.
+     *
+     * @see #invokeN2O2rN
+     */
+    public final int invokeN2O2rI(Function function,
+                                  long n1, long n2,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                  Object o2, int o2off, int o2len, ObjectParameterInfo o2flags) {
+        return (int) invokeN2O2rN(function, n1, n2,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags);
+    }
+
+    /**
+     * Invokes a function with two parameters, all of which are objects, and returns a float value.
+     *
+     * @see #invokeN2O2rN
+     */
+    public final float invokeN2O2rF(Function function,
+                                    long n1, long n2,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                    Object o2, int o2off, int o2len, ObjectParameterInfo o2flags) {
+        return Float.intBitsToFloat((int) invokeN2O2rN(function, n1, n2,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags));
+    }
+
+    /**
+     * Invokes a function with two parameters, all of which are objects, and returns a double value.
+     *
+     * @see #invokeN2O2rN
+     */
+    public final double invokeN2O2rD(Function function,
+                                     long n1, long n2,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                     Object o2, int o2off, int o2len, ObjectParameterInfo o2flags) {
+        return Double.longBitsToDouble(invokeN2O2rN(function, n1, n2,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags));
+    }
+
+    /**
+     * Invokes a function with three parameters, one of which is an object, and returns a 32 bit integer value.
+     *
+     * @see #invokeN3O1rN
+     */
+    public final int invokeN3O1rI(Function function,
+                                  long n1, long n2, long n3,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
+        return (int) invokeN3O1rN(function, n1, n2, n3,
+                o1, o1off, o1len, o1flags);
+    }
+
+    /**
+     * Invokes a function with three parameters, one of which is an object, and returns a float value.
+     *
+     * @see #invokeN3O1rN
+     */
+    public final float invokeN3O1rF(Function function,
+                                    long n1, long n2, long n3,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
+        return Float.intBitsToFloat((int) invokeN3O1rN(function, n1, n2, n3,
+                o1, o1off, o1len, o1flags));
+    }
+
+    /**
+     * Invokes a function with three parameters, one of which is an object, and returns a double value.
+     *
+     * @see #invokeN3O1rN
+     */
+    public final double invokeN3O1rD(Function function,
+                                     long n1, long n2, long n3,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
+        return Double.longBitsToDouble(invokeN3O1rN(function, n1, n2, n3,
+                o1, o1off, o1len, o1flags));
+    }
+
+    /**
+     * Invokes a function with three parameters, two of which are objects, and returns a 32 bit integer value.
+     *
+     * @see #invokeN3O2rN
+     */
+    public final int invokeN3O2rI(Function function,
+                                  long n1, long n2, long n3,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                  Object o2, int o2off, int o2len, ObjectParameterInfo o2flags) {
+        return (int) invokeN3O2rN(function, n1, n2, n3,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags);
+    }
+
+    /**
+     * Invokes a function with three parameters, two of which are objects, and returns a float value.
+     *
+     * @see #invokeN3O2rN
+     */
+    public final float invokeN3O2rF(Function function,
+                                    long n1, long n2, long n3,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                    Object o2, int o2off, int o2len, ObjectParameterInfo o2flags) {
+        return Float.intBitsToFloat((int) invokeN3O2rN(function, n1, n2, n3,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags));
+    }
+
+    /**
+     * Invokes a function with three parameters, two of which are objects, and returns a double value.
+     *
+     * @see #invokeN3O2rN
+     */
+    public final double invokeN3O2rD(Function function,
+                                     long n1, long n2, long n3,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                     Object o2, int o2off, int o2len, ObjectParameterInfo o2flags) {
+        return Double.longBitsToDouble(invokeN3O2rN(function, n1, n2, n3,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags));
+    }
+
+    /**
+     * Invokes a function with three parameters, all of which are objects, and returns a 32 bit integer value.
+     *
+     * @see #invokeN3O3rN
+     */
+    public final int invokeN3O3rI(Function function,
+                                  long n1, long n2, long n3,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                  Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                  Object o3, int o3off, int o3len, ObjectParameterInfo o3flags) {
+        return (int) invokeN3O3rN(function, n1, n2, n3,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags);
+    }
+
+    /**
+     * Invokes a function with three parameters, all of which are objects, and returns a float value.
+     *
+     * @see #invokeN3O3rN
+     */
+    public final float invokeN3O3rF(Function function,
+                                    long n1, long n2, long n3,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                    Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                    Object o3, int o3off, int o3len, ObjectParameterInfo o3flags) {
+        return Float.intBitsToFloat((int) invokeN3O3rN(function, n1, n2, n3,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags));
+    }
+
+    /**
+     * Invokes a function with three parameters, all of which are objects, and returns a double value.
+     *
+     * @see #invokeN3O3rN
+     */
+    public final double invokeN3O3rD(Function function,
+                                     long n1, long n2, long n3,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                     Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                     Object o3, int o3off, int o3len, ObjectParameterInfo o3flags) {
+        return Double.longBitsToDouble(invokeN3O3rN(function, n1, n2, n3,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags));
+    }
+
+    /**
+     * Invokes a function with four parameters, one of which is an object, and returns a 32 bit integer value.
+     *
+     * @see #invokeN4O1rN
+     */
+    public final int invokeN4O1rI(Function function,
+                                  long n1, long n2, long n3, long n4,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
+        return (int) invokeN4O1rN(function, n1, n2, n3, n4,
+                o1, o1off, o1len, o1flags);
+    }
+
+    /**
+     * Invokes a function with four parameters, one of which is an object, and returns a float value.
+     *
+     * @see #invokeN4O1rN
+     */
+    public final float invokeN4O1rF(Function function,
+                                    long n1, long n2, long n3, long n4,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
+        return Float.intBitsToFloat((int) invokeN4O1rN(function, n1, n2, n3, n4,
+                o1, o1off, o1len, o1flags));
+    }
+
+    /**
+     * Invokes a function with four parameters, one of which is an object, and returns a double value.
+     *
+     * @see #invokeN4O1rN
+     */
+    public final double invokeN4O1rD(Function function,
+                                     long n1, long n2, long n3, long n4,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
+        return Double.longBitsToDouble(invokeN4O1rN(function, n1, n2, n3, n4,
+                o1, o1off, o1len, o1flags));
+    }
+
+    /**
+     * Invokes a function with four parameters, two of which are objects, and returns a 32 bit integer value.
+     *
+     * @see #invokeN4O2rN
+     */
+    public final int invokeN4O2rI(Function function,
+                                  long n1, long n2, long n3, long n4,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                  Object o2, int o2off, int o2len, ObjectParameterInfo o2flags) {
+        return (int) invokeN4O2rN(function, n1, n2, n3, n4,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags);
+    }
+
+    /**
+     * Invokes a function with four parameters, two of which are objects, and returns a float value.
+     *
+     * @see #invokeN4O2rN
+     */
+    public final float invokeN4O2rF(Function function,
+                                    long n1, long n2, long n3, long n4,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                    Object o2, int o2off, int o2len, ObjectParameterInfo o2flags) {
+        return Float.intBitsToFloat((int) invokeN4O2rN(function, n1, n2, n3, n4,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags));
+    }
+
+    /**
+     * Invokes a function with four parameters, two of which are objects, and returns a double value.
+     *
+     * @see #invokeN4O2rN
+     */
+    public final double invokeN4O2rD(Function function,
+                                     long n1, long n2, long n3, long n4,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                     Object o2, int o2off, int o2len, ObjectParameterInfo o2flags) {
+        return Double.longBitsToDouble(invokeN4O2rN(function, n1, n2, n3, n4,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags));
+    }
+
+    /**
+     * Invokes a function with four parameters, three of which are objects, and returns a 32 bit integer value.
+     *
+     * @see #invokeN4O3rN
+     */
+    public final int invokeN4O3rI(Function function,
+                                  long n1, long n2, long n3, long n4,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                  Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                  Object o3, int o3off, int o3len, ObjectParameterInfo o3flags) {
+        return (int) invokeN4O3rN(function, n1, n2, n3, n4,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags);
+    }
+
+    /**
+     * Invokes a function with four parameters, three of which are objects, and returns a float value.
+     *
+     * @see #invokeN4O3rN
+     */
+    public final float invokeN4O3rF(Function function,
+                                    long n1, long n2, long n3, long n4,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                    Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                    Object o3, int o3off, int o3len, ObjectParameterInfo o3flags) {
+        return Float.intBitsToFloat((int) invokeN4O3rN(function, n1, n2, n3, n4,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags));
+    }
+
+    /**
+     * Invokes a function with four parameters, three of which are objects, and returns a double value.
+     *
+     * @see #invokeN4O3rN
+     */
+    public final double invokeN4O3rD(Function function,
+                                     long n1, long n2, long n3, long n4,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                     Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                     Object o3, int o3off, int o3len, ObjectParameterInfo o3flags) {
+        return Double.longBitsToDouble(invokeN4O3rN(function, n1, n2, n3, n4,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags));
+    }
+
+    /**
+     * Invokes a function with four parameters, all of which are objects, and returns a 32 bit integer value.
+     *
+     * @see #invokeN4O4rN
+     */
+    public final int invokeN4O4rI(Function function,
+                                  long n1, long n2, long n3, long n4,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                  Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                  Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                  Object o4, int o4off, int o4len, ObjectParameterInfo o4flags) {
+        return (int) invokeN4O4rN(function, n1, n2, n3, n4,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags,
+                o4, o4off, o4len, o4flags);
+    }
+
+    /**
+     * Invokes a function with four parameters, all of which are objects, and returns a float value.
+     *
+     * @see #invokeN4O4rN
+     */
+    public final float invokeN4O4rF(Function function,
+                                    long n1, long n2, long n3, long n4,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                    Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                    Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                    Object o4, int o4off, int o4len, ObjectParameterInfo o4flags) {
+        return Float.intBitsToFloat((int) invokeN4O4rN(function, n1, n2, n3, n4,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags,
+                o4, o4off, o4len, o4flags));
+    }
+
+    /**
+     * Invokes a function with four parameters, all of which are objects, and returns a double value.
+     *
+     * @see #invokeN4O4rN
+     */
+    public final double invokeN4O4rD(Function function,
+                                     long n1, long n2, long n3, long n4,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                     Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                     Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                     Object o4, int o4off, int o4len, ObjectParameterInfo o4flags) {
+        return Double.longBitsToDouble(invokeN4O4rN(function, n1, n2, n3, n4,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags,
+                o4, o4off, o4len, o4flags));
+    }
+
+    /**
+     * Invokes a function with five parameters, one of which is an object, and returns a 32 bit integer value.
+     *
+     * @see #invokeN5O1rN
+     */
+    public final int invokeN5O1rI(Function function,
+                                  long n1, long n2, long n3, long n4, long n5,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
+        return (int) invokeN5O1rN(function, n1, n2, n3, n4, n5,
+                o1, o1off, o1len, o1flags);
+    }
+
+    /**
+     * Invokes a function with five parameters, one of which is an object, and returns a float value.
+     *
+     * @see #invokeN5O1rN
+     */
+    public final float invokeN5O1rF(Function function,
+                                    long n1, long n2, long n3, long n4, long n5,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
+        return Float.intBitsToFloat((int) invokeN5O1rN(function, n1, n2, n3, n4, n5,
+                o1, o1off, o1len, o1flags));
+    }
+
+    /**
+     * Invokes a function with five parameters, one of which is an object, and returns a double value.
+     *
+     * @see #invokeN5O1rN
+     */
+    public final double invokeN5O1rD(Function function,
+                                     long n1, long n2, long n3, long n4, long n5,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
+        return Double.longBitsToDouble(invokeN5O1rN(function, n1, n2, n3, n4, n5,
+                o1, o1off, o1len, o1flags));
+    }
+
+    /**
+     * Invokes a function with five parameters, two of which are objects, and returns a 32 bit integer value.
+     *
+     * @see #invokeN5O2rN
+     */
+    public final int invokeN5O2rI(Function function,
+                                  long n1, long n2, long n3, long n4, long n5,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                  Object o2, int o2off, int o2len, ObjectParameterInfo o2flags) {
+        return (int) invokeN5O2rN(function, n1, n2, n3, n4, n5,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags);
+    }
+
+    /**
+     * Invokes a function with five parameters, two of which are objects, and returns a float value.
+     *
+     * @see #invokeN5O2rN
+     */
+    public final float invokeN5O2rF(Function function,
+                                    long n1, long n2, long n3, long n4, long n5,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                    Object o2, int o2off, int o2len, ObjectParameterInfo o2flags) {
+        return Float.intBitsToFloat((int) invokeN5O2rN(function, n1, n2, n3, n4, n5,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags));
+    }
+
+    /**
+     * Invokes a function with five parameters, two of which are objects, and returns a double value.
+     *
+     * @see #invokeN5O2rN
+     */
+    public final double invokeN5O2rD(Function function,
+                                     long n1, long n2, long n3, long n4, long n5,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                     Object o2, int o2off, int o2len, ObjectParameterInfo o2flags) {
+        return Double.longBitsToDouble(invokeN5O2rN(function, n1, n2, n3, n4, n5,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags));
+    }
+
+    /**
+     * Invokes a function with five parameters, three of which are objects, and returns a 32 bit integer value.
+     *
+     * @see #invokeN5O3rN
+     */
+    public final int invokeN5O3rI(Function function,
+                                  long n1, long n2, long n3, long n4, long n5,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                  Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                  Object o3, int o3off, int o3len, ObjectParameterInfo o3flags) {
+        return (int) invokeN5O3rN(function, n1, n2, n3, n4, n5,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags);
+    }
+
+    /**
+     * Invokes a function with five parameters, three of which are objects, and returns a float value.
+     *
+     * @see #invokeN5O3rN
+     */
+    public final float invokeN5O3rF(Function function,
+                                    long n1, long n2, long n3, long n4, long n5,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                    Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                    Object o3, int o3off, int o3len, ObjectParameterInfo o3flags) {
+        return Float.intBitsToFloat((int) invokeN5O3rN(function, n1, n2, n3, n4, n5,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags));
+    }
+
+    /**
+     * Invokes a function with five parameters, three of which are objects, and returns a double value.
+     *
+     * @see #invokeN5O3rN
+     */
+    public final double invokeN5O3rD(Function function,
+                                     long n1, long n2, long n3, long n4, long n5,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                     Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                     Object o3, int o3off, int o3len, ObjectParameterInfo o3flags) {
+        return Double.longBitsToDouble(invokeN5O3rN(function, n1, n2, n3, n4, n5,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags));
+    }
+
+    /**
+     * Invokes a function with five parameters, four of which are objects, and returns a 32 bit integer value.
+     *
+     * @see #invokeN5O4rN
+     */
+    public final int invokeN5O4rI(Function function,
+                                  long n1, long n2, long n3, long n4, long n5,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                  Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                  Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                  Object o4, int o4off, int o4len, ObjectParameterInfo o4flags) {
+        return (int) invokeN5O4rN(function, n1, n2, n3, n4, n5,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags,
+                o4, o4off, o4len, o4flags);
+    }
+
+    /**
+     * Invokes a function with five parameters, four of which are objects, and returns a float value.
+     *
+     * @see #invokeN5O4rN
+     */
+    public final float invokeN5O4rF(Function function,
+                                    long n1, long n2, long n3, long n4, long n5,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                    Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                    Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                    Object o4, int o4off, int o4len, ObjectParameterInfo o4flags) {
+        return Float.intBitsToFloat((int) invokeN5O4rN(function, n1, n2, n3, n4, n5,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags,
+                o4, o4off, o4len, o4flags));
+    }
+
+    /**
+     * Invokes a function with five parameters, four of which are objects, and returns a double value.
+     *
+     * @see #invokeN5O4rN
+     */
+    public final double invokeN5O4rD(Function function,
+                                     long n1, long n2, long n3, long n4, long n5,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                     Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                     Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                     Object o4, int o4off, int o4len, ObjectParameterInfo o4flags) {
+        return Double.longBitsToDouble(invokeN5O4rN(function, n1, n2, n3, n4, n5,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags,
+                o4, o4off, o4len, o4flags));
+    }
+
+    /**
+     * Invokes a function with five parameters, all of which are objects, and returns a 32 bit integer value.
+     *
+     * @see #invokeN5O5rN
+     */
+    public final int invokeN5O5rI(Function function,
+                                  long n1, long n2, long n3, long n4, long n5,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                  Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                  Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                  Object o4, int o4off, int o4len, ObjectParameterInfo o4flags,
+                                  Object o5, int o5off, int o5len, ObjectParameterInfo o5flags) {
+        return (int) invokeN5O5rN(function, n1, n2, n3, n4, n5,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags,
+                o4, o4off, o4len, o4flags,
+                o5, o5off, o5len, o5flags);
+    }
+
+    /**
+     * Invokes a function with five parameters, all of which are objects, and returns a float value.
+     *
+     * @see #invokeN5O5rN
+     */
+    public final float invokeN5O5rF(Function function,
+                                    long n1, long n2, long n3, long n4, long n5,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                    Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                    Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                    Object o4, int o4off, int o4len, ObjectParameterInfo o4flags,
+                                    Object o5, int o5off, int o5len, ObjectParameterInfo o5flags) {
+        return Float.intBitsToFloat((int) invokeN5O5rN(function, n1, n2, n3, n4, n5,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags,
+                o4, o4off, o4len, o4flags,
+                o5, o5off, o5len, o5flags));
+    }
+
+    /**
+     * Invokes a function with five parameters, all of which are objects, and returns a double value.
+     *
+     * @see #invokeN5O5rN
+     */
+    public final double invokeN5O5rD(Function function,
+                                     long n1, long n2, long n3, long n4, long n5,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                     Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                     Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                     Object o4, int o4off, int o4len, ObjectParameterInfo o4flags,
+                                     Object o5, int o5off, int o5len, ObjectParameterInfo o5flags) {
+        return Double.longBitsToDouble(invokeN5O5rN(function, n1, n2, n3, n4, n5,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags,
+                o4, o4off, o4len, o4flags,
+                o5, o5off, o5len, o5flags));
+    }
+
+    /**
+     * Invokes a function with six parameters, one of which is an object, and returns a 32 bit integer value.
+     *
+     * @see #invokeN6O1rN
+     */
+    public final int invokeN6O1rI(Function function,
+                                  long n1, long n2, long n3, long n4, long n5, long n6,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
+        return (int) invokeN6O1rN(function, n1, n2, n3, n4, n5, n6,
+                o1, o1off, o1len, o1flags);
+    }
+
+    /**
+     * Invokes a function with six parameters, one of which is an object, and returns a float value.
+     *
+     * @see #invokeN6O1rN
+     */
+    public final float invokeN6O1rF(Function function,
+                                    long n1, long n2, long n3, long n4, long n5, long n6,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
+        return Float.intBitsToFloat((int) invokeN6O1rN(function, n1, n2, n3, n4, n5, n6,
+                o1, o1off, o1len, o1flags));
+    }
+
+    /**
+     * Invokes a function with six parameters, one of which is an object, and returns a double value.
+     *
+     * @see #invokeN6O1rN
+     */
+    public final double invokeN6O1rD(Function function,
+                                     long n1, long n2, long n3, long n4, long n5, long n6,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags) {
+        return Double.longBitsToDouble(invokeN6O1rN(function, n1, n2, n3, n4, n5, n6,
+                o1, o1off, o1len, o1flags));
+    }
+
+    /**
+     * Invokes a function with six parameters, two of which are objects, and returns a 32 bit integer value.
+     *
+     * @see #invokeN6O2rN
+     */
+    public final int invokeN6O2rI(Function function,
+                                  long n1, long n2, long n3, long n4, long n5, long n6,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                  Object o2, int o2off, int o2len, ObjectParameterInfo o2flags) {
+        return (int) invokeN6O2rN(function, n1, n2, n3, n4, n5, n6,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags);
+    }
+
+    /**
+     * Invokes a function with six parameters, two of which are objects, and returns a float value.
+     *
+     * @see #invokeN6O2rN
+     */
+    public final float invokeN6O2rF(Function function,
+                                    long n1, long n2, long n3, long n4, long n5, long n6,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                    Object o2, int o2off, int o2len, ObjectParameterInfo o2flags) {
+        return Float.intBitsToFloat((int) invokeN6O2rN(function, n1, n2, n3, n4, n5, n6,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags));
+    }
+
+    /**
+     * Invokes a function with six parameters, two of which are objects, and returns a double value.
+     *
+     * @see #invokeN6O2rN
+     */
+    public final double invokeN6O2rD(Function function,
+                                     long n1, long n2, long n3, long n4, long n5, long n6,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                     Object o2, int o2off, int o2len, ObjectParameterInfo o2flags) {
+        return Double.longBitsToDouble(invokeN6O2rN(function, n1, n2, n3, n4, n5, n6,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags));
+    }
+
+    /**
+     * Invokes a function with six parameters, three of which are objects, and returns a 32 bit integer value.
+     *
+     * @see #invokeN6O3rN
+     */
+    public final int invokeN6O3rI(Function function,
+                                  long n1, long n2, long n3, long n4, long n5, long n6,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                  Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                  Object o3, int o3off, int o3len, ObjectParameterInfo o3flags) {
+        return (int) invokeN6O3rN(function, n1, n2, n3, n4, n5, n6,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags);
+    }
+
+    /**
+     * Invokes a function with six parameters, three of which are objects, and returns a float value.
+     *
+     * @see #invokeN6O3rN
+     */
+    public final float invokeN6O3rF(Function function,
+                                    long n1, long n2, long n3, long n4, long n5, long n6,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                    Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                    Object o3, int o3off, int o3len, ObjectParameterInfo o3flags) {
+        return Float.intBitsToFloat((int) invokeN6O3rN(function, n1, n2, n3, n4, n5, n6,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags));
+    }
+
+    /**
+     * Invokes a function with six parameters, three of which are objects, and returns a double value.
+     *
+     * @see #invokeN6O3rN
+     */
+    public final double invokeN6O3rD(Function function,
+                                     long n1, long n2, long n3, long n4, long n5, long n6,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                     Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                     Object o3, int o3off, int o3len, ObjectParameterInfo o3flags) {
+        return Double.longBitsToDouble(invokeN6O3rN(function, n1, n2, n3, n4, n5, n6,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags));
+    }
+
+    /**
+     * Invokes a function with six parameters, four of which are objects, and returns a 32 bit integer value.
+     *
+     * @see #invokeN6O4rN
+     */
+    public final int invokeN6O4rI(Function function,
+                                  long n1, long n2, long n3, long n4, long n5, long n6,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                  Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                  Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                  Object o4, int o4off, int o4len, ObjectParameterInfo o4flags) {
+        return (int) invokeN6O4rN(function, n1, n2, n3, n4, n5, n6,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags,
+                o4, o4off, o4len, o4flags);
+    }
+
+    /**
+     * Invokes a function with six parameters, four of which are objects, and returns a float value.
+     *
+     * @see #invokeN6O4rN
+     */
+    public final float invokeN6O4rF(Function function,
+                                    long n1, long n2, long n3, long n4, long n5, long n6,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                    Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                    Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                    Object o4, int o4off, int o4len, ObjectParameterInfo o4flags) {
+        return Float.intBitsToFloat((int) invokeN6O4rN(function, n1, n2, n3, n4, n5, n6,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags,
+                o4, o4off, o4len, o4flags));
+    }
+
+    /**
+     * Invokes a function with six parameters, four of which are objects, and returns a double value.
+     *
+     * @see #invokeN6O4rN
+     */
+    public final double invokeN6O4rD(Function function,
+                                     long n1, long n2, long n3, long n4, long n5, long n6,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                     Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                     Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                     Object o4, int o4off, int o4len, ObjectParameterInfo o4flags) {
+        return Double.longBitsToDouble(invokeN6O4rN(function, n1, n2, n3, n4, n5, n6,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags,
+                o4, o4off, o4len, o4flags));
+    }
+
+    /**
+     * Invokes a function with six parameters, five of which are objects, and returns a 32 bit integer value.
+     *
+     * @see #invokeN6O5rN
+     */
+    public final int invokeN6O5rI(Function function,
+                                  long n1, long n2, long n3, long n4, long n5, long n6,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                  Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                  Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                  Object o4, int o4off, int o4len, ObjectParameterInfo o4flags,
+                                  Object o5, int o5off, int o5len, ObjectParameterInfo o5flags) {
+        return (int) invokeN6O5rN(function, n1, n2, n3, n4, n5, n6,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags,
+                o4, o4off, o4len, o4flags,
+                o5, o5off, o5len, o5flags);
+    }
+
+    /**
+     * Invokes a function with six parameters, five of which are objects, and returns a float value.
+     *
+     * @see #invokeN6O5rN
+     */
+    public final float invokeN6O5rF(Function function,
+                                    long n1, long n2, long n3, long n4, long n5, long n6,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                    Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                    Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                    Object o4, int o4off, int o4len, ObjectParameterInfo o4flags,
+                                    Object o5, int o5off, int o5len, ObjectParameterInfo o5flags) {
+        return Float.intBitsToFloat((int) invokeN6O5rN(function, n1, n2, n3, n4, n5, n6,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags,
+                o4, o4off, o4len, o4flags,
+                o5, o5off, o5len, o5flags));
+    }
+
+    /**
+     * Invokes a function with six parameters, five of which are objects, and returns a double value.
+     *
+     * @see #invokeN6O5rN
+     */
+    public final double invokeN6O5rD(Function function,
+                                     long n1, long n2, long n3, long n4, long n5, long n6,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                     Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                     Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                     Object o4, int o4off, int o4len, ObjectParameterInfo o4flags,
+                                     Object o5, int o5off, int o5len, ObjectParameterInfo o5flags) {
+        return Double.longBitsToDouble(invokeN6O5rN(function, n1, n2, n3, n4, n5, n6,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags,
+                o4, o4off, o4len, o4flags,
+                o5, o5off, o5len, o5flags));
+    }
+
+    /**
+     * Invokes a function with six parameters, all of which are objects, and returns a 32 bit integer value.
+     *
+     * @see #invokeN6O6rN
+     */
+    public final int invokeN6O6rI(Function function,
+                                  long n1, long n2, long n3, long n4, long n5, long n6,
+                                  Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                  Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                  Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                  Object o4, int o4off, int o4len, ObjectParameterInfo o4flags,
+                                  Object o5, int o5off, int o5len, ObjectParameterInfo o5flags,
+                                  Object o6, int o6off, int o6len, ObjectParameterInfo o6flags) {
+        return (int) invokeN6O6rN(function, n1, n2, n3, n4, n5, n6,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags,
+                o4, o4off, o4len, o4flags,
+                o5, o5off, o5len, o5flags,
+                o6, o6off, o6len, o6flags);
+    }
+
+    /**
+     * Invokes a function with six parameters, all of which are objects, and returns a float value.
+     *
+     * @see #invokeN6O6rN
+     */
+    public final float invokeN6O6rF(Function function,
+                                    long n1, long n2, long n3, long n4, long n5, long n6,
+                                    Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                    Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                    Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                    Object o4, int o4off, int o4len, ObjectParameterInfo o4flags,
+                                    Object o5, int o5off, int o5len, ObjectParameterInfo o5flags,
+                                    Object o6, int o6off, int o6len, ObjectParameterInfo o6flags) {
+        return Float.intBitsToFloat((int) invokeN6O6rN(function, n1, n2, n3, n4, n5, n6,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags,
+                o4, o4off, o4len, o4flags,
+                o5, o5off, o5len, o5flags,
+                o6, o6off, o6len, o6flags));
+    }
+
+    /**
+     * Invokes a function with six parameters, all of which are objects, and returns a double value.
+     *
+     * @see #invokeN6O6rN
+     */
+    public final double invokeN6O6rD(Function function,
+                                     long n1, long n2, long n3, long n4, long n5, long n6,
+                                     Object o1, int o1off, int o1len, ObjectParameterInfo o1flags,
+                                     Object o2, int o2off, int o2len, ObjectParameterInfo o2flags,
+                                     Object o3, int o3off, int o3len, ObjectParameterInfo o3flags,
+                                     Object o4, int o4off, int o4len, ObjectParameterInfo o4flags,
+                                     Object o5, int o5off, int o5len, ObjectParameterInfo o5flags,
+                                     Object o6, int o6off, int o6len, ObjectParameterInfo o6flags) {
+        return Double.longBitsToDouble(invokeN6O6rN(function, n1, n2, n3, n4, n5, n6,
+                o1, o1off, o1len, o1flags,
+                o2, o2off, o2len, o2flags,
+                o3, o3off, o3len, o3flags,
+                o4, o4off, o4len, o4flags,
+                o5, o5off, o5len, o5flags,
+                o6, o6off, o6len, o6flags));
+    }
 }
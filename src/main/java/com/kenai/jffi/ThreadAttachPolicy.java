@@ -0,0 +1,78 @@
+package com.kenai.jffi;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides how long a native thread that was attached to the JVM to run a closure stays attached.
+ *
+ * Attaching and detaching a thread for every upcall is expensive, but a thread that stays attached
+ * keeps a java thread object alive.  Native threads can only detach themselves, so a thread is only
+ * ever detached at the end of an upcall, or when it exits.
+ *
+ * @see ClosureManager#setThreadAttachPolicy(ThreadAttachPolicy)
+ */
+public final class ThreadAttachPolicy {
+    /** The default policy, a thread stays attached once it has made 1000 upcalls */
+    public static final ThreadAttachPolicy DEFAULT = threshold(1000);
+
+    final int policy;
+    final long value;
+
+    private ThreadAttachPolicy(int policy, long value) {
+        this.policy = policy;
+        this.value = value;
+    }
+
+    /**
+     * Detaches a thread after each upcall until it has made a number of upcalls, then keeps it attached.
+     *
+     * @param upcalls The number of upcalls after which a thread stays attached.
+     * @return A <code>ThreadAttachPolicy</code>
+     */
+    public static ThreadAttachPolicy threshold(int upcalls) {
+        if (upcalls < 0) {
+            throw new IllegalArgumentException("negative upcall threshold " + upcalls);
+        }
+
+        return new ThreadAttachPolicy(Foreign.ATTACH_THRESHOLD, upcalls);
+    }
+
+    /**
+     * Keeps a thread attached from its first upcall until it exits.
+     *
+     * @return A <code>ThreadAttachPolicy</code>
+     */
+    public static ThreadAttachPolicy keepAttached() {
+        return new ThreadAttachPolicy(Foreign.ATTACH_KEEP, 0);
+    }
+
+    /**
+     * Keeps a thread attached while it makes upcalls more often than a timeout.  A thread that has
+     * been idle for longer than the timeout is detached at the end of its next upcall.
+     *
+     * @param timeout How long a thread may go between upcalls and stay attached.
+     * @param unit The unit of the timeout.
+     * @return A <code>ThreadAttachPolicy</code>
+     */
+    public static ThreadAttachPolicy detachWhenIdle(long timeout, TimeUnit unit) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("idle timeout must be positive");
+        }
+
+        return new ThreadAttachPolicy(Foreign.ATTACH_IDLE, unit.toNanos(timeout));
+    }
+
+    @Override
+    public String toString() {
+        switch (policy) {
+            case Foreign.ATTACH_KEEP:
+                return "ThreadAttachPolicy[keepAttached]";
+
+            case Foreign.ATTACH_IDLE:
+                return "ThreadAttachPolicy[detachWhenIdle=" + value + "ns]";
+
+            default:
+                return "ThreadAttachPolicy[threshold=" + value + "]";
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.kenai.jffi;
+
+/**
+ * Counts the native threads attached to the JVM to run closures.
+ *
+ * @see ClosureManager#getThreadAttachStatistics()
+ */
+public final class ThreadAttachStatistics {
+    private final long attachCount, detachCount;
+
+    ThreadAttachStatistics(long attachCount, long detachCount) {
+        this.attachCount = attachCount;
+        this.detachCount = detachCount;
+    }
+
+    /**
+     * Gets the number of times a native thread was attached to the JVM.
+     *
+     * @return The number of attaches.
+     */
+    public long getAttachCount() {
+        return attachCount;
+    }
+
+    /**
+     * Gets the number of times a native thread was detached from the JVM, after an upcall or on exit.
+     *
+     * @return The number of detaches.
+     */
+    public long getDetachCount() {
+        return detachCount;
+    }
+
+    /**
+     * Gets the number of native threads that are currently attached.
+     *
+     * @return The number of attached threads.
+     */
+    public long getAttachedThreadCount() {
+        return attachCount - detachCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ThreadAttachStatistics[attaches=" + attachCount + ", detaches=" + detachCount
+                + ", attached=" + getAttachedThreadCount() + "]";
+    }
+}
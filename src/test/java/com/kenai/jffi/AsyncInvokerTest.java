@@ -0,0 +1,188 @@
+package com.kenai.jffi;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+public class AsyncInvokerTest {
+    private final AsyncInvoker async = AsyncInvoker.getInstance();
+
+    @Test public void returnValues() throws Exception {
+        Function addInt = InvokerTest.getFunction("add_s32", Type.SINT, Type.SINT, Type.SINT);
+        HeapInvocationBuffer buffer = new HeapInvocationBuffer(addInt);
+        buffer.putInt(-2);
+        buffer.putInt(7);
+        CompletableFuture<AsyncResult> intResult = async.invoke(addInt, buffer);
+
+        // The buffer was copied, so changing it does not affect the submitted call
+        buffer.reset();
+        buffer.putInt(100);
+        buffer.putInt(100);
+        CompletableFuture<AsyncResult> reused = async.invoke(addInt, buffer);
+
+        Function addDouble = InvokerTest.getFunction("add_double", Type.DOUBLE, Type.DOUBLE, Type.DOUBLE);
+        HeapInvocationBuffer doubles = new HeapInvocationBuffer(addDouble);
+        doubles.putDouble(1.25d);
+        doubles.putDouble(2d);
+
+        Function addLongDouble = InvokerTest.getFunction("add_f128", Type.LONGDOUBLE, Type.LONGDOUBLE, Type.LONGDOUBLE);
+        HeapInvocationBuffer longDoubles = new HeapInvocationBuffer(addLongDouble);
+        longDoubles.putLongDouble(new BigDecimal("1.5"));
+        longDoubles.putLongDouble(2d);
+
+        assertEquals(5, intResult.get().intValue());
+        assertEquals(200, reused.get().intValue());
+        assertEquals(3.25d, async.invoke(addDouble, doubles).get().doubleValue(), 0d);
+        byte[] ld = async.invoke(addLongDouble, longDoubles).get().structValue();
+        assertEquals(new BigDecimal("3.5"), new BigDecimal(Foreign.getInstance().longDoubleToString(ld, 0, ld.length)));
+    }
+
+    @Test public void errnoIsCapturedPerCall() throws Exception {
+        Function setLastError = InvokerTest.getFunction("setLastError", Type.SINT, Type.SINT);
+        HeapInvocationBuffer buffer = new HeapInvocationBuffer(setLastError);
+        buffer.putInt(42);
+        AsyncResult result = async.invoke(setLastError, buffer).get();
+        assertEquals(-1, result.intValue());
+        assertEquals(42, result.getErrno());
+    }
+
+    @Test public void arraysAreWrittenBack() throws Exception {
+        Function function = InvokerTest.getFunction("invokeOOOO", Type.SLONG, Type.POINTER, Type.POINTER, Type.POINTER, Type.POINTER);
+        boolean int32 = Platform.getPlatform().longSize() == 32;
+        Object[] arrays = new Object[4];
+        HeapInvocationBuffer buffer = new HeapInvocationBuffer(function);
+        for (int i = 0; i < arrays.length; i++) {
+            if (int32) {
+                int[] array = { i + 1 };
+                buffer.putArray(array, 0, 1, ObjectBuffer.IN | ObjectBuffer.OUT | ObjectBuffer.PINNED);
+                arrays[i] = array;
+            } else {
+                long[] array = { i + 1 };
+                buffer.putArray(array, 0, 1, ObjectBuffer.IN | ObjectBuffer.OUT | ObjectBuffer.PINNED);
+                arrays[i] = array;
+            }
+        }
+
+        assertEquals(10L, async.invoke(function, buffer).get().longValue());
+        assertEquals(10L, int32 ? ((int[]) arrays[0])[0] : ((long[]) arrays[0])[0]);
+    }
+
+    @Test public void failedCallCompletesExceptionally() throws Exception {
+        Function function = InvokerTest.getFunction("invokeOOOO", Type.SLONG, Type.POINTER, Type.POINTER, Type.POINTER, Type.POINTER);
+        HeapInvocationBuffer buffer = new HeapInvocationBuffer(function);
+        for (int i = 0; i < 4; i++) {
+            buffer.putArray((long[]) null, 0, 1, ObjectBuffer.IN);
+        }
+
+        try {
+            async.invoke(function, buffer).get();
+            fail("null array did not fail");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof NullPointerException);
+        }
+    }
+
+    @Test public void rejectedCallCompletesExceptionally() throws Exception {
+        AsyncInvoker rejecting = AsyncInvoker.newInstance(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException("shut down");
+            }
+        });
+
+        Function function = InvokerTest.getFunction("add_s32", Type.SINT, Type.SINT, Type.SINT);
+        HeapInvocationBuffer buffer = new HeapInvocationBuffer(function);
+        buffer.putInt(1);
+        buffer.putInt(2);
+        CompletableFuture<AsyncResult> future = rejecting.invoke(function, buffer);
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test public void mayBlockContexts() {
+        Type[] types = { Type.SINT };
+        CallContext plain = CallContext.getCallContext(Type.SINT, types, CallingConvention.DEFAULT, true);
+        CallContext blocking = CallContext.getCallContext(Type.SINT, 1, types, CallingConvention.DEFAULT, true, false, true);
+        assertFalse(plain.mayBlock());
+        assertTrue(blocking.mayBlock());
+        assertNotSame(plain, blocking);
+        assertSame(blocking, CallContext.getCallContext(Type.SINT, 1, types, CallingConvention.DEFAULT, true, false, true));
+
+        // A platform thread calls a function that may block directly
+        UnitHelper.Address address = UnitHelper.findSymbol("setLastError");
+        Function function = new Function(address.address, Type.SINT, types, CallingConvention.DEFAULT, true, true);
+        assertTrue(function.getCallContext().mayBlock());
+        assertEquals(-1L, (long) (int) Invoker.getInstance().invokeN1(function.getCallContext(), address.address, 7));
+        assertEquals(7, LastError.getInstance().get());
+    }
+
+    @Test public void offloadedCallCopiesErrno() {
+        UnitHelper.Address address = UnitHelper.findSymbol("setLastError");
+        Function function = new Function(address.address, Type.SINT, new Type[] { Type.SINT }, CallingConvention.DEFAULT, true, true);
+        LastError.getInstance().set(0);
+        long ret = BlockingSupport.invokeN(function.getCallContext(), address.address, 11);
+        assertEquals(-1, (int) ret);
+        assertEquals(11, LastError.getInstance().get());
+
+        Function add = InvokerTest.getFunction("add_s32", Type.SINT, Type.SINT, Type.SINT);
+        HeapInvocationBuffer buffer = new HeapInvocationBuffer(add);
+        buffer.putInt(20);
+        buffer.putInt(22);
+        assertEquals(42, BlockingSupport.invokeInt(add.getCallContext(), add.getFunctionAddress(), buffer));
+    }
+
+    @Test public void virtualThreadCallsAreOffloaded() throws Throwable {
+        final java.lang.reflect.Method startVirtualThread;
+        try {
+            startVirtualThread = Thread.class.getMethod("startVirtualThread", Runnable.class);
+        } catch (NoSuchMethodException e) {
+            Assume.assumeNoException("virtual threads need JDK 21+", e);
+            return;
+        }
+
+        final Thread[] calledOn = new Thread[1];
+        final Closure.Handle closure = ClosureManager.getInstance().newClosure(new Closure() {
+            public void invoke(Closure.Buffer buffer) {
+                calledOn[0] = Thread.currentThread();
+                buffer.setIntReturn(42);
+            }
+        }, Type.SINT32, new Type[0], CallingConvention.DEFAULT);
+        final UnitHelper.Address address = UnitHelper.findSymbol("testClosureVrI");
+        final CallContext ctx = CallContext.getCallContext(Type.SINT32, 1, new Type[] { Type.POINTER },
+                CallingConvention.DEFAULT, false, false, true);
+
+        final Throwable[] failure = new Throwable[1];
+        Thread virtualThread = (Thread) startVirtualThread.invoke(null, new Runnable() {
+            public void run() {
+                try {
+                    assertEquals(42L, Invoker.getInstance().invokeN1(ctx, address.address, closure.getAddress()));
+                    assertNotNull(calledOn[0]);
+                    assertNotSame(Thread.currentThread(), calledOn[0]);
+
+                    if (Platform.getPlatform().getCPU().dataModel == 64) {
+                        calledOn[0] = null;
+                        assertEquals(42L, Invoker.getInstance().invokeL1(ctx, address.address, closure.getAddress()));
+                        assertNotSame(Thread.currentThread(), calledOn[0]);
+                    }
+                } catch (Throwable t) {
+                    failure[0] = t;
+                }
+            }
+        });
+        virtualThread.join();
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+
+        // A platform thread makes the call itself
+        assertEquals(42L, Invoker.getInstance().invokeN1(ctx, address.address, closure.getAddress()));
+        assertSame(Thread.currentThread(), calledOn[0]);
+        closure.dispose();
+    }
+}
@@ -0,0 +1,113 @@
+package com.kenai.jffi;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class CallProgramTest {
+
+    private static Function getFunction(String name, Type returnType, Type... parameterTypes) {
+        return new Function(UnitHelper.findSymbol(name).address, returnType, parameterTypes);
+    }
+
+    @Test public void chainedResults() {
+        Function add = getFunction("add_s32", Type.SINT32, Type.SINT32, Type.SINT32);
+        Function mul = getFunction("mul_s32", Type.SINT32, Type.SINT32, Type.SINT32);
+
+        CallProgram.Builder b = CallProgram.builder();
+        CallProgram.Step sum = b.call(add, CallProgram.input(0), CallProgram.input(1));
+        CallProgram.Step product = b.call(mul, sum.result(), CallProgram.constant(3));
+        b.call(add, product.result(), sum.result());
+        CallProgram program = b.build();
+
+        assertEquals(3, program.getStepCount());
+        assertEquals(2, program.getInputCount());
+
+        long[] results = new long[3];
+        assertEquals(3, program.invoke(new long[] { 2, 5 }, results));
+        assertEquals(7L, results[0]);
+        assertEquals(21L, results[1]);
+        assertEquals(28L, results[2]);
+        assertEquals(-12L, program.invoke(-1, -2));
+        program.dispose();
+    }
+
+    @Test public void earlyExit() {
+        Function add = getFunction("add_s32", Type.SINT32, Type.SINT32, Type.SINT32);
+        Function mul = getFunction("mul_s32", Type.SINT32, Type.SINT32, Type.SINT32);
+
+        CallProgram.Builder b = CallProgram.builder();
+        CallProgram.Step sum = b.call(add, CallProgram.input(0), CallProgram.input(1))
+                .exitIf(CallProgram.Exit.LESS_THAN, 0);
+        b.call(mul, sum.result(), CallProgram.constant(2));
+        CallProgram program = b.build();
+
+        long[] results = new long[2];
+        assertEquals(1, program.invoke(new long[] { -5, 1 }, results));
+        assertEquals(-4L, results[0]);
+        assertEquals(2, program.invoke(new long[] { 5, 1 }, results));
+        assertEquals(12L, results[1]);
+    }
+
+    @Test public void floatingPointSteps() {
+        Function add = getFunction("add_double", Type.DOUBLE, Type.DOUBLE, Type.DOUBLE);
+
+        CallProgram.Builder b = CallProgram.builder();
+        CallProgram.Step first = b.call(add, CallProgram.input(0), CallProgram.constant(Double.doubleToRawLongBits(0.25)));
+        b.call(add, first.result(), first.result());
+        CallProgram program = b.build();
+
+        assertEquals(3.5, Double.longBitsToDouble(program.invoke(Double.doubleToRawLongBits(1.5))), 0d);
+    }
+
+    @Test public void manyMixedParameters() {
+        Type[] types = new Type[14];
+        CallProgram.Argument[] args13 = new CallProgram.Argument[13], args14 = new CallProgram.Argument[14];
+        long[] inputs = new long[14];
+        double expected13 = 0, expected14 = 0;
+        for (int i = 0; i < types.length; i++) {
+            types[i] = i % 2 == 0 && i < 12 ? Type.SINT64 : Type.DOUBLE;
+            inputs[i] = types[i] == Type.SINT64 ? i - 5 : Double.doubleToRawLongBits(i + 0.5);
+            double value = types[i] == Type.SINT64 ? i - 5 : i + 0.5;
+            expected13 += i < 13 ? (i + 1) * value : 0;
+            expected14 += (i + 1) * value;
+            if (i < 13) {
+                args13[i] = CallProgram.input(i);
+            }
+            args14[i] = CallProgram.input(i);
+        }
+        Type[] types13 = new Type[13];
+        System.arraycopy(types, 0, types13, 0, types13.length);
+
+        CallProgram.Builder b = CallProgram.builder();
+        b.call(getFunction("sum13_s64f64", Type.DOUBLE, types13), args13);
+        b.call(getFunction("sum14_s64f64", Type.DOUBLE, types), args14);
+        CallProgram program = b.build();
+
+        long[] results = new long[2];
+        assertEquals(2, program.invoke(inputs, results));
+        assertEquals(expected13, Double.longBitsToDouble(results[0]), 0d);
+        assertEquals(expected14, Double.longBitsToDouble(results[1]), 0d);
+        program.dispose();
+    }
+
+    @Test public void wrongParameterCount() {
+        Function add = getFunction("add_s32", Type.SINT32, Type.SINT32, Type.SINT32);
+        try {
+            CallProgram.builder().call(add, CallProgram.input(0));
+            fail("parameter count mismatch not detected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test public void resultOfAnotherProgram() {
+        Function add = getFunction("add_s32", Type.SINT32, Type.SINT32, Type.SINT32);
+        CallProgram.Step other = CallProgram.builder().call(add, CallProgram.constant(1), CallProgram.constant(2));
+        try {
+            CallProgram.builder().call(add, other.result(), CallProgram.constant(2));
+            fail("foreign step result not detected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
@@ -6,7 +6,12 @@ import com.kenai.jffi.UnitHelper.Address;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -31,6 +36,10 @@ public class ClosureTest {
         void testClosureLrV(Address closure, long value);
         void testClosureFrV(Address closure, float value);
         void testClosureDrV(Address closure, double value);
+        int testClosureIrI(Address closure, int value);
+        int testClosureIIrI(Address closure, int a1, int a2);
+        long testClosureLrL(Address closure, long value);
+        long testClosureLLrL(Address closure, long a1, long a2);
         
         void testThreadedClosureVrV(Address closure, int count);
         
@@ -117,6 +126,53 @@ public class ClosureTest {
     }
     
     
+    @Test public void threadAttachPolicy() throws Throwable {
+        if (Platform.getPlatform().getOS() == Platform.OS.WINDOWS) {
+            return;
+        }
+        ClosureManager manager = ClosureManager.getInstance();
+        Closure.Handle handle = manager.newClosure(new Closure() {
+            public void invoke(Buffer buffer) {
+            }
+        }, Type.VOID, new Type[0], CallingConvention.DEFAULT);
+        try {
+            // Below the threshold, each upcall attaches and detaches the thread
+            manager.setThreadAttachPolicy(ThreadAttachPolicy.threshold(1000));
+            ThreadAttachStatistics before = manager.getThreadAttachStatistics();
+            lib.testThreadedClosureVrV(new Address(handle), 3);
+            ThreadAttachStatistics after = manager.getThreadAttachStatistics();
+            assertEquals(3, after.getAttachCount() - before.getAttachCount());
+            assertEquals(3, after.getDetachCount() - before.getDetachCount());
+
+            // A kept thread is attached once, and detached when it exits
+            manager.setThreadAttachPolicy(ThreadAttachPolicy.keepAttached());
+            before = manager.getThreadAttachStatistics();
+            lib.testThreadedClosureVrV(new Address(handle), 3);
+            after = manager.getThreadAttachStatistics();
+            assertEquals(1, after.getAttachCount() - before.getAttachCount());
+            assertEquals(1, after.getDetachCount() - before.getDetachCount());
+
+            // A thread that makes upcalls further apart than the idle timeout is detached after each
+            manager.setThreadAttachPolicy(ThreadAttachPolicy.detachWhenIdle(1, TimeUnit.NANOSECONDS));
+            before = manager.getThreadAttachStatistics();
+            lib.testThreadedClosureVrV(new Address(handle), 3);
+            after = manager.getThreadAttachStatistics();
+            assertEquals(3, after.getAttachCount() - before.getAttachCount());
+
+            // A thread that attaches itself up front stays attached whatever the policy
+            manager.setThreadAttachPolicy(ThreadAttachPolicy.threshold(1000));
+            before = manager.getThreadAttachStatistics();
+            lib.testThreadedClosureVrV(new Address(manager.getAttachCurrentThreadFunction()), 1);
+            after = manager.getThreadAttachStatistics();
+            assertEquals(1, after.getAttachCount() - before.getAttachCount());
+            assertEquals(1, after.getDetachCount() - before.getDetachCount());
+            assertEquals(before.getAttachedThreadCount(), after.getAttachedThreadCount());
+        } finally {
+            manager.setThreadAttachPolicy(ThreadAttachPolicy.DEFAULT);
+            handle.dispose();
+        }
+    }
+
     private void testClosureVrB(LibClosureTest lib) {
         final boolean called[] = { false };
         final byte MAGIC = (byte) 0x12;
@@ -436,7 +492,145 @@ public class ClosureTest {
     @Test public void fastLongClosureIrV() throws Throwable {
         testClosureIrV(fastlong);
     }
+    @Test public void nestedClosureIrV() throws Throwable {
+        final List<Closure.Buffer> buffers = new ArrayList<Closure.Buffer>();
+        final List<Integer> values = new ArrayList<Integer>();
+        final Address[] self = { null };
+        Closure closure = new Closure() {
+            public void invoke(Buffer buffer) {
+                int value = buffer.getInt(0);
+                buffers.add(buffer);
+                if (value < 3) {
+                    lib.testClosureIrV(self[0], value + 1);
+                }
+                // The nested upcall must not have rebound this call's buffer
+                values.add(buffer.getInt(0));
+            }
+        };
+        Closure.Handle handle = ClosureManager.getInstance().newClosure(closure,
+                Type.VOID, new Type[] { Type.SINT32 }, CallingConvention.DEFAULT);
+        self[0] = new Address(handle);
+        lib.testClosureIrV(self[0], 1);
+        assertEquals(Arrays.asList(3, 2, 1), values);
+        assertNotSame(buffers.get(0), buffers.get(1));
+        assertNotSame(buffers.get(1), buffers.get(2));
+
+        // Upcalls that are not nested reuse the thread's buffer
+        buffers.clear();
+        values.clear();
+        lib.testClosureIrV(self[0], 5);
+        lib.testClosureIrV(self[0], 6);
+        assertEquals(Arrays.asList(5, 6), values);
+        assertSame(buffers.get(0), buffers.get(1));
+    }
     
+    @Test public void closurePoolLookup() throws Throwable {
+        final CallContext ctx = CallContextCache.getInstance().getCallContext(Type.SINT8,
+                new Type[] { Type.SINT8, Type.SINT16, Type.SINT8 }, CallingConvention.DEFAULT);
+        final ClosurePool[] pools = new ClosurePool[8];
+        Thread[] threads = new Thread[pools.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    pools[index] = ClosureManager.getInstance().getClosurePool(ctx);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (ClosurePool pool : pools) {
+            assertSame(pools[0], pool);
+        }
+        assertSame(pools[0], ClosureManager.getInstance().pinClosurePool(ctx));
+        assertSame(pools[0], ClosureManager.getInstance().getClosurePool(ctx));
+    }
+
+    @Test public void closurePoolReusesDisposedSlots() throws Throwable {
+        final CallContext ctx = CallContextCache.getInstance().getCallContext(Type.SINT16,
+                new Type[] { Type.SINT8, Type.SINT16, Type.SINT16 }, CallingConvention.DEFAULT);
+        final ClosurePool pool = ClosureManager.getInstance().pinClosurePool(ctx);
+        final Closure closure = new Closure() {
+            public void invoke(Buffer buffer) {
+            }
+        };
+        final int threadCount = 8, perThread = 50;
+        final List<Closure.Handle> handles = Collections.synchronizedList(new ArrayList<Closure.Handle>());
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    for (int j = 0; j < perThread; j++) {
+                        handles.add(pool.newClosureHandle(closure));
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Live handles never share a slot
+        Set<Long> addresses = new HashSet<Long>();
+        for (Closure.Handle handle : handles) {
+            addresses.add(handle.getAddress());
+        }
+        assertEquals(threadCount * perThread, addresses.size());
+
+        for (Closure.Handle handle : handles) {
+            handle.dispose();
+        }
+        for (int i = 0; i < threadCount * perThread; i++) {
+            assertTrue("disposed slot not reused", addresses.contains(pool.newClosureHandle(closure).getAddress()));
+        }
+    }
+
+    @Test public void primitiveIntClosures() throws Throwable {
+        Closure.Handle unary = ClosureManager.getInstance().newIntUnaryClosure(new IntUnaryClosure() {
+            public int invoke(int a1) {
+                return a1 * 3;
+            }
+        }, CallingConvention.DEFAULT);
+        Closure.Handle binary = ClosureManager.getInstance().newIntBinaryClosure(new IntBinaryClosure() {
+            public int invoke(int a1, int a2) {
+                return a1 - a2;
+            }
+        }, CallingConvention.DEFAULT);
+        assertEquals(-21, lib.testClosureIrI(new Address(unary), -7));
+        assertEquals(0x7fffffff, lib.testClosureIIrI(new Address(binary), 0x80000000, 1));
+
+        // The disposed slot goes back to the pool and is bound to the next closure
+        binary.dispose();
+        Closure.Handle reused = ClosureManager.getInstance().newIntBinaryClosure(new IntBinaryClosure() {
+            public int invoke(int a1, int a2) {
+                return a1 + a2;
+            }
+        }, CallingConvention.DEFAULT);
+        assertEquals(5, lib.testClosureIIrI(new Address(reused), 2, 3));
+        unary.dispose();
+        reused.dispose();
+    }
+
+    @Test public void primitiveLongClosures() throws Throwable {
+        final long MAGIC = 0x12345678fee1deadL;
+        Closure.Handle unary = ClosureManager.getInstance().newLongUnaryClosure(new LongUnaryClosure() {
+            public long invoke(long a1) {
+                return ~a1;
+            }
+        }, CallingConvention.DEFAULT);
+        Closure.Handle binary = ClosureManager.getInstance().newLongBinaryClosure(new LongBinaryClosure() {
+            public long invoke(long a1, long a2) {
+                return a1 ^ a2;
+            }
+        }, CallingConvention.DEFAULT);
+        assertEquals(~MAGIC, lib.testClosureLrL(new Address(unary), MAGIC));
+        assertEquals(MAGIC ^ 0xffL, lib.testClosureLLrL(new Address(binary), MAGIC, 0xffL));
+    }
+
     private void testClosureLrV(LibClosureTest lib) {
         final boolean called[] = { false };
         final long MAGIC = 0x12345678fee1deadL;
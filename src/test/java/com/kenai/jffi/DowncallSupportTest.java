@@ -0,0 +1,78 @@
+package com.kenai.jffi;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.invoke.MethodHandle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class DowncallSupportTest {
+
+    private static long findFunction(String name) {
+        return UnitHelper.findSymbol(name).address;
+    }
+
+    private static CallContext getContext(Type returnType, Type... parameterTypes) {
+        return CallContext.getCallContext(returnType, parameterTypes, CallingConvention.DEFAULT, false);
+    }
+
+    private static void assertUnsupported(CallContext context) {
+        DowncallSupport.Handles handles = DowncallSupport.createHandles(context);
+        assertNull(handles.intHandle);
+        assertNull(handles.longHandle);
+        assertNull(context.getIntDowncall(true));
+        assertNull(context.getLongDowncall(true));
+    }
+
+    @Test public void createsDowncallHandles() throws Throwable {
+        Assume.assumeTrue("java.lang.foreign needs JDK 22+", DowncallSupport.isAvailable());
+
+        DowncallSupport.Handles handles = DowncallSupport.createHandles(getContext(Type.SINT32, Type.SINT32, Type.SINT32));
+        assertNotNull(handles.intHandle);
+        assertNotNull(handles.longHandle);
+        assertEquals(-1, DowncallSupport.invokeI2(handles.intHandle, findFunction("add_s32"), 2, -3));
+
+        handles = DowncallSupport.createHandles(getContext(Type.DOUBLE, Type.DOUBLE, Type.DOUBLE));
+        long result = DowncallSupport.invokeL2(handles.longHandle, findFunction("add_double"),
+                Double.doubleToRawLongBits(1.5), Double.doubleToRawLongBits(2.25));
+        assertEquals(3.75, Double.longBitsToDouble(result), 0d);
+    }
+
+    @Test public void invokerSelectsDowncallHandle() throws Throwable {
+        Assume.assumeTrue("run with -Djffi.invoker.panama=true on JDK 22+", DowncallSupport.ENABLED);
+
+        CallContext context = getContext(Type.SINT32, Type.SINT32, Type.SINT32);
+        MethodHandle mh = context.getIntDowncall(false);
+        assertNotNull(mh);
+        assertEquals(7, Invoker.getInstance().invokeI2(context, findFunction("add_s32"), 3, 4));
+
+        context = getContext(Type.SINT64, Type.SINT64, Type.SINT64);
+        assertNotNull(context.getLongDowncall(false));
+        assertEquals(0x100000000L, Invoker.getInstance().invokeL2(context, findFunction("add_s64"), 0xffffffffL, 1L));
+    }
+
+    @Test public void invokerFallsBackToJni() throws Throwable {
+        // Saving errno needs the JNI stubs, whether or not the java.lang.foreign engine is enabled
+        CallContext context = CallContext.getCallContext(Type.SINT32, new Type[] { Type.SINT32 },
+                CallingConvention.DEFAULT, true);
+        assertNull(context.getIntDowncall(false));
+        assertEquals(-5, Invoker.getInstance().invokeI1(context, findFunction("ret_s32"), -5));
+
+        context = CallContext.getCallContext(Type.SINT64, new Type[] { Type.SINT64, Type.SINT64 },
+                CallingConvention.DEFAULT, true);
+        assertNull(context.getLongDowncall(false));
+        assertEquals(0x100000000L, Invoker.getInstance().invokeL2(context, findFunction("add_s64"), 0xffffffffL, 1L));
+    }
+
+    @Test public void unsupportedSignatures() throws Throwable {
+        Struct s64s64 = new Struct(Type.SINT64, Type.SINT64);
+        assertUnsupported(getContext(s64s64, Type.SINT64));
+        assertUnsupported(getContext(Type.SINT64, s64s64));
+        assertUnsupported(getContext(Type.LONGDOUBLE, Type.LONGDOUBLE));
+        assertUnsupported(CallContext.getCallContext(Type.SINT32, new Type[] { Type.SINT32 },
+                CallingConvention.DEFAULT, false, true));
+    }
+}
@@ -82,4 +82,29 @@ public class ForeignTest {
 //    @Test public void newNativeMethod() throws Throwable {
 //        Foreign.getInstance().newNativeMethod("test", "()V", 0);
 //    }
-}
\ No newline at end of file
+
+    @Test public void lastErrorIsPerThread() throws Exception {
+        final Function function = InvokerTest.getFunction("setLastError", Type.SINT, Type.SINT);
+        Invoker.getInstance().invokeI1(function.getCallContext(), function.getFunctionAddress(), 5);
+        assertEquals(5, LastError.getInstance().get());
+        assertEquals(5, Foreign.getLastError());
+
+        final int[] other = new int[2];
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                other[0] = LastError.getInstance().get();
+                Invoker.getInstance().invokeI1(function.getCallContext(), function.getFunctionAddress(), 9);
+                other[1] = LastError.getInstance().get();
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertEquals(0, other[0]);
+        assertEquals(9, other[1]);
+        assertEquals(5, LastError.getInstance().get());
+
+        LastError.getInstance().set(3);
+        assertEquals(3, LastError.getInstance().get());
+    }
+}
@@ -2,6 +2,7 @@ package com.kenai.jffi;
 
 import org.junit.Test;
 
+import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.Charset;
@@ -9,6 +10,7 @@ import java.util.Arrays;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
 
 /**
  */
@@ -262,6 +264,165 @@ public class InvokerTest {
     }
 
 
+    private static Object invokeNumeric(String name, CallContext ctx, long function, Class type, long... args) throws Exception {
+        Class[] params = new Class[args.length + 2];
+        Object[] values = new Object[args.length + 2];
+        params[0] = CallContext.class;
+        params[1] = long.class;
+        values[0] = ctx;
+        values[1] = function;
+        for (int i = 0; i < args.length; i++) {
+            params[i + 2] = type;
+            values[i + 2] = type == int.class ? (Object) (int) args[i] : (Object) args[i];
+        }
+        Method m = Invoker.class.getMethod(name, params);
+        return m.invoke(Invoker.getInstance(), values);
+    }
+
+    private static long[] sumArgs(int count) {
+        long[] args = new long[count];
+        for (int i = 0; i < count; i++) {
+            args[i] = (i % 2 == 0 ? 1 : -1) * (i + 3);
+        }
+        return args;
+    }
+
+    private static long weightedSum(long[] args) {
+        long sum = 0;
+        for (int i = 0; i < args.length; i++) {
+            sum += (i + 1) * args[i];
+        }
+        return sum;
+    }
+
+    @Test public void invokeManyIntParameters() throws Exception {
+        for (int n = 7; n <= 12; n++) {
+            Type[] types = new Type[n];
+            Arrays.fill(types, Type.SINT32);
+            Function fn = getFunction("sum" + n + "_s32", Type.SINT32, types);
+            long[] args = sumArgs(n);
+            long expected = weightedSum(args);
+            assertEquals("invokeI" + n, (int) expected, invokeNumeric("invokeI" + n, fn.getCallContext(), fn.getFunctionAddress(), int.class, args));
+            assertEquals("invokeI" + n + "NoErrno", (int) expected, invokeNumeric("invokeI" + n + "NoErrno", fn.getCallContext(), fn.getFunctionAddress(), int.class, args));
+            assertEquals("invokeN" + n, (int) expected, ((Long) invokeNumeric("invokeN" + n, fn.getCallContext(), fn.getFunctionAddress(), long.class, args)).intValue());
+        }
+    }
+
+    @Test public void invokeManyLongParameters() throws Exception {
+        for (int n = 7; n <= 12; n++) {
+            Type[] types = new Type[n];
+            Arrays.fill(types, Type.SINT64);
+            Function fn = getFunction("sum" + n + "_s64", Type.SINT64, types);
+            long[] args = sumArgs(n);
+            long expected = weightedSum(args);
+            assertEquals("invokeL" + n, expected, invokeNumeric("invokeL" + n, fn.getCallContext(), fn.getFunctionAddress(), long.class, args));
+            assertEquals("invokeL" + n + "NoErrno", expected, invokeNumeric("invokeL" + n + "NoErrno", fn.getCallContext(), fn.getFunctionAddress(), long.class, args));
+            assertEquals("invokeN" + n, expected, invokeNumeric("invokeN" + n, fn.getCallContext(), fn.getFunctionAddress(), long.class, args));
+        }
+    }
+
+    @Test public void invokeManyMixedParameters() throws Exception {
+        Type[] types = new Type[12];
+        long[] args = new long[12];
+        double expected = 0;
+        for (int i = 0; i < types.length; i++) {
+            types[i] = i % 2 == 0 ? Type.SINT32 : Type.DOUBLE;
+            args[i] = i % 2 == 0 ? i - 5 : Double.doubleToRawLongBits(i + 0.5);
+            expected += (i + 1) * (i % 2 == 0 ? i - 5 : i + 0.5);
+        }
+        Function fn = getFunction("sum12_s32f64", Type.DOUBLE, types);
+        long result = (Long) invokeNumeric("invokeN12", fn.getCallContext(), fn.getFunctionAddress(), long.class, args);
+        assertEquals(expected, Double.longBitsToDouble(result), 0d);
+    }
+
+    @Test public void invokeBatchFromArray() {
+        Function fn = getFunction("add_s32", Type.SINT32, Type.SINT32, Type.SINT32);
+        int count = 10000;
+        long[] args = new long[count * 2];
+        long[] results = new long[count];
+        for (int i = 0; i < count; i++) {
+            args[i * 2] = i;
+            args[i * 2 + 1] = -2 * i;
+        }
+
+        Invoker.getInstance().invokeBatch(fn, args, count, results);
+        for (int i = 0; i < count; i++) {
+            assertEquals("call " + i, (long) -i, results[i]);
+        }
+    }
+
+    @Test public void invokeBatchFromNativeMemory() {
+        Function fn = getFunction("sum7_s32", Type.SINT32, Type.SINT32, Type.SINT32, Type.SINT32,
+                Type.SINT32, Type.SINT32, Type.SINT32, Type.SINT32);
+        int count = 100, stride = 64;
+        long args = IO.allocateMemory(count * stride, true);
+        long results = IO.allocateMemory(count * 8, true);
+        try {
+            long[] row = sumArgs(7);
+            for (int i = 0; i < count; i++) {
+                row[0] = i;
+                for (int j = 0; j < row.length; j++) {
+                    IO.putLong(args + i * stride + j * 8, row[j]);
+                }
+            }
+
+            Invoker.getInstance().invokeBatch(fn, args, stride, count, results);
+            for (int i = 0; i < count; i++) {
+                row[0] = i;
+                assertEquals("call " + i, weightedSum(row), IO.getLong(results + i * 8));
+            }
+        } finally {
+            IO.freeMemory(args);
+            IO.freeMemory(results);
+        }
+    }
+
+    @Test public void invokeBatchFloatingPoint() {
+        Function fn = getFunction("add_double", Type.DOUBLE, Type.DOUBLE, Type.DOUBLE);
+        long[] args = { Double.doubleToRawLongBits(1.5), Double.doubleToRawLongBits(2.25),
+                Double.doubleToRawLongBits(-1), Double.doubleToRawLongBits(0.5) };
+        long[] results = new long[2];
+
+        Invoker.getInstance().invokeBatch(fn, args, 2, results);
+        assertEquals(3.75, Double.longBitsToDouble(results[0]), 0d);
+        assertEquals(-0.5, Double.longBitsToDouble(results[1]), 0d);
+
+        fn = getFunction("add_float", Type.FLOAT, Type.FLOAT, Type.FLOAT);
+        args = new long[] { Float.floatToRawIntBits(1.5f), Float.floatToRawIntBits(-4f) };
+        Invoker.getInstance().invokeBatch(fn, args, 1, results);
+        assertEquals(-2.5f, Float.intBitsToFloat((int) results[0]), 0f);
+        assertEquals(0L, results[0] >>> 32);
+    }
+
+    @Test public void invokeBatchManyMixedParameters() {
+        invokeBatchMixed(13);
+        invokeBatchMixed(14);
+    }
+
+    private static void invokeBatchMixed(int paramCount) {
+        Type[] types = new Type[paramCount];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = i % 2 == 0 && i < 12 ? Type.SINT64 : Type.DOUBLE;
+        }
+        Function fn = getFunction("sum" + paramCount + "_s64f64", Type.DOUBLE, types);
+        int count = 3;
+        long[] args = new long[count * paramCount];
+        double[] expected = new double[count];
+        for (int call = 0; call < count; call++) {
+            for (int i = 0; i < paramCount; i++) {
+                long n = call * 100 + i - 5;
+                args[call * paramCount + i] = types[i] == Type.SINT64 ? n : Double.doubleToRawLongBits(n + 0.5);
+                expected[call] += (i + 1) * (types[i] == Type.SINT64 ? n : n + 0.5);
+            }
+        }
+        long[] results = new long[count];
+
+        Invoker.getInstance().invokeBatch(fn, args, count, results);
+        for (int call = 0; call < count; call++) {
+            assertEquals("call " + call, expected[call], Double.longBitsToDouble(results[call]), 0d);
+        }
+    }
+
     @Test public void invokeNativeO() {
         invokeO(new NativeInvoker());
     }
@@ -329,6 +490,241 @@ public class InvokerTest {
         return ret != 0;
     }
 
+    @Test public void pooledHeapInvocationBuffer() {
+        Function add = getFunction("add_s32", Type.SINT32, Type.SINT32, Type.SINT32);
+
+        HeapInvocationBuffer buffer = HeapInvocationBuffer.acquire(add);
+        buffer.putInt(1);
+        buffer.putInt(2);
+        assertEquals(3, Invoker.getInstance().invokeInt(add, buffer));
+        buffer.release();
+
+        HeapInvocationBuffer reused = HeapInvocationBuffer.acquire(add);
+        assertTrue("buffer not reused", reused == buffer);
+        reused.putInt(40);
+        reused.putInt(2);
+        assertEquals(42, Invoker.getInstance().invokeInt(add, reused));
+
+        HeapInvocationBuffer nested = HeapInvocationBuffer.acquire(add);
+        assertTrue("buffer handed out twice", nested != reused);
+        nested.release();
+        reused.release();
+    }
+
+    @Test public void resetHeapInvocationBufferWithArrays() {
+        Function fill = getFunction("fillByteBuffer", Type.VOID, Type.POINTER, Type.SINT8, Type.SINT32);
+        HeapInvocationBuffer buffer = new HeapInvocationBuffer(fill);
+        for (int i = 1; i <= 3; i++) {
+            byte[] array = new byte[4];
+            buffer.putArray(array, 0, array.length, ObjectBuffer.OUT);
+            buffer.putByte(i);
+            buffer.putInt(array.length);
+            Invoker.getInstance().invokeInt(fill, buffer);
+            assertEquals(1, buffer.objectBuffer().objectCount());
+            assertEquals((byte) i, array[3]);
+            buffer.reset();
+        }
+    }
+
+    @Test public void adaptiveArrays() {
+        long copy = UnitHelper.findSymbol("copyIntBuffer").address;
+        CallContext ctx = new CallContext(Type.VOID, Type.POINTER, Type.POINTER, Type.SINT32);
+        int[] lengths = { 16, 4096, 4096 };
+        int[] dstFlags = { ArrayFlags.OUT, ArrayFlags.OUT, ArrayFlags.OUT | ArrayFlags.CLEAR };
+        for (int i = 0; i < lengths.length; i++) {
+            int[] src = new int[lengths[i]], dst = new int[lengths[i]];
+            Arrays.fill(src, i + 1);
+            HeapInvocationBuffer buffer = new HeapInvocationBuffer(ctx);
+            buffer.putArray(dst, 0, dst.length, dstFlags[i] | ArrayFlags.ADAPTIVE);
+            buffer.putArray(src, 0, src.length, ArrayFlags.IN | ArrayFlags.ADAPTIVE);
+            buffer.putInt(src.length);
+            Invoker.getInstance().invokeInt(ctx, copy, buffer);
+            assertTrue(Arrays.equals(src, dst));
+        }
+
+        ArrayStatistics stats = ctx.getArrayStatistics();
+        assertEquals(2, stats.getStackCopyCount());
+        assertEquals(1, stats.getHeapCopyCount());
+        assertEquals(3, stats.getPinnedCount());
+    }
+
+    @Test public void heapArrays() {
+        Function copy = getFunction("copyIntBuffer", Type.VOID, Type.POINTER, Type.POINTER, Type.SINT32);
+        for (int length : new int[] { 2048, 8192, 2048, 100000, 2048 }) {
+            int[] src = new int[length], dst = new int[length];
+            for (int i = 0; i < length; i++) {
+                src[i] = i * 31 + length;
+            }
+            HeapInvocationBuffer buffer = new HeapInvocationBuffer(copy);
+            buffer.putArray(dst, 0, dst.length, ArrayFlags.OUT);
+            buffer.putArray(src, 0, src.length, ArrayFlags.IN);
+            buffer.putInt(length);
+            Invoker.getInstance().invokeInt(copy, buffer);
+            assertTrue(Arrays.equals(src, dst));
+        }
+    }
+
+    @Test public void rawParameterPacking() {
+        boolean enabled = Foreign.getInstance().isRawParameterPackingEnabled();
+        CallContext scalar = CallContext.getCallContext(Type.SINT32, new Type[] { Type.SINT8, Type.DOUBLE, Type.POINTER },
+                CallingConvention.DEFAULT, false);
+        assertEquals(enabled, scalar.rawParameterPacking);
+        assertEquals(enabled ? scalar.getRawParameterSize() : 3 * 8,
+                HeapInvocationBuffer.Encoder.getInstance(scalar).getBufferSize(scalar));
+
+        Struct s64s64 = new Struct(Type.SINT64, Type.SINT64);
+        CallContext struct = CallContext.getCallContext(s64s64, new Type[] { s64s64, Type.SINT64 }, CallingConvention.DEFAULT, false);
+        assertEquals(false, struct.rawParameterPacking);
+    }
+
+    @Test public void directInvocationBuffer() {
+        Function add = getFunction("add_f64f64s32_f64", Type.DOUBLE, Type.DOUBLE, Type.DOUBLE, Type.SINT32);
+        DirectInvocationBuffer buffer = new DirectInvocationBuffer(add);
+        buffer.putDouble(1.5d);
+        buffer.putDouble(2.25d);
+        buffer.putInt(3);
+        assertEquals(6.75d, Invoker.getInstance().invokeDouble(add, buffer), 0d);
+
+        buffer.reset();
+        buffer.putDouble(-1d);
+        buffer.putDouble(0.5d);
+        buffer.putInt(1);
+        assertEquals(0.5d, Invoker.getInstance().invokeDouble(add, buffer), 0d);
+    }
+
+    @Test public void directInvocationBufferWithArrays() {
+        Function fill = getFunction("fillByteBuffer", Type.VOID, Type.POINTER, Type.SINT8, Type.SINT32);
+        DirectInvocationBuffer buffer = new DirectInvocationBuffer(fill);
+        for (int i = 1; i <= 3; i++) {
+            byte[] array = new byte[4];
+            buffer.putArray(array, 0, array.length, ObjectBuffer.OUT);
+            buffer.putByte(i);
+            buffer.putInt(array.length);
+            Invoker.getInstance().invokeInt(fill, buffer);
+            assertEquals((byte) i, array[3]);
+            buffer.reset();
+        }
+    }
+
+    @Test public void directInvocationBufferStruct() {
+        Struct s64s64 = new Struct(Type.SINT64, Type.SINT64);
+        CallContext ctx = CallContext.getCallContext(s64s64, new Type[] { s64s64, Type.SINT64 }, CallingConvention.DEFAULT, false);
+        long function = UnitHelper.findSymbol("struct_s64s64_add").address;
+        byte[] struct = new byte[s64s64.size()];
+        struct[0] = 1;
+        struct[8] = 5;
+
+        DirectInvocationBuffer buffer = DirectInvocationBuffer.forCurrentThread(ctx);
+        buffer.putStruct(struct, 0);
+        buffer.putLong(2L);
+        byte[] result = Invoker.getInstance().invokeStruct(ctx, function, buffer);
+        assertEquals(3, result[0]);
+        assertEquals(7, result[8]);
+    }
+
+    @Test public void threadDirectInvocationBuffer() {
+        Function add = getFunction("add_s32", Type.SINT32, Type.SINT32, Type.SINT32);
+        Function sum = getFunction("sum12_s32", Type.SINT32, Type.SINT32, Type.SINT32, Type.SINT32, Type.SINT32,
+                Type.SINT32, Type.SINT32, Type.SINT32, Type.SINT32, Type.SINT32, Type.SINT32, Type.SINT32, Type.SINT32);
+
+        DirectInvocationBuffer buffer = DirectInvocationBuffer.forCurrentThread(add);
+        buffer.putInt(1);
+        buffer.putInt(2);
+        assertEquals(3, Invoker.getInstance().invokeInt(add, buffer));
+
+        DirectInvocationBuffer reused = DirectInvocationBuffer.forCurrentThread(sum);
+        assertTrue("buffer not reused", reused == buffer);
+        for (int i = 1; i <= 12; i++) {
+            reused.putInt(i);
+        }
+        assertEquals(650, Invoker.getInstance().invokeInt(sum, reused));
+    }
+
+    @Test public void threadDirectInvocationBufferReleasedByCall() {
+        Function add = getFunction("add_s32", Type.SINT32, Type.SINT32, Type.SINT32);
+        DirectInvocationBuffer buffer = DirectInvocationBuffer.forCurrentThread(add);
+        buffer.putInt(1);
+        buffer.putInt(2);
+        assertEquals(3, Invoker.getInstance().invokeInt(add, buffer));
+
+        // The call released the buffer, so it has to be fetched again for the next call
+        try {
+            Invoker.getInstance().invokeInt(add, buffer);
+            fail("released thread buffer was invoked");
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            buffer.reset();
+            fail("released thread buffer was reset");
+        } catch (IllegalStateException expected) {
+        }
+
+        buffer = DirectInvocationBuffer.forCurrentThread(add);
+        buffer.putInt(4);
+        buffer.putInt(5);
+        assertEquals(9, Invoker.getInstance().invokeInt(add, buffer));
+
+        // A buffer that is not the thread's keeps its context, so it can be filled in again
+        DirectInvocationBuffer owned = new DirectInvocationBuffer(add);
+        owned.putInt(1);
+        owned.putInt(1);
+        assertEquals(2, Invoker.getInstance().invokeInt(add, owned));
+        owned.reset();
+        owned.putInt(2);
+        owned.putInt(2);
+        assertEquals(4, Invoker.getInstance().invokeInt(add, owned));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class) public void directInvocationBufferOverflow() {
+        DirectInvocationBuffer buffer = new DirectInvocationBuffer(getFunction("add_s32", Type.SINT32, Type.SINT32, Type.SINT32));
+        buffer.putInt(1);
+        buffer.putInt(2);
+        buffer.putInt(3);
+    }
+
+    @Test public void threadDirectInvocationBufferReleasesArrays() {
+        Function fill = getFunction("fillByteBuffer", Type.VOID, Type.POINTER, Type.SINT8, Type.SINT32);
+        byte[] array = new byte[4];
+        DirectInvocationBuffer buffer = DirectInvocationBuffer.forCurrentThread(fill);
+        buffer.putArray(array, 0, array.length, ObjectBuffer.OUT);
+        buffer.putByte(7);
+        buffer.putInt(array.length);
+        Invoker.getInstance().invokeInt(fill, buffer);
+        assertEquals((byte) 7, array[3]);
+
+        // The thread buffer no longer holds the array once the call returns
+        assertEquals(0, buffer.objectBuffer().objectCount());
+        for (Object o : buffer.objectBuffer().objects()) {
+            assertTrue("array still referenced", o == null);
+        }
+    }
+
+    @Test public void directInvocationBufferMemoryKeptAliveDuringCall() {
+        Function sum = getFunction("sum12_s32", Type.SINT32, Type.SINT32, Type.SINT32, Type.SINT32, Type.SINT32,
+                Type.SINT32, Type.SINT32, Type.SINT32, Type.SINT32, Type.SINT32, Type.SINT32, Type.SINT32, Type.SINT32);
+        Function fill = getFunction("fillByteBuffer", Type.VOID, Type.POINTER, Type.SINT8, Type.SINT32);
+        for (int i = 0; i < 20000; i++) {
+            // Each buffer is unreachable once its parameters are handed to the invoker
+            DirectInvocationBuffer buffer = new DirectInvocationBuffer(sum);
+            for (int j = 1; j <= 12; j++) {
+                buffer.putInt(i + j);
+            }
+            assertEquals(78 * i + 650, Invoker.getInstance().invokeInt(sum, buffer));
+
+            byte[] array = new byte[64];
+            buffer = new DirectInvocationBuffer(fill);
+            buffer.putArray(array, 0, array.length, ObjectBuffer.OUT);
+            buffer.putByte(i);
+            buffer.putInt(array.length);
+            Invoker.getInstance().invokeInt(fill, buffer);
+            assertEquals((byte) i, array[array.length - 1]);
+
+            if (i % 1000 == 0) {
+                System.gc();
+            }
+        }
+    }
+
     @Test public void string_equals_heap() {
         assertTrue("strings not equal", string_equals(new NativeInvoker(), "test", "test"));
     }
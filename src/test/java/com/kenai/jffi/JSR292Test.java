@@ -46,4 +46,40 @@ public class JSR292Test {
             assertNull("invoke dynamic support should not be available on < JDK 7", invoker);
         }
     }
+
+    @Test public void testFloatingPointInvoker() throws Throwable {
+        CallContext context = CallContext.getCallContext(Type.DOUBLE, new Type[] { Type.DOUBLE, Type.DOUBLE },
+                CallingConvention.DEFAULT, true);
+        InvokeDynamicSupport.Invoker invoker = InvokeDynamicSupport.getFastFloatingPointInvoker(context, 0xdeadbeef);
+        assertNotNull(invoker);
+        assertEquals("invokeD2", invoker.getMethod().getName());
+        assertEquals(double.class, invoker.getMethod().getReturnType());
+    }
+
+    @Test public void testFloatingPointNumericInvoker() throws Throwable {
+        CallContext context = CallContext.getCallContext(Type.FLOAT, new Type[] { Type.FLOAT, Type.FLOAT },
+                CallingConvention.DEFAULT, true);
+        InvokeDynamicSupport.Invoker invoker = InvokeDynamicSupport.getFastNumericInvoker(context, 0xdeadbeef);
+        assertNotNull(invoker);
+        assertEquals("invokeN2", invoker.getMethod().getName());
+        assertEquals(long.class, invoker.getMethod().getParameterTypes()[2]);
+    }
+
+    @Test public void testSmallStructInvoker() throws Throwable {
+        Struct s64s64 = new Struct(Type.SINT64, Type.SINT64);
+        CallContext context = CallContext.getCallContext(s64s64, new Type[] { s64s64, Type.SINT64 },
+                CallingConvention.DEFAULT, true);
+        assertNull(InvokeDynamicSupport.getFastNumericInvoker(context, 0xdeadbeef));
+
+        InvokeDynamicSupport.Invoker invoker = InvokeDynamicSupport.getFastStructInvoker(context, 0xdeadbeef);
+        assertNotNull(invoker);
+        assertEquals("invokeS2", invoker.getMethod().getName());
+        assertEquals(5, invoker.getMethod().getParameterTypes().length);
+    }
+
+    @Test public void testNoStructInvokerForNumericContext() throws Throwable {
+        CallContext context = CallContext.getCallContext(Type.SINT64, new Type[] { Type.SINT64 },
+                CallingConvention.DEFAULT, true);
+        assertNull(InvokeDynamicSupport.getFastStructInvoker(context, 0xdeadbeef));
+    }
 }
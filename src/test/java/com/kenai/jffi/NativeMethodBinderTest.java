@@ -0,0 +1,72 @@
+package com.kenai.jffi;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class NativeMethodBinderTest {
+
+    static final class Bound {
+        static native int add(int a, int b);
+        static native long sum6(long a1, long a2, long a3, long a4, long a5, long a6);
+        static native double sum12(int a1, double a2, int a3, double a4, int a5, double a6,
+                                   int a7, double a8, int a9, double a10, int a11, double a12);
+        native int instanceAdd(int a, int b);
+    }
+
+    static final class Unbound {
+        static native long add(int a, int b);
+    }
+
+    private static Function getFunction(String name, Type returnType, Type... parameterTypes) {
+        return new Function(UnitHelper.findSymbol(name).address, returnType, parameterTypes);
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        Assume.assumeTrue(NativeMethodBinder.isSupported());
+
+        Type[] s32f64 = new Type[12];
+        for (int i = 0; i < s32f64.length; i++) {
+            s32f64[i] = i % 2 == 0 ? Type.SINT32 : Type.DOUBLE;
+        }
+
+        new NativeMethodBinder(Bound.class)
+                .bind("add", getFunction("add_s32", Type.SINT32, Type.SINT32, Type.SINT32))
+                .bind("sum6", getFunction("sum6_s64", Type.SINT64, Type.SINT64, Type.SINT64, Type.SINT64,
+                        Type.SINT64, Type.SINT64, Type.SINT64))
+                .bind("sum12", getFunction("sum12_s32f64", Type.DOUBLE, s32f64))
+                .bind("instanceAdd", getFunction("add_s32", Type.SINT32, Type.SINT32, Type.SINT32))
+                .register();
+    }
+
+    @Test public void intParameters() {
+        assertEquals(3, Bound.add(1, 2));
+        assertEquals(-1, Bound.add(Integer.MAX_VALUE, Integer.MIN_VALUE));
+        assertEquals(7, new Bound().instanceAdd(3, 4));
+    }
+
+    @Test public void sixLongParameters() {
+        assertEquals(1 + 2 * 2 + 3 * 3 + 4 * 4 + 5 * 5 + 6 * 0x100000000L,
+                Bound.sum6(1, 2, 3, 4, 5, 0x100000000L));
+    }
+
+    @Test public void mixedParameters() {
+        double expected = 0;
+        for (int i = 0; i < 12; i++) {
+            expected += (i + 1) * (i % 2 == 0 ? i - 5 : i + 0.5);
+        }
+        assertEquals(expected, Bound.sum12(-5, 1.5, -3, 3.5, -1, 5.5, 1, 7.5, 3, 9.5, 5, 11.5), 0d);
+    }
+
+    @Test public void mismatchedReturnType() {
+        try {
+            new NativeMethodBinder(Unbound.class).bind("add", getFunction("add_s32", Type.SINT32, Type.SINT32, Type.SINT32));
+            fail("int function bound to a long method");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
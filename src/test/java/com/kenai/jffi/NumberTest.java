@@ -26,6 +26,11 @@ public class NumberTest {
         float ret_float(float v);
         double ret_double(double v);
         BigDecimal ret_f128(BigDecimal v);
+        float add_float(float v1, float v2);
+        double add_double(double v1, double v2);
+        double add_f64f64s32_f64(double v1, double v2, int v3);
+        float add_s32f32s64_f32(int v1, float v2, long v3);
+        long add_f32s32f64_s64(float v1, int v2, double v3);
     }
 
     private static interface LibM {
@@ -231,6 +236,12 @@ public class NumberTest {
     @Test public void returnPointerArrayF32() {
         returnF32(InvokerType.PointerArray);
     }
+    @Test public void returnFastNumericF32() {
+        returnF32(InvokerType.FastNumeric);
+    }
+    @Test public void returnFastFloatingPointF32() {
+        returnF32(InvokerType.FastFloatingPoint);
+    }
 
     private void returnF32(InvokerType type) {
         LibNumberTest lib = UnitHelper.loadTestLibrary(LibNumberTest.class, type);
@@ -243,6 +254,12 @@ public class NumberTest {
     @Test public void returnDefaultF64() {
         returnF64(InvokerType.Default);
     }
+    @Test public void returnFastNumericF64() {
+        returnF64(InvokerType.FastNumeric);
+    }
+    @Test public void returnFastFloatingPointF64() {
+        returnF64(InvokerType.FastFloatingPoint);
+    }
 
     private void returnF64(InvokerType type) {
         LibNumberTest lib = UnitHelper.loadTestLibrary(LibNumberTest.class, type);
@@ -252,6 +269,26 @@ public class NumberTest {
         }
     }
 
+    @Test public void addFastFloatingPoint() {
+        LibNumberTest lib = UnitHelper.loadTestLibrary(LibNumberTest.class, InvokerType.FastFloatingPoint);
+        assertEquals(3.75f, lib.add_float(1.5f, 2.25f), 0f);
+        assertEquals(3.75d, lib.add_double(1.5d, 2.25d), 0d);
+    }
+
+    @Test public void addMixedDefault() {
+        addMixed(InvokerType.Default);
+    }
+    @Test public void addMixedFastNumeric() {
+        addMixed(InvokerType.FastNumeric);
+    }
+
+    private void addMixed(InvokerType type) {
+        LibNumberTest lib = UnitHelper.loadTestLibrary(LibNumberTest.class, type);
+        assertEquals(6.75d, lib.add_f64f64s32_f64(1.5d, 2.25d, 3), 0d);
+        assertEquals(2.5f, lib.add_s32f32s64_f32(-1, 6.5f, -3L), 0f);
+        assertEquals(7L, lib.add_f32s32f64_s64(1.5f, 2, 3.5d));
+    }
+
     @Test public void returnDefaultF128() {
         returnF128(InvokerType.Default);
     }
@@ -286,4 +323,47 @@ public class NumberTest {
         }
     }
 
+    @Test public void longDoubleMatchesNative() {
+        Assume.assumeTrue(LongDouble.isSupported());
+        int size = Type.LONGDOUBLE.size();
+        String[] values = { "0", "1", "-2.5", "0.1", "1.234567890123456789", "3.14159265358979323846264338327950288",
+                "1e-300", "-7e300", "1e-4940", "1e4000", "123456789012345678901234567890" };
+        for (String value : values) {
+            byte[] expected = new byte[size], actual = new byte[size];
+            Foreign.getInstance().longDoubleFromString(value, expected, 0, size);
+            LongDouble.encode(new BigDecimal(value), actual, 0);
+            BigDecimal decoded = LongDouble.toBigDecimal(actual, 0);
+            assertEquals(value, LongDouble.toBigDecimal(expected, 0), decoded);
+            assertEquals(value, new BigDecimal(Foreign.getInstance().longDoubleToString(expected, 0, size)), decoded);
+        }
+
+        for (double value : new double[] { 0.75d, -Math.E, Double.MIN_VALUE, Double.MAX_VALUE }) {
+            byte[] expected = new byte[size], actual = new byte[size];
+            Foreign.getInstance().longDoubleFromDouble(value, expected, 0, size);
+            LongDouble.encode(value, actual, 0);
+            assertEquals(LongDouble.toBigDecimal(expected, 0), LongDouble.toBigDecimal(actual, 0));
+        }
+    }
+
+    @Test public void longDoubleMantissaExponent() {
+        Function function = InvokerTest.getFunction("add_f128", Type.LONGDOUBLE, Type.LONGDOUBLE, Type.LONGDOUBLE);
+        HeapInvocationBuffer buffer = new HeapInvocationBuffer(function);
+        buffer.putLongDouble(3L, -1);
+        buffer.putLongDouble(1.25d);
+        assertEquals(new BigDecimal("2.75"), Invoker.getInstance().invokeBigDecimal(function, buffer));
+
+        buffer.reset();
+        buffer.putLongDouble(-5L, 10);
+        buffer.putLongDouble(new BigDecimal("0.5"));
+        assertEquals(new BigDecimal("-5119.5"), Invoker.getInstance().invokeBigDecimal(function, buffer));
+    }
+
+    @Test public void longDoubleDirectBuffer() {
+        Function function = InvokerTest.getFunction("mul_f128", Type.LONGDOUBLE, Type.LONGDOUBLE, Type.LONGDOUBLE);
+        DirectInvocationBuffer buffer = new DirectInvocationBuffer(function);
+        buffer.putLongDouble(new BigDecimal("1.5"));
+        buffer.putLongDouble(-3L, 2);
+        byte[] ret = Invoker.getInstance().invokeStruct(function, buffer);
+        assertEquals(new BigDecimal(Foreign.getInstance().longDoubleToString(ret, 0, ret.length)), new BigDecimal("-18"));
+    }
 }
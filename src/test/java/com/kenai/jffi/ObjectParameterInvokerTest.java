@@ -0,0 +1,114 @@
+package com.kenai.jffi;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static junit.framework.Assert.assertEquals;
+
+public class ObjectParameterInvokerTest {
+    private static final ObjectParameterInvoker[] INVOKERS = {
+            ObjectParameterInvoker.newNativeInvoker(), ObjectParameterInvoker.newHeapInvoker()
+    };
+
+    private static ObjectParameterInfo longArray(int index) {
+        return ObjectParameterInfo.create(index, ObjectParameterInfo.ARRAY,
+                InvokerTest.NATIVE_LONG, ObjectParameterInfo.IN | ObjectParameterInfo.OUT);
+    }
+
+    private static ObjectParameterInfo inArray(int index, ObjectParameterInfo.ComponentType type) {
+        return ObjectParameterInfo.create(index, ObjectParameterInfo.ARRAY, type, ObjectParameterInfo.IN);
+    }
+
+    private static Object nativeLongs(long value) {
+        return Platform.getPlatform().longSize() == 32 ? new int[] { (int) value } : new long[] { value };
+    }
+
+    private static long nativeLong(Object array) {
+        return array instanceof int[] ? ((int[]) array)[0] : ((long[]) array)[0];
+    }
+
+    @Test public void invokeN4O4() {
+        Function function = InvokerTest.getFunction("invokeOOOO", Type.SLONG, Type.POINTER, Type.POINTER, Type.POINTER, Type.POINTER);
+        for (ObjectParameterInvoker invoker : INVOKERS) {
+            Object a1 = nativeLongs(1), a2 = nativeLongs(2), a3 = nativeLongs(3), a4 = nativeLongs(4);
+            long ret = invoker.invokeN4O4rN(function, 0L, 0L, 0L, 0L,
+                    a1, 0, 1, longArray(0), a2, 0, 1, longArray(1), a3, 0, 1, longArray(2), a4, 0, 1, longArray(3));
+            assertEquals(10L, ret);
+            assertEquals(10L, nativeLong(a1));
+            assertEquals(10L, nativeLong(a4));
+        }
+    }
+
+    @Test public void invokeN6O4() {
+        Function function = InvokerTest.getFunction("invokeNNOOOO", Type.SLONG, Type.SLONG, Type.SLONG,
+                Type.POINTER, Type.POINTER, Type.POINTER, Type.POINTER);
+        for (ObjectParameterInvoker invoker : INVOKERS) {
+            Object a1 = nativeLongs(1), a2 = nativeLongs(2), a3 = nativeLongs(3), a4 = nativeLongs(4);
+            long ret = invoker.invokeN6O4rN(function, 5L, 6L, 0L, 0L, 0L, 0L,
+                    a1, 0, 1, longArray(2), a2, 0, 1, longArray(3), a3, 0, 1, longArray(4), a4, 0, 1, longArray(5));
+            assertEquals(10L, ret);
+            assertEquals(11L, nativeLong(a1));
+            assertEquals(11L, nativeLong(a4));
+        }
+    }
+
+    @Test public void invokeN6O6() {
+        Function function = InvokerTest.getFunction("invokeOOOOOO", Type.SLONG,
+                Type.POINTER, Type.POINTER, Type.POINTER, Type.POINTER, Type.POINTER, Type.POINTER);
+        for (ObjectParameterInvoker invoker : INVOKERS) {
+            long ret = invoker.invokeN6O6rN(function, 0L, 0L, 0L, 0L, 0L, 0L,
+                    nativeLongs(1), 0, 1, longArray(0), nativeLongs(1), 0, 1, longArray(1),
+                    nativeLongs(1), 0, 1, longArray(2), nativeLongs(1), 0, 1, longArray(3),
+                    nativeLongs(1), 0, 1, longArray(4), nativeLongs(1), 0, 1, longArray(5));
+            assertEquals(21L, ret);
+        }
+    }
+
+    @Test public void returnDouble() {
+        Function function = InvokerTest.getFunction("dot_f64", Type.DOUBLE, Type.POINTER, Type.POINTER, Type.SINT);
+        double[] a = { 1, 2, 3 }, b = { 4, 5, 6 };
+        for (ObjectParameterInvoker invoker : INVOKERS) {
+            double ret = invoker.invokeN3O2rD(function, 0L, 0L, a.length,
+                    a, 0, a.length, inArray(0, ObjectParameterInfo.DOUBLE),
+                    b, 0, b.length, inArray(1, ObjectParameterInfo.DOUBLE));
+            assertEquals(32d, ret, 0d);
+        }
+    }
+
+    @Test public void adaptiveArrays() {
+        Function function = InvokerTest.getFunction("dot_f64", Type.DOUBLE, Type.POINTER, Type.POINTER, Type.SINT);
+        double[] a = new double[2048], b = new double[2048];
+        Arrays.fill(a, 2d);
+        Arrays.fill(b, 0.5d);
+        ObjectParameterInfo.ComponentType type = ObjectParameterInfo.DOUBLE;
+        ArrayStatistics before = function.getCallContext().getArrayStatistics();
+        for (ObjectParameterInvoker invoker : INVOKERS) {
+            double ret = invoker.invokeN3O2rD(function, 0L, 0L, a.length,
+                    a, 0, a.length, ObjectParameterInfo.create(0, ObjectParameterInfo.ARRAY, type, ObjectParameterInfo.IN | ObjectParameterInfo.ADAPTIVE),
+                    b, 0, b.length, ObjectParameterInfo.create(1, ObjectParameterInfo.ARRAY, type, ObjectParameterInfo.IN | ObjectParameterInfo.ADAPTIVE));
+            assertEquals(2048d, ret, 0d);
+        }
+
+        ArrayStatistics after = function.getCallContext().getArrayStatistics();
+        assertEquals(4, (after.getHeapCopyCount() + after.getPinnedCount()) - (before.getHeapCopyCount() + before.getPinnedCount()));
+    }
+
+    @Test public void returnFloat() {
+        Function function = InvokerTest.getFunction("sum_f32", Type.FLOAT, Type.POINTER, Type.SINT);
+        float[] a = { 1.5f, 2.5f, 3f };
+        for (ObjectParameterInvoker invoker : INVOKERS) {
+            float ret = invoker.invokeN2O1rF(function, 0L, a.length, a, 0, a.length, inArray(0, ObjectParameterInfo.FLOAT));
+            assertEquals(7f, ret, 0f);
+        }
+    }
+
+    @Test public void returnInt() {
+        Function function = InvokerTest.getFunction("sum_s32", Type.SINT, Type.POINTER, Type.SINT);
+        int[] a = { -1, -2, -3 };
+        for (ObjectParameterInvoker invoker : INVOKERS) {
+            int ret = invoker.invokeN2O1rI(function, 0L, a.length, a, 0, a.length, inArray(0, ObjectParameterInfo.INT));
+            assertEquals(-6, ret);
+        }
+    }
+}
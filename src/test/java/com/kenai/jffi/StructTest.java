@@ -4,6 +4,7 @@ package com.kenai.jffi;
 import com.kenai.jffi.UnitHelper.Address;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -263,5 +264,143 @@ public class StructTest {
         assertEquals("Wrong s8 value", (byte) 0x12, buf.get(0));
         assertEquals("Wrong s32 value", 0x87654321, buf.getInt(4));
     }
-}
 
+    @Test public void s8s32ReturnToAddress() throws Throwable {
+        Struct s8s32 = new Struct(Type.SINT8, Type.SINT32);
+        Address sym = UnitHelper.findSymbol("struct_return_s8s32");
+        CallContext ctx = CallContext.getCallContext(s8s32, new Type[0], CallingConvention.DEFAULT, false);
+
+        long struct = MemoryIO.getInstance().allocateMemory(s8s32.size(), true);
+        try {
+            assertEquals(struct, Invoker.getInstance().invokeS0(ctx, sym.address, struct));
+            assertEquals("Wrong s8 value", (byte) 0x7f, MemoryIO.getInstance().getByte(struct));
+            assertEquals("Wrong s32 value", 0x12345678, MemoryIO.getInstance().getInt(struct + 4));
+        } finally {
+            MemoryIO.getInstance().freeMemory(struct);
+        }
+    }
+
+    @Test public void structS8S32ParameterFromAddress() throws Throwable {
+        Struct s8s32 = new Struct(Type.SINT8, Type.SINT32);
+        Address sym = UnitHelper.findSymbol("struct_s8s32_s32_ret_s32");
+        CallContext ctx = CallContext.getCallContext(Type.SINT32, new Type[] { s8s32, Type.SINT32 }, CallingConvention.DEFAULT, false);
+
+        long struct = MemoryIO.getInstance().allocateMemory(s8s32.size(), true);
+        try {
+            MemoryIO.getInstance().putByte(struct, (byte) 0x12);
+            MemoryIO.getInstance().putInt(struct + 4, 0x87654321);
+            assertEquals("Wrong s32 param value", (int) 0xdeadbeef,
+                    (int) Invoker.getInstance().invokeS2(ctx, sym.address, 0L, struct, 0xdeadbeef));
+
+            ctx = CallContext.getCallContext(Type.SINT32, new Type[] { s8s32 }, CallingConvention.DEFAULT, false);
+            sym = UnitHelper.findSymbol("struct_s8s32_get_s32");
+            assertEquals("Wrong s32 value", 0x87654321, (int) Invoker.getInstance().invokeS1(ctx, sym.address, 0L, struct));
+        } finally {
+            MemoryIO.getInstance().freeMemory(struct);
+        }
+    }
+
+    @Test public void s64s64ParameterAndReturn() throws Throwable {
+        Struct s64s64 = new Struct(Type.SINT64, Type.SINT64);
+        Address sym = UnitHelper.findSymbol("struct_s64s64_add");
+        CallContext ctx = CallContext.getCallContext(s64s64, new Type[] { s64s64, Type.SINT64 }, CallingConvention.DEFAULT, false);
+
+        long struct = MemoryIO.getInstance().allocateMemory(s64s64.size() * 2, true);
+        try {
+            MemoryIO.getInstance().putLong(struct, 1L);
+            MemoryIO.getInstance().putLong(struct + 8, 0x100000000L);
+            long result = struct + s64s64.size();
+            assertEquals(result, Invoker.getInstance().invokeS2(ctx, sym.address, result, struct, 2L));
+            assertEquals(3L, MemoryIO.getInstance().getLong(result));
+            assertEquals(0x100000002L, MemoryIO.getInstance().getLong(result + 8));
+        } finally {
+            MemoryIO.getInstance().freeMemory(struct);
+        }
+    }
+
+    @Test public void f64f64ParameterAndReturn() throws Throwable {
+        Struct f64f64 = new Struct(Type.DOUBLE, Type.DOUBLE);
+        Address sym = UnitHelper.findSymbol("struct_f64f64_swap");
+        CallContext ctx = CallContext.getCallContext(f64f64, new Type[] { f64f64 }, CallingConvention.DEFAULT, false);
+
+        long struct = MemoryIO.getInstance().allocateMemory(f64f64.size() * 2, true);
+        try {
+            MemoryIO.getInstance().putDouble(struct, 1.5d);
+            MemoryIO.getInstance().putDouble(struct + 8, -2.25d);
+            long result = struct + f64f64.size();
+            Invoker.getInstance().invokeS1(ctx, sym.address, result, struct);
+            assertEquals(-2.25d, MemoryIO.getInstance().getDouble(result), 0d);
+            assertEquals(1.5d, MemoryIO.getInstance().getDouble(result + 8), 0d);
+        } finally {
+            MemoryIO.getInstance().freeMemory(struct);
+        }
+    }
+
+    @Test public void s8s32ReturnToNativeMemory() throws Throwable {
+        Struct s8s32 = new Struct(Type.SINT8, Type.SINT32);
+        Function f = new Function(UnitHelper.findSymbol("struct_return_s8s32").address, s8s32);
+
+        long struct = MemoryIO.getInstance().allocateMemory(s8s32.size(), true);
+        try {
+            Invoker.getInstance().invokeStruct(f, new HeapInvocationBuffer(f), struct);
+            assertEquals("Wrong s8 value", (byte) 0x7f, MemoryIO.getInstance().getByte(struct));
+            assertEquals("Wrong s32 value", 0x12345678, MemoryIO.getInstance().getInt(struct + 4));
+        } finally {
+            MemoryIO.getInstance().freeMemory(struct);
+        }
+    }
+
+    @Test public void s64x4ReturnToDirectByteBuffer() throws Throwable {
+        Struct s64x4 = new Struct(Type.SINT64, Type.SINT64, Type.SINT64, Type.SINT64);
+        Function f = new Function(UnitHelper.findSymbol("struct_s64x4_make").address, s64x4,
+                Type.SINT64, Type.SINT64, Type.SINT64, Type.SINT64);
+
+        ByteBuffer buf = ByteBuffer.allocateDirect(8 + s64x4.size()).order(ByteOrder.nativeOrder());
+        buf.position(8);
+        HeapInvocationBuffer paramBuffer = new HeapInvocationBuffer(f);
+        for (long i = 1; i <= 4; i++) {
+            paramBuffer.putLong(i * 0x100000001L);
+        }
+        Invoker.getInstance().invokeStruct(f.getCallContext(), f.getFunctionAddress(), paramBuffer, buf);
+        assertEquals("Position changed", 8, buf.position());
+        for (int i = 0; i < 4; i++) {
+            assertEquals("Wrong field " + i, (i + 1) * 0x100000001L, buf.getLong(8 + i * 8));
+        }
+
+        DirectInvocationBuffer directBuffer = new DirectInvocationBuffer(f);
+        for (long i = 1; i <= 4; i++) {
+            directBuffer.putLong(-i);
+        }
+        Invoker.getInstance().invokeStruct(f.getCallContext(), f.getFunctionAddress(), directBuffer, buf);
+        for (int i = 0; i < 4; i++) {
+            assertEquals("Wrong field " + i, -(i + 1L), buf.getLong(8 + i * 8));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void structReturnBufferTooSmall() throws Throwable {
+        Struct s8s32 = new Struct(Type.SINT8, Type.SINT32);
+        Function f = new Function(UnitHelper.findSymbol("struct_return_s8s32").address, s8s32);
+        Invoker.getInstance().invokeStruct(f.getCallContext(), f.getFunctionAddress(), new HeapInvocationBuffer(f),
+                ByteBuffer.allocateDirect(4));
+    }
+
+    @Test public void structReturnBufferReadOnly() throws Throwable {
+        Struct s8s32 = new Struct(Type.SINT8, Type.SINT32);
+        Function f = new Function(UnitHelper.findSymbol("struct_return_s8s32").address, s8s32);
+        ByteBuffer[] buffers = { ByteBuffer.allocateDirect(8).asReadOnlyBuffer(), ByteBuffer.allocate(8).asReadOnlyBuffer() };
+        for (ByteBuffer buf : buffers) {
+            try {
+                Invoker.getInstance().invokeStruct(f.getCallContext(), f.getFunctionAddress(), new HeapInvocationBuffer(f), buf);
+                fail("read-only " + (buf.isDirect() ? "direct" : "heap") + " buffer accepted");
+            } catch (ReadOnlyBufferException expected) {
+            }
+            try {
+                Invoker.getInstance().invokeStruct(f.getCallContext(), f.getFunctionAddress(), new DirectInvocationBuffer(f), buf);
+                fail("read-only " + (buf.isDirect() ? "direct" : "heap") + " buffer accepted");
+            } catch (ReadOnlyBufferException expected) {
+            }
+            assertEquals("read-only buffer written", 0, buf.getLong(0));
+        }
+    }
+}
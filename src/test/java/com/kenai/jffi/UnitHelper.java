@@ -16,6 +16,7 @@ public class UnitHelper {
         FastInt,
         FastLong,
         FastNumeric,
+        FastFloatingPoint,
         PointerArray
     }
     public static final class Address extends java.lang.Number {
@@ -163,6 +164,8 @@ public class UnitHelper {
                 return new FastLongMethodInvoker(library, function, returnType, parameterTypes);
             case FastNumeric:
                 return new FastNumericMethodInvoker(library, function, returnType, parameterTypes);
+            case FastFloatingPoint:
+                return new FastFloatingPointMethodInvoker(function, returnType);
             case PointerArray:
                 return new PointerArrayMethodInvoker(library, function, returnType, parameterTypes);
             case Default:
@@ -386,7 +389,7 @@ public class UnitHelper {
                     result = Invoker.getInstance().invokeN2(function.getCallContext(), function.getFunctionAddress(), l(args[0]), l(args[1]));
                     break;
                 case 3:
-                    result = Invoker.getInstance().invokeN3(function.getCallContext(), function.getFunctionAddress(), l(args[0]), l(args[1]), l(args[1]));
+                    result = Invoker.getInstance().invokeN3(function.getCallContext(), function.getFunctionAddress(), l(args[0]), l(args[1]), l(args[2]));
                     break;
                 default:
                     throw new IndexOutOfBoundsException("fast-numeric invoker limited to 3 parameters");
@@ -405,6 +408,55 @@ public class UnitHelper {
         }
     }
 
+    private static final class FastFloatingPointMethodInvoker implements MethodInvoker {
+        private final Function function;
+        private final Class returnType;
+
+        public FastFloatingPointMethodInvoker(Function function, Class returnType) {
+            this.function = function;
+            this.returnType = returnType;
+        }
+
+        public Object invoke(Object[] args) {
+            Invoker invoker = Invoker.getInstance();
+            CallContext ctx = function.getCallContext();
+            long fn = function.getFunctionAddress();
+
+            if (returnType == float.class || returnType == Float.class) {
+                switch (args.length) {
+                    case 0:
+                        return invoker.invokeF0(ctx, fn);
+                    case 1:
+                        return invoker.invokeF1(ctx, fn, f(args[0]));
+                    case 2:
+                        return invoker.invokeF2(ctx, fn, f(args[0]), f(args[1]));
+                    case 3:
+                        return invoker.invokeF3(ctx, fn, f(args[0]), f(args[1]), f(args[2]));
+                }
+            } else {
+                switch (args.length) {
+                    case 0:
+                        return invoker.invokeD0(ctx, fn);
+                    case 1:
+                        return invoker.invokeD1(ctx, fn, d(args[0]));
+                    case 2:
+                        return invoker.invokeD2(ctx, fn, d(args[0]), d(args[1]));
+                    case 3:
+                        return invoker.invokeD3(ctx, fn, d(args[0]), d(args[1]), d(args[2]));
+                }
+            }
+            throw new IndexOutOfBoundsException("fast floating point invoker limited to 3 parameters");
+        }
+
+        private static float f(Object arg) {
+            return ((Number) arg).floatValue();
+        }
+
+        private static double d(Object arg) {
+            return ((Number) arg).doubleValue();
+        }
+    }
+
     private static final class PointerArrayMethodInvoker implements MethodInvoker {
         private static final MemoryIO Memory = MemoryIO.getInstance();
         private final Library library;
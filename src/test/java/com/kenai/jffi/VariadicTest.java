@@ -0,0 +1,84 @@
+package com.kenai.jffi;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests variadic calls made through {@link Function#variadic(Type...)}.
+ */
+public class VariadicTest {
+
+    private static Function packVarargs() {
+        UnitHelper.Address address = UnitHelper.findSymbol("pack_varargs");
+        return new Function(address.address, Type.VOID, 2, new Type[] { Type.POINTER, Type.POINTER },
+                CallingConvention.DEFAULT, false);
+    }
+
+    private static long[] invoke(Function function, String format, Type[] types, long... values) {
+        long[] result = new long[types.length];
+        byte[] fmt = (format + '\0').getBytes();
+        HeapInvocationBuffer buffer = HeapInvocationBuffer.acquire(function);
+        try {
+            buffer.putArray(result, 0, result.length, ObjectBuffer.OUT);
+            buffer.putArray(fmt, 0, fmt.length, ObjectBuffer.IN | ObjectBuffer.PINNED);
+            for (int i = 0; i < types.length; i++) {
+                if (types[i] == Type.DOUBLE) {
+                    buffer.putDouble(Double.longBitsToDouble(values[i]));
+                } else if (types[i] == Type.SINT) {
+                    buffer.putInt((int) values[i]);
+                } else {
+                    buffer.putLong(values[i]);
+                }
+            }
+            Invoker.getInstance().invokeInt(function, buffer);
+        } finally {
+            buffer.release();
+        }
+
+        return result;
+    }
+
+    @Test public void variadicArguments() {
+        Function function = packVarargs();
+        Type[] types = { Type.SINT, Type.DOUBLE, Type.SINT64 };
+        Function variadic = function.variadic(types);
+        assertEquals(5, variadic.getParameterCount());
+
+        long[] result = invoke(variadic, "idj", types, -3, Double.doubleToRawLongBits(1.5d), 1L << 40);
+        assertEquals(-3L, result[0]);
+        assertEquals(1.5d, Double.longBitsToDouble(result[1]), 0d);
+        assertEquals(1L << 40, result[2]);
+    }
+
+    @Test public void cachedShapes() {
+        Function function = packVarargs();
+        Function ints = function.variadic(Type.SINT, Type.SINT);
+        Function doubles = function.variadic(Type.DOUBLE);
+        assertSame(ints, function.variadic(Type.SINT, Type.SINT));
+        assertSame(doubles, function.variadic(Type.DOUBLE));
+        assertNotSame(ints.getCallContext(), doubles.getCallContext());
+
+        // Shapes pushed out of the per function cache still share the global call context
+        for (int i = 0; i < 8; i++) {
+            function.variadic(Type.SINT, Type.SINT, Type.SINT);
+            function.variadic(Type.SINT64);
+            function.variadic(Type.UINT);
+            function.variadic(Type.DOUBLE, Type.DOUBLE);
+        }
+        assertSame(ints.getCallContext(), function.variadic(Type.SINT, Type.SINT).getCallContext());
+
+        long[] result = invoke(doubles, "d", new Type[] { Type.DOUBLE }, Double.doubleToRawLongBits(-0.25d));
+        assertEquals(-0.25d, Double.longBitsToDouble(result[0]), 0d);
+    }
+
+    @Test public void fixedParamCountIsPartOfCacheKey() {
+        Type[] types = { Type.POINTER, Type.POINTER, Type.SINT };
+        CallContext fixed = CallContext.getCallContext(Type.VOID, types, CallingConvention.DEFAULT, false);
+        CallContext variadic = CallContext.getCallContext(Type.VOID, 2, types, CallingConvention.DEFAULT, false);
+        assertNotSame(fixed, variadic);
+        assertFalse(fixed.equals(variadic));
+        assertEquals(2, variadic.fixedParamCount);
+        assertSame(variadic, CallContext.getCallContext(Type.VOID, 2, types, CallingConvention.DEFAULT, false));
+    }
+}